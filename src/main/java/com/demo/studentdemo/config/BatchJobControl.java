@@ -0,0 +1,165 @@
+package com.demo.studentdemo.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * BatchJobControl - 运行中批任务的控制句柄
+ *
+ * 由 BatchJobRegistry 为每个作业创建并交给 StreamBatchProcessor / BatchTaskProcessor：
+ *   - pause/resume：暂停/恢复从数据供给器拉取数据，已入队的数据继续处理
+ *   - cancel：停止拉取、中断工作线程并丢弃队列中未处理的数据
+ *   - resize：运行期调整工作线程数（BatchTaskProcessor 中即并发许可数）
+ *
+ * 同时记录作业自身的进度计数，不受处理器单例上共享计数器的影响。
+ */
+public class BatchJobControl {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition resumed = lock.newCondition();
+    private volatile boolean paused;
+    private volatile boolean cancelled;
+
+    private final AtomicInteger workerThreads = new AtomicInteger();
+    private volatile IntConsumer resizeHandler;
+    private volatile Runnable cancelHandler;
+
+    // progress counters
+    private final AtomicLong produced = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long startNanos;
+    private volatile long finishNanos;
+
+    // recent throughput sampling (guarded by this)
+    private long sampleNanos;
+    private long sampleConsumed;
+    private double recentThroughput;
+
+    // ---------- control ----------
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        lock.lock();
+        try {
+            paused = false;
+            resumed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        resume();
+        Runnable h = cancelHandler;
+        if (h != null) h.run();
+    }
+
+    /**
+     * 调整工作线程数（最小为 1）
+     */
+    public void resize(int newWorkerThreads) {
+        int n = Math.max(1, newWorkerThreads);
+        workerThreads.set(n);
+        IntConsumer h = resizeHandler;
+        if (h != null) h.accept(n);
+    }
+
+    /**
+     * 暂停状态下阻塞，直到恢复或取消
+     *
+     * @return false 表示作业已取消，调用方应停止拉取数据
+     */
+    public boolean awaitResume() throws InterruptedException {
+        if (!paused) return !cancelled;
+        lock.lockInterruptibly();
+        try {
+            while (paused && !cancelled) {
+                resumed.await(500, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return !cancelled;
+    }
+
+    // ---------- hooks used by processors ----------
+    /**
+     * 处理器开始运行时调用：登记初始线程数及扩缩容/取消的回调
+     */
+    void attach(int initialWorkers, IntConsumer onResize, Runnable onCancel) {
+        workerThreads.compareAndSet(0, Math.max(1, initialWorkers));
+        this.resizeHandler = onResize;
+        this.cancelHandler = onCancel;
+        this.startNanos = System.nanoTime();
+        this.finishNanos = 0L;
+        synchronized (this) {
+            this.sampleNanos = startNanos;
+            this.sampleConsumed = 0L;
+        }
+        if (cancelled && onCancel != null) onCancel.run();
+    }
+
+    void detach() {
+        this.resizeHandler = null;
+        this.cancelHandler = null;
+        this.finishNanos = System.nanoTime();
+    }
+
+    void onProduced() { produced.incrementAndGet(); }
+    void onConsumed() { consumed.incrementAndGet(); }
+    void onFailed() { failed.incrementAndGet(); }
+
+    /**
+     * 已计为成功的条目在后续写出阶段失败（如结果攒批刷写失败）：从成功数移到失败数
+     */
+    public void reclassifyAsFailed(long count) {
+        if (count <= 0) return;
+        consumed.addAndGet(-count);
+        failed.addAndGet(count);
+    }
+
+    // ---------- accessors ----------
+    public boolean isPaused() { return paused; }
+    public boolean isCancelled() { return cancelled; }
+    public int getWorkerThreads() { return workerThreads.get(); }
+    public long getProduced() { return produced.get(); }
+    public long getConsumed() { return consumed.get(); }
+    public long getFailed() { return failed.get(); }
+
+    public long getElapsedMillis() {
+        long start = startNanos;
+        long end = finishNanos != 0L ? finishNanos : System.nanoTime();
+        return start == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(end - start);
+    }
+
+    /**
+     * 作业开始以来的平均吞吐（条/秒）
+     */
+    public double getAverageThroughput() {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0L ? 0D : (consumed.get() + failed.get()) * 1000D / elapsed;
+    }
+
+    /**
+     * 最近一个采样窗口（至少 1 秒）内的吞吐（条/秒）
+     */
+    public synchronized double getRecentThroughput() {
+        if (startNanos == 0L || finishNanos != 0L) return 0D;
+        long now = System.nanoTime();
+        long done = consumed.get() + failed.get();
+        if (now - sampleNanos >= TimeUnit.SECONDS.toNanos(1)) {
+            recentThroughput = (done - sampleConsumed) * 1_000_000_000D / (now - sampleNanos);
+            sampleNanos = now;
+            sampleConsumed = done;
+        }
+        return recentThroughput;
+    }
+}
@@ -0,0 +1,208 @@
+package com.demo.studentdemo.config;
+
+import com.demo.studentdemo.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 批任务作业注册表.
+ * 作业以异步方式提交并立即返回作业 ID，作业体在编排线程池（舱壁 batch-job）上运行，
+ * 通过 BatchJobControl 支持查询进度、暂停/恢复、取消及运行期调整线程数.
+ * 编排线程占满时作业排队（QUEUED），排队也满时拒绝提交（503），不再为每个作业新建线程.
+ * 已结束的作业最多保留 MAX_FINISHED_JOBS 个，超出后按提交顺序淘汰.
+ */
+@Component
+public class BatchJobRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchJobRegistry.class);
+    private static final int MAX_FINISHED_JOBS = 100;
+
+    /**
+     * PARTIAL：作业体正常结束，但有条目处理或写出失败（control.getFailed() &gt; 0）
+     */
+    public enum JobState { QUEUED, RUNNING, PAUSED, CANCELLING, CANCELLED, COMPLETED, PARTIAL, FAILED }
+
+    /**
+     * 作业体：在编排线程上执行，应把 control 传给处理器
+     */
+    @FunctionalInterface
+    public interface JobBody {
+        void run(BatchJobControl control) throws Exception;
+    }
+
+    /**
+     * 一个已提交的作业
+     */
+    public static final class BatchJob {
+        private final String id;
+        private final String name;
+        private final BatchJobControl control = new BatchJobControl();
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile boolean started;
+        private volatile LocalDateTime finishedAt;
+        private volatile JobState terminalState;
+        private volatile String error;
+
+        private BatchJob(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public JobState getState() {
+            JobState terminal = terminalState;
+            if (terminal != null) return terminal;
+            if (control.isCancelled()) return JobState.CANCELLING;
+            if (!started) return JobState.QUEUED;
+            return control.isPaused() ? JobState.PAUSED : JobState.RUNNING;
+        }
+
+        public boolean isFinished() { return terminalState != null; }
+        public String getId() { return id; }
+        public String getName() { return name; }
+        public BatchJobControl getControl() { return control; }
+        public LocalDateTime getSubmittedAt() { return submittedAt; }
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+        public String getError() { return error; }
+        /** 作业结束（无论成功、失败或取消）时完成 */
+        public CompletableFuture<Void> getCompletion() { return completion; }
+    }
+
+    private final AtomicLong jobSeq = new AtomicLong();
+    private final Map<String, BatchJob> jobs = new LinkedHashMap<>(); // guarded by this
+    private final TaskExecutor jobExecutor;
+
+    public BatchJobRegistry(@Qualifier("batchJobExecutor") TaskExecutor jobExecutor) {
+        this.jobExecutor = jobExecutor;
+    }
+
+    /**
+     * 异步提交作业
+     *
+     * @param name 作业名称（便于识别，可重复）
+     * @param body 作业体
+     * @return 作业
+     * @throws BusinessException 503 编排线程与排队均已占满
+     */
+    public BatchJob submit(String name, JobBody body) {
+        BatchJob job = new BatchJob("job-" + jobSeq.incrementAndGet(), name);
+        synchronized (this) {
+            evictFinished();
+            jobs.put(job.id, job);
+        }
+        try {
+            jobExecutor.execute(() -> run(job, body));
+        } catch (TaskRejectedException e) {
+            synchronized (this) {
+                jobs.remove(job.id);
+            }
+            log.warn("作业提交被拒绝，排队已满: {}", name);
+            throw new BusinessException(503, "批任务作业已满，请稍后再提交");
+        }
+        log.info("作业已提交: {} ({})", job.id, name);
+        return job;
+    }
+
+    public synchronized List<BatchJob> list() {
+        List<BatchJob> all = new ArrayList<>(jobs.values());
+        java.util.Collections.reverse(all);
+        return all;
+    }
+
+    public synchronized BatchJob get(String id) {
+        BatchJob job = jobs.get(id);
+        if (job == null) {
+            throw new BusinessException(404, "作业不存在: " + id);
+        }
+        return job;
+    }
+
+    public BatchJob pause(String id) {
+        BatchJob job = running(id);
+        job.control.pause();
+        log.info("作业已暂停: {}", id);
+        return job;
+    }
+
+    public BatchJob resume(String id) {
+        BatchJob job = running(id);
+        job.control.resume();
+        log.info("作业已恢复: {}", id);
+        return job;
+    }
+
+    public BatchJob cancel(String id) {
+        BatchJob job = running(id);
+        job.control.cancel();
+        log.info("作业取消中: {}", id);
+        return job;
+    }
+
+    public BatchJob resize(String id, int workerThreads) {
+        if (workerThreads < 1) {
+            throw new BusinessException(400, "线程数必须大于0");
+        }
+        BatchJob job = running(id);
+        job.control.resize(workerThreads);
+        log.info("作业 {} 线程数调整为 {}", id, workerThreads);
+        return job;
+    }
+
+    // ---------- internals ----------
+    private BatchJob running(String id) {
+        BatchJob job = get(id);
+        if (job.isFinished()) {
+            throw new BusinessException(409, "作业已结束: " + id + " (" + job.getState() + ")");
+        }
+        return job;
+    }
+
+    private void run(BatchJob job, JobBody body) {
+        job.started = true;
+        try {
+            // 排队期间已取消的作业不再执行
+            if (!job.control.isCancelled()) {
+                body.run(job.control);
+            }
+            job.terminalState = job.control.isCancelled() ? JobState.CANCELLED
+                    : job.control.getFailed() > 0 ? JobState.PARTIAL : JobState.COMPLETED;
+        } catch (Throwable e) {
+            if (job.control.isCancelled()) {
+                job.terminalState = JobState.CANCELLED;
+            } else {
+                job.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+                job.terminalState = JobState.FAILED;
+                log.error("作业执行失败: {}", job.id, e);
+            }
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            log.info("作业结束: {} 状态: {}，成功: {}，失败: {}，耗时: {} ms", job.id, job.terminalState,
+                    job.control.getConsumed(), job.control.getFailed(), job.control.getElapsedMillis());
+            job.completion.complete(null);
+        }
+    }
+
+    private void evictFinished() {
+        long finished = jobs.values().stream().filter(BatchJob::isFinished).count();
+        Iterator<BatchJob> it = jobs.values().iterator();
+        while (finished >= MAX_FINISHED_JOBS && it.hasNext()) {
+            if (it.next().isFinished()) {
+                it.remove();
+                finished--;
+            }
+        }
+    }
+}
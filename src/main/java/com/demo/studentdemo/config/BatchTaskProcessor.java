@@ -5,11 +5,15 @@ import com.demo.studentdemo.vo.BatchProcessResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.Semaphore;
@@ -28,7 +32,7 @@ public class BatchTaskProcessor {
     private final TaskExecutor taskExecutor;
 
     @Autowired
-    public BatchTaskProcessor(TaskExecutor taskExecutor) {
+    public BatchTaskProcessor(@Qualifier("batchTaskExecutor") TaskExecutor taskExecutor) {
         this.taskExecutor = taskExecutor;
     }
 
@@ -46,17 +50,113 @@ public class BatchTaskProcessor {
             Supplier<List<T>> batchSupplier,
             Function<T, R> taskProcessor,
             int concurrencyLevel) {
+        return processStream(batchSupplier, taskProcessor, concurrencyLevel, null);
+    }
+
+    /**
+     * 带限流的流式处理：每提交一个任务前先从令牌桶获取令牌，使任务的提交速率不超过限流器的配置.
+     * 并发数限制的是同时在途的任务数，限流器限制的是单位时间内的任务数，两者同时生效.
+     *
+     * @param rateLimiter 令牌桶限流器，可为 null（不限流）；通常从 RateLimiterRegistry 按资源名获取
+     */
+    public <T, R> BatchProcessResult<T, R> processStream(
+            Supplier<List<T>> batchSupplier,
+            Function<T, R> taskProcessor,
+            int concurrencyLevel,
+            TokenBucketRateLimiter rateLimiter) {
+        return processStream(batchSupplier, taskProcessor, StreamOptions.<T>concurrency(concurrencyLevel).rateLimiter(rateLimiter));
+    }
+
+    /**
+     * 流式处理的可选项.
+     */
+    public static class StreamOptions<T> {
+        private final int concurrencyLevel;
+        private TokenBucketRateLimiter rateLimiter;
+        private DeadLetterStore<T> deadLetterStore;
+        private BatchJobControl control;
+
+        private StreamOptions(int concurrencyLevel) {
+            this.concurrencyLevel = concurrencyLevel;
+        }
+
+        /** 最大并发任务数，即信号量的许可数 */
+        public static <T> StreamOptions<T> concurrency(int concurrencyLevel) { return new StreamOptions<>(concurrencyLevel); }
+        /** 令牌桶限流器，可为 null（不限流） */
+        public StreamOptions<T> rateLimiter(TokenBucketRateLimiter limiter) { this.rateLimiter = limiter; return this; }
+        /** 死信存储：失败的任务项连同异常写入本地死信日志，可为 null */
+        public StreamOptions<T> deadLetterStore(DeadLetterStore<T> store) { this.deadLetterStore = store; return this; }
+        /** 作业控制句柄：暂停/恢复拉取批次、取消、运行期调整并发数，可为 null */
+        public StreamOptions<T> control(BatchJobControl control) { this.control = control; return this; }
+    }
+
+    /**
+     * 支持运行期缩减许可数的信号量.
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+        private int limit;
+
+        ResizableSemaphore(int permits) {
+            super(permits);
+            this.limit = permits;
+        }
+
+        synchronized void resize(int newLimit) {
+            int diff = newLimit - limit;
+            if (diff > 0) {
+                release(diff);
+            } else if (diff < 0) {
+                // 许可可以暂时为负：在途任务完成归还后才会恢复提交
+                reducePermits(-diff);
+            }
+            limit = newLimit;
+        }
+    }
 
-        log.info("开始流式批量任务处理，最大并发数: {}", concurrencyLevel);
-        final Semaphore semaphore = new Semaphore(concurrencyLevel);
+    /**
+     * 按 StreamOptions 执行流式处理.
+     *
+     * @param options 并发数、限流器、死信存储等选项.
+     * @return BatchProcessResult<T, R> 包含成功和失败详情的处理结果.
+     */
+    public <T, R> BatchProcessResult<T, R> processStream(
+            Supplier<List<T>> batchSupplier,
+            Function<T, R> taskProcessor,
+            StreamOptions<T> options) {
+
+        final BatchJobControl control = options.control;
+        final int concurrencyLevel = control != null && control.getWorkerThreads() > 0 ? control.getWorkerThreads() : options.concurrencyLevel;
+        final TokenBucketRateLimiter rateLimiter = options.rateLimiter;
+        final DeadLetterStore<T> deadLetterStore = options.deadLetterStore;
+        log.info("开始流式批量任务处理，最大并发数: {}，限流: {}，死信: {}", concurrencyLevel,
+                rateLimiter == null ? "无" : rateLimiter.getName() + "@" + rateLimiter.getPermitsPerSecond() + "/s",
+                deadLetterStore == null ? "无" : deadLetterStore.getName());
+        final ResizableSemaphore semaphore = new ResizableSemaphore(concurrencyLevel);
         final BatchProcessResult.Builder<T, R> resultBuilder = BatchProcessResult.builder();
         final List<CompletableFuture<Void>> allFutures = new java.util.concurrent.CopyOnWriteArrayList<>();
+        // 正在执行任务的线程；登记、注销与取消时的中断都在其锁内进行，中断不会落到已归还线程池、转而执行其他任务的线程上
+        final Set<Thread> inFlight = new HashSet<>();
+        if (control != null) {
+            final Thread submitter = Thread.currentThread();
+            // 取消时中断提交线程，使其从 semaphore/限流器的等待中退出；中断正在执行的任务；已提交但未开始的任务会被跳过
+            control.attach(concurrencyLevel, semaphore::resize, () -> {
+                submitter.interrupt();
+                synchronized (inFlight) {
+                    inFlight.forEach(Thread::interrupt);
+                }
+            });
+        }
 
         // ▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼
         // 【修正点 1】将主循环包裹在 try-catch 中，以捕获数据供给器的异常
         // ▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼▼
         try {
+            submitLoop:
             while (true) {
+                if (control != null && !control.awaitResume()) {
+                    log.warn("作业已取消，停止拉取新批次。");
+                    break;
+                }
                 List<T> currentBatch;
                 try {
                     currentBatch = batchSupplier.get();
@@ -79,19 +179,58 @@ public class BatchTaskProcessor {
                         throw new InterruptedException("主线程中断");
                     }
 
+                    // 暂停时停止提交（已提交的任务继续执行），取消时结束提交
+                    if (control != null && !control.awaitResume()) {
+                        log.warn("作业已取消，停止提交新任务。");
+                        break submitLoop;
+                    }
+
+                    if (rateLimiter != null) {
+                        rateLimiter.acquire();
+                    }
                     semaphore.acquire();
 
                     CompletableFuture<Void> future = CompletableFuture
-                            .supplyAsync(() -> taskProcessor.apply(item), taskExecutor)
+                            .supplyAsync(() -> {
+                                Thread self = Thread.currentThread();
+                                synchronized (inFlight) {
+                                    if (control != null && control.isCancelled()) {
+                                        throw new CancellationException("作业已取消");
+                                    }
+                                    inFlight.add(self);
+                                }
+                                try {
+                                    return taskProcessor.apply(item);
+                                } catch (RuntimeException e) {
+                                    // 因取消被中断而失败的任务按取消处理，不计入失败、不进死信
+                                    if (control != null && control.isCancelled() && self.isInterrupted()) {
+                                        throw new CancellationException("作业已取消，任务被中断");
+                                    }
+                                    throw e;
+                                } finally {
+                                    synchronized (inFlight) {
+                                        inFlight.remove(self);
+                                        Thread.interrupted(); // 不把取消的中断标记带回线程池
+                                    }
+                                }
+                            }, taskExecutor)
                             .whenComplete((result, ex) -> {
                                 try {
                                     if (ex != null) {
                                         // 【修正点 2】更健壮的异常提取逻辑
                                         Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                                        if (cause instanceof CancellationException && control != null && control.isCancelled()) {
+                                            return; // 作业取消而跳过的任务不计入失败
+                                        }
+                                        if (control != null) control.onFailed();
                                         resultBuilder.addFailure(item, (Exception) cause);
+                                        if (deadLetterStore != null) {
+                                            deadLetterStore.append(item, cause, 1);
+                                        }
                                         // 注意：这里日志级别可以是 warn 或 error，取决于业务对单个任务失败的容忍度
                                         log.warn("任务处理失败，任务项: {}. 原因: {}", item, cause.getMessage());
                                     } else {
+                                        if (control != null) control.onConsumed();
                                         resultBuilder.addSuccess(result);
                                     }
                                 } finally {
@@ -101,6 +240,7 @@ public class BatchTaskProcessor {
                             .thenRun(() -> {});
 
                     allFutures.add(future);
+                    if (control != null) control.onProduced();
                 }
             }
         } catch (InterruptedException e) {
@@ -121,6 +261,15 @@ public class BatchTaskProcessor {
         }
 
         log.info("所有已提交的任务处理完毕。");
+        if (control != null) {
+            control.detach();
+            if (control.isCancelled()) {
+                Thread.interrupted(); // 清除取消时设置的中断标记
+            }
+        }
+        if (deadLetterStore != null) {
+            deadLetterStore.flush();
+        }
 
         BatchProcessResult<T, R> finalResult = resultBuilder.build();
         log.info("批量任务处理全部结束。总任务数: {}, 成功: {}, 失败: {}",
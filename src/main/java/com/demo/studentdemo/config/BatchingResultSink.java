@@ -0,0 +1,250 @@
+package com.demo.studentdemo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * BatchingResultSink - 结果批量汇聚器
+ *
+ * 工作线程把结果放入共享的无锁缓冲区，满足以下任一条件时整批交给 flusher 写出：
+ *   - 缓冲条数达到 maxBatchSize
+ *   - 距上次刷写超过 linger 时长（由后台定时线程触发）
+ *   - 显式调用 flush() / close()
+ *
+ * 典型用法是作为 StreamBatchProcessor 的结果消费端，把逐条写 DB/MQ 变成批量写入。
+ *
+ * @param <R> 结果类型
+ */
+public class BatchingResultSink<R> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchingResultSink.class);
+
+    // ---------- Builder / config ----------
+    public static class Builder<R> {
+        private String name = "default";
+        private int maxBatchSize = 500;
+        private Duration linger = Duration.ofMillis(200);
+        private int maxPendingBatches = 4;
+        private Consumer<List<R>> flusher;
+        private BiConsumer<List<R>, Throwable> flushErrorHandler;
+
+        public Builder<R> name(String n) { this.name = n; return this; }
+        public Builder<R> maxBatchSize(int s) { this.maxBatchSize = s; return this; }
+        public Builder<R> linger(Duration d) { this.linger = d; return this; }
+        public Builder<R> maxPendingBatches(int b) { this.maxPendingBatches = b; return this; }
+        public Builder<R> flusher(Consumer<List<R>> f) { this.flusher = f; return this; }
+        public Builder<R> onFlushError(BiConsumer<List<R>, Throwable> h) { this.flushErrorHandler = h; return this; }
+
+        public BatchingResultSink<R> build() { return new BatchingResultSink<>(this); }
+    }
+
+    public static <R> Builder<R> builder() { return new Builder<>(); }
+
+    /**
+     * 刷写统计快照
+     *
+     * @param flushCount     刷写次数
+     * @param flushedItems   已刷写条数
+     * @param failedFlushes  失败的刷写次数
+     * @param pendingItems   当前仍在缓冲区的条数
+     * @param maxFlushSize   单次最大刷写条数
+     * @param avgFlushSize   平均每次刷写条数
+     * @param avgFlushMillis 平均刷写耗时(ms)
+     * @param maxFlushMillis 最大刷写耗时(ms)
+     */
+    public record Stats(long flushCount, long flushedItems, long failedFlushes, int pendingItems,
+                        int maxFlushSize, double avgFlushSize, double avgFlushMillis, double maxFlushMillis) {
+    }
+
+    // ---------- instance fields ----------
+    private final String name;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final int backpressureThreshold;
+    private final Consumer<List<R>> flusher;
+    private final BiConsumer<List<R>, Throwable> flushErrorHandler;
+
+    // 无锁缓冲区；pending 单独计数，避免 ConcurrentLinkedQueue.size() 的 O(n) 遍历
+    private final ConcurrentLinkedQueue<R> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    // 保证同一时刻只有一个线程在调用 flusher，批次之间保持提交顺序
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService lingerScheduler;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private volatile long lastFlushNanos = System.nanoTime();
+
+    // metrics counters
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedItems = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private final AtomicInteger maxFlushSize = new AtomicInteger();
+
+    private BatchingResultSink(Builder<R> b) {
+        this.flusher = Objects.requireNonNull(b.flusher, "flusher");
+        this.name = b.name == null ? "default" : b.name;
+        this.maxBatchSize = Math.max(1, b.maxBatchSize);
+        this.lingerNanos = b.linger == null ? 0L : b.linger.toNanos();
+        this.backpressureThreshold = this.maxBatchSize * Math.max(1, b.maxPendingBatches);
+        this.flushErrorHandler = b.flushErrorHandler;
+
+        if (lingerNanos > 0) {
+            this.lingerScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "batch-sink-" + this.name);
+                t.setDaemon(true);
+                return t;
+            });
+            long periodMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(lingerNanos) / 2);
+            this.lingerScheduler.scheduleAtFixedRate(this::flushIfLingered, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.lingerScheduler = null;
+        }
+    }
+
+    // ---------- Core API ----------
+    /**
+     * 追加一条结果；达到批量阈值时由当前线程顺带完成刷写。
+     * 若缓冲积压超过 maxBatchSize * maxPendingBatches，则阻塞等待刷写，形成背压。
+     */
+    public void add(R result) {
+        if (closed.get()) {
+            throw new IllegalStateException("BatchingResultSink[" + name + "] already closed");
+        }
+        buffer.offer(result);
+        int size = pending.incrementAndGet();
+        if (size >= backpressureThreshold) {
+            flushLock.lock();
+            try {
+                drain(false);
+            } finally {
+                flushLock.unlock();
+            }
+        } else if (size >= maxBatchSize && flushLock.tryLock()) {
+            // 拿不到锁说明已有线程在刷写，它会继续把满批的数据刷完
+            try {
+                drain(false);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 适配 StreamBatchProcessor 的 resultConsumer 签名
+     */
+    public <T> BiConsumer<T, R> asResultConsumer() {
+        return (item, result) -> add(result);
+    }
+
+    /**
+     * 立即刷写缓冲区中的全部结果
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain(true);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        if (lingerScheduler != null) {
+            try {
+                lingerScheduler.shutdownNow();
+            } catch (Throwable ignore) {}
+        }
+        flush();
+    }
+
+    // ---------- internals ----------
+    private void flushIfLingered() {
+        if (pending.get() == 0 || System.nanoTime() - lastFlushNanos < lingerNanos) return;
+        if (!flushLock.tryLock()) return;
+        try {
+            drain(true);
+        } catch (Throwable e) {
+            log.error("BatchingResultSink[{}] 定时刷写异常", name, e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 调用方必须持有 flushLock
+     *
+     * @param force true 时连不足一批的尾部数据也一并刷出
+     */
+    private void drain(boolean force) {
+        while (pending.get() >= maxBatchSize || (force && pending.get() > 0)) {
+            List<R> batch = new ArrayList<>(Math.min(pending.get(), maxBatchSize));
+            R r;
+            while (batch.size() < maxBatchSize && (r = buffer.poll()) != null) {
+                batch.add(r);
+            }
+            if (batch.isEmpty()) break;
+            pending.addAndGet(-batch.size());
+            doFlush(batch);
+        }
+    }
+
+    private void doFlush(List<R> batch) {
+        long start = System.nanoTime();
+        try {
+            flusher.accept(batch);
+            flushedItems.addAndGet(batch.size());
+        } catch (Throwable ex) {
+            failedFlushes.incrementAndGet();
+            if (flushErrorHandler != null) {
+                flushErrorHandler.accept(batch, ex);
+            } else {
+                log.error("BatchingResultSink[{}] 刷写失败，丢弃 {} 条结果", name, batch.size(), ex);
+            }
+        } finally {
+            long cost = System.nanoTime() - start;
+            lastFlushNanos = System.nanoTime();
+            flushCount.incrementAndGet();
+            totalFlushNanos.addAndGet(cost);
+            maxFlushNanos.accumulateAndGet(cost, Math::max);
+            maxFlushSize.accumulateAndGet(batch.size(), Math::max);
+            if (log.isDebugEnabled()) {
+                log.debug("BatchingResultSink[{}] 刷写 {} 条，耗时 {} ms", name, batch.size(), cost / 1_000_000.0);
+            }
+        }
+    }
+
+    // ---------- metrics accessors ----------
+    public Stats getStats() {
+        long count = flushCount.get();
+        long items = flushedItems.get();
+        return new Stats(
+                count,
+                items,
+                failedFlushes.get(),
+                pending.get(),
+                maxFlushSize.get(),
+                count == 0 ? 0D : (double) items / count,
+                count == 0 ? 0D : totalFlushNanos.get() / 1_000_000.0 / count,
+                maxFlushNanos.get() / 1_000_000.0);
+    }
+
+    public String getName() { return name; }
+}
@@ -0,0 +1,102 @@
+package com.demo.studentdemo.config;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 舱壁：一个具名的独立线程池，自带线程数、队列容量与拒绝策略.
+ * 不同负载（批任务、在线查询、异步接口）各用各的舱壁，某一类任务堆积只会耗尽自己的线程与队列.
+ */
+public class Bulkhead {
+
+    /**
+     * 线程与队列都已满时的处理方式
+     */
+    public enum RejectionPolicy {
+        /** 抛出 TaskRejectedException（接口侧映射为 503），调用方自行降级 */
+        ABORT,
+        /** 在提交线程上直接执行，对提交方形成背压；不要用于请求线程不可阻塞的场景 */
+        CALLER_RUNS
+    }
+
+    private final String name;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final ThreadPoolTaskExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    Bulkhead(String name, int threads, int queueCapacity, RejectionPolicy rejectionPolicy) {
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+        RejectedExecutionHandler fallback = rejectionPolicy == RejectionPolicy.CALLER_RUNS
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : new ThreadPoolExecutor.AbortPolicy();
+        ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
+        exec.setCorePoolSize(threads);
+        exec.setMaxPoolSize(threads);
+        exec.setQueueCapacity(queueCapacity);
+        exec.setThreadNamePrefix("bulkhead-" + name + "-");
+        exec.setRejectedExecutionHandler((r, pool) -> {
+            rejected.incrementAndGet();
+            fallback.rejectedExecution(r, pool);
+        });
+        exec.initialize();
+        this.executor = exec;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ThreadPoolTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public int getMaxThreads() {
+        return executor.getMaxPoolSize();
+    }
+
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueued() {
+        return executor.getQueueSize();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * 饱和度：(活跃线程 + 排队任务) / (线程数 + 队列容量)，达到 1 后新任务按拒绝策略处理
+     */
+    public double getSaturation() {
+        return (double) (getActive() + getQueued()) / (getMaxThreads() + queueCapacity);
+    }
+
+    /**
+     * 运行期调整线程数（队列容量在创建后不可变）
+     */
+    void resize(int threads) {
+        if (threads >= executor.getMaxPoolSize()) {
+            executor.setMaxPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaxPoolSize(threads);
+        }
+    }
+}
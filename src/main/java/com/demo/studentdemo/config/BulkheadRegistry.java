@@ -0,0 +1,93 @@
+package com.demo.studentdemo.config;
+
+import com.demo.studentdemo.exception.BusinessException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按名称注册的舱壁（独立线程池），默认值由使用方在 ThreadPoolConfig 中给出，均可被配置覆盖：
+ *   bulkhead.{name}.threads          线程数
+ *   bulkhead.{name}.queue-capacity   排队上限
+ *   bulkhead.{name}.rejection        ABORT / CALLER_RUNS
+ *
+ * 指标（标签 name）：bulkhead.threads.max、bulkhead.active、bulkhead.queued、bulkhead.queue.capacity、
+ * bulkhead.saturation（(活跃 + 排队) / (线程 + 队列)）以及计数器 bulkhead.rejected.
+ */
+@Component
+public class BulkheadRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkheadRegistry.class);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 获取（不存在则按配置创建）指定舱壁；同名舱壁只创建一次，后续调用的默认值被忽略
+     */
+    public Bulkhead get(String name, int defaultThreads, int defaultQueueCapacity, Bulkhead.RejectionPolicy defaultRejection) {
+        return bulkheads.computeIfAbsent(name, n -> {
+            String prefix = "bulkhead." + n + ".";
+            int threads = environment.getProperty(prefix + "threads", Integer.class, defaultThreads);
+            int queueCapacity = environment.getProperty(prefix + "queue-capacity", Integer.class, defaultQueueCapacity);
+            Bulkhead.RejectionPolicy rejection = environment.getProperty(prefix + "rejection", Bulkhead.RejectionPolicy.class, defaultRejection);
+            if (threads < 1 || queueCapacity < 0) {
+                throw new IllegalStateException("舱壁 [" + n + "] 配置无效: threads=" + threads + ", queue-capacity=" + queueCapacity);
+            }
+            Bulkhead bulkhead = new Bulkhead(n, threads, queueCapacity, rejection);
+            bindMetrics(bulkhead);
+            log.info("创建舱壁 [{}]，线程数: {}，队列容量: {}，拒绝策略: {}", n, threads, queueCapacity, rejection);
+            return bulkhead;
+        });
+    }
+
+    public Bulkhead get(String name) {
+        Bulkhead bulkhead = bulkheads.get(name);
+        if (bulkhead == null) {
+            throw new BusinessException(404, "舱壁不存在: " + name);
+        }
+        return bulkhead;
+    }
+
+    /**
+     * 运行期调整线程数
+     */
+    public Bulkhead resize(String name, int threads) {
+        Bulkhead bulkhead = get(name);
+        bulkhead.resize(threads);
+        log.info("舱壁 [{}] 线程数调整为 {}", name, threads);
+        return bulkhead;
+    }
+
+    public List<Bulkhead> list() {
+        List<Bulkhead> all = new ArrayList<>(bulkheads.values());
+        all.sort(Comparator.comparing(Bulkhead::getName));
+        return all;
+    }
+
+    private void bindMetrics(Bulkhead bulkhead) {
+        String name = bulkhead.getName();
+        Gauge.builder("bulkhead.threads.max", bulkhead, Bulkhead::getMaxThreads).tag("name", name).register(meterRegistry);
+        Gauge.builder("bulkhead.active", bulkhead, Bulkhead::getActive).tag("name", name).register(meterRegistry);
+        Gauge.builder("bulkhead.queued", bulkhead, Bulkhead::getQueued).tag("name", name).register(meterRegistry);
+        Gauge.builder("bulkhead.queue.capacity", bulkhead, Bulkhead::getQueueCapacity).tag("name", name).register(meterRegistry);
+        Gauge.builder("bulkhead.saturation", bulkhead, Bulkhead::getSaturation).tag("name", name).register(meterRegistry);
+        FunctionCounter.builder("bulkhead.rejected", bulkhead, Bulkhead::getRejected).tag("name", name).register(meterRegistry);
+    }
+}
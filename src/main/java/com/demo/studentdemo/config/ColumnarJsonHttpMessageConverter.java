@@ -0,0 +1,157 @@
+package com.demo.studentdemo.config;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 列式 JSON 输出（只写不读），媒体类型 application/vnd.columnar+json.
+ * 列表与分页结果不再逐行重复字段名，而是字段名只写一次，每行写成值数组：
+ * <pre>
+ * {"total":123,"size":10,"current":1,"pages":13,
+ *  "columns":["studentId","studentName",...],
+ *  "rows":[["202103210001","张三",...],...]}
+ * </pre>
+ * 列取自 Jackson 对元素类型的内省结果（遵循 @JsonProperty / @JsonIgnore），单个值仍按 ObjectMapper 的配置序列化.
+ * 只有客户端在 Accept 中显式要求时才会选中，应排在默认 JSON 转换器之后注册.
+ */
+public class ColumnarJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "vnd.columnar+json");
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter valueWriter;
+    private final Map<Class<?>, List<BeanPropertyDefinition>> columnsByType = new ConcurrentHashMap<>();
+
+    public ColumnarJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MEDIA_TYPE);
+        this.objectMapper = objectMapper;
+        // 逐个值写出时不要每次 flush 底层输出流
+        this.valueWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return IPage.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("列式 JSON 只用于输出", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("列式 JSON 只用于输出", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator g = objectMapper.getFactory().createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            g.writeStartObject();
+            Collection<?> rows;
+            if (value instanceof IPage<?> page) {
+                g.writeNumberField("total", page.getTotal());
+                g.writeNumberField("size", page.getSize());
+                g.writeNumberField("current", page.getCurrent());
+                g.writeNumberField("pages", page.getPages());
+                rows = page.getRecords();
+            } else {
+                rows = (Collection<?>) value;
+            }
+            writeTable(g, rows);
+            g.writeEndObject();
+        }
+    }
+
+    private void writeTable(JsonGenerator g, Collection<?> rows) throws IOException {
+        Class<?> rowType = rows.stream().filter(r -> r != null).findFirst().map(Object::getClass).orElse(null);
+        List<BeanPropertyDefinition> columns = rowType == null ? List.of() : columns(rowType);
+        g.writeArrayFieldStart("columns");
+        for (BeanPropertyDefinition column : columns) {
+            g.writeString(column.getName());
+        }
+        g.writeEndArray();
+        g.writeArrayFieldStart("rows");
+        for (Object row : rows) {
+            if (row == null) {
+                g.writeNull();
+                continue;
+            }
+            if (row.getClass() != rowType) {
+                throw new HttpMessageNotWritableException("列式 JSON 要求元素类型一致: " + rowType.getName() + " / " + row.getClass().getName());
+            }
+            g.writeStartArray();
+            for (BeanPropertyDefinition column : columns) {
+                writeValue(g, column.getAccessor().getValue(row));
+            }
+            g.writeEndArray();
+        }
+        g.writeEndArray();
+    }
+
+    /**
+     * 常见标量直接写出，其余（日期、BigDecimal 等）交给 ObjectMapper 以保持与 JSON 输出一致的格式
+     */
+    private void writeValue(JsonGenerator g, Object v) throws IOException {
+        if (v == null) {
+            g.writeNull();
+        } else if (v instanceof String s) {
+            g.writeString(s);
+        } else if (v instanceof Integer i) {
+            g.writeNumber(i);
+        } else if (v instanceof Long l) {
+            g.writeNumber(l);
+        } else if (v instanceof Double d) {
+            g.writeNumber(d);
+        } else if (v instanceof Boolean b) {
+            g.writeBoolean(b);
+        } else {
+            valueWriter.writeValue(g, v);
+        }
+    }
+
+    private List<BeanPropertyDefinition> columns(Class<?> rowType) {
+        return columnsByType.computeIfAbsent(rowType, t -> {
+            JavaType javaType = objectMapper.constructType(t);
+            List<BeanPropertyDefinition> props = objectMapper.getSerializationConfig().introspect(javaType)
+                    .findProperties().stream()
+                    .filter(p -> p.couldSerialize() && p.getAccessor() != null)
+                    .toList();
+            props.forEach(p -> {
+                AnnotatedMember accessor = p.getAccessor();
+                accessor.fixAccess(true);
+            });
+            return props;
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.studentdemo.config;
+
+import java.util.function.Supplier;
+
+/**
+ * 读写分离路由的线程上下文.
+ * ReadWriteRoutingInterceptor 在每条 MyBatis 语句执行前标记本次取连接是否允许走从库，
+ * ReadWriteRoutingDataSource 取连接时据此选择目标，并把实际选中的目标记回上下文供统计使用.
+ *
+ * 未标记时一律走主库：事务开始时的取连接、JdbcTemplate 等非 MyBatis 访问都落在主库.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> FORCE_PRIMARY = ThreadLocal.withInitial(() -> 0);
+    private static final ThreadLocal<String> LAST_TARGET = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * 在强制主库的作用域内执行，用于写后立即读（read-your-writes）等不能容忍复制延迟的场景
+     */
+    public static <T> T primary(Supplier<T> action) {
+        FORCE_PRIMARY.set(FORCE_PRIMARY.get() + 1);
+        try {
+            return action.get();
+        } finally {
+            int depth = FORCE_PRIMARY.get() - 1;
+            if (depth == 0) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(depth);
+            }
+        }
+    }
+
+    /**
+     * 无返回值版本，写操作连同其前后的读取整体放在主库作用域内
+     */
+    public static void primary(Runnable action) {
+        primary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 标记当前语句是否只读，返回之前的标记以便嵌套调用恢复
+     */
+    static Boolean markReadOnly(Boolean readOnly) {
+        Boolean previous = READ_ONLY.get();
+        if (readOnly == null) {
+            READ_ONLY.remove();
+        } else {
+            READ_ONLY.set(readOnly);
+        }
+        return previous;
+    }
+
+    static boolean replicaAllowed() {
+        return Boolean.TRUE.equals(READ_ONLY.get()) && FORCE_PRIMARY.get() == 0;
+    }
+
+    static void recordTarget(String target) {
+        LAST_TARGET.set(target);
+    }
+
+    /**
+     * 当前线程最近一次取连接所用的目标
+     */
+    static String lastTarget() {
+        return LAST_TARGET.get();
+    }
+}
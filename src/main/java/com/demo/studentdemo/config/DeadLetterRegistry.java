@@ -0,0 +1,189 @@
+package com.demo.studentdemo.config;
+
+import com.demo.studentdemo.exception.BusinessException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 死信存储注册表.
+ * 批任务按名称注册自己的死信存储及回放处理函数，回放时按给定速率把死信重新送入 StreamBatchProcessor 处理，
+ * 再次失败的数据项以“尝试次数 + 1”重新写回死信日志.
+ *
+ * 配置：
+ *   batch.dead-letter.dir    死信文件目录（默认 ${java.io.tmpdir}/student-demo-dlq）
+ *   batch.dead-letter.fsync  NONE | BATCH（默认 BATCH）
+ */
+@Component
+public class DeadLetterRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterRegistry.class);
+
+    /**
+     * 一次回放的结果
+     */
+    public record ReplayReport(long replayed, long succeeded, long failedAgain, boolean completed) {
+    }
+
+    private static final class Registration<T> {
+        private final DeadLetterStore<T> store;
+        private final Function<T, ?> replayHandler;
+        private final AtomicBoolean replaying = new AtomicBoolean(false);
+        private volatile ReplayReport lastReplay;
+
+        private Registration(DeadLetterStore<T> store, Function<T, ?> replayHandler) {
+            this.store = store;
+            this.replayHandler = replayHandler;
+        }
+    }
+
+    private final Path directory;
+    private final DeadLetterStore.FsyncPolicy fsyncPolicy;
+    private final Map<String, Registration<?>> registrations = new ConcurrentHashMap<>();
+
+    public DeadLetterRegistry(@Value("${batch.dead-letter.dir:${java.io.tmpdir}/student-demo-dlq}") String directory,
+                              @Value("${batch.dead-letter.fsync:BATCH}") DeadLetterStore.FsyncPolicy fsyncPolicy) {
+        this.directory = Path.of(directory);
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    /**
+     * 注册（或获取已注册的）死信存储
+     *
+     * @param name          存储名称，同时是死信文件名
+     * @param serializer    数据项序列化器
+     * @param replayHandler 回放时对每个数据项执行的处理函数
+     */
+    @SuppressWarnings("unchecked")
+    public <T> DeadLetterStore<T> register(String name, ItemSerializer<T> serializer, Function<T, ?> replayHandler) {
+        Registration<?> reg = registrations.computeIfAbsent(name, n -> {
+            DeadLetterStore<T> store = DeadLetterStore.<T>builder()
+                    .name(n)
+                    .directory(directory)
+                    .serializer(serializer)
+                    .fsyncPolicy(fsyncPolicy)
+                    .build();
+            log.info("注册死信存储 [{}]，目录: {}，fsync: {}", n, directory, fsyncPolicy);
+            return new Registration<>(store, replayHandler);
+        });
+        return (DeadLetterStore<T>) reg.store;
+    }
+
+    public DeadLetterStore<?> get(String name) {
+        return registration(name).store;
+    }
+
+    public List<DeadLetterStore<?>> list() {
+        List<DeadLetterStore<?>> all = new ArrayList<>();
+        registrations.values().forEach(r -> all.add(r.store));
+        all.sort(Comparator.comparing(DeadLetterStore::getName));
+        return all;
+    }
+
+    public boolean isReplaying(String name) {
+        return registration(name).replaying.get();
+    }
+
+    public ReplayReport getLastReplay(String name) {
+        return registration(name).lastReplay;
+    }
+
+    /**
+     * 以 permitsPerSecond 的速率异步回放指定存储中的全部死信.
+     * 回放是“至少一次”语义：进程在回放中途退出时，未删除的回放文件会在下次回放时重新读回.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<ReplayReport> replay(String name, double permitsPerSecond, int workerThreads) {
+        Registration<T> reg = (Registration<T>) registration(name);
+        if (!reg.replaying.compareAndSet(false, true)) {
+            throw new BusinessException(409, "死信 [" + name + "] 正在回放中");
+        }
+
+        DeadLetterStore<T>.Replay replay;
+        try {
+            replay = reg.store.openReplay();
+        } catch (RuntimeException e) {
+            reg.replaying.set(false);
+            throw e;
+        }
+
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("dlq-replay-" + name, permitsPerSecond,
+                (long) Math.max(1D, permitsPerSecond));
+        StreamBatchProcessor processor = StreamBatchProcessor.builder()
+                .workerThreads(workerThreads)
+                .queueCapacity(Math.max(16, workerThreads * 4))
+                .rateLimiter(limiter)
+                .build();
+
+        AtomicLong replayed = new AtomicLong();
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failedAgain = new AtomicLong();
+        AtomicBoolean readFailed = new AtomicBoolean(false);
+        log.info("开始回放死信 [{}]，文件数: {}，速率: {}/s", name, replay.fileCount(), permitsPerSecond);
+
+        return processor.<DeadLetterStore.DeadLetter<T>, Object>processAsync(
+                () -> replay,
+                letter -> {
+                    replayed.incrementAndGet();
+                    return reg.replayHandler.apply(letter.item());
+                },
+                (letter, result) -> succeeded.incrementAndGet(),
+                (letter, ex) -> {
+                    if (letter == null) {
+                        readFailed.set(true);
+                        log.error("死信 [{}] 回放读取失败，保留回放文件以便下次继续", name, ex);
+                        return;
+                    }
+                    failedAgain.incrementAndGet();
+                    reg.store.append(letter.item(), ex, letter.attempts() + 1);
+                })
+                .handle((v, ex) -> {
+                    boolean completed = ex == null && !readFailed.get();
+                    try {
+                        reg.store.flush();
+                        if (completed) {
+                            replay.finish();
+                        } else {
+                            replay.close();
+                        }
+                    } finally {
+                        processor.shutdown();
+                        reg.replaying.set(false);
+                    }
+                    ReplayReport report = new ReplayReport(replayed.get(), succeeded.get(), failedAgain.get(), completed);
+                    reg.lastReplay = report;
+                    log.info("死信 [{}] 回放结束: {}", name, report);
+                    return report;
+                });
+    }
+
+    private Registration<?> registration(String name) {
+        Registration<?> reg = registrations.get(name);
+        if (reg == null) {
+            throw new BusinessException(404, "死信存储不存在: " + name);
+        }
+        return reg;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        registrations.values().forEach(r -> {
+            try {
+                r.store.close();
+            } catch (Throwable ignore) {}
+        });
+    }
+}
@@ -0,0 +1,435 @@
+package com.demo.studentdemo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * DeadLetterStore - 失败数据项的本地死信日志
+ *
+ * 失败项连同异常类型/信息、尝试次数、时间戳追加写入 {directory}/{name}.dlq：
+ *   - 追加通过 BatchingResultSink 攒批，一批只做一次 write（以及可选的一次 fsync）
+ *   - FsyncPolicy.BATCH 每批写入后 force，进程崩溃也不丢已刷写的记录；NONE 交给操作系统回写
+ *   - openReplay() 把当前日志切换为 .replaying 文件后逐条读回，新的失败继续写入新日志；
+ *     回放完成后由调用方 finish() 删除回放文件，进程中途退出时回放文件会在下次回放时一并读回
+ *   - 回放时无法解析的记录原样移入 {name}.corrupt 隔离文件后跳过；长度字段损坏时无法定位后续记录，
+ *     该文件余下的字节整体隔离. 损坏的记录因此不会让回放反复中止在同一位置
+ *
+ * 记录格式：[int 长度][long 时间戳][int 尝试次数][UTF 异常类型][UTF 异常信息][int 数据长度][数据]
+ *
+ * @param <T> 数据项类型
+ */
+public class DeadLetterStore<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterStore.class);
+    private static final int MAX_MESSAGE_CHARS = 1000;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+    private static final String ACTIVE_SUFFIX = ".dlq";
+    private static final String REPLAY_SUFFIX = ".replaying";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+
+    public enum FsyncPolicy { NONE, BATCH }
+
+    /**
+     * 一条死信记录
+     */
+    public record DeadLetter<T>(T item, String exceptionClass, String message, int attempts, long timestamp) {
+    }
+
+    // ---------- Builder / config ----------
+    public static class Builder<T> {
+        private String name;
+        private Path directory;
+        private ItemSerializer<T> serializer;
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.BATCH;
+        private int batchSize = 200;
+        private Duration flushInterval = Duration.ofMillis(500);
+
+        public Builder<T> name(String n) { this.name = n; return this; }
+        public Builder<T> directory(Path d) { this.directory = d; return this; }
+        public Builder<T> serializer(ItemSerializer<T> s) { this.serializer = s; return this; }
+        public Builder<T> fsyncPolicy(FsyncPolicy p) { this.fsyncPolicy = p; return this; }
+        public Builder<T> batchSize(int s) { this.batchSize = s; return this; }
+        public Builder<T> flushInterval(Duration d) { this.flushInterval = d; return this; }
+
+        public DeadLetterStore<T> build() { return new DeadLetterStore<>(this); }
+    }
+
+    public static <T> Builder<T> builder() { return new Builder<>(); }
+
+    // ---------- instance fields ----------
+    private final String name;
+    private final Path directory;
+    private final Path activeFile;
+    private final Path corruptFile;
+    private final ItemSerializer<T> serializer;
+    private final FsyncPolicy fsyncPolicy;
+    private final BatchingResultSink<DeadLetter<T>> sink;
+
+    private final Object fileLock = new Object();
+    private FileChannel channel; // guarded by fileLock
+
+    // metrics counters
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong quarantined = new AtomicLong();
+
+    private DeadLetterStore(Builder<T> b) {
+        this.name = Objects.requireNonNull(b.name, "name");
+        this.directory = Objects.requireNonNull(b.directory, "directory");
+        this.serializer = b.serializer == null ? ItemSerializer.javaSerialization() : b.serializer;
+        this.fsyncPolicy = b.fsyncPolicy == null ? FsyncPolicy.BATCH : b.fsyncPolicy;
+        this.activeFile = directory.resolve(name + ACTIVE_SUFFIX);
+        this.corruptFile = directory.resolve(name + CORRUPT_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法创建死信目录: " + directory, e);
+        }
+        this.channel = openActive();
+        this.sink = BatchingResultSink.<DeadLetter<T>>builder()
+                .name("dlq-" + name)
+                .maxBatchSize(b.batchSize)
+                .linger(b.flushInterval)
+                .flusher(this::writeBatch)
+                .onFlushError((batch, ex) -> {
+                    dropped.addAndGet(batch.size());
+                    log.error("死信 [{}] 写入失败，丢失 {} 条记录", name, batch.size(), ex);
+                })
+                .build();
+    }
+
+    // ---------- Core API ----------
+    /**
+     * 追加一条失败记录（异步攒批写入）
+     */
+    public void append(T item, Throwable ex, int attempts) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        String message = cause == null || cause.getMessage() == null ? "" : cause.getMessage();
+        if (message.length() > MAX_MESSAGE_CHARS) message = message.substring(0, MAX_MESSAGE_CHARS);
+        sink.add(new DeadLetter<>(item,
+                cause == null ? "" : cause.getClass().getName(),
+                message,
+                attempts,
+                System.currentTimeMillis()));
+        appended.incrementAndGet();
+    }
+
+    /**
+     * 立即把缓冲中的记录写入文件
+     */
+    public void flush() {
+        sink.flush();
+    }
+
+    /**
+     * 开始一次回放：切换日志文件并返回待回放记录的游标.
+     * 调用方读完（或放弃）后必须调用 Replay.finish()/close().
+     */
+    public Replay openReplay() {
+        sink.flush();
+        List<Path> files = new ArrayList<>();
+        synchronized (fileLock) {
+            try {
+                files.addAll(leftoverReplayFiles());
+                if (channel.size() > 0) {
+                    channel.close();
+                    Path target = directory.resolve(name + "." + System.currentTimeMillis() + REPLAY_SUFFIX);
+                    Files.move(activeFile, target, StandardCopyOption.ATOMIC_MOVE);
+                    files.add(target);
+                    channel = openActive();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("死信 [" + name + "] 切换回放文件失败", e);
+            }
+        }
+        return new Replay(files);
+    }
+
+    /**
+     * 读取当前日志中的前 limit 条记录（不消费），用于排查
+     */
+    public List<DeadLetter<T>> peek(int limit) {
+        sink.flush();
+        List<DeadLetter<T>> result = new ArrayList<>();
+        List<Path> files = new ArrayList<>(leftoverReplayFiles());
+        files.add(activeFile);
+        for (Path file : files) {
+            try (RecordReader reader = new RecordReader(file, false)) {
+                DeadLetter<T> r;
+                while (result.size() < limit && (r = reader.next()) != null) {
+                    result.add(r);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (result.size() >= limit) break;
+        }
+        return result;
+    }
+
+    /**
+     * 当前死信文件（含未完成的回放文件）总字节数
+     */
+    public long getStoredBytes() {
+        long total = 0;
+        List<Path> files = new ArrayList<>(leftoverReplayFiles());
+        files.add(activeFile);
+        for (Path f : files) {
+            try {
+                total += Files.size(f);
+            } catch (IOException ignore) {}
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        sink.close();
+        synchronized (fileLock) {
+            try {
+                channel.close();
+            } catch (IOException ignore) {}
+        }
+    }
+
+    // ---------- internals ----------
+    private FileChannel openActive() {
+        try {
+            return FileChannel.open(activeFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法打开死信文件: " + activeFile, e);
+        }
+    }
+
+    private List<Path> leftoverReplayFiles() {
+        try (Stream<Path> s = Files.list(directory)) {
+            return s.filter(p -> {
+                        String f = p.getFileName().toString();
+                        return f.startsWith(name + ".") && f.endsWith(REPLAY_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * 把无法解析的原始字节追加到隔离文件，格式与死信文件相同，便于人工排查
+     */
+    private void quarantine(byte[] frame) throws IOException {
+        try (FileChannel ch = FileChannel.open(corruptFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(frame);
+            while (buffer.hasRemaining()) {
+                ch.write(buffer);
+            }
+            ch.force(false);
+        }
+        quarantined.incrementAndGet();
+    }
+
+    private void writeBatch(List<DeadLetter<T>> batch) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(batch.size() * 256);
+        DataOutputStream out = new DataOutputStream(bos);
+        ByteArrayOutputStream recordBuf = new ByteArrayOutputStream(256);
+        DataOutputStream record = new DataOutputStream(recordBuf);
+        int count = 0;
+        for (DeadLetter<T> r : batch) {
+            try {
+                byte[] itemBytes = serializer.serialize(r.item());
+                recordBuf.reset();
+                record.writeLong(r.timestamp());
+                record.writeInt(r.attempts());
+                record.writeUTF(r.exceptionClass());
+                record.writeUTF(r.message());
+                record.writeInt(itemBytes.length);
+                record.write(itemBytes);
+                out.writeInt(recordBuf.size());
+                recordBuf.writeTo(out);
+                count++;
+            } catch (IOException e) {
+                dropped.incrementAndGet();
+                log.error("死信 [{}] 序列化失败，丢弃数据项: {}", name, r.item(), e);
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bos.toByteArray());
+        synchronized (fileLock) {
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (fsyncPolicy == FsyncPolicy.BATCH) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        written.addAndGet(count);
+        writtenBytes.addAndGet(buffer.capacity());
+    }
+
+    /**
+     * 一次回放会话：按写入顺序依次读出所有回放文件中的记录
+     */
+    public class Replay implements Iterator<DeadLetter<T>>, AutoCloseable {
+        private final List<Path> files;
+        private int fileIndex = -1;
+        private RecordReader reader;
+        private DeadLetter<T> nextRecord;
+
+        private Replay(List<Path> files) {
+            this.files = files;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextRecord == null) {
+                    if (reader == null) {
+                        if (++fileIndex >= files.size()) return false;
+                        reader = new RecordReader(files.get(fileIndex), true);
+                    }
+                    nextRecord = reader.next();
+                    if (nextRecord == null) {
+                        reader.close();
+                        reader = null;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("死信 [" + name + "] 回放读取失败", e);
+            }
+        }
+
+        @Override
+        public DeadLetter<T> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            DeadLetter<T> r = nextRecord;
+            nextRecord = null;
+            replayed.incrementAndGet();
+            return r;
+        }
+
+        public int fileCount() { return files.size(); }
+
+        /**
+         * 回放结束：删除已回放的文件
+         */
+        public void finish() {
+            close();
+            for (Path f : files) {
+                try {
+                    Files.deleteIfExists(f);
+                } catch (IOException e) {
+                    log.warn("删除死信回放文件失败: {}", f, e);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {}
+                reader = null;
+            }
+        }
+    }
+
+    private class RecordReader implements Closeable {
+        private final Path file;
+        private final DataInputStream in;
+        private final boolean quarantine;
+
+        /**
+         * @param quarantine 是否把无法解析的记录移入隔离文件（回放时）；否则只跳过（查看时）
+         */
+        RecordReader(Path file, boolean quarantine) throws IOException {
+            this.file = file;
+            this.quarantine = quarantine;
+            this.in = Files.exists(file)
+                    ? new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))
+                    : new DataInputStream(InputStream.nullInputStream());
+        }
+
+        /**
+         * @return 下一条记录；文件结束、长度字段损坏或遇到崩溃导致的不完整尾记录时返回 null
+         */
+        DeadLetter<T> next() throws IOException {
+            while (true) {
+                int len;
+                try {
+                    len = in.readInt();
+                } catch (EOFException e) {
+                    return null;
+                }
+                if (len <= 0 || len > MAX_RECORD_BYTES) {
+                    byte[] rest = in.readAllBytes();
+                    log.warn("死信 [{}] {} 记录长度异常({})，余下 {} 字节无法解析{}", name, file.getFileName(), len,
+                            rest.length, quarantine ? "，已移入隔离文件" : "");
+                    if (quarantine) {
+                        quarantine(ByteBuffer.allocate(4 + rest.length).putInt(len).put(rest).array());
+                    }
+                    return null;
+                }
+                byte[] payload = in.readNBytes(len);
+                if (payload.length < len) {
+                    log.warn("死信 [{}] 文件尾部存在不完整记录，已忽略", name);
+                    return null;
+                }
+                try {
+                    return decode(payload);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("死信 [{}] {} 存在无法解析的记录({} 字节){}: {}", name, file.getFileName(), len,
+                            quarantine ? "，已移入隔离文件" : "，已跳过", e.toString());
+                    if (quarantine) {
+                        quarantine(ByteBuffer.allocate(4 + len).putInt(len).put(payload).array());
+                    }
+                }
+            }
+        }
+
+        private DeadLetter<T> decode(byte[] payload) throws IOException {
+            DataInputStream rec = new DataInputStream(new ByteArrayInputStream(payload));
+            long ts = rec.readLong();
+            int attempts = rec.readInt();
+            String exClass = rec.readUTF();
+            String message = rec.readUTF();
+            byte[] itemBytes = new byte[rec.readInt()];
+            rec.readFully(itemBytes);
+            return new DeadLetter<>(serializer.deserialize(itemBytes), exClass, message, attempts, ts);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // ---------- metrics accessors ----------
+    public String getName() { return name; }
+    public FsyncPolicy getFsyncPolicy() { return fsyncPolicy; }
+    public long getAppended() { return appended.get(); }
+    public long getWritten() { return written.get(); }
+    public long getWrittenBytes() { return writtenBytes.get(); }
+    public long getReplayed() { return replayed.get(); }
+    public long getDropped() { return dropped.get(); }
+    public long getQuarantined() { return quarantined.get(); }
+    public int getPendingInBuffer() { return sink.getStats().pendingItems(); }
+}
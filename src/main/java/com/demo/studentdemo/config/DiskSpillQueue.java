@@ -0,0 +1,555 @@
+package com.demo.studentdemo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * DiskSpillQueue - 内存 + 磁盘溢写的 FIFO 队列
+ *
+ * 内存部分最多保存 memoryCapacity 个元素；超出后的元素经 ItemSerializer 序列化，
+ * 追加写入内存映射的段文件（segment），消费时按写入顺序读回。
+ *
+ * 顺序保证：只要磁盘上还有未读回的元素，新元素一律继续写磁盘，
+ * 因此内存中的元素总是早于磁盘中的元素，整体保持 FIFO。
+ *
+ * offer/put 永不阻塞（磁盘写满时抛出 UncheckedIOException），适合上游是数据库游标等
+ * 不能长时间停顿的生产者。已读完的段文件会被回收复用，超过 maxFreeSegments 的空闲段直接删除。
+ * 删除段文件前显式解除内存映射，不依赖 GC 回收映射区。
+ *
+ * iterator() 是弱一致的快照迭代器：内存部分在创建时复制，磁盘部分逐条按需读取，不消费元素；
+ * 迭代期间已被消费并复用的段直接跳过。clear() 直接复位段文件，不逐条读回反序列化。
+ *
+ * @param <T> 元素类型
+ */
+public class DiskSpillQueue<T> extends AbstractQueue<T> implements BlockingQueue<T>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiskSpillQueue.class);
+    private static final AtomicInteger QUEUE_SEQ = new AtomicInteger();
+
+    /**
+     * 溢写统计快照
+     *
+     * @param inMemory            当前内存中的元素数
+     * @param onDisk              当前磁盘中尚未读回的元素数
+     * @param spilledItems        累计溢写元素数
+     * @param spilledBytes        累计溢写字节数（含 4 字节长度头）
+     * @param readBackItems       累计读回元素数
+     * @param readBackBytes       累计读回字节数
+     * @param readBackPerSecond   首次溢写以来的平均读回速率（条/秒）
+     * @param activeSegments      正在使用的段文件数
+     * @param freeSegments        可复用的空闲段文件数
+     * @param segmentsCreated     累计创建的段文件数
+     * @param segmentsRecycled    累计回收复用的段文件数
+     */
+    public record SpillStats(int inMemory, long onDisk, long spilledItems, long spilledBytes,
+                             long readBackItems, long readBackBytes, double readBackPerSecond,
+                             int activeSegments, int freeSegments, long segmentsCreated, long segmentsRecycled) {
+    }
+
+    // ---------- config ----------
+    private final int memoryCapacity;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxFreeSegments;
+    private final ItemSerializer<T> serializer;
+    private final String filePrefix;
+
+    // ---------- state (guarded by lock) ----------
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<T> memory;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();     // head 读，tail 写
+    private final ArrayDeque<Segment> freeSegments = new ArrayDeque<>(); // 已回收可复用
+    private long onDisk;
+    private boolean closed;
+    private int segmentSeq;
+
+    // metrics (guarded by lock)
+    private long spilledItems;
+    private long spilledBytes;
+    private long readBackItems;
+    private long readBackBytes;
+    private long segmentsCreated;
+    private long segmentsRecycled;
+    private long firstSpillNanos;
+
+    /**
+     * @param memoryCapacity  内存部分容量
+     * @param directory       段文件目录
+     * @param segmentBytes    单个段文件大小；单条记录超过该值时会为其创建更大的专用段
+     * @param maxFreeSegments 最多保留的空闲段文件数
+     * @param serializer      元素序列化器
+     */
+    public DiskSpillQueue(int memoryCapacity, Path directory, int segmentBytes, int maxFreeSegments,
+                          ItemSerializer<T> serializer) {
+        this.memoryCapacity = Math.max(1, memoryCapacity);
+        this.directory = Objects.requireNonNull(directory, "directory");
+        this.segmentBytes = Math.max(4096, segmentBytes);
+        this.maxFreeSegments = Math.max(0, maxFreeSegments);
+        this.serializer = Objects.requireNonNull(serializer, "serializer");
+        this.memory = new ArrayDeque<>(Math.min(this.memoryCapacity, 4096));
+        this.filePrefix = "spill-" + ProcessHandle.current().pid() + "-" + QUEUE_SEQ.incrementAndGet() + "-";
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法创建溢写目录: " + directory, e);
+        }
+    }
+
+    // ---------- Queue / BlockingQueue ----------
+    @Override
+    public boolean offer(T item) {
+        Objects.requireNonNull(item, "item");
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("溢写队列已关闭");
+            if (onDisk == 0 && memory.size() < memoryCapacity) {
+                memory.addLast(item);
+            } else {
+                spill(item);
+            }
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(T item) {
+        offer(item);
+    }
+
+    @Override
+    public boolean offer(T item, long timeout, TimeUnit unit) {
+        return offer(item);
+    }
+
+    @Override
+    public T poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (isEmptyLocked()) {
+                if (nanos <= 0L) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (isEmptyLocked()) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T peek() {
+        lock.lock();
+        try {
+            if (!memory.isEmpty()) return memory.peekFirst();
+            if (onDisk == 0) return null;
+            Segment head = segments.peekFirst();
+            return deserialize(head.read(false));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, memory.size() + onDisk);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> c, int maxElements) {
+        Objects.requireNonNull(c, "c");
+        if (c == this) throw new IllegalArgumentException();
+        int n = 0;
+        lock.lock();
+        try {
+            T item;
+            while (n < maxElements && (item = dequeue()) != null) {
+                c.add(item);
+                n++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return n;
+    }
+
+    /**
+     * 按队列顺序遍历创建时刻的元素，不消费；磁盘中的元素在迭代时才读回
+     */
+    @Override
+    public Iterator<T> iterator() {
+        lock.lock();
+        try {
+            List<SegmentRange> ranges = new ArrayList<>(segments.size());
+            for (Segment s : segments) {
+                ranges.add(new SegmentRange(s, s.epoch, s.readPos, s.writePos));
+            }
+            return new SnapshotIterator(new ArrayList<>(memory).iterator(), ranges);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 丢弃全部元素：段文件直接复位（或超出空闲上限时删除），不读回反序列化
+     */
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            memory.clear();
+            onDisk = 0;
+            for (Segment s : segments) {
+                if (s.capacity == segmentBytes && freeSegments.size() < maxFreeSegments) {
+                    s.reset();
+                    freeSegments.addLast(s);
+                } else {
+                    s.destroy();
+                }
+            }
+            segments.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DiskSpillQueue" + getStats();
+    }
+
+    /**
+     * 关闭队列并删除全部段文件；未读回的元素将被丢弃
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            memory.clear();
+            onDisk = 0;
+            for (Segment s : segments) s.destroy();
+            for (Segment s : freeSegments) s.destroy();
+            segments.clear();
+            freeSegments.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------- internals ----------
+    private boolean isEmptyLocked() {
+        return memory.isEmpty() && onDisk == 0;
+    }
+
+    private T dequeue() {
+        if (!memory.isEmpty()) return memory.pollFirst();
+        if (onDisk == 0) return null;
+
+        Segment head = segments.peekFirst();
+        byte[] bytes = head.read(true);
+        onDisk--;
+        readBackItems++;
+        readBackBytes += bytes.length + 4L;
+        if (head.fullyRead()) {
+            recycle(head);
+        }
+        return deserialize(bytes);
+    }
+
+    private void spill(T item) {
+        byte[] bytes;
+        try {
+            bytes = serializer.serialize(item);
+        } catch (IOException e) {
+            throw new UncheckedIOException("溢写序列化失败", e);
+        }
+        int recordBytes = bytes.length + 4;
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.remaining() < recordBytes) {
+            tail = obtainSegment(recordBytes);
+            segments.addLast(tail);
+        }
+        tail.write(bytes);
+        if (firstSpillNanos == 0L) firstSpillNanos = System.nanoTime();
+        onDisk++;
+        spilledItems++;
+        spilledBytes += recordBytes;
+    }
+
+    private Segment obtainSegment(int minBytes) {
+        if (minBytes <= segmentBytes) {
+            Segment free = freeSegments.pollFirst();
+            if (free != null) {
+                segmentsRecycled++;
+                return free;
+            }
+        }
+        Path file = directory.resolve(filePrefix + (segmentSeq++) + ".seg");
+        segmentsCreated++;
+        return new Segment(file, Math.max(segmentBytes, minBytes));
+    }
+
+    private void recycle(Segment head) {
+        if (segments.size() == 1) {
+            // 唯一的段既是读段也是写段：读完后原地复位继续写
+            head.reset();
+            return;
+        }
+        segments.pollFirst();
+        if (head.capacity == segmentBytes && freeSegments.size() < maxFreeSegments) {
+            head.reset();
+            freeSegments.addLast(head);
+        } else {
+            head.destroy();
+        }
+    }
+
+    private T deserialize(byte[] bytes) {
+        try {
+            return serializer.deserialize(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("溢写数据反序列化失败", e);
+        }
+    }
+
+    /**
+     * 迭代器创建时某个段中尚未读回的记录区间
+     */
+    private record SegmentRange(Segment segment, int epoch, int from, int to) {
+    }
+
+    private final class SnapshotIterator implements Iterator<T> {
+        private final Iterator<T> memoryItems;
+        private final List<SegmentRange> ranges;
+        private int rangeIndex;
+        private int pos = -1;
+        private T next;
+
+        SnapshotIterator(Iterator<T> memoryItems, List<SegmentRange> ranges) {
+            this.memoryItems = memoryItems;
+            this.ranges = ranges;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            if (memoryItems.hasNext()) {
+                next = memoryItems.next();
+                return true;
+            }
+            lock.lock();
+            try {
+                while (rangeIndex < ranges.size()) {
+                    SegmentRange r = ranges.get(rangeIndex);
+                    if (pos < 0) pos = r.from();
+                    // 段已被复用或删除：其中的元素已全部消费
+                    if (r.segment().epoch != r.epoch() || pos >= r.to()) {
+                        rangeIndex++;
+                        pos = -1;
+                        continue;
+                    }
+                    byte[] bytes = r.segment().readAt(pos);
+                    pos += bytes.length + 4;
+                    next = deserialize(bytes);
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            T item = next;
+            next = null;
+            return item;
+        }
+    }
+
+    // ---------- metrics accessors ----------
+    public SpillStats getStats() {
+        lock.lock();
+        try {
+            double elapsedSeconds = firstSpillNanos == 0L ? 0D : (System.nanoTime() - firstSpillNanos) / 1_000_000_000D;
+            return new SpillStats(memory.size(), onDisk, spilledItems, spilledBytes, readBackItems, readBackBytes,
+                    elapsedSeconds <= 0D ? 0D : readBackItems / elapsedSeconds,
+                    segments.size(), freeSegments.size(), segmentsCreated, segmentsRecycled);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 内存映射的段文件，记录格式：[int 长度][字节内容]
+     */
+    private static final class Segment {
+        private final Path file;
+        private final int capacity;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePos;
+        private int readPos;
+        /**
+         * 每次复位或删除时递增，供迭代器判断快照区间是否仍有效
+         */
+        private int epoch;
+
+        Segment(Path file, int capacity) {
+            this.file = file;
+            this.capacity = capacity;
+            try {
+                this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            } catch (IOException e) {
+                throw new UncheckedIOException("无法创建溢写段文件: " + file, e);
+            }
+        }
+
+        int remaining() { return capacity - writePos; }
+
+        boolean fullyRead() { return readPos == writePos; }
+
+        void write(byte[] bytes) {
+            buffer.putInt(writePos, bytes.length);
+            buffer.put(writePos + 4, bytes);
+            writePos += bytes.length + 4;
+        }
+
+        byte[] read(boolean advance) {
+            byte[] bytes = readAt(readPos);
+            if (advance) readPos += bytes.length + 4;
+            return bytes;
+        }
+
+        byte[] readAt(int pos) {
+            int len = buffer.getInt(pos);
+            byte[] bytes = new byte[len];
+            buffer.get(pos + 4, bytes);
+            return bytes;
+        }
+
+        void reset() {
+            writePos = 0;
+            readPos = 0;
+            epoch++;
+        }
+
+        /**
+         * 解除映射并删除文件，之后不得再访问 buffer
+         */
+        void destroy() {
+            epoch++;
+            Unmapper.unmap(buffer);
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("删除溢写段文件失败: {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * 显式释放 MappedByteBuffer 的映射区. JDK 17 没有公开的解除映射 API，这里通过 jdk.unsupported 模块中的
+     * Unsafe.invokeCleaner 完成；不可用时退回到等待 GC 回收，并记录一次警告
+     */
+    private static final class Unmapper {
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> type = Class.forName("sun.misc.Unsafe");
+                Field field = type.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+                invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                log.warn("无法显式解除溢写段文件的内存映射，映射区将在 GC 时释放: {}", e.toString());
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void unmap(MappedByteBuffer buffer) {
+            if (INVOKE_CLEANER == null) return;
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException e) {
+                log.warn("解除溢写段文件内存映射失败: {}", e.toString());
+            }
+        }
+    }
+}
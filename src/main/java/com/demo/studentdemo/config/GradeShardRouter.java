@@ -0,0 +1,75 @@
+package com.demo.studentdemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * 成绩分片路由.
+ * 分片键为 student_id：先取 CRC32，再用跳跃一致性哈希（Jump Consistent Hash）映射到 [0, n)，
+ * 同一学生的全部成绩落在同一分片；在末尾追加分片时只有约 1/(n+1) 的学生需要迁移.
+ * 分片顺序即 grade.sharding.shards 的配置顺序，只能在末尾追加，不能调整已有分片的顺序.
+ */
+public class GradeShardRouter implements AutoCloseable {
+
+    /**
+     * 一个分片库
+     */
+    public record Shard(int index, HikariDataSource dataSource, JdbcTemplate jdbcTemplate) {
+        public String name() {
+            return "shard-" + index;
+        }
+    }
+
+    private final List<Shard> shards;
+
+    public GradeShardRouter(List<HikariDataSource> dataSources) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个成绩分片");
+        }
+        this.shards = IntStream.range(0, dataSources.size())
+                .mapToObj(i -> new Shard(i, dataSources.get(i), new JdbcTemplate(dataSources.get(i))))
+                .toList();
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public Shard shardOf(String studentId) {
+        return shards.get(shardIndex(studentId, shards.size()));
+    }
+
+    public static int shardIndex(String studentId, int shardCount) {
+        CRC32 crc = new CRC32();
+        crc.update(studentId.getBytes(StandardCharsets.UTF_8));
+        return jumpConsistentHash(crc.getValue(), shardCount);
+    }
+
+    /**
+     * Lamping & Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm"
+     */
+    static int jumpConsistentHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(s -> s.dataSource().close());
+    }
+}
@@ -0,0 +1,44 @@
+package com.demo.studentdemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 成绩分片配置，grade.sharding.enabled=true 时启用.
+ * 分片库 URL 由 grade.sharding.shards 逗号分隔给出（各库执行 sql/grade_shard.sql 建表），
+ * 用户名密码默认与主库相同. 学生、课程等其余表仍在主库.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "grade.sharding", name = "enabled", havingValue = "true")
+public class GradeShardingConfig {
+
+    @Bean
+    public GradeShardRouter gradeShardRouter(MeterRegistry meterRegistry,
+                                             @Value("${grade.sharding.shards}") List<String> urls,
+                                             @Value("${spring.datasource.driver-class-name}") String driver,
+                                             @Value("${grade.sharding.username:${spring.datasource.username}}") String username,
+                                             @Value("${grade.sharding.password:${spring.datasource.password}}") String password,
+                                             @Value("${grade.sharding.pool-size:4}") int poolSize) {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) continue;
+            HikariDataSource ds = new HikariDataSource();
+            ds.setPoolName("grade-shard-" + dataSources.size());
+            ds.setDriverClassName(driver);
+            ds.setJdbcUrl(url.trim());
+            ds.setUsername(username);
+            ds.setPassword(password);
+            ds.setMaximumPoolSize(poolSize);
+            ds.setMetricRegistry(meterRegistry);
+            dataSources.add(ds);
+        }
+        return new GradeShardRouter(dataSources);
+    }
+}
@@ -0,0 +1,42 @@
+package com.demo.studentdemo.config;
+
+import java.io.*;
+
+/**
+ * 批处理数据项的序列化器，用于把数据项写入本地文件（溢写队列、死信文件等）再读回.
+ * 默认提供基于 JDK 序列化的实现；对吞吐或体积敏感的场景可以自行实现更紧凑的编码.
+ *
+ * @param <T> 数据项类型
+ */
+public interface ItemSerializer<T> {
+
+    byte[] serialize(T item) throws IOException;
+
+    T deserialize(byte[] bytes) throws IOException;
+
+    /**
+     * JDK 序列化实现，数据项需实现 Serializable
+     */
+    static <T> ItemSerializer<T> javaSerialization() {
+        return new ItemSerializer<>() {
+            @Override
+            public byte[] serialize(T item) throws IOException {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+                try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                    oos.writeObject(item);
+                }
+                return bos.toByteArray();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T deserialize(byte[] bytes) throws IOException {
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (T) ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("无法反序列化数据项", e);
+                }
+            }
+        };
+    }
+}
@@ -5,7 +5,9 @@ import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -25,4 +27,23 @@ public class MybatisPlusConfig {
         // 如果有多数据源可以不配具体类型, 否则都建议配上具体的 DbType
         return interceptor;
     }
+
+    /**
+     * 配置 SQL 执行监控（耗时直方图、行数及慢 SQL 采集）
+     */
+    @Bean
+    public SqlMonitorInterceptor sqlMonitorInterceptor(MeterRegistry meterRegistry,
+                                                       @Value("${sql.monitor.slow-threshold-ms:200}") long slowThresholdMs,
+                                                       @Value("${sql.monitor.slow-capacity:200}") int slowCapacity,
+                                                       @Value("${sql.monitor.explain-enabled:false}") boolean explainEnabled) {
+        return new SqlMonitorInterceptor(meterRegistry, slowThresholdMs, slowCapacity, explainEnabled);
+    }
+
+    /**
+     * 登记 QueryCancellation 作用域内的查询语句，使扇出查询等可取消已不再需要的子查询
+     */
+    @Bean
+    public QueryCancellationInterceptor queryCancellationInterceptor() {
+        return new QueryCancellationInterceptor();
+    }
 }
\ No newline at end of file
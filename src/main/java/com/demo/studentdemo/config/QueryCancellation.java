@@ -0,0 +1,96 @@
+package com.demo.studentdemo.config;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * 可取消的一组查询.
+ * 在 run 的作用域内经 MyBatis 执行的语句由 QueryCancellationInterceptor 登记，cancel 时对正在执行的语句调用 Statement.cancel
+ * （MySQL 驱动另开连接发送 KILL QUERY），作用域内尚未开始的语句直接抛出 CancellationException；
+ * 可选地为每条语句设置查询超时，兜底调用方未能取消的情况.
+ *
+ * 语句只在 StatementHandler.query 执行期间登记：结束后连接随即归还连接池，此后再 cancel 可能误杀复用该连接的其他查询.
+ */
+public final class QueryCancellation {
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private final int timeoutSeconds;
+    private final Set<Statement> running = new HashSet<>();
+    private boolean cancelled;
+
+    /**
+     * @param timeoutSeconds 每条语句的查询超时，0 为不设置（沿用 MyBatis 配置）
+     */
+    public QueryCancellation(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * 在当前线程上执行 action，其间的语句可被 cancel 取消；同一实例可在多个线程上并发使用
+     */
+    public <T> T run(Supplier<T> action) {
+        QueryCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 取消正在执行的语句，并拒绝此后开始的语句；可重复调用
+     */
+    public void cancel() {
+        synchronized (running) {
+            cancelled = true;
+            for (Statement statement : running) {
+                try {
+                    statement.cancel();
+                } catch (SQLException | RuntimeException ignored) {
+                    // 语句恰好执行完毕或驱动不支持取消，超时兜底
+                }
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        synchronized (running) {
+            return cancelled;
+        }
+    }
+
+    static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 语句开始执行前登记；已取消时抛出 CancellationException
+     */
+    void register(Statement statement) throws SQLException {
+        synchronized (running) {
+            if (cancelled) {
+                throw new CancellationException("查询已取消");
+            }
+            running.add(statement);
+        }
+        if (timeoutSeconds > 0) {
+            statement.setQueryTimeout(timeoutSeconds);
+        }
+    }
+
+    void unregister(Statement statement) {
+        synchronized (running) {
+            running.remove(statement);
+        }
+    }
+}
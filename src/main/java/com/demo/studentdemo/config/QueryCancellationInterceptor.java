@@ -0,0 +1,36 @@
+package com.demo.studentdemo.config;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Statement;
+
+/**
+ * 把 QueryCancellation 作用域内执行的查询语句登记到该作用域，使其可被取消.
+ * 拦截 StatementHandler.query：此时语句已预编译、参数已绑定，返回前结果集已读完，
+ * 登记区间恰好覆盖语句占用连接执行的时段. 作用域之外的语句原样执行.
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class})
+})
+public class QueryCancellationInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        QueryCancellation cancellation = QueryCancellation.current();
+        if (cancellation == null) {
+            return invocation.proceed();
+        }
+        Statement statement = (Statement) invocation.getArgs()[0];
+        cancellation.register(statement);
+        try {
+            return invocation.proceed();
+        } finally {
+            cancellation.unregister(statement);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.demo.studentdemo.config;
+
+import com.demo.studentdemo.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按资源名共享的限流器注册表.
+ * 访问同一资源（如 "mysql"）的所有批任务拿到的是同一个令牌桶，从而对该资源形成统一的吞吐上限.
+ *
+ * 初始参数读取配置：
+ *   batch.rate-limit.{name}.permits-per-second  （默认 0，即不限流）
+ *   batch.rate-limit.{name}.burst               （默认与速率相同）
+ */
+@Component
+public class RateLimiterRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiterRegistry.class);
+
+    private final Environment environment;
+    private final Map<String, TokenBucketRateLimiter> limiters = new ConcurrentHashMap<>();
+
+    public RateLimiterRegistry(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * 获取（不存在则按配置创建）指定资源的限流器
+     */
+    public TokenBucketRateLimiter get(String resourceName) {
+        return limiters.computeIfAbsent(resourceName, name -> {
+            double rate = environment.getProperty("batch.rate-limit." + name + ".permits-per-second", Double.class, 0D);
+            long burst = environment.getProperty("batch.rate-limit." + name + ".burst", Long.class, (long) Math.max(1D, rate));
+            log.info("创建限流器 [{}]，速率: {}/s，突发容量: {}", name, rate, burst);
+            return new TokenBucketRateLimiter(name, rate, burst);
+        });
+    }
+
+    /**
+     * 查找已创建的限流器，不存在时不创建（供管理接口使用，避免任意名称导致限流器无限增长）
+     */
+    public TokenBucketRateLimiter find(String resourceName) {
+        TokenBucketRateLimiter limiter = limiters.get(resourceName);
+        if (limiter == null) {
+            throw new BusinessException(404, "限流器不存在: " + resourceName);
+        }
+        return limiter;
+    }
+
+    /**
+     * 运行期调整已创建的限流器的参数
+     */
+    public TokenBucketRateLimiter update(String resourceName, double permitsPerSecond, long burst) {
+        TokenBucketRateLimiter limiter = find(resourceName);
+        limiter.update(permitsPerSecond, burst);
+        log.info("限流器 [{}] 已调整，速率: {}/s，突发容量: {}", resourceName, permitsPerSecond, burst);
+        return limiter;
+    }
+
+    public List<TokenBucketRateLimiter> list() {
+        List<TokenBucketRateLimiter> all = new ArrayList<>(limiters.values());
+        all.sort(Comparator.comparing(TokenBucketRateLimiter::getName));
+        return all;
+    }
+}
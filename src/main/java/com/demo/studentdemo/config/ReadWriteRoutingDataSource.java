@@ -0,0 +1,224 @@
+package com.demo.studentdemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源.
+ * 仅当 DataSourceRouting 标记当前语句只读、且不在事务中时才选择从库，其余一律走主库.
+ *
+ * 从库选择：在健康的从库中取活跃连接数最少者，并列时轮询；
+ * 健康检查由 checkReplicas() 定时执行，连接失败或复制延迟超过阈值的从库被摘除，恢复后自动加回；
+ * 没有可用从库、或从库取连接失败时回退主库.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    public static final String PRIMARY = "primary";
+
+    /**
+     * 复制延迟探测方式：REPLICA_STATUS 读取 SHOW REPLICA STATUS 的 Seconds_Behind_Source；
+     * NONE 只检查连通性（本地用两个独立实例调试时使用）
+     */
+    public enum LagProbe {
+        REPLICA_STATUS, NONE
+    }
+
+    /**
+     * 一个路由目标（主库或某个从库）
+     */
+    public static final class Target {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final LongAdder routed = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private volatile boolean healthy = true;
+        private volatile Long lagSeconds;
+        private volatile String lastError;
+        private volatile long lastCheckedAt;
+
+        Target(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() { return name; }
+        public String getJdbcUrl() { return dataSource.getJdbcUrl(); }
+        public boolean isHealthy() { return healthy; }
+        public Long getLagSeconds() { return lagSeconds; }
+        public String getLastError() { return lastError; }
+        public long getLastCheckedAt() { return lastCheckedAt; }
+        public long getRouted() { return routed.sum(); }
+        public long getFailures() { return failures.sum(); }
+
+        /**
+         * 连接池实时状态，池尚未初始化时为 null
+         */
+        public HikariPoolMXBean getPool() {
+            return dataSource.getHikariPoolMXBean();
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean pool = getPool();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+
+        private void markDown(String error) {
+            if (healthy) {
+                log.warn("从库 {} 已摘除: {}", name, error);
+            }
+            healthy = false;
+            lastError = error;
+        }
+    }
+
+    private final Target primary;
+    private final List<Target> replicas;
+    private final LagProbe lagProbe;
+    private final long maxLagSeconds;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                      LagProbe lagProbe, long maxLagSeconds) {
+        this.primary = new Target(PRIMARY, primary);
+        List<Target> targets = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.add(new Target("replica-" + i, replicas.get(i)));
+        }
+        this.replicas = List.copyOf(targets);
+        this.lagProbe = lagProbe;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (DataSourceRouting.replicaAllowed()
+                && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            Target replica = chooseReplica();
+            if (replica != null) {
+                try {
+                    return acquire(replica);
+                } catch (SQLException e) {
+                    replica.markDown(e.getMessage());
+                    fallbacks.increment();
+                }
+            } else if (!replicas.isEmpty()) {
+                fallbacks.increment();
+            }
+        }
+        return acquire(primary);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("读写分离数据源不支持指定用户名密码取连接");
+    }
+
+    private Connection acquire(Target target) throws SQLException {
+        try {
+            Connection connection = target.dataSource.getConnection();
+            target.routed.increment();
+            DataSourceRouting.recordTarget(target.name);
+            return connection;
+        } catch (SQLException e) {
+            target.failures.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * 健康从库中活跃连接最少者，从轮询位置开始比较以打散并列
+     */
+    private Target chooseReplica() {
+        int n = replicas.size();
+        if (n == 0) return null;
+        int start = Math.floorMod(cursor.getAndIncrement(), n);
+        Target best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            Target t = replicas.get((start + i) % n);
+            if (!t.healthy) continue;
+            int active = t.activeConnections();
+            if (active < bestActive) {
+                best = t;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 检查各从库连通性及复制延迟，更新健康状态
+     */
+    public void checkReplicas() {
+        for (Target replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                Long lag = lagProbe == LagProbe.REPLICA_STATUS ? probeLag(connection) : null;
+                replica.lagSeconds = lag;
+                if (lagProbe == LagProbe.REPLICA_STATUS && lag == null) {
+                    replica.markDown("复制未运行");
+                } else if (lag != null && lag > maxLagSeconds) {
+                    replica.markDown("复制延迟 " + lag + "s 超过阈值 " + maxLagSeconds + "s");
+                } else {
+                    if (!replica.healthy) {
+                        log.info("从库 {} 已恢复", replica.name);
+                    }
+                    replica.healthy = true;
+                    replica.lastError = null;
+                }
+            } catch (SQLException e) {
+                replica.failures.increment();
+                replica.markDown(e.getMessage());
+            } finally {
+                replica.lastCheckedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * @return 复制延迟秒数；不是从库或复制线程未运行时为 null
+     */
+    private static Long probeLag(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) return null;
+            long lag = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? null : lag;
+        }
+    }
+
+    public Target getPrimary() {
+        return primary;
+    }
+
+    public List<Target> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 本应走从库却因无可用从库或取连接失败而回退主库的次数
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    @Override
+    public void close() {
+        primary.dataSource.close();
+        replicas.forEach(r -> r.dataSource.close());
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.studentdemo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读写分离路由拦截器.
+ * 执行前按语句类型标记路由：SELECT（不含 FOR UPDATE / LOCK IN SHARE MODE）允许走从库，其余走主库；
+ * MyBatis-Spring 在语句首次执行时才取连接，因此标记能作用到本次取连接.
+ * 事务内连接在事务开始时已绑定主库，标记不再生效.
+ *
+ * 同时按实际目标记录语句耗时：Micrometer Timer "datasource.route.statement"，标签 target / type.
+ * 游标查询只计打开游标的耗时.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class ReadWriteRoutingInterceptor implements Interceptor {
+
+    public static final String TIMER_NAME = "datasource.route.statement";
+
+    private final MeterRegistry meterRegistry;
+
+    public ReadWriteRoutingInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        boolean readOnly = ms.getSqlCommandType() == SqlCommandType.SELECT && !isLockingRead(invocation, ms);
+        Boolean previous = DataSourceRouting.markReadOnly(readOnly);
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            DataSourceRouting.markReadOnly(previous);
+            String target = DataSourceRouting.lastTarget();
+            Timer.builder(TIMER_NAME)
+                    .tag("target", target == null ? "unknown" : target)
+                    .tag("type", ms.getSqlCommandType().name())
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static boolean isLockingRead(Invocation invocation, MappedStatement ms) {
+        Object[] args = invocation.getArgs();
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(args[1]);
+        String sql = boundSql.getSql().toLowerCase(Locale.ROOT);
+        return sql.contains("for update") || sql.contains("lock in share mode") || sql.contains("for share");
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.studentdemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置，datasource.routing.enabled=true 时启用，否则沿用 spring.datasource 单数据源.
+ * 主库取 spring.datasource.*，从库 URL 由 datasource.routing.replicas 逗号分隔给出，
+ * 用户名密码默认与主库相同. 各连接池注册到 Micrometer（hikaricp.connections.*，标签 pool）.
+ *
+ * 本地调试可启用 rwsplit profile（application-rwsplit.properties），用两个本地 MySQL 实例分别充当主从.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${datasource.routing.replicas:}") List<String> replicaUrls,
+                                                 @Value("${datasource.routing.replica-username:${spring.datasource.username}}") String replicaUsername,
+                                                 @Value("${datasource.routing.replica-password:${spring.datasource.password}}") String replicaPassword,
+                                                 @Value("${datasource.routing.lag-probe:REPLICA_STATUS}") ReadWriteRoutingDataSource.LagProbe lagProbe,
+                                                 @Value("${datasource.routing.max-lag-seconds:5}") long maxLagSeconds) {
+        HikariDataSource primary = pool(ReadWriteRoutingDataSource.PRIMARY, properties.determineDriverClassName(),
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword(), meterRegistry);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) continue;
+            replicas.add(pool("replica-" + replicas.size(), properties.determineDriverClassName(),
+                    url.trim(), replicaUsername, replicaPassword, meterRegistry));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, lagProbe, maxLagSeconds);
+    }
+
+    @Bean
+    public ReadWriteRoutingInterceptor readWriteRoutingInterceptor(MeterRegistry meterRegistry) {
+        return new ReadWriteRoutingInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public ReplicaHealthChecker replicaHealthChecker(ReadWriteRoutingDataSource dataSource) {
+        return new ReplicaHealthChecker(dataSource);
+    }
+
+    private static HikariDataSource pool(String name, String driver, String url, String username, String password,
+                                         MeterRegistry meterRegistry) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName(name);
+        ds.setDriverClassName(driver);
+        ds.setJdbcUrl(url);
+        ds.setUsername(username);
+        ds.setPassword(password);
+        ds.setMetricRegistry(meterRegistry);
+        return ds;
+    }
+
+    /**
+     * 定时检查从库健康与复制延迟
+     */
+    public static class ReplicaHealthChecker {
+
+        private final ReadWriteRoutingDataSource dataSource;
+
+        ReplicaHealthChecker(ReadWriteRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Scheduled(fixedDelayString = "${datasource.routing.check-interval-ms:5000}")
+        public void check() {
+            dataSource.checkReplicas();
+        }
+    }
+}
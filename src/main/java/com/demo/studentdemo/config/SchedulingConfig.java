@@ -0,0 +1,12 @@
+package com.demo.studentdemo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 开启 @Scheduled 定时任务（课程目录定时刷新等）
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,319 @@
+package com.demo.studentdemo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL 执行监控拦截器.
+ * 对每个 MappedStatement（含分页插件生成的 xxx_mpCount 统计语句）记录：
+ *   - 耗时直方图：Micrometer Timer "mybatis.statement"，标签 statement / type / outcome
+ *   - 返回/影响行数：DistributionSummary "mybatis.statement.rows"
+ * 耗时超过阈值的语句连同绑定参数写入有界环形缓冲区，可选地在同一连接上补采 EXPLAIN 执行计划.
+ *
+ * 以最高优先级注册，使其位于 MybatisPlusInterceptor 内层，从而能观测到分页插件发出的 count 查询.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class SqlMonitorInterceptor implements Interceptor, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMonitorInterceptor.class);
+    public static final String TIMER_NAME = "mybatis.statement";
+    public static final String ROWS_NAME = "mybatis.statement.rows";
+    private static final int MAX_PARAM_LENGTH = 200;
+    private static final int MAX_EXPLAIN_ROWS = 20;
+
+    /**
+     * 一条慢 SQL 记录
+     */
+    public record SlowStatement(String statementId, String type, String sql, List<String> parameters,
+                                long elapsedMillis, long rows, String error,
+                                List<Map<String, Object>> explain, long timestamp) {
+    }
+
+    /**
+     * 单个语句的耗时汇总（由 Micrometer 计量器聚合而来）
+     */
+    public record StatementStats(String statementId, String type, long count, long errors,
+                                 double meanMillis, double maxMillis, double p50Millis, double p95Millis,
+                                 double p99Millis, double meanRows, double maxRows) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final boolean explainEnabled;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    // slow statement ring buffer (guarded by this)
+    private final SlowStatement[] slowRing;
+    private int slowNext;
+    private long slowTotal;
+
+    public SqlMonitorInterceptor(MeterRegistry meterRegistry, long slowThresholdMillis, int slowCapacity,
+                                 boolean explainEnabled) {
+        if (slowCapacity < 1) {
+            throw new IllegalArgumentException("slowCapacity must be > 0");
+        }
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.explainEnabled = explainEnabled;
+        this.slowRing = new SlowStatement[slowCapacity];
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        Object parameter = args[1];
+        long start = System.nanoTime();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long rows = rowCount(result);
+            try {
+                record(ms, elapsed, rows, failure);
+                if (elapsed >= slowThresholdNanos) {
+                    BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(parameter);
+                    // a streaming cursor still owns the connection, so EXPLAIN is only attempted for plain queries
+                    boolean explain = explainEnabled && failure == null && !(result instanceof Cursor)
+                            && ms.getSqlCommandType() == SqlCommandType.SELECT;
+                    captureSlow((Executor) invocation.getTarget(), ms, parameter, boundSql, elapsed, rows, failure, explain);
+                }
+            } catch (RuntimeException e) {
+                log.warn("SQL 监控记录失败: {}", ms.getId(), e);
+            }
+        }
+    }
+
+    // ---------- metrics ----------
+    private static final class Meters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+
+        private Meters(Timer success, Timer error, DistributionSummary rows) {
+            this.success = success;
+            this.error = error;
+            this.rows = rows;
+        }
+    }
+
+    private void record(MappedStatement ms, long elapsedNanos, long rows, Throwable failure) {
+        Meters m = meters.computeIfAbsent(ms.getId(), id -> {
+            String type = ms.getSqlCommandType().name();
+            return new Meters(timer(id, type, "success"), timer(id, type, "error"),
+                    DistributionSummary.builder(ROWS_NAME)
+                            .description("MyBatis 语句返回/影响行数")
+                            .tags("statement", id, "type", type)
+                            .publishPercentiles(0.5, 0.95)
+                            .register(meterRegistry));
+        });
+        (failure == null ? m.success : m.error).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (failure == null && rows >= 0) {
+            m.rows.record(rows);
+        }
+    }
+
+    private Timer timer(String statementId, String type, String outcome) {
+        return Timer.builder(TIMER_NAME)
+                .description("MyBatis 语句执行耗时")
+                .tags("statement", statementId, "type", type, "outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static long rowCount(Object result) {
+        if (result instanceof Collection<?> c) return c.size();
+        if (result instanceof Integer i) return i;
+        return -1L;
+    }
+
+    // ---------- slow statements ----------
+    private void captureSlow(Executor executor, MappedStatement ms, Object parameter, BoundSql boundSql,
+                             long elapsedNanos, long rows, Throwable failure, boolean explain) {
+        String sql = boundSql.getSql().replaceAll("\\s+", " ").trim();
+        List<String> params = boundParameters(ms.getConfiguration(), boundSql, parameter);
+        List<Map<String, Object>> plan = explain ? explain(executor, ms, parameter, boundSql) : List.of();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        String error = failure == null ? null : failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        SlowStatement slow = new SlowStatement(ms.getId(), ms.getSqlCommandType().name(), sql, params,
+                elapsedMillis, rows, error, plan, System.currentTimeMillis());
+        synchronized (this) {
+            slowRing[slowNext] = slow;
+            slowNext = (slowNext + 1) % slowRing.length;
+            slowTotal++;
+        }
+        log.warn("慢 SQL [{}] 耗时 {} ms，行数: {}，SQL: {}，参数: {}", ms.getId(), elapsedMillis, rows, sql, params);
+    }
+
+    /**
+     * 按 DefaultParameterHandler 的取值规则解析绑定参数
+     */
+    private static List<String> boundParameters(Configuration configuration, BoundSql boundSql, Object parameter) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        if (mappings == null || mappings.isEmpty()) return List.of();
+        List<String> values = new ArrayList<>(mappings.size());
+        MetaObject metaObject = null;
+        for (ParameterMapping mapping : mappings) {
+            if (mapping.getMode() == ParameterMode.OUT) continue;
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                if (metaObject == null) metaObject = configuration.newMetaObject(parameter);
+                value = metaObject.getValue(property);
+            }
+            values.add(format(value));
+        }
+        return values;
+    }
+
+    private static String format(Object value) {
+        if (value == null) return "null";
+        String s = value instanceof CharSequence ? "'" + value + "'" : String.valueOf(value);
+        return s.length() > MAX_PARAM_LENGTH ? s.substring(0, MAX_PARAM_LENGTH) + "..." : s;
+    }
+
+    /**
+     * 在执行器当前连接上以相同绑定参数执行 EXPLAIN
+     */
+    private static List<Map<String, Object>> explain(Executor executor, MappedStatement ms, Object parameter,
+                                                     BoundSql boundSql) {
+        try {
+            Connection connection = executor.getTransaction().getConnection();
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+                ms.getConfiguration().newParameterHandler(ms, parameter, boundSql).setParameters(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    List<Map<String, Object>> rows = new ArrayList<>();
+                    while (rs.next() && rows.size() < MAX_EXPLAIN_ROWS) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int i = 1; i <= meta.getColumnCount(); i++) {
+                            row.put(meta.getColumnLabel(i), rs.getObject(i));
+                        }
+                        rows.add(row);
+                    }
+                    return rows;
+                }
+            }
+        } catch (Exception e) {
+            log.debug("EXPLAIN 采集失败: {}", ms.getId(), e);
+            return List.of(Map.of("error", e.getClass().getSimpleName() + ": " + e.getMessage()));
+        }
+    }
+
+    // ---------- queries ----------
+    /**
+     * 最近的慢 SQL，按时间倒序
+     */
+    public synchronized List<SlowStatement> getSlowStatements(int limit) {
+        List<SlowStatement> result = new ArrayList<>(Math.min(limit, slowRing.length));
+        for (int i = 1; i <= slowRing.length && result.size() < limit; i++) {
+            SlowStatement s = slowRing[Math.floorMod(slowNext - i, slowRing.length)];
+            if (s == null) break;
+            result.add(s);
+        }
+        return result;
+    }
+
+    public synchronized long getSlowTotal() {
+        return slowTotal;
+    }
+
+    public synchronized void clearSlowStatements() {
+        Arrays.fill(slowRing, null);
+        slowNext = 0;
+    }
+
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    public boolean isExplainEnabled() {
+        return explainEnabled;
+    }
+
+    /**
+     * 各语句的耗时汇总，按累计耗时倒序
+     */
+    public List<StatementStats> getStatementStats() {
+        List<StatementStats> stats = new ArrayList<>(meters.size());
+        meters.forEach((id, m) -> {
+            HistogramSnapshot snapshot = m.success.takeSnapshot();
+            double p50 = 0D, p95 = 0D, p99 = 0D;
+            for (ValueAtPercentile v : snapshot.percentileValues()) {
+                double millis = v.value(TimeUnit.MILLISECONDS);
+                if (v.percentile() == 0.5) p50 = millis;
+                else if (v.percentile() == 0.95) p95 = millis;
+                else if (v.percentile() == 0.99) p99 = millis;
+            }
+            String type = m.success.getId().getTag("type");
+            stats.add(new StatementStats(id, type, snapshot.count(), m.error.count(),
+                    snapshot.mean(TimeUnit.MILLISECONDS), snapshot.max(TimeUnit.MILLISECONDS),
+                    p50, p95, p99, m.rows.mean(), m.rows.max()));
+        });
+        stats.sort(Comparator.comparingDouble((StatementStats s) -> s.meanMillis() * s.count()).reversed());
+        return stats;
+    }
+}
@@ -2,31 +2,43 @@ package com.demo.studentdemo.config;
 
 
 import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Supplier;
 
 /**
  * StreamBatchProcessor - 基于生产者/消费者的批量处理器 (Spring Boot friendly)
  *
  * 使用：
- *   - 注入 Spring 管理的 ThreadPoolTaskExecutor（bean 名称随意）或不注入则使用默认内置线程池
+ *   - 注入 Spring 管理的 ThreadPoolTaskExecutor（bean 名称 streamBatchExecutor，舱壁 batch-stream）或不注入则使用默认内置线程池
  *   - 调用 processAndWait(...) 或 processAsync(...)
+ *   - builder().spillToDisk(dir) 开启溢写：超出 queueCapacity 的数据写入内存映射段文件（见 DiskSpillQueue），
+ *     生产者不再阻塞，堆内存占用保持在 queueCapacity 以内
  */
 @Component
 public class StreamBatchProcessor {
 
+    private static final Logger log = LoggerFactory.getLogger(StreamBatchProcessor.class);
+
     // ---------- Builder / config ----------
     public static class Builder {
         private int workerThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
@@ -35,6 +47,12 @@ public class StreamBatchProcessor {
         private int maxRetries = 0;
         private Duration producerOfferTimeout = Duration.ofSeconds(1);
         private ThreadPoolTaskExecutor providedExecutor = null;
+        private TokenBucketRateLimiter rateLimiter = null;
+        private Path spillDirectory = null;
+        private ItemSerializer<?> spillSerializer = null;
+        private int spillSegmentBytes = 64 * 1024 * 1024;
+        private int spillMaxFreeSegments = 4;
+        private DeadLetterStore<?> deadLetterStore = null;
 
         public Builder workerThreads(int w) { this.workerThreads = w; return this; }
         public Builder queueCapacity(int q) { this.queueCapacity = q; return this; }
@@ -42,6 +60,14 @@ public class StreamBatchProcessor {
         public Builder maxRetries(int r) { this.maxRetries = r; return this; }
         public Builder producerOfferTimeout(Duration d) { this.producerOfferTimeout = d; return this; }
         public Builder workerExecutor(ThreadPoolTaskExecutor exec) { this.providedExecutor = exec; return this; }
+        public Builder rateLimiter(TokenBucketRateLimiter limiter) { this.rateLimiter = limiter; return this; }
+        /** 开启溢写：超过 queueCapacity 的数据写入该目录下的内存映射段文件，生产者不再因队列满而阻塞 */
+        public Builder spillToDisk(Path directory) { this.spillDirectory = directory; return this; }
+        public Builder spillSerializer(ItemSerializer<?> serializer) { this.spillSerializer = serializer; return this; }
+        public Builder spillSegmentBytes(int bytes) { this.spillSegmentBytes = bytes; return this; }
+        public Builder spillMaxFreeSegments(int n) { this.spillMaxFreeSegments = n; return this; }
+        /** 最终失败（重试耗尽或结果消费异常）的数据项写入死信存储，数据项类型需与处理的数据一致 */
+        public Builder deadLetterStore(DeadLetterStore<?> store) { this.deadLetterStore = store; return this; }
 
         public StreamBatchProcessor build() { return new StreamBatchProcessor(this); }
     }
@@ -54,6 +80,15 @@ public class StreamBatchProcessor {
     private final long perTaskTimeoutMillis;
     private final int maxRetries;
     private final Duration producerOfferTimeout;
+    private final TokenBucketRateLimiter rateLimiter; // may be null: no rate limit
+
+    // overflow-to-disk config (spillDirectory == null: plain bounded in-memory queue)
+    private final Path spillDirectory;
+    private final ItemSerializer<?> spillSerializer;
+    private final int spillSegmentBytes;
+    private final int spillMaxFreeSegments;
+    private volatile DiskSpillQueue<?> spillQueue; // queue of the current/last run, for metrics
+    private final DeadLetterStore<?> deadLetterStore; // may be null
 
     // executors
     private final ThreadPoolTaskExecutor workerExecutor; // backing worker pool (Spring-friendly)
@@ -72,7 +107,7 @@ public class StreamBatchProcessor {
      * @param injectedExecutor may be null (then default will be created)
      */
     @Autowired
-    public StreamBatchProcessor(@Nullable ThreadPoolTaskExecutor injectedExecutor) {
+    public StreamBatchProcessor(@Nullable @Qualifier("streamBatchExecutor") ThreadPoolTaskExecutor injectedExecutor) {
         // reasonable defaults; user can still use builder() for custom instances
         Builder b = new Builder();
         if (injectedExecutor != null) {
@@ -100,6 +135,12 @@ public class StreamBatchProcessor {
         this.perTaskTimeoutMillis = 0L;
         this.maxRetries = 0;
         this.producerOfferTimeout = Duration.ofSeconds(1);
+        this.rateLimiter = null;
+        this.spillDirectory = null;
+        this.spillSerializer = null;
+        this.spillSegmentBytes = 0;
+        this.spillMaxFreeSegments = 0;
+        this.deadLetterStore = null;
 
         // single-thread scheduler for timeout interrupts (daemon)
         this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
@@ -116,6 +157,12 @@ public class StreamBatchProcessor {
         this.perTaskTimeoutMillis = Math.max(0L, b.perTaskTimeoutMillis);
         this.maxRetries = Math.max(0, b.maxRetries);
         this.producerOfferTimeout = b.producerOfferTimeout == null ? Duration.ofSeconds(1) : b.producerOfferTimeout;
+        this.rateLimiter = b.rateLimiter;
+        this.spillDirectory = b.spillDirectory;
+        this.spillSerializer = b.spillSerializer == null ? ItemSerializer.javaSerialization() : b.spillSerializer;
+        this.spillSegmentBytes = b.spillSegmentBytes;
+        this.spillMaxFreeSegments = b.spillMaxFreeSegments;
+        this.deadLetterStore = b.deadLetterStore;
 
         if (b.providedExecutor != null) {
             this.workerExecutor = b.providedExecutor;
@@ -153,12 +200,55 @@ public class StreamBatchProcessor {
                                       Function<T, R> mapper,
                                       BiConsumer<T, R> resultConsumer,
                                       BiConsumer<T, Throwable> errorConsumer) throws InterruptedException {
+        processAndWait(iteratorSupplier, mapper, resultConsumer, errorConsumer, null);
+    }
+
+    /**
+     * 受控版本：通过 BatchJobControl 在运行期暂停/恢复拉取、取消以及调整工作线程数，
+     * 进度计数同时记录在 control 上（见 BatchJobRegistry）。
+     *
+     * @param control 作业控制句柄，可为 null
+     */
+    public <T, R> void processAndWait(Supplier<Iterator<T>> iteratorSupplier,
+                                      Function<T, R> mapper,
+                                      BiConsumer<T, R> resultConsumer,
+                                      BiConsumer<T, Throwable> errorConsumer,
+                                      @Nullable BatchJobControl control) throws InterruptedException {
 
         Objects.requireNonNull(iteratorSupplier, "iteratorSupplier");
         Objects.requireNonNull(mapper, "mapper");
         Objects.requireNonNull(resultConsumer, "resultConsumer");
 
-        final BlockingQueue<T> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<T> queue = newQueue();
+        try {
+            runPipeline(queue, iteratorSupplier, mapper, resultConsumer, errorConsumer, control);
+        } finally {
+            if (queue instanceof DiskSpillQueue<?> spill) {
+                spill.close();
+            }
+            if (deadLetterStore != null) {
+                deadLetterStore.flush();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> BlockingQueue<T> newQueue() {
+        if (spillDirectory == null) {
+            return new ArrayBlockingQueue<>(queueCapacity);
+        }
+        DiskSpillQueue<T> spill = new DiskSpillQueue<>(queueCapacity, spillDirectory, spillSegmentBytes,
+                spillMaxFreeSegments, (ItemSerializer<T>) spillSerializer);
+        this.spillQueue = spill;
+        return spill;
+    }
+
+    private <T, R> void runPipeline(BlockingQueue<T> queue,
+                                    Supplier<Iterator<T>> iteratorSupplier,
+                                    Function<T, R> mapper,
+                                    BiConsumer<T, R> resultConsumer,
+                                    BiConsumer<T, Throwable> errorConsumer,
+                                    @Nullable BatchJobControl control) throws InterruptedException {
         final AtomicBoolean producerFinished = new AtomicBoolean(false);
         final AtomicBoolean stopRequested = new AtomicBoolean(false);
 
@@ -167,87 +257,147 @@ public class StreamBatchProcessor {
         consumed.set(0);
         failed.set(0);
 
-        // start worker threads - these threads are actual consumers and run on workerExecutor
-        CountDownLatch consumersDone = new CountDownLatch(workerThreads);
-        for (int i = 0; i < workerThreads; i++) {
-            workerExecutor.execute(() -> {
-                try {
-                    while (true) {
-                        if (stopRequested.get() && producerFinished.get() && queue.isEmpty()) {
+        // workers register on the phaser so that the pool can grow/shrink while the run is in progress;
+        // the orchestrating thread is the initial party and waits for every worker to deregister
+        final Phaser workersDone = new Phaser(1);
+        final AtomicInteger activeWorkers = new AtomicInteger();
+        final Set<Thread> workerThreadSet = ConcurrentHashMap.newKeySet();
+        final int initialWorkers = control != null && control.getWorkerThreads() > 0 ? control.getWorkerThreads() : workerThreads;
+
+        final Runnable worker = () -> {
+            Thread self = Thread.currentThread();
+            workerThreadSet.add(self);
+            boolean retired = false;
+            try {
+                while (true) {
+                    // shrink: retire this worker if there are more workers than requested
+                    if (control != null) {
+                        int active = activeWorkers.get();
+                        if (active > control.getWorkerThreads() && activeWorkers.compareAndSet(active, active - 1)) {
+                            retired = true;
                             break;
                         }
-                        T item = null;
-                        try {
-                            item = queue.poll(200, TimeUnit.MILLISECONDS);
-                        } catch (InterruptedException e) {
-                            // respect stop request
-                            if (stopRequested.get()) break;
-                            // else continue
+                    }
+                    if (stopRequested.get() && producerFinished.get() && queue.isEmpty()) {
+                        break;
+                    }
+                    T item = null;
+                    try {
+                        item = queue.poll(200, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        // respect stop request
+                        if (stopRequested.get()) break;
+                        // else continue
+                    } catch (RuntimeException e) {
+                        // spilled record could not be read back; report it and keep draining
+                        if (errorConsumer != null) errorConsumer.accept(null, e);
+                        continue;
+                    }
+                    if (item == null) {
+                        if (producerFinished.get() && queue.isEmpty()) {
+                            break;
                         }
-                        if (item == null) {
-                            if (producerFinished.get() && queue.isEmpty()) {
-                                break;
+                        continue;
+                    }
+
+                    boolean success = false;
+                    int attempts = 0;
+                    while (!success) {
+                        attempts++;
+                        ScheduledFuture<?> canceller = null;
+                        Thread current = Thread.currentThread();
+                        try {
+                            // every attempt (including retries) hits the downstream resource, so take a token first
+                            if (rateLimiter != null) rateLimiter.acquire();
+
+                            // schedule interrupt on this worker thread if timeout configured
+                            if (perTaskTimeoutMillis > 0) {
+                                canceller = scheduler.schedule(() -> {
+                                    // interrupt the worker thread to try to stop the task
+                                    current.interrupt();
+                                }, perTaskTimeoutMillis, TimeUnit.MILLISECONDS);
+                            }
+
+                            // execute mapper directly on this worker thread (no extra thread creation)
+                            R result = mapper.apply(item);
+
+                            // if we reach here, mapper finished normally
+                            if (canceller != null) canceller.cancel(false);
+                            // clear any interrupt status set by canceller to avoid affecting next tasks
+                            if (Thread.interrupted()) {
+                                // Thread.interrupted() clears the flag
                             }
-                            continue;
-                        }
 
-                        boolean success = false;
-                        int attempts = 0;
-                        while (!success) {
-                            attempts++;
-                            ScheduledFuture<?> canceller = null;
-                            Thread current = Thread.currentThread();
+                            // consume result
                             try {
-                                // schedule interrupt on this worker thread if timeout configured
-                                if (perTaskTimeoutMillis > 0) {
-                                    canceller = scheduler.schedule(() -> {
-                                        // interrupt the worker thread to try to stop the task
-                                        current.interrupt();
-                                    }, perTaskTimeoutMillis, TimeUnit.MILLISECONDS);
-                                }
-
-                                // execute mapper directly on this worker thread (no extra thread creation)
-                                R result = mapper.apply(item);
-
-                                // if we reach here, mapper finished normally
-                                if (canceller != null) canceller.cancel(false);
-                                // clear any interrupt status set by canceller to avoid affecting next tasks
-                                if (Thread.interrupted()) {
-                                    // Thread.interrupted() clears the flag
-                                }
-
-                                // consume result
-                                try {
-                                    resultConsumer.accept(item, result);
-                                } catch (Throwable rcEx) {
-                                    // consumer exception - treat as failed (no retry on consumer)
-                                    if (errorConsumer != null) errorConsumer.accept(item, rcEx);
-                                }
-                                consumed.incrementAndGet();
-                                success = true;
-                            } catch (Throwable ex) {
-                                // If interrupted due to timeout, ex may be some InterruptedException or other
-                                // Decide whether to retry
-                                if (canceller != null) canceller.cancel(false);
-                                // clear interrupt status to avoid leaking to next attempt
-                                if (Thread.interrupted()) {
-                                    // clears the flag
-                                }
-
-                                if (attempts > maxRetries) {
-                                    failed.incrementAndGet();
-                                    if (errorConsumer != null) errorConsumer.accept(item, ex);
-                                    break;
-                                }
-                                // else will retry
+                                resultConsumer.accept(item, result);
+                            } catch (Throwable rcEx) {
+                                // consumer exception - treat as failed (no retry on consumer)
+                                deadLetter(item, rcEx, attempts);
+                                if (errorConsumer != null) errorConsumer.accept(item, rcEx);
+                            }
+                            consumed.incrementAndGet();
+                            if (control != null) control.onConsumed();
+                            success = true;
+                        } catch (Throwable ex) {
+                            // If interrupted due to timeout, ex may be some InterruptedException or other
+                            // Decide whether to retry
+                            if (canceller != null) canceller.cancel(false);
+                            // clear interrupt status to avoid leaking to next attempt
+                            if (Thread.interrupted()) {
+                                // clears the flag
+                            }
+
+                            // cancelled job: the interrupt came from cancel(), drop the item without retry/dead-letter
+                            if (stopRequested.get() && control != null && control.isCancelled()) {
+                                break;
+                            }
+
+                            if (attempts > maxRetries) {
+                                failed.incrementAndGet();
+                                if (control != null) control.onFailed();
+                                deadLetter(item, ex, attempts);
+                                if (errorConsumer != null) errorConsumer.accept(item, ex);
+                                break;
                             }
-                        } // retry loop
-                    } // consumer loop
-                } finally {
-                    consumersDone.countDown();
+                            // else will retry
+                        }
+                    } // retry loop
+                } // consumer loop
+            } finally {
+                workerThreadSet.remove(self);
+                if (!retired) activeWorkers.decrementAndGet();
+                workersDone.arriveAndDeregister();
+            }
+        };
+
+        final Object spawnLock = new Object();
+        final AtomicBoolean runFinished = new AtomicBoolean(false);
+        // rejection that left the run without any worker; rethrown to the caller instead of starting the producer
+        final AtomicReference<RuntimeException> startRejection = new AtomicReference<>();
+        final IntConsumer spawnUpTo = requested -> {
+            synchronized (spawnLock) {
+                if (runFinished.get()) return;
+                int target = ensurePoolCapacity(requested);
+                while (activeWorkers.get() < target) {
+                    workersDone.register();
+                    activeWorkers.incrementAndGet();
+                    try {
+                        workerExecutor.execute(worker);
+                    } catch (RuntimeException e) {
+                        // executor saturated: keep the workers we already have
+                        activeWorkers.decrementAndGet();
+                        workersDone.arriveAndDeregister();
+                        if (activeWorkers.get() == 0) {
+                            startRejection.set(e);
+                        } else if (errorConsumer != null) {
+                            errorConsumer.accept(null, e);
+                        }
+                        break;
+                    }
                 }
-            });
-        }
+            }
+        };
 
         // producer thread (reads iterator and offers to queue with backpressure)
         Thread producer = new Thread(() -> {
@@ -258,7 +408,10 @@ public class StreamBatchProcessor {
                     producerFinished.set(true);
                     return;
                 }
-                while (!stopRequested.get() && it.hasNext()) {
+                while (!stopRequested.get()) {
+                    // paused jobs stop pulling from the source; queued items are still processed
+                    if (control != null && !control.awaitResume()) break;
+                    if (!it.hasNext()) break;
                     T item = it.next();
                     boolean offered = false;
                     while (!offered && !stopRequested.get()) {
@@ -268,9 +421,15 @@ public class StreamBatchProcessor {
                             if (stopRequested.get()) break;
                         }
                     }
-                    if (offered) produced.incrementAndGet();
-                    else break; // stop requested
+                    if (offered) {
+                        produced.incrementAndGet();
+                        if (control != null) control.onProduced();
+                    } else {
+                        break; // stop requested
+                    }
                 }
+            } catch (InterruptedException e) {
+                // cancelled while paused
             } catch (Throwable e) {
                 if (errorConsumer != null) errorConsumer.accept(null, e);
             } finally {
@@ -278,13 +437,98 @@ public class StreamBatchProcessor {
             }
         }, "stream-batch-producer");
 
+        if (control != null) {
+            control.attach(initialWorkers, spawnUpTo, () -> {
+                // cancel: stop pulling, drop queued items, interrupt in-flight work
+                stopRequested.set(true);
+                producer.interrupt();
+                queue.clear();
+                workerThreadSet.forEach(Thread::interrupt);
+            });
+        }
+
+        // start worker threads - these threads are actual consumers and run on workerExecutor
+        spawnUpTo.accept(initialWorkers);
+        RuntimeException rejected = startRejection.get();
+        if (rejected != null && activeWorkers.get() == 0) {
+            // nobody would drain the queue: the producer would fill it and block forever, so fail the run instead
+            stopRequested.set(true);
+            synchronized (spawnLock) {
+                runFinished.set(true);
+            }
+            if (control != null) control.detach();
+            throw rejected;
+        }
+
         producer.setDaemon(true);
         producer.start();
 
-        // wait producer done, then wait consumers drained
-        producer.join();
-        // wait until consumers finish processing all items
-        consumersDone.await();
+        try {
+            // wait producer done, then wait consumers drained
+            producer.join();
+            // wait until consumers finish processing all items
+            workersDone.arriveAndAwaitAdvance();
+        } finally {
+            synchronized (spawnLock) {
+                runFinished.set(true);
+            }
+            if (control != null) control.detach();
+        }
+    }
+
+    /**
+     * grow the internally owned pool when a running job asks for more workers than it can host;
+     * an injected executor is shared (bulkhead), so the request is clamped to its max pool size instead
+     *
+     * @return the number of workers the run should actually aim for
+     */
+    private int ensurePoolCapacity(int target) {
+        int max = workerExecutor.getMaxPoolSize();
+        if (target <= max) return target;
+        if (internalExecutorOwned.get()) {
+            workerExecutor.setMaxPoolSize(target);
+            workerExecutor.setCorePoolSize(target);
+            return target;
+        }
+        log.warn("请求 {} 个工作线程，超过注入线程池的最大线程数 {}，按 {} 个运行", target, max, max);
+        return max;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void deadLetter(T item, Throwable ex, int attempts) {
+        if (deadLetterStore == null) return;
+        try {
+            ((DeadLetterStore<T>) deadLetterStore).append(item, ex, attempts);
+        } catch (Throwable ignore) {
+            // dead-letter store closed or buffer rejected; errorConsumer still sees the failure
+        }
+    }
+
+    /**
+     * 结果写入 BatchingResultSink 的版本：结果按批量/等待时长阈值整批刷出，
+     * 处理结束（含异常退出）时会把缓冲区剩余结果全部刷写。sink 的关闭由调用方负责。
+     */
+    public <T, R> void processAndWait(Supplier<Iterator<T>> iteratorSupplier,
+                                      Function<T, R> mapper,
+                                      BatchingResultSink<R> resultSink,
+                                      BiConsumer<T, Throwable> errorConsumer) throws InterruptedException {
+        processAndWait(iteratorSupplier, mapper, resultSink, errorConsumer, null);
+    }
+
+    /**
+     * 结果写入 BatchingResultSink 的受控版本
+     */
+    public <T, R> void processAndWait(Supplier<Iterator<T>> iteratorSupplier,
+                                      Function<T, R> mapper,
+                                      BatchingResultSink<R> resultSink,
+                                      BiConsumer<T, Throwable> errorConsumer,
+                                      @Nullable BatchJobControl control) throws InterruptedException {
+        Objects.requireNonNull(resultSink, "resultSink");
+        try {
+            processAndWait(iteratorSupplier, mapper, resultSink.<T>asResultConsumer(), errorConsumer, control);
+        } finally {
+            resultSink.flush();
+        }
     }
 
     /**
@@ -309,6 +553,27 @@ public class StreamBatchProcessor {
         });
     }
 
+    /**
+     * 异步版本（结果写入 BatchingResultSink）
+     */
+    public <T, R> CompletableFuture<Void> processAsync(Supplier<Iterator<T>> iteratorSupplier,
+                                                       Function<T, R> mapper,
+                                                       BatchingResultSink<R> resultSink,
+                                                       BiConsumer<T, Throwable> errorConsumer) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                processAndWait(iteratorSupplier, mapper, resultSink, errorConsumer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }, runnable -> {
+            Thread t = new Thread(runnable, "stream-batch-orchestrator");
+            t.setDaemon(true);
+            t.start();
+        });
+    }
+
     // ---------- lifecycle ----------
     @PreDestroy
     public void shutdown() {
@@ -328,4 +593,13 @@ public class StreamBatchProcessor {
     public long getProduced() { return produced.get(); }
     public long getConsumed() { return consumed.get(); }
     public long getFailed() { return failed.get(); }
+
+    /**
+     * 溢写队列统计；未开启溢写或尚未运行时返回 null
+     */
+    @Nullable
+    public DiskSpillQueue.SpillStats getSpillStats() {
+        DiskSpillQueue<?> q = spillQueue;
+        return q == null ? null : q.getStats();
+    }
 }
@@ -4,16 +4,89 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+/**
+ * 各类负载的线程池，均为 BulkheadRegistry 中的具名舱壁，这里给出默认值，可通过 bulkhead.{name}.* 覆盖.
+ * 批任务、在线查询、异步接口互不共用线程与队列：失控的批任务只会占满自己的舱壁，不影响在线请求.
+ */
 @Configuration
 public class ThreadPoolConfig {
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * StreamBatchProcessor 单例的工作线程（舱壁 batch-stream）
+     */
+    @Bean
+    public ThreadPoolTaskExecutor streamBatchExecutor(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.get("batch-stream", CORES, 1000, Bulkhead.RejectionPolicy.ABORT).getExecutor();
+    }
+
+    /**
+     * BatchTaskProcessor 的任务执行线程（舱壁 batch-task）
+     */
+    @Bean
+    public ThreadPoolTaskExecutor batchTaskExecutor(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.get("batch-task", CORES, 1000, Bulkhead.RejectionPolicy.ABORT).getExecutor();
+    }
+
+    /**
+     * BatchJobRegistry 的作业编排线程（舱壁 batch-job）：每个运行中的作业占用一个线程，
+     * 其余作业排队，排队满时拒绝提交. 作业内部的并行处理仍在 batch-stream / batch-task 上执行
+     */
+    @Bean
+    public ThreadPoolTaskExecutor batchJobExecutor(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.get("batch-job", 4, 16, Bulkhead.RejectionPolicy.ABORT).getExecutor();
+    }
+
+    /**
+     * 成绩查询扇出（按学期 / 学号区间拆分的并行子查询、跨分片查询）专用线程池（舱壁 grade-query）.
+     * 每个子查询占用一个数据库连接，线程数应明显小于连接池大小，避免挤占在线请求的连接.
+     * 队列满时在请求线程上执行，查询变慢但不失败.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor gradeQueryExecutor(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.get("grade-query", 4, 256, Bulkhead.RejectionPolicy.CALLER_RUNS).getExecutor();
+    }
+
+    /**
+     * 院系看板全量构建时按学号区间并行扫描成绩（舱壁 dashboard-rebuild）. 每段占用一个数据库连接；
+     * 队列满时在构建线程上执行
+     */
+    @Bean
+    public ThreadPoolTaskExecutor dashboardRebuildExecutor(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.get("dashboard-rebuild", 4, 64, Bulkhead.RejectionPolicy.CALLER_RUNS).getExecutor();
+    }
+
+    /**
+     * Spring MVC 异步请求（StreamingResponseBody 及未指定线程池的 WebAsyncTask）的执行线程池（舱壁 web-async）.
+     * 慢接口在此池中执行，Tomcat 连接器线程立即释放；池满且队列满时拒绝，由全局异常处理返回 503，而不是让请求在连接器上排队.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.get("web-async", 32, 100, Bulkhead.RejectionPolicy.ABORT).getExecutor();
+    }
+
+    /**
+     * /demo 下同步等待批处理完成的接口（舱壁 web-demo），与其他异步接口隔离
+     */
+    @Bean
+    public ThreadPoolTaskExecutor demoRequestExecutor(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.get("web-demo", 4, 8, Bulkhead.RejectionPolicy.ABORT).getExecutor();
+    }
+
+    /**
+     * /student/queryAllGrade 分页查询（舱壁 web-grade-query）
+     */
+    @Bean
+    public ThreadPoolTaskExecutor gradeQueryRequestExecutor(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.get("web-grade-query", 32, 200, Bulkhead.RejectionPolicy.ABORT).getExecutor();
+    }
+
+    /**
+     * 登录时的 BCrypt 密码校验（舱壁 auth）. 纯 CPU 任务，线程数不超过核数；队列较短，排满即拒绝
+     */
     @Bean
-    public ThreadPoolTaskExecutor batchWorkerExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(Runtime.getRuntime().availableProcessors());
-        executor.setMaxPoolSize(Runtime.getRuntime().availableProcessors());
-        executor.setQueueCapacity(1000);
-        executor.setThreadNamePrefix("batch-worker-");
-        executor.initialize();
-        return executor;
+    public ThreadPoolTaskExecutor authExecutor(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.get("auth", CORES, CORES * 16, Bulkhead.RejectionPolicy.ABORT).getExecutor();
     }
 }
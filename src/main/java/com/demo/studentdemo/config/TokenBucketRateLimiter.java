@@ -0,0 +1,99 @@
+package com.demo.studentdemo.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TokenBucketRateLimiter - 令牌桶限流器
+ *
+ *   - permitsPerSecond: 每秒补充的令牌数，即长期吞吐上限（条/秒）；小于等于 0 表示不限流
+ *   - burst: 桶容量，空闲后最多允许的瞬时突发条数
+ *
+ * 速率和容量均可在运行期调整，同名资源的多个批任务共享同一个实例（见 RateLimiterRegistry）。
+ */
+public class TokenBucketRateLimiter {
+
+    private final String name;
+
+    private volatile double permitsPerSecond;
+    private volatile long burst;
+
+    // 以下状态由 this 监视器保护
+    private double storedTokens;
+    private long lastRefillNanos;
+
+    // metrics counters
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    public TokenBucketRateLimiter(String name, double permitsPerSecond, long burst) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1L, burst);
+        this.storedTokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 阻塞直到拿到一个令牌
+     */
+    public void acquire() throws InterruptedException {
+        long waitStart = 0L;
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                if (permitsPerSecond <= 0) {
+                    acquired.incrementAndGet();
+                    return;
+                }
+                refill(System.nanoTime());
+                if (storedTokens >= 1D) {
+                    storedTokens -= 1D;
+                    acquired.incrementAndGet();
+                    if (waitStart != 0L) {
+                        totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+                    }
+                    return;
+                }
+                waitNanos = (long) ((1D - storedTokens) / permitsPerSecond * 1_000_000_000L);
+            }
+            if (waitStart == 0L) {
+                waitStart = System.nanoTime();
+                throttled.incrementAndGet();
+            }
+            // 在锁外等待；期间速率可能被调整，醒来后重新计算
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 100_000L));
+        }
+    }
+
+    /**
+     * 运行期调整速率与桶容量，立即对所有共享该限流器的任务生效
+     */
+    public synchronized void update(double newPermitsPerSecond, long newBurst) {
+        refill(System.nanoTime());
+        this.permitsPerSecond = newPermitsPerSecond;
+        this.burst = Math.max(1L, newBurst);
+        this.storedTokens = Math.min(storedTokens, this.burst);
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            storedTokens = Math.min(burst, storedTokens + elapsed * permitsPerSecond / 1_000_000_000D);
+            lastRefillNanos = now;
+        }
+    }
+
+    // ---------- accessors ----------
+    public String getName() { return name; }
+    public double getPermitsPerSecond() { return permitsPerSecond; }
+    public long getBurst() { return burst; }
+    public synchronized double getAvailableTokens() {
+        if (permitsPerSecond > 0) refill(System.nanoTime());
+        return storedTokens;
+    }
+    public long getAcquired() { return acquired.get(); }
+    public long getThrottled() { return throttled.get(); }
+    public long getTotalWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()); }
+}
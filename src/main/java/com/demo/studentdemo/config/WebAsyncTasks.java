@@ -0,0 +1,97 @@
+package com.demo.studentdemo.config;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * 慢接口的 WebAsyncTask 构造：处理在接口所选的舱壁线程池中进行，Tomcat 连接器线程立即释放.
+ *
+ * 超时时 Spring 先中断处理线程、再写入超时结果，被中断的处理线程往往抢先以 InterruptedException（或其包装）结束，
+ * 原本的 503 就变成了 500. 这里把超时中断导致的失败统一换成 AsyncRequestTimeoutException，保证超时总是返回 503.
+ *
+ * 流式响应（StreamingResponseBody）只能使用全局的 spring.mvc.async.request-timeout，需要单独超时的用 streaming 包装成 ResponseBodyEmitter.
+ */
+public final class WebAsyncTasks {
+
+    private static final int STREAM_CHUNK_BYTES = 64 * 1024;
+
+    private WebAsyncTasks() {
+    }
+
+    public static <T> WebAsyncTask<T> withTimeout(long timeoutMillis, AsyncTaskExecutor executor, Callable<T> work) {
+        return new WebAsyncTask<>(timeoutMillis, executor, () -> {
+            try {
+                return work.call();
+            } catch (Exception e) {
+                if (interrupted(e)) {
+                    throw new AsyncRequestTimeoutException();
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * 在 executor 中执行 body，输出按 64KB 分块经 ResponseBodyEmitter 写出，超时只作用于本次响应.
+     * 超时后中断处理线程，之后的写出失败，body 随之以异常结束
+     */
+    public static ResponseBodyEmitter streaming(long timeoutMillis, AsyncTaskExecutor executor, StreamingResponseBody body) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMillis);
+        Future<?> task = executor.submit(() -> {
+            try (OutputStream out = new BufferedOutputStream(new EmitterOutputStream(emitter), STREAM_CHUNK_BYTES)) {
+                body.writeTo(out);
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+                return;
+            }
+            emitter.complete();
+        });
+        emitter.onTimeout(() -> task.cancel(true));
+        return emitter;
+    }
+
+    /**
+     * 每次 write 作为一块发送；块会被暂存到响应初始化完成，因此总是复制
+     */
+    private static final class EmitterOutputStream extends OutputStream {
+        private final ResponseBodyEmitter emitter;
+
+        private EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return;
+            try {
+                emitter.send(Arrays.copyOfRange(b, off, off + len));
+            } catch (IllegalStateException e) {
+                // 已超时或已结束
+                throw new IOException("流式响应已结束", e);
+            }
+        }
+    }
+
+    private static boolean interrupted(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) return true;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,55 @@
+package com.demo.studentdemo.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 响应内容协商：除默认 JSON 外，按 Accept 头提供
+ *   - application/x-jackson-smile、application/cbor：二进制 JSON，与 JSON 输出同一套 Jackson 配置
+ *   - application/vnd.columnar+json：列式 JSON，字段名只写一次（见 ColumnarJsonHttpMessageConverter）
+ * 这些转换器都排在默认 JSON 之后，Accept 为通配或缺省时仍返回普通 JSON.
+ *
+ * 异步请求统一在 mvcAsyncExecutor 中执行；默认超时取 spring.mvc.async.request-timeout，各接口可通过 WebAsyncTask 单独指定.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    private final ThreadPoolTaskExecutor mvcAsyncExecutor;
+
+    public WebMvcConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                        @Qualifier("mvcAsyncExecutor") ThreadPoolTaskExecutor mvcAsyncExecutor) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // classpath 上有 smile/cbor 时 Spring MVC 已注册默认转换器，但用的是未经 spring.jackson.* 定制的 ObjectMapper
+        converters.removeIf(c -> c instanceof MappingJackson2SmileHttpMessageConverter
+                || c instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().createXmlMapper(false).factory(new SmileFactory()).build()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().createXmlMapper(false).factory(new CBORFactory()).build()));
+        converters.add(new ColumnarJsonHttpMessageConverter(objectMapperBuilder.getObject().build()));
+    }
+}
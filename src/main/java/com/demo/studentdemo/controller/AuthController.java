@@ -0,0 +1,41 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.service.AuthService;
+import com.demo.studentdemo.vo.AuthUserVO;
+import com.demo.studentdemo.vo.LoginReq;
+import com.demo.studentdemo.vo.LoginVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>
+ * 登录认证 前端控制器
+ * </p>
+ */
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+
+    @Autowired
+    private AuthService authService;
+
+    /**
+     * 账号密码登录，返回短期访问令牌. 密码校验在 auth 线程池中完成，期间不占用请求线程
+     */
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<LoginVO>> login(@RequestBody LoginReq loginReq) {
+        return authService.login(loginReq.getUsername(), loginReq.getPassword()).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * 当前令牌对应的登录用户（只校验令牌，不查库）
+     */
+    @GetMapping("/me")
+    public ResponseEntity<AuthUserVO> me(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        return ResponseEntity.ok(AuthUserVO.of(authService.authenticate(authorization)));
+    }
+}
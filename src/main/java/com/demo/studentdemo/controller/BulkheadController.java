@@ -0,0 +1,47 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.config.BulkheadRegistry;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.vo.BulkheadStatusVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 舱壁线程池 前端控制器
+ * </p>
+ */
+@RestController
+@RequestMapping("/bulkhead")
+public class BulkheadController {
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    /**
+     * 查看所有舱壁的线程、队列及饱和度
+     */
+    @GetMapping
+    public ResponseEntity<List<BulkheadStatusVO>> list() {
+        return ResponseEntity.ok(bulkheadRegistry.list().stream().map(BulkheadStatusVO::of).toList());
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<BulkheadStatusVO> get(@PathVariable String name) {
+        return ResponseEntity.ok(BulkheadStatusVO.of(bulkheadRegistry.get(name)));
+    }
+
+    /**
+     * 运行期调整舱壁线程数，队列容量与拒绝策略需修改配置后重启
+     */
+    @PutMapping("/{name}")
+    public ResponseEntity<BulkheadStatusVO> resize(@PathVariable String name, @RequestParam Integer threads) {
+        if (threads < 1 || threads > 1024) {
+            throw new BusinessException(400, "threads 在1-1024之间");
+        }
+        return ResponseEntity.ok(BulkheadStatusVO.of(bulkheadRegistry.resize(name, threads)));
+    }
+}
@@ -1,18 +1,133 @@
 package com.demo.studentdemo.controller;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.stereotype.Controller;
+import com.demo.studentdemo.entity.Course;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.service.CourseCatalog;
+import com.demo.studentdemo.service.CourseSearchService;
+import com.demo.studentdemo.service.ICourseService;
+import com.demo.studentdemo.vo.CourseCatalogVO;
+import com.demo.studentdemo.vo.CourseSearchResultVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
 
 /**
  * <p>
  * 课程信息 前端控制器
  * </p>
+ * 读接口全部由内存课程目录快照提供，响应头 X-Catalog-Version 标明所用快照版本.
  *
  * @author admin
  * @since 2025-08-03
  */
-@Controller
+@RestController
 @RequestMapping("/course")
 public class CourseController {
 
+    private static final String VERSION_HEADER = "X-Catalog-Version";
+
+    @Autowired
+    private ICourseService courseService;
+
+    @Autowired
+    private CourseSearchService courseSearchService;
+
+    /**
+     * 课程列表，可按院系、课程类型过滤
+     */
+    @GetMapping("/list")
+    public ResponseEntity<List<Course>> list(@RequestParam(required = false) String deptName,
+                                             @RequestParam(required = false) String courseType) {
+        CourseCatalog catalog = courseService.catalog();
+        return versioned(catalog).body(catalog.list(deptName, courseType));
+    }
+
+    /**
+     * 按课程名称与描述全文检索（内存倒排索引，BM25 排序），可按院系、课程类型过滤
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CourseSearchResultVO> search(@RequestParam String q,
+                                                       @RequestParam(required = false) String deptName,
+                                                       @RequestParam(required = false) String courseType,
+                                                       @RequestParam(defaultValue = "20") Integer limit) {
+        if (q.isBlank() || q.length() > 100) {
+            throw new BusinessException(400, "检索词长度在1-100之间");
+        }
+        if (limit < 1 || limit > 100) {
+            throw new BusinessException(400, "limit 在1-100之间");
+        }
+        CourseSearchResultVO result = courseSearchService.search(q, deptName, courseType, limit);
+        return ResponseEntity.ok().header(VERSION_HEADER, String.valueOf(result.getCatalogVersion())).body(result);
+    }
+
+    /**
+     * 根据ID获取课程
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Course> getById(@PathVariable Long id) {
+        CourseCatalog catalog = courseService.catalog();
+        return catalog.byId(id)
+                .map(c -> versioned(catalog).body(c))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 根据课程代码获取课程
+     */
+    @GetMapping("/code/{courseCode}")
+    public ResponseEntity<Course> getByCode(@PathVariable String courseCode) {
+        CourseCatalog catalog = courseService.catalog();
+        return catalog.byCode(courseCode)
+                .map(c -> versioned(catalog).body(c))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 目录快照概况
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<CourseCatalogVO> catalog() {
+        CourseCatalog catalog = courseService.catalog();
+        return versioned(catalog).body(CourseCatalogVO.of(catalog));
+    }
+
+    /**
+     * 立即从数据库重新加载目录
+     */
+    @PostMapping("/catalog/refresh")
+    public ResponseEntity<CourseCatalogVO> refresh() {
+        CourseCatalog catalog = courseService.reloadCatalog();
+        return versioned(catalog).body(CourseCatalogVO.of(catalog));
+    }
+
+    /**
+     * 新增课程
+     */
+    @PostMapping
+    public ResponseEntity<Course> create(@RequestBody Course course) {
+        return ResponseEntity.ok(courseService.addCourse(course));
+    }
+
+    /**
+     * 更新课程
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Course> update(@PathVariable Long id, @RequestBody Course course) {
+        return ResponseEntity.ok(courseService.updateCourse(id, course));
+    }
+
+    /**
+     * 删除课程
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        courseService.removeCourse(id);
+        return ResponseEntity.ok().build();
+    }
+
+    private static ResponseEntity.BodyBuilder versioned(CourseCatalog catalog) {
+        return ResponseEntity.ok().header(VERSION_HEADER, String.valueOf(catalog.getVersion()));
+    }
 }
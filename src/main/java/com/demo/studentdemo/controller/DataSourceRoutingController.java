@@ -0,0 +1,63 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.config.ReadWriteRoutingDataSource;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.vo.DataSourceTargetVO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 读写分离路由 前端控制器
+ * </p>
+ */
+@RestController
+@RequestMapping("/dataSourceRouting")
+public class DataSourceRoutingController {
+
+    @Autowired
+    private ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 主库及各从库的健康状态、连接池使用与语句耗时
+     */
+    @GetMapping("/targets")
+    public ResponseEntity<Map<String, Object>> targets() {
+        ReadWriteRoutingDataSource ds = required();
+        List<DataSourceTargetVO> targets = new ArrayList<>();
+        targets.add(DataSourceTargetVO.of(ds.getPrimary(), meterRegistry));
+        ds.getReplicas().forEach(r -> targets.add(DataSourceTargetVO.of(r, meterRegistry)));
+        Map<String, Object> result = new HashMap<>();
+        result.put("targets", targets);
+        result.put("fallbacks", ds.getFallbacks());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 立即执行一次从库健康检查
+     */
+    @PostMapping("/check")
+    public ResponseEntity<Map<String, Object>> check() {
+        required().checkReplicas();
+        return targets();
+    }
+
+    private ReadWriteRoutingDataSource required() {
+        ReadWriteRoutingDataSource ds = routingDataSource.getIfAvailable();
+        if (ds == null) {
+            throw new BusinessException(404, "未启用读写分离（datasource.routing.enabled=false）");
+        }
+        return ds;
+    }
+}
@@ -0,0 +1,88 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.config.DeadLetterRegistry;
+import com.demo.studentdemo.config.DeadLetterStore;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.vo.DeadLetterRecordVO;
+import com.demo.studentdemo.vo.DeadLetterStatusVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * <p>
+ * 批任务死信 前端控制器
+ * </p>
+ */
+@RestController
+@RequestMapping("/deadLetter")
+public class DeadLetterController {
+
+    @Autowired
+    private DeadLetterRegistry deadLetterRegistry;
+
+    /**
+     * 查看所有死信存储
+     */
+    @GetMapping
+    public ResponseEntity<List<DeadLetterStatusVO>> list() {
+        return ResponseEntity.ok(deadLetterRegistry.list().stream().map(this::toStatus).toList());
+    }
+
+    /**
+     * 查看指定存储中的前 limit 条死信（不消费）
+     */
+    @GetMapping("/{name}/records")
+    public ResponseEntity<List<DeadLetterRecordVO>> records(@PathVariable String name,
+                                                            @RequestParam(defaultValue = "20") Integer limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new BusinessException(400, "limit 在1-1000之间");
+        }
+        List<DeadLetterRecordVO> records = deadLetterRegistry.get(name).peek(limit).stream().map(r -> {
+            DeadLetterRecordVO vo = new DeadLetterRecordVO();
+            vo.setItem(String.valueOf(r.item()));
+            vo.setExceptionClass(r.exceptionClass());
+            vo.setMessage(r.message());
+            vo.setAttempts(r.attempts());
+            vo.setFailedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(r.timestamp()), ZoneId.systemDefault()));
+            return vo;
+        }).toList();
+        return ResponseEntity.ok(records);
+    }
+
+    /**
+     * 按给定速率异步回放全部死信，再次失败的数据项重新写回死信日志
+     */
+    @PostMapping("/{name}/replay")
+    public ResponseEntity<String> replay(@PathVariable String name,
+                                         @RequestParam(defaultValue = "50") Double permitsPerSecond,
+                                         @RequestParam(defaultValue = "4") Integer workerThreads) {
+        if (permitsPerSecond <= 0 || workerThreads < 1 || workerThreads > 64) {
+            throw new BusinessException(400, "permitsPerSecond 必须大于0，workerThreads 在1-64之间");
+        }
+        deadLetterRegistry.replay(name, permitsPerSecond, workerThreads);
+        return ResponseEntity.accepted().body("回放已开始，可通过 GET /deadLetter 查看进度");
+    }
+
+    private DeadLetterStatusVO toStatus(DeadLetterStore<?> store) {
+        DeadLetterStatusVO vo = new DeadLetterStatusVO();
+        vo.setName(store.getName());
+        vo.setFsyncPolicy(store.getFsyncPolicy().name());
+        vo.setAppended(store.getAppended());
+        vo.setWritten(store.getWritten());
+        vo.setWrittenBytes(store.getWrittenBytes());
+        vo.setStoredBytes(store.getStoredBytes());
+        vo.setPendingInBuffer(store.getPendingInBuffer());
+        vo.setReplayed(store.getReplayed());
+        vo.setDropped(store.getDropped());
+        vo.setQuarantined(store.getQuarantined());
+        vo.setReplaying(deadLetterRegistry.isReplaying(store.getName()));
+        vo.setLastReplay(deadLetterRegistry.getLastReplay(store.getName()));
+        return vo;
+    }
+}
@@ -1,15 +1,22 @@
 package com.demo.studentdemo.controller;
 
+import com.demo.studentdemo.config.BatchJobRegistry;
+import com.demo.studentdemo.config.WebAsyncTasks;
 import com.demo.studentdemo.entity.Student;
 import com.demo.studentdemo.service.DemoService;
 import com.demo.studentdemo.service.DemoTaskService;
-import lombok.SneakyThrows;
+import com.demo.studentdemo.vo.BatchJobVO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @Controller
 @RequestMapping("/demo")
@@ -18,27 +25,60 @@ public class DemoController {
     private DemoService demoService;
     @Autowired
     private DemoTaskService demoTaskService;
+    @Autowired
+    private BatchJobRegistry batchJobRegistry;
+
+    @Autowired
+    @Qualifier("demoRequestExecutor")
+    private ThreadPoolTaskExecutor demoRequestExecutor;
+
+    @Value("${web.async.timeout.demo-ms:900000}")
+    private long demoTimeoutMs;
 
-    @SneakyThrows
+    /**
+     * 等待处理完成后返回. 处理在舱壁 web-demo 中进行，不占用 Tomcat 连接器线程；超时返回 503 并中断处理线程
+     */
     @GetMapping("/runExample")
-    public ResponseEntity<String> runExample(){
-        demoService.runExample();
-        return ResponseEntity.ok("OK");
+    public WebAsyncTask<ResponseEntity<String>> runExample(){
+        return WebAsyncTasks.withTimeout(demoTimeoutMs, demoRequestExecutor, () -> {
+            demoService.runExample();
+            return ResponseEntity.ok("OK");
+        });
     }
 
-    @SneakyThrows
     @GetMapping("/runExampleAsync")
-    public ResponseEntity<String> runExampleAsync(){
-        demoService.runExampleAsync();
-        return ResponseEntity.ok("OK");
+    public WebAsyncTask<ResponseEntity<String>> runExampleAsync(){
+        return WebAsyncTasks.withTimeout(demoTimeoutMs, demoRequestExecutor, () -> {
+            demoService.runExampleAsync();
+            return ResponseEntity.ok("OK");
+        });
     }
 
 
-    @SneakyThrows
     @GetMapping("/runTask")
-    public ResponseEntity<String> runTask(){
-        demoTaskService.runDemo();
-        return ResponseEntity.ok("OK");
+    public WebAsyncTask<ResponseEntity<String>> runTask(){
+        return WebAsyncTasks.withTimeout(demoTimeoutMs, demoRequestExecutor, () -> {
+            demoTaskService.runDemo();
+            return ResponseEntity.ok("OK");
+        });
+    }
+
+    /**
+     * 异步提交 runExample 作业，立即返回作业信息，可通过 /job/{id} 查看进度及控制
+     */
+    @PostMapping("/jobs/example")
+    public ResponseEntity<BatchJobVO> submitExample(){
+        BatchJobRegistry.BatchJob job = batchJobRegistry.submit("demo-example", demoService::runExample);
+        return ResponseEntity.accepted().body(BatchJobVO.of(job));
+    }
+
+    /**
+     * 异步提交 runTask 作业
+     */
+    @PostMapping("/jobs/task")
+    public ResponseEntity<BatchJobVO> submitTask(){
+        BatchJobRegistry.BatchJob job = batchJobRegistry.submit("demo-task", demoTaskService::runDemo);
+        return ResponseEntity.accepted().body(BatchJobVO.of(job));
     }
 }
 
@@ -0,0 +1,47 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.service.DeptDashboardService;
+import com.demo.studentdemo.vo.DeptDashboardVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 院系看板 前端控制器（内存预聚合，随学生 / 成绩写入增量更新）
+ * </p>
+ */
+@RestController
+@RequestMapping("/deptDashboard")
+public class DeptDashboardController {
+
+    @Autowired
+    private DeptDashboardService deptDashboardService;
+
+    /**
+     * 全部院系看板
+     */
+    @GetMapping
+    public ResponseEntity<List<DeptDashboardVO>> list() {
+        return ResponseEntity.ok(deptDashboardService.list().stream().map(DeptDashboardVO::of).toList());
+    }
+
+    /**
+     * 单个院系看板：各入学年份人数、各课程类型平均分与不及格率
+     */
+    @GetMapping("/{deptName}")
+    public ResponseEntity<DeptDashboardVO> get(@PathVariable String deptName) {
+        return ResponseEntity.ok(DeptDashboardVO.of(deptDashboardService.get(deptName)));
+    }
+
+    /**
+     * 从数据库全量重建（按学号区间并行扫描）
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<List<DeptDashboardVO>> refresh() {
+        deptDashboardService.refresh();
+        return ResponseEntity.ok(deptDashboardService.list().stream().map(DeptDashboardVO::of).toList());
+    }
+}
@@ -0,0 +1,82 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.service.GradeAnalyticsService;
+import com.demo.studentdemo.service.GradeColumnStore;
+import com.demo.studentdemo.vo.GradeDistributionVO;
+import com.demo.studentdemo.vo.GradeStoreMemoryVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 成绩统计分析 前端控制器（内存列式快照）
+ * </p>
+ */
+@RestController
+@RequestMapping("/gradeAnalytics")
+public class GradeAnalyticsController {
+
+    @Autowired
+    private GradeAnalyticsService gradeAnalyticsService;
+
+    /**
+     * 成绩分布：分数段直方图、百分位、及格率；courseId / dept / semester 均可选
+     */
+    @GetMapping("/distribution")
+    public ResponseEntity<GradeDistributionVO> distribution(@RequestParam(required = false) Long courseId,
+                                                            @RequestParam(required = false) String dept,
+                                                            @RequestParam(required = false) String semester,
+                                                            @RequestParam(defaultValue = "25,50,75,90,99") double[] percentiles,
+                                                            @RequestParam(defaultValue = "10") Integer bucketWidth) {
+        check(percentiles, bucketWidth);
+        return ResponseEntity.ok(GradeDistributionVO.of(null,
+                gradeAnalyticsService.distribution(courseId, dept, semester), percentiles, bucketWidth));
+    }
+
+    /**
+     * 按课程(COURSE) / 院系(DEPT) / 学期(SEMESTER) 分组统计
+     */
+    @GetMapping("/breakdown")
+    public ResponseEntity<List<GradeDistributionVO>> breakdown(@RequestParam GradeColumnStore.Dimension groupBy,
+                                                               @RequestParam(required = false) Long courseId,
+                                                               @RequestParam(required = false) String dept,
+                                                               @RequestParam(required = false) String semester,
+                                                               @RequestParam(defaultValue = "50,90") double[] percentiles) {
+        check(percentiles, 10);
+        return ResponseEntity.ok(gradeAnalyticsService.breakdown(groupBy, courseId, dept, semester).entrySet().stream()
+                .map(e -> GradeDistributionVO.of(e.getKey(), e.getValue(), percentiles, 0))
+                .toList());
+    }
+
+    /**
+     * 快照内存占用，与等量 StudentGradeVO 对象的估算占用对比
+     */
+    @GetMapping("/memory")
+    public ResponseEntity<GradeStoreMemoryVO> memory() {
+        return ResponseEntity.ok(GradeStoreMemoryVO.of(gradeAnalyticsService.memoryReport()));
+    }
+
+    /**
+     * 从数据库全量重建快照
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<GradeStoreMemoryVO> refresh() {
+        gradeAnalyticsService.refresh();
+        return ResponseEntity.ok(GradeStoreMemoryVO.of(gradeAnalyticsService.memoryReport()));
+    }
+
+    private static void check(double[] percentiles, int bucketWidth) {
+        for (double p : percentiles) {
+            if (p <= 0 || p > 100) {
+                throw new BusinessException(400, "百分位须在(0, 100]之间");
+            }
+        }
+        if (bucketWidth < 1 || bucketWidth > 100) {
+            throw new BusinessException(400, "bucketWidth 在1-100之间");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.config.BatchJobRegistry;
+import com.demo.studentdemo.service.GradeArchiveService;
+import com.demo.studentdemo.vo.BatchJobVO;
+import com.demo.studentdemo.vo.GradeArchiveSemesterVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 成绩冷热归档 前端控制器
+ * </p>
+ */
+@RestController
+@RequestMapping("/gradeArchive")
+public class GradeArchiveController {
+
+    @Autowired
+    private GradeArchiveService gradeArchiveService;
+
+    @Autowired
+    private BatchJobRegistry batchJobRegistry;
+
+    /**
+     * 已归档学期及行数
+     */
+    @GetMapping("/semesters")
+    public ResponseEntity<List<GradeArchiveSemesterVO>> semesters() {
+        return ResponseEntity.ok(gradeArchiveService.listArchivedSemesters());
+    }
+
+    /**
+     * 异步提交归档作业：把不晚于 upTo 的学期移入归档表，可通过 /job/{id} 查看进度及控制
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<BatchJobVO> archive(@RequestParam String upTo) {
+        gradeArchiveService.checkAvailable();
+        gradeArchiveService.checkSemester(upTo);
+        BatchJobRegistry.BatchJob job = batchJobRegistry.submit("grade-archive",
+                control -> gradeArchiveService.archive(upTo, control));
+        return ResponseEntity.accepted().body(BatchJobVO.of(job));
+    }
+}
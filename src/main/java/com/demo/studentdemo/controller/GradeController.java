@@ -0,0 +1,62 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.service.IGradeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+/**
+ * <p>
+ * 成绩记录 前端控制器
+ * </p>
+ *
+ * @author admin
+ */
+@RestController
+@RequestMapping("/grade")
+public class GradeController {
+
+    @Autowired
+    private IGradeService gradeService;
+
+    /**
+     * 根据ID获取成绩
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Grade> getById(@PathVariable Long id) {
+        Grade grade = gradeService.getById(id);
+        if (grade != null) {
+            return ResponseEntity.ok(grade);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * 录入成绩
+     */
+    @PostMapping
+    public ResponseEntity<Grade> add(@RequestBody Grade grade) {
+        return ResponseEntity.ok(gradeService.addGrade(grade));
+    }
+
+    /**
+     * 修改成绩分数
+     */
+    @PutMapping("/{id}/score")
+    public ResponseEntity<Grade> updateScore(@PathVariable Long id, @RequestParam(required = false) BigDecimal score) {
+        return ResponseEntity.ok(gradeService.updateScore(id, score));
+    }
+
+    /**
+     * 删除成绩
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        gradeService.removeGrade(id);
+        return ResponseEntity.ok().build();
+    }
+}
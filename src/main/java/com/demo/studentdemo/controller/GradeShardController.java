@@ -0,0 +1,84 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.config.BatchJobRegistry;
+import com.demo.studentdemo.config.GradeShardRouter;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.service.GradeShardRebalancer;
+import com.demo.studentdemo.service.ShardedGradeStore;
+import com.demo.studentdemo.vo.BatchJobVO;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 成绩分片 前端控制器
+ * </p>
+ * 仅在 grade.sharding.enabled=true 时可用.
+ */
+@RestController
+@RequestMapping("/gradeShard")
+public class GradeShardController {
+
+    @Autowired
+    private ObjectProvider<GradeShardRouter> router;
+
+    @Autowired
+    private ObjectProvider<ShardedGradeStore> shardedGradeStore;
+
+    @Autowired
+    private ObjectProvider<GradeShardRebalancer> rebalancer;
+
+    @Autowired
+    private BatchJobRegistry batchJobRegistry;
+
+    /**
+     * 各分片的成绩行数
+     */
+    @GetMapping("/shards")
+    public ResponseEntity<Map<String, Long>> shards() {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        for (GradeShardRouter.Shard shard : required(router).getShards()) {
+            rows.put(shard.name(), shard.jdbcTemplate().queryForObject("SELECT COUNT(*) FROM t_grade", Long.class));
+        }
+        return ResponseEntity.ok(rows);
+    }
+
+    /**
+     * 学生所在分片及其成绩
+     */
+    @GetMapping("/student/{studentId}")
+    public ResponseEntity<Map<String, Object>> student(@PathVariable String studentId) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("shard", required(router).shardOf(studentId).name());
+        List<Grade> grades = required(shardedGradeStore).listByStudent(studentId);
+        result.put("grades", grades);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 异步提交再平衡作业（增加分片后、或 includePrimary=true 从主库首次迁移），可通过 /job/{id} 查看进度及控制
+     */
+    @PostMapping("/rebalance")
+    public ResponseEntity<BatchJobVO> rebalance(@RequestParam(defaultValue = "false") Boolean includePrimary) {
+        GradeShardRebalancer r = required(rebalancer);
+        BatchJobRegistry.BatchJob job = batchJobRegistry.submit("grade-shard-rebalance",
+                control -> r.rebalance(includePrimary, control));
+        return ResponseEntity.accepted().body(BatchJobVO.of(job));
+    }
+
+    private static <T> T required(ObjectProvider<T> provider) {
+        T bean = provider.getIfAvailable();
+        if (bean == null) {
+            throw new BusinessException(404, "未启用成绩分片（grade.sharding.enabled=false）");
+        }
+        return bean;
+    }
+}
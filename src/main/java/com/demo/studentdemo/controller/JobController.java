@@ -0,0 +1,70 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.config.BatchJobRegistry;
+import com.demo.studentdemo.vo.BatchJobVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 批任务作业控制 前端控制器
+ * </p>
+ */
+@RestController
+@RequestMapping("/job")
+public class JobController {
+
+    @Autowired
+    private BatchJobRegistry batchJobRegistry;
+
+    /**
+     * 作业列表（最新提交的在前）
+     */
+    @GetMapping
+    public ResponseEntity<List<BatchJobVO>> list() {
+        return ResponseEntity.ok(batchJobRegistry.list().stream().map(BatchJobVO::of).toList());
+    }
+
+    /**
+     * 作业实时进度与吞吐
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<BatchJobVO> get(@PathVariable String id) {
+        return ResponseEntity.ok(BatchJobVO.of(batchJobRegistry.get(id)));
+    }
+
+    /**
+     * 暂停：停止从数据供给器拉取数据，已拉取的数据继续处理
+     */
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<BatchJobVO> pause(@PathVariable String id) {
+        return ResponseEntity.ok(BatchJobVO.of(batchJobRegistry.pause(id)));
+    }
+
+    /**
+     * 恢复拉取
+     */
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<BatchJobVO> resume(@PathVariable String id) {
+        return ResponseEntity.ok(BatchJobVO.of(batchJobRegistry.resume(id)));
+    }
+
+    /**
+     * 取消：停止拉取、中断工作线程并丢弃未处理的数据
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<BatchJobVO> cancel(@PathVariable String id) {
+        return ResponseEntity.ok(BatchJobVO.of(batchJobRegistry.cancel(id)));
+    }
+
+    /**
+     * 运行期调整工作线程数（BatchTaskProcessor 作业为并发数），无需重启作业
+     */
+    @PutMapping("/{id}/workers")
+    public ResponseEntity<BatchJobVO> resize(@PathVariable String id, @RequestParam Integer count) {
+        return ResponseEntity.ok(BatchJobVO.of(batchJobRegistry.resize(id, count)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.config.RateLimiterRegistry;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.vo.RateLimiterStatusVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 批任务限流 前端控制器
+ * </p>
+ */
+@RestController
+@RequestMapping("/rateLimit")
+public class RateLimitController {
+
+    @Autowired
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    /**
+     * 查看所有限流器
+     */
+    @GetMapping
+    public ResponseEntity<List<RateLimiterStatusVO>> list() {
+        return ResponseEntity.ok(rateLimiterRegistry.list().stream().map(RateLimiterStatusVO::of).toList());
+    }
+
+    /**
+     * 查看指定资源的限流器
+     */
+    @GetMapping("/{name}")
+    public ResponseEntity<RateLimiterStatusVO> get(@PathVariable String name) {
+        return ResponseEntity.ok(RateLimiterStatusVO.of(rateLimiterRegistry.find(name)));
+    }
+
+    /**
+     * 运行期调整限流参数，对共享该资源的所有批任务立即生效；限流器在批任务首次使用该资源时创建
+     */
+    @PutMapping("/{name}")
+    public ResponseEntity<RateLimiterStatusVO> update(@PathVariable String name,
+                                                      @RequestParam Double permitsPerSecond,
+                                                      @RequestParam(required = false) Long burst) {
+        if (burst != null && burst < 1) {
+            throw new BusinessException(400, "burst 必须大于 0");
+        }
+        long newBurst = burst != null ? burst : (long) Math.max(1D, permitsPerSecond);
+        return ResponseEntity.ok(RateLimiterStatusVO.of(rateLimiterRegistry.update(name, permitsPerSecond, newBurst)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.config.SqlMonitorInterceptor;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.vo.SlowSqlVO;
+import com.demo.studentdemo.vo.SqlStatementStatsVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * <p>
+ * SQL 执行监控 前端控制器
+ * </p>
+ */
+@RestController
+@RequestMapping("/sqlMonitor")
+public class SqlMonitorController {
+
+    @Autowired
+    private SqlMonitorInterceptor sqlMonitorInterceptor;
+
+    /**
+     * 各语句耗时与行数汇总，按累计耗时倒序
+     */
+    @GetMapping("/statements")
+    public ResponseEntity<List<SqlStatementStatsVO>> statements() {
+        return ResponseEntity.ok(sqlMonitorInterceptor.getStatementStats().stream().map(SqlStatementStatsVO::of).toList());
+    }
+
+    /**
+     * 最近的慢 SQL（含绑定参数及可选的 EXPLAIN），按时间倒序
+     */
+    @GetMapping("/slow")
+    public ResponseEntity<List<SlowSqlVO>> slow(@RequestParam(defaultValue = "50") Integer limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new BusinessException(400, "limit 在1-1000之间");
+        }
+        return ResponseEntity.ok(sqlMonitorInterceptor.getSlowStatements(limit).stream().map(SlowSqlVO::of).toList());
+    }
+
+    /**
+     * 清空慢 SQL 缓冲区
+     */
+    @DeleteMapping("/slow")
+    public ResponseEntity<String> clearSlow() {
+        sqlMonitorInterceptor.clearSlowStatements();
+        return ResponseEntity.ok("已清空");
+    }
+}
@@ -3,16 +3,41 @@ package com.demo.studentdemo.controller;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.demo.studentdemo.config.WebAsyncTasks;
 import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.service.GradeExportService;
+import com.demo.studentdemo.service.GradeFanOutQueryService;
+import com.demo.studentdemo.service.GradeRankingService;
 import com.demo.studentdemo.service.IStudentService;
+import com.demo.studentdemo.service.StudentDuplicateGuard;
+import com.demo.studentdemo.service.StudentJsonCache;
+import com.demo.studentdemo.vo.GradeFanOutResultVO;
 import com.demo.studentdemo.vo.PageQueryParam;
+import com.demo.studentdemo.vo.RankingEntryVO;
 import com.demo.studentdemo.vo.StudentGradeVO;
+import com.demo.studentdemo.vo.StudentImportCheckVO;
 import com.demo.studentdemo.vo.StudentQueryReq;
+import com.demo.studentdemo.vo.StudentRankVO;
+import com.demo.studentdemo.vo.StudentRowSet;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -34,17 +59,49 @@ public class StudentController {
     @Autowired
     private IStudentService studentService;
 
+    @Autowired
+    private GradeRankingService gradeRankingService;
+
+    @Autowired
+    private GradeExportService gradeExportService;
+
+    @Autowired
+    private GradeFanOutQueryService gradeFanOutQueryService;
+
+    @Autowired
+    private StudentJsonCache studentJsonCache;
+
+    @Autowired
+    private StudentDuplicateGuard studentDuplicateGuard;
+
+    @Value("${student.dedup.max-import-rows:100000}")
+    private int maxImportRows;
+
+    @Autowired
+    @Qualifier("gradeQueryRequestExecutor")
+    private ThreadPoolTaskExecutor gradeQueryRequestExecutor;
+
+    @Value("${web.async.timeout.query-all-grade-ms:30000}")
+    private long queryAllGradeTimeoutMs;
+
+    @Autowired
+    @Qualifier("mvcAsyncExecutor")
+    private ThreadPoolTaskExecutor mvcAsyncExecutor;
+
+    @Value("${web.async.timeout.export-grade-ms:600000}")
+    private long exportGradeTimeoutMs;
+
     /**
-     * 获取学生列表
+     * 获取学生列表：院系、创建人等低基数列字典编码，时间存为基本类型，JSON 结构不变
      */
     @GetMapping("/list")
-    public ResponseEntity<List<Student>> list() {
-        List<Student> students = studentService.list();
+    public ResponseEntity<StudentRowSet> list() {
+        StudentRowSet students = studentService.listRowSet(null);
         return ResponseEntity.ok(students);
     }
 
     /**
-     * 分页查询学生
+     * 分页查询学生：当前页逐行写入紧凑列式结构，不生成中间的 List&lt;Student&gt;
      */
     @GetMapping("/page")
     public ResponseEntity<Map<String, Object>> page(
@@ -59,28 +116,47 @@ public class StudentController {
             queryWrapper.like("name", name);
         }
         
-        Page<Student> resultPage = studentService.page(page, queryWrapper);
+        StudentRowSet records = studentService.pageRowSet(page, queryWrapper);
         
         Map<String, Object> result = new HashMap<>();
-        result.put("records", resultPage.getRecords());
-        result.put("total", resultPage.getTotal());
-        result.put("current", resultPage.getCurrent());
-        result.put("size", resultPage.getSize());
+        result.put("records", records);
+        result.put("total", page.getTotal());
+        result.put("current", page.getCurrent());
+        result.put("size", page.getSize());
         
         return ResponseEntity.ok(result);
     }
 
     /**
-     * 根据ID获取学生信息
+     * 根据ID获取学生信息：直接写出缓存的 JSON 字节，支持 If-None-Match 条件请求
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Student> getById(@PathVariable Long id) {
-        Student student = studentService.getById(id);
-        if (student != null) {
-            return ResponseEntity.ok(student);
-        } else {
-            return ResponseEntity.notFound().build();
+    public void getById(@PathVariable Long id,
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                        HttpServletResponse response) throws IOException {
+        StudentJsonCache.Entry entry = studentJsonCache.get(id);
+        if (entry == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        if (ifNoneMatch != null && etagMatches(ifNoneMatch, entry.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(entry.json().length);
+        response.getOutputStream().write(entry.json());
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag) || c.equals("W/" + etag)) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -94,6 +170,8 @@ public class StudentController {
         student.setUpdatedAt(now);
         student.setCreatedBy("admin"); // 实际应用中应该从登录用户获取
         student.setUpdatedBy("admin");
+        // 学号、身份证号绝大多数情况下由布隆过滤器直接判定为新值，不额外查库
+        studentDuplicateGuard.requireUnique(student);
         
         boolean success = studentService.save(student);
         if (success) {
@@ -146,11 +224,130 @@ public class StudentController {
     }
 
 
+    /**
+     * 批量导入前查重（CSV 文件，首行为表头，需含学号、身份证号列）：报告缺失、文件内重复及与已有学生冲突的行
+     */
+    @PostMapping(value = "/validateImport", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StudentImportCheckVO> validateImport(@RequestParam("file") MultipartFile file,
+                                                               @RequestParam(defaultValue = "1000") Integer maxConflicts) throws IOException {
+        checkMaxConflicts(maxConflicts);
+        StudentDuplicateGuard.CsvRows rows = StudentDuplicateGuard.readCsv(file.getInputStream(), maxImportRows);
+        return ResponseEntity.ok(StudentImportCheckVO.of(studentDuplicateGuard.check(rows, maxConflicts)));
+    }
+
+    /**
+     * 批量导入前查重（JSON 数组，只使用 studentId、idCard 字段）
+     */
+    @PostMapping(value = "/validateImport", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StudentImportCheckVO> validateImport(@RequestBody List<Student> rows,
+                                                               @RequestParam(defaultValue = "1000") Integer maxConflicts) {
+        checkMaxConflicts(maxConflicts);
+        if (rows.size() > maxImportRows) {
+            throw new BusinessException(400, "超过 " + maxImportRows + " 行");
+        }
+        return ResponseEntity.ok(StudentImportCheckVO.of(studentDuplicateGuard.check(rows, maxConflicts)));
+    }
+
+    private static void checkMaxConflicts(Integer maxConflicts) {
+        if (maxConflicts < 1 || maxConflicts > 100_000) {
+            throw new BusinessException(400, "maxConflicts 在1-100000之间");
+        }
+    }
+
     @PostMapping("/queryAllGrade")
-    public ResponseEntity<IPage<StudentGradeVO>> queryAllGrade(@RequestBody PageQueryParam<StudentQueryReq> studentQueryReq) {
-        IPage<StudentGradeVO> students = studentService.queryAllGrade(studentQueryReq);
-        log.info("{}",students);
-        return ResponseEntity.ok(students);
+    public WebAsyncTask<ResponseEntity<IPage<StudentGradeVO>>> queryAllGrade(@RequestBody PageQueryParam<StudentQueryReq> studentQueryReq) {
+        // 慢查询在舱壁 web-grade-query 中执行，不占用连接器线程；超时返回 503
+        return WebAsyncTasks.withTimeout(queryAllGradeTimeoutMs, gradeQueryRequestExecutor, () -> {
+            IPage<StudentGradeVO> students = studentService.queryAllGrade(studentQueryReq);
+            log.debug("queryAllGrade 第 {} 页返回 {} 条，共 {} 条", students.getCurrent(), students.getRecords().size(), students.getTotal());
+            return ResponseEntity.ok(students);
+        });
+    }
+
+    /**
+     * 不分页的宽查询：按学期或学号区间拆成至多 partitions 个子查询并行执行后归并，结果排序与 queryAllGrade 一致
+     */
+    @PostMapping("/queryAllGrade/fanOut")
+    public ResponseEntity<GradeFanOutResultVO> queryAllGradeFanOut(@RequestBody StudentQueryReq studentQueryReq,
+                                                                   @RequestParam(defaultValue = "SEMESTER") GradeFanOutQueryService.SplitMode mode,
+                                                                   @RequestParam(defaultValue = "4") Integer partitions,
+                                                                   @RequestParam(defaultValue = "50000") Integer maxRows) {
+        if (partitions < 1 || partitions > 64) {
+            throw new BusinessException(400, "partitions 在1-64之间");
+        }
+        if (maxRows < 1 || maxRows > 1_000_000) {
+            throw new BusinessException(400, "maxRows 在1-1000000之间");
+        }
+        return ResponseEntity.ok(GradeFanOutResultVO.of(
+                gradeFanOutQueryService.query(studentQueryReq, mode, partitions, maxRows)));
+    }
+
+    /**
+     * 流式导出 queryAllGrade 条件下的全部成绩（CSV / XLSX），不分页、不在内存中缓存结果集.
+     * 在舱壁 web-async 中写出，超时由 web.async.timeout.export-grade-ms 单独控制
+     */
+    @GetMapping("/exportGrade")
+    public ResponseEntity<ResponseBodyEmitter> exportGrade(StudentQueryReq studentQueryReq,
+                                                             @RequestParam(defaultValue = "CSV") GradeExportService.Format format,
+                                                             @RequestParam(defaultValue = "false") Boolean gzip) {
+        gradeExportService.checkAvailable();
+        boolean csv = format == GradeExportService.Format.CSV;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("grades-" + LocalDate.now() + (csv ? ".csv" : ".xlsx"), StandardCharsets.UTF_8)
+                .build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        MediaType contentType = csv
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        ResponseBodyEmitter body = WebAsyncTasks.streaming(exportGradeTimeoutMs, mvcAsyncExecutor,
+                out -> gradeExportService.export(studentQueryReq, format, gzip, out));
+        return ResponseEntity.ok().headers(headers).contentType(contentType).body(body);
+    }
+
+    /**
+     * 课程某学期成绩排名前 top 名（内存排行榜，不排序全量成绩）
+     */
+    @GetMapping("/ranking/course/{courseId}")
+    public ResponseEntity<List<RankingEntryVO>> courseRanking(@PathVariable Long courseId,
+                                                              @RequestParam String semester,
+                                                              @RequestParam(defaultValue = "10") Integer top) {
+        checkTop(top);
+        return ResponseEntity.ok(gradeRankingService.topOfCourse(courseId, semester, top).stream().map(RankingEntryVO::of).toList());
+    }
+
+    /**
+     * 院系内按平均分排名前 top 名
+     */
+    @GetMapping("/ranking/dept/{deptName}")
+    public ResponseEntity<List<RankingEntryVO>> deptRanking(@PathVariable String deptName,
+                                                            @RequestParam(defaultValue = "10") Integer top) {
+        checkTop(top);
+        return ResponseEntity.ok(gradeRankingService.topOfDept(deptName, top).stream().map(RankingEntryVO::of).toList());
+    }
+
+    /**
+     * 学生名次与百分位：指定 courseId + semester 时为课程排名，否则为院系排名
+     */
+    @GetMapping("/{studentId}/rank")
+    public ResponseEntity<StudentRankVO> rank(@PathVariable String studentId,
+                                              @RequestParam(required = false) Long courseId,
+                                              @RequestParam(required = false) String semester) {
+        if ((courseId == null) != (semester == null)) {
+            throw new BusinessException(400, "courseId 与 semester 需同时指定");
+        }
+        GradeRankingService.StudentRank rank = courseId != null
+                ? gradeRankingService.rankInCourse(studentId, courseId, semester)
+                : gradeRankingService.rankInDept(studentId);
+        return ResponseEntity.ok(StudentRankVO.of(rank));
+    }
+
+    private static void checkTop(Integer top) {
+        if (top < 1 || top > 1000) {
+            throw new BusinessException(400, "top 在1-1000之间");
+        }
     }
 
 
@@ -0,0 +1,46 @@
+package com.demo.studentdemo.controller;
+
+import com.demo.studentdemo.config.BatchJobRegistry;
+import com.demo.studentdemo.entity.StudentGpa;
+import com.demo.studentdemo.service.IStudentGpaService;
+import com.demo.studentdemo.vo.BatchJobVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 学生学期绩点 前端控制器
+ * </p>
+ *
+ * @author admin
+ */
+@RestController
+@RequestMapping("/studentGpa")
+public class StudentGpaController {
+
+    @Autowired
+    private IStudentGpaService studentGpaService;
+
+    @Autowired
+    private BatchJobRegistry batchJobRegistry;
+
+    /**
+     * 异步提交全量绩点重算作业，可通过 /job/{id} 查看进度及控制
+     */
+    @PostMapping("/recompute")
+    public ResponseEntity<BatchJobVO> recompute() {
+        BatchJobRegistry.BatchJob job = batchJobRegistry.submit("gpa-recompute", studentGpaService::recompute);
+        return ResponseEntity.accepted().body(BatchJobVO.of(job));
+    }
+
+    /**
+     * 查询学生各学期绩点
+     */
+    @GetMapping("/{studentId}")
+    public ResponseEntity<List<StudentGpa>> listByStudent(@PathVariable String studentId) {
+        return ResponseEntity.ok(studentGpaService.listByStudentId(studentId));
+    }
+}
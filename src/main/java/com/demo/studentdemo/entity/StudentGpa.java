@@ -0,0 +1,73 @@
+package com.demo.studentdemo.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * <p>
+ * 学生学期绩点（学分加权）
+ * </p>
+ *
+ * @author admin
+ */
+@Getter
+@Setter
+@ToString
+@TableName("t_student_gpa")
+@Schema(name = "StudentGpa", description = "学生学期绩点")
+public class StudentGpa implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 自增主键ID
+     */
+    @Schema(description = "自增主键ID")
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 学号
+     */
+    @Schema(description = "学号")
+    private String studentId;
+
+    /**
+     * 学期(如2023S)
+     */
+    @Schema(description = "学期(如2023S)")
+    private String semester;
+
+    /**
+     * 学分加权绩点(0-4)
+     */
+    @Schema(description = "学分加权绩点(0-4)")
+    private BigDecimal gpa;
+
+    /**
+     * 计入绩点的总学分
+     */
+    @Schema(description = "计入绩点的总学分")
+    private Integer totalCredits;
+
+    /**
+     * 计入绩点的课程数
+     */
+    @Schema(description = "计入绩点的课程数")
+    private Integer courseCount;
+
+    /**
+     * 最后计算时间
+     */
+    @Schema(description = "最后计算时间")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,13 @@
+package com.demo.studentdemo.event;
+
+import com.demo.studentdemo.service.CourseCatalog;
+
+/**
+ * 课程目录快照已重新加载（课程增删改或定时检查发现课程表变化）后发布.
+ * 首次加载时 previous 为 null.
+ *
+ * @param previous 重新加载前的目录快照
+ * @param current  新的目录快照
+ */
+public record CourseCatalogChangedEvent(CourseCatalog previous, CourseCatalog current) {
+}
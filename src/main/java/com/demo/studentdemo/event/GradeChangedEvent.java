@@ -0,0 +1,21 @@
+package com.demo.studentdemo.event;
+
+import com.demo.studentdemo.entity.Grade;
+
+/**
+ * 成绩变更事件，在成绩写入数据库成功后发布.
+ * 新增时 before 为 null，删除时 after 为 null.
+ *
+ * @param before 变更前的成绩记录
+ * @param after  变更后的成绩记录
+ */
+public record GradeChangedEvent(Grade before, Grade after) {
+
+    public boolean isInsert() {
+        return before == null && after != null;
+    }
+
+    public boolean isDelete() {
+        return before != null && after == null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.demo.studentdemo.event;
+
+import com.demo.studentdemo.entity.Student;
+
+/**
+ * 学生信息变更事件，在新增、更新或删除写入数据库成功后发布.
+ * 新增时 before 为 null，删除时 after 为 null；更新时两者均为数据库中的完整记录.
+ *
+ * @param id     学生表主键
+ * @param before 变更前的学生记录
+ * @param after  变更后的学生记录
+ */
+public record StudentChangedEvent(Long id, Student before, Student after) {
+
+    public boolean deleted() {
+        return after == null;
+    }
+}
@@ -1,22 +1,49 @@
 package com.demo.studentdemo.exception;
 
 import com.demo.studentdemo.vo.ApiResponse;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    // 处理业务异常
+    // 处理业务异常：code 为 4xx/5xx 时作为 HTTP 状态码返回（401/403/404/409/503 等），其余业务码仍返回 400
     @ExceptionHandler(BusinessException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ApiResponse<Object> handleBusinessException(BusinessException ex) {
-        return ApiResponse.error(
+    public ResponseEntity<ApiResponse<Object>> handleBusinessException(BusinessException ex) {
+        HttpStatus status = httpStatusOf(ex.getCode());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (status == HttpStatus.UNAUTHORIZED) {
+            response.header(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        }
+        return response.body(ApiResponse.error(
                 ex.getCode(),
                 ex.getMessage() != null ? ex.getMessage() : "Business error"
-        );
+        ));
+    }
+
+    static HttpStatus httpStatusOf(int code) {
+        HttpStatus status = HttpStatus.resolve(code);
+        return status != null && (status.is4xxClientError() || status.is5xxServerError()) ? status : HttpStatus.BAD_REQUEST;
+    }
+
+    // 异步请求超过接口超时时间
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiResponse<Object> handleAsyncRequestTimeout(AsyncRequestTimeoutException ex) {
+        return ApiResponse.error(503, "请求处理超时，请稍后重试");
+    }
+
+    // 异步执行线程池已满
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiResponse<Object> handleTaskRejected(TaskRejectedException ex) {
+        return ApiResponse.error(503, "服务繁忙，请稍后重试");
     }
 
     // 处理系统异常
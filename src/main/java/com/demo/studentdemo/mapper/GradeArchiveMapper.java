@@ -0,0 +1,54 @@
+package com.demo.studentdemo.mapper;
+
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.vo.GradeArchiveSemesterVO;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 成绩冷热归档 Mapper 接口
+ * </p>
+ */
+public interface GradeArchiveMapper {
+
+    /**
+     * 按学号、学期顺序流式读取归档表全部成绩（服务端游标），与 GradeMapper.scanOrderByStudent 归并使用
+     */
+    Cursor<Grade> scanOrderByStudent();
+
+    /**
+     * 在线表中不晚于 upTo 的学期（升序）
+     */
+    List<String> listHotSemestersUpTo(@Param("upTo") String upTo);
+
+    /**
+     * 在线表中某学期的一批主键（升序）
+     */
+    List<Long> listHotIds(@Param("semester") String semester, @Param("limit") int limit);
+
+    int copyToArchive(@Param("ids") List<Long> ids);
+
+    int deleteHot(@Param("ids") List<Long> ids);
+
+    /**
+     * 登记即将搬迁的学期（状态 ARCHIVING）
+     */
+    int markArchiving(@Param("semesters") List<String> semesters);
+
+    /**
+     * 学期搬迁完成：累加行数并置为 DONE
+     */
+    int finishArchivedSemester(@Param("semester") String semester, @Param("rows") long rows);
+
+    /**
+     * 撤销尚未开始搬迁的学期登记
+     */
+    int clearArchiving(@Param("semesters") List<String> semesters);
+
+    int restoreArchived(@Param("semesters") List<String> semesters);
+
+    List<GradeArchiveSemesterVO> listArchivedSemesters();
+}
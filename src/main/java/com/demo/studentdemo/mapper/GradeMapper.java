@@ -0,0 +1,38 @@
+package com.demo.studentdemo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.demo.studentdemo.entity.Grade;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * <p>
+ * 成绩记录 Mapper 接口
+ * </p>
+ *
+ * @author admin
+ */
+public interface GradeMapper extends BaseMapper<Grade> {
+
+    /**
+     * 按学号、学期顺序流式读取在线表全部成绩（服务端游标，逐行返回，不含归档）.
+     * 游标在 SqlSession 关闭时失效，须在手动打开的 SqlSession 中使用；
+     * 流式结果集读完前同一连接不能执行其他语句，与归档表游标归并时须各用一个 SqlSession.
+     */
+    Cursor<Grade> scanOrderByStudent();
+
+    /**
+     * 无序流式读取全部成绩（含归档，服务端游标），用于构建内存快照
+     */
+    Cursor<Grade> scanAll();
+
+    /**
+     * 成绩总行数（含归档）
+     */
+    long countAll();
+
+    /**
+     * 流式读取学号在 [from, to) 内的成绩（含归档，服务端游标），null 表示该侧不设界
+     */
+    Cursor<Grade> scanStudentRange(@Param("from") String from, @Param("to") String to);
+}
@@ -0,0 +1,22 @@
+package com.demo.studentdemo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.demo.studentdemo.entity.StudentGpa;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 学生学期绩点 Mapper 接口
+ * </p>
+ *
+ * @author admin
+ */
+public interface StudentGpaMapper extends BaseMapper<StudentGpa> {
+
+    /**
+     * 批量写入，(student_id, semester) 已存在时覆盖
+     */
+    int upsertBatch(@Param("list") List<StudentGpa> list);
+}
@@ -3,9 +3,11 @@ package com.demo.studentdemo.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.service.GradeArchiveService;
 import com.demo.studentdemo.vo.StudentGradeVO;
 import com.demo.studentdemo.vo.StudentQueryReq;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 
@@ -18,7 +20,33 @@ import java.util.List;
  * @since 2025-07-30
  */
 public interface StudentMapper extends BaseMapper<Student> {
-    Page<StudentGradeVO> queryAllGrade(@Param("page") Page<StudentGradeVO> page, @Param("req") StudentQueryReq studentQueryReq);
+    /**
+     * @param source 成绩表来源，由 GradeArchiveService.route 按学期范围给出
+     */
+    Page<StudentGradeVO> queryAllGrade(@Param("page") Page<StudentGradeVO> page, @Param("req") StudentQueryReq studentQueryReq,
+                                       @Param("source") GradeArchiveService.GradeSource source);
+
+    /**
+     * 与 queryAllGrade 条件、排序一致的流式查询（服务端游标），用于全量导出
+     */
+    Cursor<StudentGradeVO> streamAllGrade(@Param("req") StudentQueryReq studentQueryReq,
+                                           @Param("source") GradeArchiveService.GradeSource source);
+
+    /**
+     * 满足条件的学期（倒序），用于按学期扇出查询
+     */
+    List<String> listGradeSemesters(@Param("req") StudentQueryReq studentQueryReq,
+                                    @Param("source") GradeArchiveService.GradeSource source);
+
+    /**
+     * 按学号把学生等分为 parts 段，返回各段起始学号（升序）
+     */
+    List<String> listStudentIdBoundaries(@Param("parts") int parts);
+
+    /**
+     * 流式扫描全部学生的学号与身份证号（服务端游标）
+     */
+    Cursor<Student> scanUniqueKeys();
 
     //public List<StudentGradeVO> queryAllGrade(@Param("req") StudentQueryReq studentQueryReq);
 }
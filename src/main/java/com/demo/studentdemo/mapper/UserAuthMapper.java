@@ -0,0 +1,20 @@
+package com.demo.studentdemo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.demo.studentdemo.entity.UserAuth;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+
+/**
+ * <p>
+ * 用户登录认证 Mapper 接口
+ * </p>
+ */
+public interface UserAuthMapper extends BaseMapper<UserAuth> {
+
+    /**
+     * 一条语句批量回写最后登录时间，不改动 updated_at
+     */
+    int batchUpdateLastLogin(@Param("logins") Collection<UserAuth> logins);
+}
@@ -0,0 +1,146 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.demo.studentdemo.config.BatchingResultSink;
+import com.demo.studentdemo.entity.UserAuth;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.UserAuthMapper;
+import com.demo.studentdemo.vo.AuthUserVO;
+import com.demo.studentdemo.vo.LoginVO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录认证.
+ * BCrypt 校验故意耗 CPU（cost 10 约 100ms），只在舱壁 auth 的有界线程池中执行，登录高峰不会挤占其他接口的 CPU 与请求线程：
+ *   - 池满且队列满：直接拒绝（503）
+ *   - 排队超过 auth.bcrypt.max-queue-ms：放弃校验返回 503，客户端早已等不及的请求不再消耗 CPU
+ * 账号不存在时也对固定的假哈希做一次校验，使响应耗时与密码错误一致，不暴露账号是否存在.
+ *
+ * 登录成功签发短期 HMAC 令牌（见 AuthTokenService），last_login 经 BatchingResultSink 合并后批量回写.
+ */
+@Slf4j
+@Service
+public class AuthService {
+
+    private static final String STATUS_LOCKED = "LOCKED";
+
+    private final UserAuthMapper userAuthMapper;
+    private final AuthTokenService authTokenService;
+    private final ThreadPoolTaskExecutor authExecutor;
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final String dummyHash = passwordEncoder.encode("dummy-password-for-unknown-user");
+    private final long maxQueueNanos;
+    private final BatchingResultSink<UserAuth> lastLoginSink;
+
+    private final Timer queueWait;
+    private final Counter succeeded;
+    private final Counter rejected;
+    private final Counter busy;
+
+    public AuthService(UserAuthMapper userAuthMapper, AuthTokenService authTokenService,
+                       @Qualifier("authExecutor") ThreadPoolTaskExecutor authExecutor, MeterRegistry meterRegistry,
+                       @Value("${auth.bcrypt.max-queue-ms:300}") long maxQueueMillis) {
+        this.userAuthMapper = userAuthMapper;
+        this.authTokenService = authTokenService;
+        this.authExecutor = authExecutor;
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueMillis);
+        this.queueWait = Timer.builder("auth.bcrypt.queue-wait").register(meterRegistry);
+        this.succeeded = meterRegistry.counter("auth.login", "outcome", "success");
+        this.rejected = meterRegistry.counter("auth.login", "outcome", "rejected");
+        this.busy = meterRegistry.counter("auth.login", "outcome", "busy");
+        this.lastLoginSink = BatchingResultSink.<UserAuth>builder()
+                .name("last-login")
+                .maxBatchSize(200)
+                .linger(Duration.ofSeconds(1))
+                .flusher(this::writeLastLogin)
+                .onFlushError((batch, e) -> log.warn("回写 last_login 失败，丢弃 {} 条: {}", batch.size(), e.getMessage()))
+                .build();
+    }
+
+    /**
+     * 校验账号密码并签发令牌. 账号查询在调用线程完成，BCrypt 校验在 auth 线程池中异步完成
+     */
+    public CompletableFuture<LoginVO> login(String username, String password) {
+        if (username == null || username.isBlank() || password == null || password.isEmpty()) {
+            throw new BusinessException(400, "账号和密码不能为空");
+        }
+        // BCrypt 只取前 72 字节，超长输入直接拒绝
+        if (password.getBytes(StandardCharsets.UTF_8).length > 72) {
+            throw new BusinessException(400, "密码过长");
+        }
+        UserAuth user = userAuthMapper.selectOne(new LambdaQueryWrapper<UserAuth>().eq(UserAuth::getUsername, username));
+        long submittedAt = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            long waited = System.nanoTime() - submittedAt;
+            queueWait.record(waited, TimeUnit.NANOSECONDS);
+            if (waited > maxQueueNanos) {
+                busy.increment();
+                throw new BusinessException(503, "登录请求繁忙，请稍后重试");
+            }
+            boolean matched = passwordEncoder.matches(password, user != null ? user.getPasswordHash() : dummyHash);
+            if (user == null || !matched) {
+                rejected.increment();
+                throw new BusinessException(401, "账号或密码错误");
+            }
+            // 密码正确后才提示锁定，避免向未知调用方暴露账号状态
+            if (STATUS_LOCKED.equals(user.getAccountStatus())) {
+                rejected.increment();
+                throw new BusinessException(403, "账号已锁定");
+            }
+            succeeded.increment();
+            UserAuth login = new UserAuth();
+            login.setId(user.getId());
+            login.setLastLogin(LocalDateTime.now());
+            lastLoginSink.add(login);
+            String token = authTokenService.issue(user);
+            return LoginVO.of(token, authTokenService.getTtlSeconds(), AuthUserVO.of(authTokenService.verify(token)));
+        }, authExecutor);
+    }
+
+    /**
+     * 解析 Authorization 请求头中的 Bearer 令牌，无效或过期时抛出 401
+     */
+    public AuthTokenService.Claims authenticate(String authorization) {
+        String token = authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)
+                ? authorization.substring(7).trim() : null;
+        AuthTokenService.Claims claims = authTokenService.verify(token);
+        if (claims == null) {
+            throw new BusinessException(401, "未登录或登录已过期");
+        }
+        return claims;
+    }
+
+    /**
+     * 同一批次内同一账号只保留最新一次登录时间
+     */
+    private void writeLastLogin(List<UserAuth> batch) {
+        Map<Long, UserAuth> latest = new LinkedHashMap<>();
+        for (UserAuth login : batch) {
+            latest.merge(login.getId(), login, (a, b) -> a.getLastLogin().isAfter(b.getLastLogin()) ? a : b);
+        }
+        userAuthMapper.batchUpdateLastLogin(latest.values());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lastLoginSink.close();
+    }
+}
@@ -0,0 +1,105 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.entity.UserAuth;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 无状态登录令牌：base64url(载荷) + "." + base64url(HMAC-SHA256(载荷))，载荷为 用户ID|过期时间|学号|账号.
+ * 校验只做一次 HMAC 与过期判断，不访问数据库，耗时在微秒级；代价是令牌签发后无法单独吊销，因此有效期要短.
+ *
+ * 未配置 auth.token.secret 时启动随机生成密钥：重启或多实例之间令牌互不认可.
+ */
+@Slf4j
+@Service
+public class AuthTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * 令牌中携带的登录信息
+     */
+    public record Claims(Long userId, String studentId, String username, long expiresAtEpochSecond) {
+    }
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    // Mac 非线程安全，按线程复用已初始化的实例
+    private final ThreadLocal<Mac> macs;
+
+    public AuthTokenService(@Value("${auth.token.secret:}") String secret,
+                            @Value("${auth.token.ttl-seconds:900}") long ttlSeconds) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("未配置 auth.token.secret，使用随机密钥：重启后已签发的令牌失效，多实例之间令牌不通用");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < 32) {
+                throw new IllegalStateException("auth.token.secret 至少 32 字节");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(UserAuth user) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        String payload = user.getId() + "|" + expiresAt + "|" + user.getStudentId() + "|" + user.getUsername();
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encoded + "." + ENCODER.encodeToString(sign(encoded));
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * @return 签名不符、格式错误或已过期时为 null
+     */
+    public Claims verify(String token) {
+        if (token == null) return null;
+        int dot = token.lastIndexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) return null;
+        try {
+            String encoded = token.substring(0, dot);
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encoded))) return null;
+            String[] parts = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4) return null;
+            long expiresAt = Long.parseLong(parts[1]);
+            if (System.currentTimeMillis() / 1000 >= expiresAt) return null;
+            return new Claims(Long.valueOf(parts[0]), parts[2], parts[3], expiresAt);
+        } catch (IllegalArgumentException e) {
+            // base64 或数字格式错误
+            return null;
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        return macs.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化 " + ALGORITHM + " 失败", e);
+        }
+    }
+}
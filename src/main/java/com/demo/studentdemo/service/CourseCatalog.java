@@ -0,0 +1,94 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.entity.Course;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 课程目录的不可变快照，按 id、course_code、dept_name、course_type 建立索引.
+ * 快照一经发布不再修改，读取方无需加锁；目录变化时由 ICourseService 构建新快照整体替换.
+ * 返回的 Course 对象为快照共享实例，调用方不得修改.
+ */
+public final class CourseCatalog {
+
+    private final long version;
+    private final LocalDateTime loadedAt;
+    private final String fingerprint;
+    private final List<Course> all;
+    private final Map<Long, Course> byId;
+    private final Map<String, Course> byCode;
+    private final Map<String, List<Course>> byDept;
+    private final Map<String, List<Course>> byType;
+
+    public CourseCatalog(long version, String fingerprint, Collection<Course> courses) {
+        this.version = version;
+        this.fingerprint = fingerprint;
+        this.loadedAt = LocalDateTime.now();
+        this.all = courses.stream().sorted(Comparator.comparing(Course::getCourseCode)).toList();
+        Map<Long, Course> ids = new HashMap<>();
+        Map<String, Course> codes = new HashMap<>();
+        for (Course c : all) {
+            ids.put(c.getId(), c);
+            codes.put(c.getCourseCode(), c);
+        }
+        this.byId = Map.copyOf(ids);
+        this.byCode = Map.copyOf(codes);
+        this.byDept = index(all, Course::getDeptName);
+        this.byType = index(all, Course::getCourseType);
+    }
+
+    private static Map<String, List<Course>> index(List<Course> courses, Function<Course, String> key) {
+        return Map.copyOf(courses.stream()
+                .filter(c -> key.apply(c) != null)
+                .collect(Collectors.groupingBy(key, Collectors.toUnmodifiableList())));
+    }
+
+    public long getVersion() { return version; }
+    public LocalDateTime getLoadedAt() { return loadedAt; }
+    public String getFingerprint() { return fingerprint; }
+    public int size() { return all.size(); }
+
+    public Optional<Course> byId(Long id) {
+        return Optional.ofNullable(id == null ? null : byId.get(id));
+    }
+
+    public Optional<Course> byCode(String courseCode) {
+        return Optional.ofNullable(courseCode == null ? null : byCode.get(courseCode));
+    }
+
+    /**
+     * 按院系、课程类型过滤，参数为 null 表示不过滤；结果按课程代码有序
+     */
+    public List<Course> list(String deptName, String courseType) {
+        List<Course> base = deptName != null ? byDept.getOrDefault(deptName, List.of())
+                : courseType != null ? byType.getOrDefault(courseType, List.of())
+                : all;
+        if (deptName != null && courseType != null) {
+            return base.stream().filter(c -> courseType.equals(c.getCourseType())).toList();
+        }
+        return base;
+    }
+
+    public List<String> depts() {
+        return byDept.keySet().stream().sorted().toList();
+    }
+
+    public List<String> types() {
+        return byType.keySet().stream().sorted().toList();
+    }
+
+    /**
+     * 课程 id -> 学分
+     */
+    public Map<Long, Integer> credits() {
+        return all.stream().collect(Collectors.toUnmodifiableMap(Course::getId, c -> c.getCredit().intValue()));
+    }
+}
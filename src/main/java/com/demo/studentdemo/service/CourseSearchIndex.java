@@ -0,0 +1,389 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.entity.Course;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * 课程名称 + 课程描述的内存倒排索引（不可变，随课程目录快照增量派生新版本）.
+ *
+ * 分词：连续的汉字按相邻二字切分（单个汉字单独成词），连续的字母数字按小写整词切分，其余字符作分隔.
+ * 检索词中单独的一个汉字展开为含该字的全部词项（单字及二字词），否则“数”检索不到只含“数学”的课程.
+ * 文档序号：每门课程分配递增的内部序号，倒排表先写文档数，再按序号升序写 (序号差值, 词频) 的变长整数，
+ * 常见词项每个文档也只占 2~3 字节；检索时按序号在数组中累加得分，不装箱.
+ * 排序：BM25（k1 = 1.2，b = 0.75），课程名称中的词频按 NAME_WEIGHT 倍计入，文档长度同样加权.
+ *
+ * 目录变化时 update(next) 只对新增、删除及名称 / 描述变化的课程重新分词：变化的课程作废旧序号、在末尾分配新序号，
+ * 受影响词项的倒排表只需剔除作废序号再在尾部追加，其余词项共享上一版本. 作废序号过多时整体重建以压实序号.
+ */
+public final class CourseSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 3;
+    private static final int MIN_HOLES_BEFORE_COMPACT = 64;
+
+    /**
+     * 一门课程的分词结果
+     */
+    private record Doc(Long courseId, String name, String desc, Map<String, Integer> tf, int length) {
+    }
+
+    /**
+     * 一条命中结果
+     */
+    public record Hit(Long courseId, double score) {
+    }
+
+    /**
+     * @param hits  按得分降序的前 limit 条
+     * @param total 至少命中一个词项的课程数
+     */
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    private final long catalogVersion;
+    // 序号 -> 文档，已作废的序号为 null
+    private final Doc[] docs;
+    private final Map<Long, Integer> ordinals;
+    private final Map<String, byte[]> postings;
+    private final long totalLength;
+    // 各序号的 BM25 长度归一项 k1 * (1 - b + b * len / avgLen)
+    private final float[] norms;
+    // 汉字 -> 含该字的词项，首次单字检索时从词项表派生
+    private volatile Map<String, List<String>> hanTerms;
+
+    private CourseSearchIndex(long catalogVersion, Doc[] docs, Map<Long, Integer> ordinals,
+                              Map<String, byte[]> postings, long totalLength) {
+        this.catalogVersion = catalogVersion;
+        this.docs = docs;
+        this.ordinals = ordinals;
+        this.postings = postings;
+        this.totalLength = totalLength;
+        this.norms = new float[docs.length];
+        double avgLength = ordinals.isEmpty() ? 1D : Math.max(1D, (double) totalLength / ordinals.size());
+        for (int i = 0; i < docs.length; i++) {
+            if (docs[i] != null) norms[i] = (float) (K1 * (1 - B + B * docs[i].length() / avgLength));
+        }
+    }
+
+    /**
+     * 从目录快照全量构建
+     */
+    public static CourseSearchIndex build(CourseCatalog catalog) {
+        List<Course> courses = catalog.list(null, null);
+        Doc[] docs = new Doc[courses.size()];
+        Map<Long, Integer> ordinals = new HashMap<>(courses.size() * 2);
+        Map<String, PostingBuilder> builders = new HashMap<>();
+        long totalLength = 0;
+        for (int ord = 0; ord < docs.length; ord++) {
+            Doc doc = analyze(courses.get(ord));
+            docs[ord] = doc;
+            ordinals.put(doc.courseId(), ord);
+            totalLength += doc.length();
+            for (Map.Entry<String, Integer> e : doc.tf().entrySet()) {
+                builders.computeIfAbsent(e.getKey(), k -> new PostingBuilder()).add(ord, e.getValue());
+            }
+        }
+        Map<String, byte[]> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((term, b) -> postings.put(term, b.toBytes()));
+        return new CourseSearchIndex(catalog.getVersion(), docs, ordinals, postings, totalLength);
+    }
+
+    public long getCatalogVersion() { return catalogVersion; }
+    public int getDocCount() { return ordinals.size(); }
+    public int getTermCount() { return postings.size(); }
+
+    /**
+     * 倒排表总字节数
+     */
+    public long getPostingBytes() {
+        long bytes = 0;
+        for (byte[] p : postings.values()) bytes += p.length;
+        return bytes;
+    }
+
+    /**
+     * 基于本索引与新目录快照派生新索引；目录版本未变时返回自身
+     */
+    public CourseSearchIndex update(CourseCatalog next) {
+        if (next.getVersion() == catalogVersion) return this;
+        Set<Integer> retired = new HashSet<>();
+        List<Doc> added = new ArrayList<>();
+        Set<Long> present = new HashSet<>();
+        for (Course c : next.list(null, null)) {
+            present.add(c.getId());
+            Integer ord = ordinals.get(c.getId());
+            if (ord != null) {
+                Doc old = docs[ord];
+                if (Objects.equals(old.name(), c.getCourseName()) && Objects.equals(old.desc(), c.getCourseDesc())) {
+                    continue;
+                }
+                retired.add(ord);
+            }
+            added.add(analyze(c));
+        }
+        for (Map.Entry<Long, Integer> e : ordinals.entrySet()) {
+            if (!present.contains(e.getKey())) retired.add(e.getValue());
+        }
+        if (retired.isEmpty() && added.isEmpty()) {
+            return new CourseSearchIndex(next.getVersion(), docs, ordinals, postings, totalLength);
+        }
+        int slots = docs.length + added.size();
+        int holes = docs.length - ordinals.size() + retired.size();
+        if (holes > Math.max(MIN_HOLES_BEFORE_COMPACT, slots / 4)) {
+            return build(next);
+        }
+
+        Doc[] nextDocs = Arrays.copyOf(docs, slots);
+        Map<Long, Integer> nextOrdinals = new HashMap<>(ordinals);
+        long length = totalLength;
+        Set<String> affected = new HashSet<>();
+        for (int ord : retired) {
+            Doc old = docs[ord];
+            nextDocs[ord] = null;
+            nextOrdinals.remove(old.courseId());
+            affected.addAll(old.tf().keySet());
+            length -= old.length();
+        }
+        Map<String, PostingBuilder> appended = new HashMap<>();
+        for (int k = 0; k < added.size(); k++) {
+            Doc doc = added.get(k);
+            int ord = docs.length + k;
+            nextDocs[ord] = doc;
+            nextOrdinals.put(doc.courseId(), ord);
+            length += doc.length();
+            for (Map.Entry<String, Integer> e : doc.tf().entrySet()) {
+                appended.computeIfAbsent(e.getKey(), t -> new PostingBuilder()).add(ord, e.getValue());
+                affected.add(e.getKey());
+            }
+        }
+
+        Map<String, byte[]> nextPostings = new HashMap<>(postings);
+        for (String term : affected) {
+            PostingBuilder merged = new PostingBuilder();
+            byte[] old = postings.get(term);
+            if (old != null) {
+                PostingReader r = new PostingReader(old);
+                while (r.next()) {
+                    if (!retired.contains(r.ord)) merged.add(r.ord, r.tf);
+                }
+            }
+            PostingBuilder tail = appended.get(term);
+            if (tail != null) merged.addAll(tail);
+            if (merged.size == 0) {
+                nextPostings.remove(term);
+            } else {
+                nextPostings.put(term, merged.toBytes());
+            }
+        }
+        return new CourseSearchIndex(next.getVersion(), nextDocs, nextOrdinals, nextPostings, length);
+    }
+
+    /**
+     * BM25 排序后的前 limit 条命中；filter 按课程 id 过滤，为 null 表示不过滤
+     */
+    public Result search(String query, int limit, LongPredicate filter) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : tokenize(query)) {
+            if (isSingleHan(term)) {
+                terms.addAll(hanTerms().getOrDefault(term, List.of()));
+            } else {
+                terms.add(term);
+            }
+        }
+        if (terms.isEmpty() || ordinals.isEmpty()) return new Result(List.of(), 0);
+        int n = ordinals.size();
+        double[] scores = new double[docs.length];
+        int[] touched = new int[docs.length];
+        int matched = 0;
+        for (String term : terms) {
+            byte[] posting = postings.get(term);
+            if (posting == null) continue;
+            PostingReader r = new PostingReader(posting);
+            double idf = Math.log(1 + (n - r.remaining + 0.5) / (r.remaining + 0.5));
+            while (r.next()) {
+                if (filter != null && !filter.test(docs[r.ord].courseId())) continue;
+                // BM25 得分恒为正，0 表示该课程首次命中
+                if (scores[r.ord] == 0) touched[matched++] = r.ord;
+                scores[r.ord] += idf * r.tf * (K1 + 1) / (r.tf + norms[r.ord]);
+            }
+        }
+        if (matched == 0 || limit <= 0) return new Result(List.of(), matched);
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> scores[a] != scores[b]
+                ? Double.compare(scores[a], scores[b]) : docs[b].courseId().compareTo(docs[a].courseId()));
+        for (int i = 0; i < matched; i++) {
+            top.offer(touched[i]);
+            if (top.size() > limit) top.poll();
+        }
+        Hit[] hits = new Hit[top.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            int ord = top.poll();
+            hits[i] = new Hit(docs[ord].courseId(), scores[ord]);
+        }
+        return new Result(List.of(hits), matched);
+    }
+
+    private Map<String, List<String>> hanTerms() {
+        Map<String, List<String>> current = hanTerms;
+        if (current == null) {
+            Map<String, List<String>> built = new HashMap<>();
+            for (String term : postings.keySet()) {
+                if (!isCjk(term.codePointAt(0))) continue;
+                term.codePoints().distinct().forEach(cp ->
+                        built.computeIfAbsent(Character.toString(cp), k -> new ArrayList<>()).add(term));
+            }
+            hanTerms = current = built;
+        }
+        return current;
+    }
+
+    // ---------- 分词 ----------
+
+    private static Doc analyze(Course course) {
+        Map<String, Integer> tf = new HashMap<>();
+        List<String> nameTerms = tokenize(course.getCourseName());
+        List<String> descTerms = tokenize(course.getCourseDesc());
+        for (String t : nameTerms) tf.merge(t, NAME_WEIGHT, Integer::sum);
+        for (String t : descTerms) tf.merge(t, 1, Integer::sum);
+        return new Doc(course.getId(), course.getCourseName(), course.getCourseDesc(), Map.copyOf(tf),
+                nameTerms.size() * NAME_WEIGHT + descTerms.size());
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return Collections.emptyList();
+        List<String> terms = new ArrayList<>();
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            int cp = text.codePointAt(i);
+            if (isCjk(cp)) {
+                int start = i;
+                while (i < n && isCjk(text.codePointAt(i))) i += Character.charCount(text.codePointAt(i));
+                cjkBigrams(text.substring(start, i), terms);
+            } else if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                while (i < n) {
+                    int c = text.codePointAt(i);
+                    if (!Character.isLetterOrDigit(c) || isCjk(c)) break;
+                    i += Character.charCount(c);
+                }
+                terms.add(text.substring(start, i).toLowerCase());
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return terms;
+    }
+
+    private static void cjkBigrams(String run, List<String> terms) {
+        int[] cps = run.codePoints().toArray();
+        if (cps.length == 1) {
+            terms.add(run);
+            return;
+        }
+        for (int k = 0; k + 1 < cps.length; k++) {
+            terms.add(new String(cps, k, 2));
+        }
+    }
+
+    private static boolean isSingleHan(String term) {
+        int cp = term.codePointAt(0);
+        return Character.charCount(cp) == term.length() && isCjk(cp);
+    }
+
+    private static boolean isCjk(int cp) {
+        return Character.UnicodeScript.of(cp) == Character.UnicodeScript.HAN;
+    }
+
+    // ---------- 倒排表编码 ----------
+
+    /**
+     * 按序号升序追加 (序号, 词频)，最后编码为变长整数
+     */
+    private static final class PostingBuilder {
+        private int[] ords = new int[4];
+        private int[] tfs = new int[4];
+        private int size;
+
+        void add(int ord, int tf) {
+            if (size == ords.length) {
+                ords = Arrays.copyOf(ords, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            ords[size] = ord;
+            tfs[size++] = tf;
+        }
+
+        void addAll(PostingBuilder other) {
+            for (int i = 0; i < other.size; i++) add(other.ords[i], other.tfs[i]);
+        }
+
+        byte[] toBytes() {
+            byte[] buf = new byte[5 + size * 10];
+            int pos = writeVarInt(buf, 0, size);
+            int prev = 0;
+            for (int i = 0; i < size; i++) {
+                pos = writeVarInt(buf, pos, ords[i] - prev);
+                pos = writeVarInt(buf, pos, tfs[i]);
+                prev = ords[i];
+            }
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    /**
+     * 顺序解码一段倒排表；remaining 初始为文档数
+     */
+    private static final class PostingReader {
+        private final byte[] buf;
+        private int pos;
+        private int remaining;
+        private int ord;
+        private int tf;
+
+        PostingReader(byte[] buf) {
+            this.buf = buf;
+            this.remaining = readVarInt();
+        }
+
+        boolean next() {
+            if (remaining == 0) return false;
+            remaining--;
+            ord += readVarInt();
+            tf = readVarInt();
+            return true;
+        }
+
+        private int readVarInt() {
+            int v = 0;
+            int shift = 0;
+            while (true) {
+                byte b = buf[pos++];
+                v |= (b & 0x7F) << shift;
+                if (b >= 0) return v;
+                shift += 7;
+            }
+        }
+    }
+
+    private static int writeVarInt(byte[] buf, int pos, int v) {
+        while ((v & ~0x7F) != 0) {
+            buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+        return pos;
+    }
+}
@@ -0,0 +1,76 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.event.CourseCatalogChangedEvent;
+import com.demo.studentdemo.vo.CourseSearchHitVO;
+import com.demo.studentdemo.vo.CourseSearchResultVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+
+/**
+ * 课程全文检索，索引见 CourseSearchIndex.
+ * 索引跟随课程目录快照：目录重新加载（定时刷新或课程增删改）后收到 CourseCatalogChangedEvent 即增量更新索引，
+ * 检索不承担重建开销. 检索前仍比较目录版本，仅在尚未建索引或事件处理失败时就地更新.
+ * 更新串行进行，检索读取的始终是一个完整的不可变索引.
+ */
+@Slf4j
+@Service
+public class CourseSearchService {
+
+    @Autowired
+    private ICourseService courseService;
+
+    private volatile CourseSearchIndex index;
+
+    @EventListener
+    public void onCatalogChanged(CourseCatalogChangedEvent event) {
+        try {
+            indexFor(event.current());
+        } catch (RuntimeException e) {
+            log.warn("课程检索索引更新失败，将在下次检索时重试: {}", e.getMessage());
+        }
+    }
+
+    public CourseSearchResultVO search(String query, String deptName, String courseType, int limit) {
+        CourseCatalog catalog = courseService.catalog();
+        CourseSearchIndex current = indexFor(catalog);
+        long start = System.nanoTime();
+        LongPredicate filter = deptName == null && courseType == null ? null : id -> catalog.byId(id)
+                .filter(c -> (deptName == null || deptName.equals(c.getDeptName()))
+                        && (courseType == null || courseType.equals(c.getCourseType())))
+                .isPresent();
+        CourseSearchIndex.Result result = current.search(query, limit, filter);
+        long tookMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        // 并发更新时索引可能比本次取到的目录更新，目录中已不存在的课程直接跳过
+        List<CourseSearchHitVO> hits = result.hits().stream()
+                .flatMap(h -> catalog.byId(h.courseId()).stream()
+                        .map(c -> CourseSearchHitVO.of(c, Math.round(h.score() * 1000) / 1000D)))
+                .toList();
+        return CourseSearchResultVO.of(query, result.total(), hits, tookMicros, current.getCatalogVersion());
+    }
+
+    private CourseSearchIndex indexFor(CourseCatalog catalog) {
+        CourseSearchIndex current = index;
+        if (current != null && current.getCatalogVersion() >= catalog.getVersion()) {
+            return current;
+        }
+        synchronized (this) {
+            current = index;
+            if (current != null && current.getCatalogVersion() >= catalog.getVersion()) {
+                return current;
+            }
+            long start = System.nanoTime();
+            CourseSearchIndex next = current == null ? CourseSearchIndex.build(catalog) : current.update(catalog);
+            index = next;
+            log.info("课程检索索引已更新至目录版本 {}，课程数: {}，词项数: {}，倒排表 {} 字节，耗时 {} ms", next.getCatalogVersion(),
+                    next.getDocCount(), next.getTermCount(), next.getPostingBytes(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return next;
+        }
+    }
+}
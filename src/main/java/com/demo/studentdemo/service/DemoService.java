@@ -1,10 +1,14 @@
 package com.demo.studentdemo.service;
 
+import com.demo.studentdemo.config.BatchJobControl;
+import com.demo.studentdemo.config.BatchingResultSink;
 import com.demo.studentdemo.config.StreamBatchProcessor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
@@ -18,6 +22,13 @@ public class DemoService {
     private StreamBatchProcessor processor;
 
     public void runExample() throws Exception {
+        runExample(null);
+    }
+
+    /**
+     * @param control 作业控制句柄（通过 BatchJobRegistry 提交时传入），可为 null
+     */
+    public void runExample(BatchJobControl control) throws Exception {
         Supplier<Iterator<Integer>> supplier = () -> new Iterator<Integer>() {
             private int i = 0;
             private final int max = 10_000;
@@ -39,11 +50,13 @@ public class DemoService {
             return "result-" + i;
         };
 
-        BiConsumer<Integer, String> resultConsumer = (item, res) -> {
-            // 写 DB / MQ / log 等（注意不要阻塞太久）
-            // 推荐把写操作也做批处理或放其它线程池
-            log.info("done " + item);
-        };
+        // 写 DB / MQ 等操作按批刷出：满 500 条或距上次刷写 200ms 即整批写出，避免逐条往返
+        BatchingResultSink<String> resultSink = BatchingResultSink.<String>builder()
+                .name("demo-example")
+                .maxBatchSize(500)
+                .linger(Duration.ofMillis(200))
+                .flusher(batch -> log.info("批量写出 {} 条结果, 首条={}", batch.size(), batch.get(0)))
+                .build();
 
         BiConsumer<Integer, Throwable> errorConsumer = (item, t) -> {
             log.error("error item=" + item + ", ex=" + t.getMessage());
@@ -55,9 +68,16 @@ public class DemoService {
                 .queueCapacity(2000)
                 .perTaskTimeoutMillis(30_000)
                 .maxRetries(1)
+                .spillToDisk(Path.of(System.getProperty("java.io.tmpdir"), "student-demo-spill")) // 突发超出队列容量时溢写磁盘，生产者不阻塞
                 .build();
 
-        custom.processAndWait(supplier, mapper, resultConsumer, errorConsumer);
+        try (resultSink) {
+            custom.processAndWait(supplier, mapper, resultSink, errorConsumer, control);
+        } finally {
+            custom.shutdown();
+        }
+        log.info("结果刷写统计: {}", resultSink.getStats());
+        log.info("溢写统计: {}", custom.getSpillStats());
     }
 
 
@@ -111,8 +131,8 @@ public class DemoService {
         // 可以在这里做别的事
         log.info("主线程可以继续干别的活...");
 
-        // 等待完成
-        future.join();
+        // 等待完成（可中断：接口超时取消时不再占住请求处理线程）
+        future.get();
 
         log.info("总任务数={}, 成功={}, 失败={}",
                 processor.getProduced(),
@@ -1,7 +1,12 @@
 package com.demo.studentdemo.service;
 
 
+import com.demo.studentdemo.config.BatchJobControl;
 import com.demo.studentdemo.config.BatchTaskProcessor;
+import com.demo.studentdemo.config.DeadLetterRegistry;
+import com.demo.studentdemo.config.DeadLetterStore;
+import com.demo.studentdemo.config.ItemSerializer;
+import com.demo.studentdemo.config.RateLimiterRegistry;
 import com.demo.studentdemo.vo.BatchProcessResult;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
@@ -13,7 +18,6 @@ import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -26,10 +30,31 @@ public class DemoTaskService {
     @Autowired
     private BatchTaskProcessor processor;
 
-    private final Queue<String> dataSource = new ConcurrentLinkedQueue<>();
+    @Autowired
+    private RateLimiterRegistry rateLimiterRegistry;
+
+    @Autowired
+    private DeadLetterRegistry deadLetterRegistry;
+
+    private DeadLetterStore<String> deadLetterStore;
+
+    @PostConstruct
+    public void init() {
+        // 失败任务落入本地死信日志，可通过 POST /deadLetter/demo-task/replay 按速率重新处理
+        deadLetterStore = deadLetterRegistry.register("demo-task", ItemSerializer.javaSerialization(), this::processTask);
+    }
 
     public void runDemo() {
+        runDemo(null);
+    }
+
+    /**
+     * @param control 作业控制句柄（通过 BatchJobRegistry 提交时传入），可为 null
+     */
+    public void runDemo(BatchJobControl control) {
         log.info("正在准备模拟数据...");
+        // 每次运行独立的数据队列：并发的多个作业互不抢取对方的任务
+        Queue<String> dataSource = new ConcurrentLinkedQueue<>();
         // 增加任务数量以更好地观察流式效果
         dataSource.addAll(IntStream.rangeClosed(1, 2000)
                 .mapToObj(i -> "任务-" + i)
@@ -44,38 +69,15 @@ public class DemoTaskService {
                     .collect(Collectors.toList());
         };
 
-        Function<String, String> taskProcessor = (task) -> {
-            try {
-                // 模拟更悬殊的执行时间，每10个任务中有一个是长耗时任务
-                long sleepTime;
-                if (Integer.parseInt(task.substring(3)) % 10 == 0) {
-                    // 长耗时任务 (2s - 3s)
-                    sleepTime = ThreadLocalRandom.current().nextLong(2000, 3001);
-                } else {
-                    // 短耗时任务 (50ms - 200ms)
-                    sleepTime = ThreadLocalRandom.current().nextLong(50, 201);
-                }
-                Thread.sleep(sleepTime);
-
-                if (ThreadLocalRandom.current().nextInt(20) == 0) { // 5% 失败率
-                    throw new RuntimeException("模拟业务异常: " + task + " 处理失败!");
-                }
-
-                String result = task + " 已在 " + sleepTime + "ms 内成功处理 (Thread: " + Thread.currentThread().toString() + ")";
-                // 注意：在虚拟线程下，日志输出会非常密集
-                log.info("✅ {}", result);
-                return result;
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("任务被中断", e);
-            }
-        };
-
         // 设置最大并发数为500
         final int MAX_CONCURRENCY = 500;
 
-        // 调用优化后的流式处理方法
-        BatchProcessResult<String, String> result = processor.processStream(batchSupplier, taskProcessor, MAX_CONCURRENCY);
+        // 调用优化后的流式处理方法；processTask 模拟的是下游调用而不访问数据库，按其自身的 "demo-task" 限流器限速
+        BatchProcessResult<String, String> result = processor.processStream(batchSupplier, this::processTask,
+                BatchTaskProcessor.StreamOptions.<String>concurrency(MAX_CONCURRENCY)
+                        .rateLimiter(rateLimiterRegistry.get("demo-task"))
+                        .deadLetterStore(deadLetterStore)
+                        .control(control));
 
         log.info("----------- 最终处理报告 -----------");
         log.info("总任务数: {}", result.totalTasks());
@@ -87,4 +89,31 @@ public class DemoTaskService {
         }
         log.info("------------------------------------");
     }
+
+    private String processTask(String task) {
+        try {
+            // 模拟更悬殊的执行时间，每10个任务中有一个是长耗时任务
+            long sleepTime;
+            if (Integer.parseInt(task.substring(3)) % 10 == 0) {
+                // 长耗时任务 (2s - 3s)
+                sleepTime = ThreadLocalRandom.current().nextLong(2000, 3001);
+            } else {
+                // 短耗时任务 (50ms - 200ms)
+                sleepTime = ThreadLocalRandom.current().nextLong(50, 201);
+            }
+            Thread.sleep(sleepTime);
+
+            if (ThreadLocalRandom.current().nextInt(20) == 0) { // 5% 失败率
+                throw new RuntimeException("模拟业务异常: " + task + " 处理失败!");
+            }
+
+            String result = task + " 已在 " + sleepTime + "ms 内成功处理 (Thread: " + Thread.currentThread().toString() + ")";
+            // 注意：在虚拟线程下，日志输出会非常密集
+            log.info("✅ {}", result);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("任务被中断", e);
+        }
+    }
 }
@@ -0,0 +1,538 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.demo.studentdemo.entity.Course;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.GradeMapper;
+import com.demo.studentdemo.mapper.StudentMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 院系看板：按 dept_name 预聚合的学生人数（按入学年份）、各课程类型的平均分与不及格率，常驻内存.
+ *
+ * 聚合保存为累计和与计数（分数按 0.1 分取整后累加），学生、成绩写入后由 StudentChangedEvent / GradeChangedEvent 增量维护，
+ * 每次变更后重新生成受影响院系的不可变看板快照；查询直接返回快照，耗时与学生数、成绩数无关.
+ *
+ * 全量构建：先读入全部学生，再按学号把成绩等分为若干区间，在舱壁 dashboard-rebuild 中并行流式扫描（含归档成绩）.
+ * 同一学生的成绩只落在一个区间，各区间只写本区间学生的聚合，无需加锁与合并. 应用启动后在舱壁 batch-task 中构建一次.
+ *
+ * 每条成绩当前计入的分数按主键记录，成绩事件按主键 upsert，构建期间暂存的事件补放是幂等的.
+ * 学生不存在的成绩计入游离聚合，不进入任何院系（与 queryAllGrade 的内连接一致），学生录入后随之并入.
+ * 课程类型变化会改变已有成绩的归属，检测到后整体重建，重建完成前按原类型统计.
+ */
+@Slf4j
+@Service
+public class DeptDashboardService {
+
+    private static final String UNKNOWN_COURSE_TYPE = "未知";
+    private static final int NOT_COUNTED = -1;
+
+    public record CourseTypeStats(String courseType, long graded, double avgScore, long failed, double failureRate) {
+    }
+
+    /**
+     * @param studentsByYear 入学年份 -> 人数，按年份升序
+     * @param overall        全部课程类型合计，courseType 为 null
+     */
+    public record DeptDashboard(String deptName, long students, Map<Integer, Long> studentsByYear,
+                                CourseTypeStats overall, List<CourseTypeStats> byCourseType,
+                                LocalDateTime updatedAt) {
+    }
+
+    /**
+     * 累计和与计数
+     */
+    private static final class Acc {
+        private long graded;
+        private long sumTenths;
+        private long failed;
+
+        void add(int tenths, int sign) {
+            graded += sign;
+            sumTenths += (long) sign * tenths;
+            if (tenths < GradeColumnStore.PASS_SCORE_TENTHS) failed += sign;
+        }
+
+        void addAll(Acc other, int sign) {
+            graded += sign * other.graded;
+            sumTenths += sign * other.sumTenths;
+            failed += sign * other.failed;
+        }
+
+        CourseTypeStats toStats(String courseType) {
+            return new CourseTypeStats(courseType, graded, graded == 0 ? 0D : Math.round((double) sumTenths / graded) / 10D,
+                    failed, graded == 0 ? 0D : (double) failed / graded);
+        }
+    }
+
+    /**
+     * 一名学生（或一个不存在的学号）的成绩按课程类型聚合；dept 为 null 表示不计入任何院系
+     */
+    private static final class StudentState {
+        private final String studentId;
+        private String dept;
+        private Integer year;
+        private final Map<String, Acc> byType = new HashMap<>();
+
+        private StudentState(String studentId) {
+            this.studentId = studentId;
+        }
+    }
+
+    private static final class DeptRollup {
+        private long students;
+        private final Map<Integer, Long> byYear = new TreeMap<>();
+        private final Map<String, Acc> byType = new TreeMap<>();
+        private final Acc overall = new Acc();
+    }
+
+    private static final class Rollups {
+        private final Map<String, StudentState> students = new HashMap<>();
+        // 学号不存在（未录入或已删除）的成绩聚合，同学号录入后并入
+        private final Map<String, StudentState> detached = new HashMap<>();
+        private final Map<String, DeptRollup> depts = new HashMap<>();
+        private final Map<Long, String> courseTypes = new HashMap<>();
+        private long catalogVersion;
+        // 成绩主键 -> 当前计入的分数（0.1 分），NOT_COUNTED 为未计入
+        private GradeColumnStore.LongIntIndex counted;
+    }
+
+    /**
+     * 一个学号区间的扫描结果
+     */
+    private record Partition(GradeColumnStore.LongIntIndex counted, Map<String, StudentState> detached) {
+    }
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    /**
+     * 启用成绩分片时存在，此时全量扫描改读各分片及主库归档表
+     */
+    @Autowired(required = false)
+    private ShardedGradeStore shardedGradeStore;
+
+    @Autowired
+    private ICourseService courseService;
+
+    @Autowired
+    @Qualifier("dashboardRebuildExecutor")
+    private ThreadPoolTaskExecutor dashboardRebuildExecutor;
+
+    @Autowired
+    @Qualifier("batchTaskExecutor")
+    private ThreadPoolTaskExecutor batchTaskExecutor;
+
+    @Value("${dept.dashboard.rebuild-partitions:8}")
+    private int rebuildPartitions;
+
+    @Value("${dept.dashboard.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    private final Object rebuildMonitor = new Object();
+    private final Object writeMonitor = new Object();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private Rollups rollups;                                      // guarded by writeMonitor
+    private List<Object> pendingDuringRebuild;                    // guarded by writeMonitor, non-null while rebuilding
+    private volatile Map<String, DeptDashboard> dashboards;       // 整体替换；增量更新时逐院系 put
+    private volatile long syncedCatalogVersion;
+    private volatile LocalDateTime builtAt;
+    private volatile long buildMillis;
+
+    // ---------- build & maintenance ----------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (buildOnStartup) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * 从数据库全量重建
+     */
+    public void refresh() {
+        synchronized (rebuildMonitor) {
+            synchronized (writeMonitor) {
+                pendingDuringRebuild = new ArrayList<>();
+            }
+            long start = System.nanoTime();
+            Rollups fresh = null;
+            try {
+                fresh = build();
+            } finally {
+                synchronized (writeMonitor) {
+                    if (fresh != null) {
+                        for (Object event : pendingDuringRebuild) {
+                            apply(fresh, event);
+                        }
+                        Map<String, DeptDashboard> all = new ConcurrentHashMap<>();
+                        for (String dept : fresh.depts.keySet()) {
+                            all.put(dept, snapshot(dept, fresh.depts.get(dept)));
+                        }
+                        rollups = fresh;
+                        dashboards = all;
+                        syncedCatalogVersion = fresh.catalogVersion;
+                    }
+                    pendingDuringRebuild = null;
+                }
+            }
+            buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            builtAt = LocalDateTime.now();
+            log.info("院系看板已构建，院系: {} 个，学生: {}，成绩: {}，耗时: {} ms", fresh.depts.size(), fresh.students.size(),
+                    fresh.counted.size(), buildMillis);
+        }
+    }
+
+    private Rollups build() {
+        Rollups fresh = new Rollups();
+        CourseCatalog catalog = courseService.catalog();
+        for (Course c : catalog.list(null, null)) {
+            fresh.courseTypes.put(c.getId(), c.getCourseType());
+        }
+        fresh.catalogVersion = catalog.getVersion();
+        studentMapper.selectList(new LambdaQueryWrapper<Student>()
+                        .select(Student::getStudentId, Student::getDeptName, Student::getEnrollmentYear))
+                .forEach(s -> {
+                    StudentState state = new StudentState(s.getStudentId());
+                    state.dept = s.getDeptName();
+                    state.year = year(s);
+                    fresh.students.put(s.getStudentId(), state);
+                });
+
+        // 区间 [null, b0) 只含学生不存在的成绩；最后一段不设上界
+        List<String> bounds = fresh.students.isEmpty() ? List.of()
+                : studentMapper.listStudentIdBoundaries(Math.max(1, rebuildPartitions));
+        List<CompletableFuture<Partition>> futures = new ArrayList<>();
+        for (int i = -1; i < bounds.size(); i++) {
+            String from = i < 0 ? null : bounds.get(i);
+            String to = i + 1 < bounds.size() ? bounds.get(i + 1) : null;
+            futures.add(CompletableFuture.supplyAsync(() -> scan(fresh, from, to), dashboardRebuildExecutor));
+        }
+        List<Partition> partitions;
+        try {
+            partitions = futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+
+        int graded = partitions.stream().mapToInt(p -> p.counted().size()).sum();
+        fresh.counted = new GradeColumnStore.LongIntIndex(graded);
+        for (Partition p : partitions) {
+            fresh.counted.putAll(p.counted());
+            fresh.detached.putAll(p.detached());
+        }
+        for (StudentState s : fresh.students.values()) {
+            attach(fresh, s, 1);
+        }
+        return fresh;
+    }
+
+    /**
+     * 扫描一个学号区间：只读 fresh 中的学生与课程类型，只写本区间学生的聚合
+     */
+    private Partition scan(Rollups fresh, String from, String to) {
+        GradeColumnStore.LongIntIndex counted = new GradeColumnStore.LongIntIndex(1024);
+        Map<String, StudentState> detached = new HashMap<>();
+        Consumer<Grade> add = g -> {
+            if (g.getScore() == null) return;
+            StudentState s = fresh.students.get(g.getStudentId());
+            if (s == null) {
+                s = detached.computeIfAbsent(g.getStudentId(), StudentState::new);
+            }
+            int tenths = tenths(g.getScore());
+            s.byType.computeIfAbsent(fresh.courseTypes.getOrDefault(g.getCourseId(), UNKNOWN_COURSE_TYPE),
+                    k -> new Acc()).add(tenths, 1);
+            counted.put(g.getId(), tenths);
+        };
+        if (shardedGradeStore != null) {
+            shardedGradeStore.scan(from, to, add);
+        } else {
+            try (SqlSession session = sqlSessionFactory.openSession();
+                 Cursor<Grade> cursor = session.getMapper(GradeMapper.class).scanStudentRange(from, to)) {
+                for (Grade g : cursor) {
+                    add.accept(g);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("关闭成绩游标失败", e);
+            }
+        }
+        return new Partition(counted, detached);
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) return;
+        try {
+            batchTaskExecutor.execute(() -> {
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    log.warn("院系看板构建失败，将在首次查询时重试: {}", e.getMessage());
+                } finally {
+                    rebuildScheduled.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rebuildScheduled.set(false);
+            log.warn("院系看板重建任务被拒绝: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        onChanged(event);
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        onChanged(event);
+    }
+
+    private void onChanged(Object event) {
+        synchronized (writeMonitor) {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            } else if (rollups != null) {
+                for (String dept : apply(rollups, event)) {
+                    publish(rollups, dept);
+                }
+            }
+            // 尚未构建时忽略，首次构建会从数据库读到该变更
+        }
+    }
+
+    /**
+     * 应用一个事件，返回受影响的院系
+     */
+    private Set<String> apply(Rollups r, Object event) {
+        Set<String> touched = new HashSet<>();
+        if (event instanceof GradeChangedEvent e) {
+            applyGrade(r, e, touched);
+        } else if (event instanceof StudentChangedEvent e) {
+            applyStudent(r, e, touched);
+        }
+        touched.remove(null);
+        return touched;
+    }
+
+    /**
+     * 按成绩主键 upsert：先减去当前计入的分数，再加上变更后的分数
+     */
+    private void applyGrade(Rollups r, GradeChangedEvent event, Set<String> touched) {
+        Grade g = event.after() != null ? event.after() : event.before();
+        int prev = r.counted.get(g.getId());
+        int next = event.after() == null || event.after().getScore() == null ? NOT_COUNTED : tenths(event.after().getScore());
+        if (prev == next) return;
+        StudentState s = r.students.get(g.getStudentId());
+        if (s == null) {
+            s = r.detached.computeIfAbsent(g.getStudentId(), StudentState::new);
+        }
+        String type = courseType(r, g.getCourseId());
+        Acc acc = s.byType.computeIfAbsent(type, k -> new Acc());
+        DeptRollup dept = s.dept == null ? null : r.depts.get(s.dept);
+        if (prev != NOT_COUNTED) {
+            acc.add(prev, -1);
+            if (dept != null) {
+                dept.byType.computeIfAbsent(type, k -> new Acc()).add(prev, -1);
+                dept.overall.add(prev, -1);
+            }
+        }
+        if (next != NOT_COUNTED) {
+            acc.add(next, 1);
+            if (dept != null) {
+                dept.byType.computeIfAbsent(type, k -> new Acc()).add(next, 1);
+                dept.overall.add(next, 1);
+            }
+        }
+        r.counted.put(g.getId(), next);
+        touched.add(s.dept);
+    }
+
+    /**
+     * 按学号 upsert：移出变更前的院系 / 年份，再按变更后的记录并入；成绩聚合跟随学号
+     */
+    private void applyStudent(Rollups r, StudentChangedEvent event, Set<String> touched) {
+        Student before = event.before();
+        Student after = event.after();
+        if (before != null) {
+            StudentState s = r.students.remove(before.getStudentId());
+            if (s != null) {
+                touched.add(s.dept);
+                attach(r, s, -1);
+                s.dept = null;
+                r.detached.put(s.studentId, s);
+            }
+        }
+        if (after != null) {
+            StudentState s = r.students.remove(after.getStudentId());
+            if (s != null) {
+                touched.add(s.dept);
+                attach(r, s, -1);
+            } else {
+                s = r.detached.remove(after.getStudentId());
+                if (s == null) s = new StudentState(after.getStudentId());
+            }
+            s.dept = after.getDeptName();
+            s.year = year(after);
+            attach(r, s, 1);
+            r.students.put(s.studentId, s);
+            touched.add(s.dept);
+        }
+    }
+
+    /**
+     * 把学生计入（sign = 1）或移出（sign = -1）其院系
+     */
+    private static void attach(Rollups r, StudentState s, int sign) {
+        if (s.dept == null) return;
+        DeptRollup dept = r.depts.computeIfAbsent(s.dept, k -> new DeptRollup());
+        dept.students += sign;
+        if (s.year != null) {
+            dept.byYear.merge(s.year, (long) sign, (a, b) -> a + b == 0 ? null : a + b);
+        }
+        s.byType.forEach((type, acc) -> {
+            dept.byType.computeIfAbsent(type, k -> new Acc()).addAll(acc, sign);
+            dept.overall.addAll(acc, sign);
+        });
+        if (dept.students == 0 && dept.overall.graded == 0) {
+            r.depts.remove(s.dept);
+        }
+    }
+
+    /**
+     * 课程所属类型；快照中没有该课程时按当前课程目录同步
+     */
+    private String courseType(Rollups r, Long courseId) {
+        String type = r.courseTypes.get(courseId);
+        if (type == null) {
+            syncCatalog(r);
+            type = r.courseTypes.get(courseId);
+        }
+        return type != null ? type : UNKNOWN_COURSE_TYPE;
+    }
+
+    /**
+     * 课程目录版本变化时并入新课程；已有课程类型变化时安排整体重建，此前仍按原类型统计
+     */
+    private void syncCatalog(Rollups r) {
+        CourseCatalog catalog = courseService.catalog();
+        if (catalog.getVersion() == r.catalogVersion) return;
+        boolean typeChanged = false;
+        for (Course c : catalog.list(null, null)) {
+            String old = r.courseTypes.putIfAbsent(c.getId(), c.getCourseType());
+            if (old != null && !old.equals(c.getCourseType())) {
+                typeChanged = true;
+            }
+        }
+        r.catalogVersion = catalog.getVersion();
+        syncedCatalogVersion = r.catalogVersion;
+        if (typeChanged) {
+            log.info("课程类型已变化（目录版本 {}），重建院系看板", catalog.getVersion());
+            scheduleRebuild();
+        }
+    }
+
+    private void publish(Rollups r, String dept) {
+        DeptRollup rollup = r.depts.get(dept);
+        if (rollup == null) {
+            dashboards.remove(dept);
+        } else {
+            dashboards.put(dept, snapshot(dept, rollup));
+        }
+    }
+
+    private static DeptDashboard snapshot(String dept, DeptRollup rollup) {
+        List<CourseTypeStats> byType = new ArrayList<>(rollup.byType.size());
+        rollup.byType.forEach((type, acc) -> {
+            if (acc.graded > 0) byType.add(acc.toStats(type));
+        });
+        return new DeptDashboard(dept, rollup.students, Collections.unmodifiableMap(new TreeMap<>(rollup.byYear)),
+                rollup.overall.toStats(null), List.copyOf(byType), LocalDateTime.now());
+    }
+
+    private static Integer year(Student s) {
+        return s.getEnrollmentYear() == null ? null : s.getEnrollmentYear().getYear();
+    }
+
+    private static int tenths(BigDecimal score) {
+        return score.movePointRight(1).intValue();
+    }
+
+    // ---------- queries ----------
+
+    /**
+     * 单个院系的看板（预先生成的快照）
+     */
+    public DeptDashboard get(String deptName) {
+        DeptDashboard dashboard = ready().get(deptName);
+        if (dashboard == null) {
+            throw new BusinessException(404, "院系不存在: " + deptName);
+        }
+        return dashboard;
+    }
+
+    /**
+     * 全部院系的看板，按院系名排序
+     */
+    public List<DeptDashboard> list() {
+        return ready().values().stream().sorted(Comparator.comparing(DeptDashboard::deptName)).toList();
+    }
+
+    public LocalDateTime getBuiltAt() { return builtAt; }
+    public long getBuildMillis() { return buildMillis; }
+
+    private Map<String, DeptDashboard> ready() {
+        Map<String, DeptDashboard> current = dashboards;
+        if (current == null) {
+            synchronized (rebuildMonitor) {
+                if (dashboards == null) refresh();
+            }
+            current = dashboards;
+        }
+        // 课程目录已重新加载时检查课程类型是否变化，只比较版本号
+        if (courseService.catalog().getVersion() != syncedCatalogVersion) {
+            synchronized (writeMonitor) {
+                if (rollups != null && pendingDuringRebuild == null) syncCatalog(rollups);
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,282 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import com.demo.studentdemo.mapper.GradeMapper;
+import com.demo.studentdemo.mapper.StudentMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 成绩分析服务：基于 GradeColumnStore 列式快照回答分布、百分位、及格率等统计查询，不再对 t_grade 联表做 SQL 聚合.
+ *
+ * 快照在首次查询时从数据库全量构建（或通过 refresh 手动重建），此后由 GradeChangedEvent 增量维护，
+ * StudentChangedEvent 维护学生所属院系（转院系时改写其成绩行）；学生删除后其成绩保留到下次重建.
+ * 重建期间到达的变更事件先暂存，新快照就绪后再按序补放，快照按主键 upsert，补放是幂等的.
+ * 写锁内不访问数据库：新学生首条成绩所需的院系在加锁前查好，随事件一起暂存或应用.
+ */
+@Slf4j
+@Service
+public class GradeAnalyticsService {
+
+    /**
+     * 一个 StudentGradeVO 的估算堆占用：对象头与 10 个引用约 56 字节，
+     * 7 个短字符串各约 48-64 字节，Double 16 字节（Integer 学分与等级字母可共享）
+     */
+    public static final long ESTIMATED_VO_BYTES = 432L;
+
+    public record MemoryReport(int rows, int deletedRows, int capacity, int students, long columnBytes,
+                               long indexBytes, long dictionaryBytes, long estimatedVoBytes,
+                               LocalDateTime loadedAt, long loadMillis) {
+        public long totalBytes() {
+            return columnBytes + indexBytes + dictionaryBytes;
+        }
+    }
+
+    /**
+     * 一次待应用的变更：成绩事件附带加锁前查到的学生（快照中已有该学生时为 null），或学生事件
+     */
+    private record Change(Object event, Student student) {
+    }
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private GradeMapper gradeMapper;
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    /**
+     * 启用成绩分片时存在，此时全量扫描改读各分片及主库归档表
+     */
+    @Autowired(required = false)
+    private ShardedGradeStore shardedGradeStore;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private GradeColumnStore store;                          // guarded by lock
+    private List<Change> pendingDuringRebuild;               // guarded by lock, non-null while rebuilding
+    private volatile LocalDateTime loadedAt;
+    private volatile long loadMillis;
+
+    /**
+     * 从数据库全量重建快照
+     */
+    public void refresh() {
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            long start = System.nanoTime();
+            GradeColumnStore fresh;
+            try {
+                fresh = build();
+            } catch (RuntimeException | Error e) {
+                // 构建失败：保留旧快照，停止暂存增量
+                lock.writeLock().lock();
+                try {
+                    pendingDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                for (Change change : pendingDuringRebuild) {
+                    apply(fresh, change);
+                }
+                store = fresh;
+            } finally {
+                pendingDuringRebuild = null;
+                lock.writeLock().unlock();
+            }
+            loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            loadedAt = LocalDateTime.now();
+            log.info("成绩分析快照已构建，行数: {}，学生数: {}，耗时: {} ms", fresh.getRowCount(), fresh.getStudentCount(), loadMillis);
+        }
+    }
+
+    private GradeColumnStore build() {
+        long total = shardedGradeStore != null ? shardedGradeStore.countAll() : gradeMapper.countAll();
+        GradeColumnStore fresh = new GradeColumnStore((int) Math.min(Integer.MAX_VALUE - 8, total + total / 8));
+        studentMapper.selectList(new LambdaQueryWrapper<Student>().select(Student::getStudentId, Student::getDeptName))
+                .forEach(s -> fresh.putStudent(s.getStudentId(), s.getDeptName()));
+
+        AtomicLong orphans = new AtomicLong();
+        AtomicLong outOfRange = new AtomicLong();
+        // 按主键 upsert：再平衡期间同一行出现在两个分片上时只保留一份
+        Consumer<Grade> load = g -> {
+            // 与 queryAllGrade 的内连接语义一致：忽略学生已不存在的成绩
+            if (!fresh.hasStudent(g.getStudentId())) {
+                orphans.incrementAndGet();
+                return;
+            }
+            if (!GradeColumnStore.inRange(g.getScore())) {
+                outOfRange.incrementAndGet();
+                return;
+            }
+            fresh.upsert(g.getId(), g.getStudentId(), g.getCourseId(), g.getSemester(), g.getScore());
+        };
+        if (shardedGradeStore != null) {
+            shardedGradeStore.scan(null, null, load);
+        } else {
+            try (SqlSession session = sqlSessionFactory.openSession();
+                 Cursor<Grade> cursor = session.getMapper(GradeMapper.class).scanAll()) {
+                for (Grade g : cursor) {
+                    load.accept(g);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("关闭成绩游标失败", e);
+            }
+        }
+        if (orphans.get() > 0) {
+            log.warn("成绩分析快照忽略了 {} 条学生不存在的成绩", orphans.get());
+        }
+        if (outOfRange.get() > 0) {
+            log.warn("成绩分析快照忽略了 {} 条超出 0-100 分的成绩", outOfRange.get());
+        }
+        return fresh;
+    }
+
+    @EventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        Grade after = event.after();
+        Student student = after != null && needsStudentLookup(after.getStudentId())
+                ? studentMapper.selectOne(new LambdaQueryWrapper<Student>()
+                        .select(Student::getStudentId, Student::getDeptName)
+                        .eq(Student::getStudentId, after.getStudentId()))
+                : null;
+        enqueue(new Change(event, student));
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        if (event.after() != null) {
+            enqueue(new Change(event, null));
+        }
+    }
+
+    /**
+     * 快照（或正在构建的快照）中还没有该学生时，需要在加锁前补查院系
+     */
+    private boolean needsStudentLookup(String studentId) {
+        lock.readLock().lock();
+        try {
+            if (pendingDuringRebuild != null) return true;
+            return store != null && !store.hasStudent(studentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void enqueue(Change change) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            } else if (store != null) {
+                apply(store, change);
+            }
+            // 快照尚未构建时忽略，首次构建会从数据库读到该变更
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(GradeColumnStore target, Change change) {
+        if (change.event() instanceof StudentChangedEvent e) {
+            target.putStudent(e.after().getStudentId(), e.after().getDeptName());
+            return;
+        }
+        GradeChangedEvent event = (GradeChangedEvent) change.event();
+        Grade after = event.after();
+        if (after == null) {
+            target.delete(event.before().getId());
+            return;
+        }
+        if (!target.hasStudent(after.getStudentId())) {
+            // 学生此前未登记：使用加锁前查到的院系；期间若已收到该学生的 StudentChangedEvent，以事件为准
+            Student student = change.student();
+            if (student == null) return;
+            target.putStudent(student.getStudentId(), student.getDeptName());
+        }
+        if (!GradeColumnStore.inRange(after.getScore())) {
+            // 与全量构建一致：超出范围的成绩不计入，改分前的旧值也一并移除
+            log.warn("成绩 {} 的分数 {} 超出 0-100 分，不计入分析快照", after.getId(), after.getScore());
+            target.delete(after.getId());
+            return;
+        }
+        target.upsert(after.getId(), after.getStudentId(), after.getCourseId(), after.getSemester(), after.getScore());
+    }
+
+    private <R> R read(Function<GradeColumnStore, R> query) {
+        lock.readLock().lock();
+        try {
+            if (store != null) return query.apply(store);
+        } finally {
+            lock.readLock().unlock();
+        }
+        synchronized (rebuildMonitor) {
+            // 等待监视器期间其他线程可能已构建完成，不再重复全量构建
+            if (!built()) refresh();
+        }
+        return read(query);
+    }
+
+    private boolean built() {
+        lock.readLock().lock();
+        try {
+            return store != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- queries ----------
+    /**
+     * 按课程 / 院系 / 学期过滤后的成绩分布，参数为 null 表示不过滤
+     */
+    public GradeColumnStore.ScoreDistribution distribution(Long courseId, String deptName, String semester) {
+        return read(s -> s.aggregate(s.select(s.courseCode(courseId), s.deptCode(deptName), s.semesterCode(semester))));
+    }
+
+    /**
+     * 过滤后按维度分组的成绩分布
+     */
+    public Map<String, GradeColumnStore.ScoreDistribution> breakdown(GradeColumnStore.Dimension groupBy, Long courseId,
+                                                                    String deptName, String semester) {
+        return read(s -> s.groupBy(s.select(s.courseCode(courseId), s.deptCode(deptName), s.semesterCode(semester)), groupBy));
+    }
+
+    public MemoryReport memoryReport() {
+        return read(s -> new MemoryReport(s.getRowCount(), s.getDeletedRows(), s.getCapacity(), s.getStudentCount(),
+                s.getColumnBytes(), s.getIndexBytes(), s.getDictionaryBytes(),
+                s.getRowCount() * ESTIMATED_VO_BYTES, loadedAt, loadMillis));
+    }
+}
@@ -0,0 +1,197 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.config.BatchJobControl;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.GradeArchiveMapper;
+import com.demo.studentdemo.vo.GradeArchiveSemesterVO;
+import com.demo.studentdemo.vo.StudentQueryReq;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 成绩冷热分离.
+ * 已关闭学期的成绩从在线表 t_grade 整体搬到压缩归档表 t_grade_archive，t_grade 及其索引只保留近期学期.
+ * 归档总是按学期前缀进行（不晚于 upTo 的学期全部归档），因此只需维护一个水位：已归档的最大学期 W.
+ *
+ * StudentMapper 的成绩查询由调用方以 route(req) 的结果作为 source 参数按请求的学期范围选表：
+ *   - 上限不晚于 W：只查归档表
+ *   - 下限晚于 W：只查在线表（常见的近期学期查询）
+ *   - 其余（含不带学期条件）：两表 UNION ALL
+ * 水位与归档进度持久化在 t_grade_archive_semester：搬迁前先把学期登记为 ARCHIVING，
+ * 等待一个水位刷新间隔使所有实例都改走并集后才开始搬行，学期搬完置为 DONE.
+ * 水位尚未加载或存在 ARCHIVING 学期时一律走并集，保证结果完整；中断的归档保持 ARCHIVING 直到重跑完成.
+ */
+@Slf4j
+@Service
+public class GradeArchiveService {
+
+    private static final int CHUNK_ROWS = 2000;
+    private static final long REFRESH_SLACK_MS = 5000;
+    private static final String DONE = "DONE";
+    private static final Pattern SEMESTER = Pattern.compile("\\d{4}[A-Z]");
+
+    /**
+     * 成绩查询的数据来源
+     */
+    public enum GradeSource {
+        HOT, ARCHIVE, ALL
+    }
+
+    /**
+     * 某次刷新时的归档状态
+     *
+     * @param done      已归档完成的最大学期，"" 表示没有
+     * @param closed    已登记（含归档中）的最大学期，不再接受新成绩
+     * @param archiving 是否有学期正在搬迁
+     */
+    private record Watermark(String done, String closed, boolean archiving) {
+    }
+
+    /**
+     * null 表示尚未加载
+     */
+    private volatile Watermark watermark;
+
+    @Value("${grade.archive.watermark-refresh-ms:60000}")
+    private long refreshMs;
+
+    @Value("${grade.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @Autowired
+    private GradeArchiveMapper gradeArchiveMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 按请求的学期范围选择成绩表，结果作为 StudentMapper 成绩查询的 source 参数
+     */
+    public GradeSource route(StudentQueryReq req) {
+        Watermark w = watermark;
+        if (w == null || w.archiving() || req == null) return GradeSource.ALL;
+        if (w.done().isEmpty()) return GradeSource.HOT;
+        String from = max(req.getSemesterFrom(), req.getSemester());
+        String to = min(req.getSemesterTo(), req.getSemester());
+        if (to != null && to.compareTo(w.done()) <= 0) return GradeSource.ARCHIVE;
+        if (from != null && from.compareTo(w.done()) > 0) return GradeSource.HOT;
+        return GradeSource.ALL;
+    }
+
+    /**
+     * 该学期是否已归档或正在归档（不再接受新成绩）
+     */
+    public boolean isArchived(String semester) {
+        Watermark w = watermark;
+        return w != null && !w.closed().isEmpty() && semester.compareTo(w.closed()) <= 0;
+    }
+
+    @Scheduled(fixedDelayString = "${grade.archive.watermark-refresh-ms:60000}")
+    public void refreshWatermark() {
+        try {
+            String done = "";
+            String closed = "";
+            boolean archiving = false;
+            for (GradeArchiveSemesterVO s : gradeArchiveMapper.listArchivedSemesters()) {
+                closed = s.getSemester();
+                if (DONE.equals(s.getStatus())) {
+                    done = s.getSemester();
+                } else {
+                    archiving = true;
+                }
+            }
+            Watermark previous = watermark;
+            if (previous == null || !previous.done().equals(done) || previous.archiving() != archiving) {
+                log.info("成绩归档水位: {}{}", done.isEmpty() ? "无" : done, archiving ? "（归档进行中）" : "");
+            }
+            watermark = new Watermark(done, closed, archiving);
+        } catch (RuntimeException e) {
+            log.warn("成绩归档水位刷新失败，沿用上次水位: {}", e.getMessage());
+        }
+    }
+
+    public List<GradeArchiveSemesterVO> listArchivedSemesters() {
+        return gradeArchiveMapper.listArchivedSemesters();
+    }
+
+    /**
+     * 归档在主库在线表与归档表之间搬行；启用成绩分片后在线成绩不在主库，归档不可用
+     */
+    public void checkAvailable() {
+        if (shardingEnabled) {
+            throw new BusinessException(409, "已启用成绩分片，暂不支持成绩归档");
+        }
+    }
+
+    public void checkSemester(String upTo) {
+        if (upTo == null || !SEMESTER.matcher(upTo).matches()) {
+            throw new BusinessException(400, "学期格式应为 4 位年份 + 1 位大写字母，如 2022F");
+        }
+    }
+
+    /**
+     * 把不晚于 upTo 的学期从在线表归档. 每批在一个事务内先复制后删除，可暂停；取消在当前学期归档完成后生效.
+     *
+     * @return 本次归档的行数
+     */
+    public synchronized long archive(String upTo, BatchJobControl control) throws InterruptedException {
+        checkAvailable();
+        checkSemester(upTo);
+        List<String> semesters = gradeArchiveMapper.listHotSemestersUpTo(upTo);
+        if (semesters.isEmpty()) return 0;
+        gradeArchiveMapper.markArchiving(semesters);
+        long total = 0;
+        int started = 0;
+        try {
+            refreshWatermark();
+            // 其他实例在下一次刷新前仍可能按旧水位只查在线表，等它们看到 ARCHIVING 再搬行
+            Thread.sleep(refreshMs + REFRESH_SLACK_MS);
+            for (String semester : semesters) {
+                if (control != null && control.isCancelled()) break;
+                started++;
+                long moved = 0;
+                // 取消只在学期之间生效：半个学期留在在线表会破坏"不晚于水位的学期已全部归档"的约定
+                while (true) {
+                    if (control != null) control.awaitResume();
+                    List<Long> ids = gradeArchiveMapper.listHotIds(semester, CHUNK_ROWS);
+                    if (ids.isEmpty()) break;
+                    transactionTemplate.executeWithoutResult(status -> {
+                        gradeArchiveMapper.copyToArchive(ids);
+                        gradeArchiveMapper.deleteHot(ids);
+                    });
+                    moved += ids.size();
+                }
+                gradeArchiveMapper.finishArchivedSemester(semester, moved);
+                total += moved;
+                log.info("学期 {} 归档 {} 行", semester, moved);
+            }
+        } finally {
+            List<String> untouched = semesters.subList(started, semesters.size());
+            if (!untouched.isEmpty()) {
+                gradeArchiveMapper.clearArchiving(untouched);
+                gradeArchiveMapper.restoreArchived(untouched);
+            }
+            refreshWatermark();
+        }
+        return total;
+    }
+
+    private static String max(String a, String b) {
+        if (a == null || a.isEmpty()) return b == null || b.isEmpty() ? null : b;
+        if (b == null || b.isEmpty()) return a;
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static String min(String a, String b) {
+        if (a == null || a.isEmpty()) return b == null || b.isEmpty() ? null : b;
+        if (b == null || b.isEmpty()) return a;
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
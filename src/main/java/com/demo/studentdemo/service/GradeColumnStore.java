@@ -0,0 +1,500 @@
+package com.demo.studentdemo.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 成绩列式快照.
+ * 每条成绩只占若干原始类型数组中的一格：
+ *   - scores        short，成绩 × 10（保留一位小数），NULL_SCORE 表示未录入，DELETED 表示已删除
+ *   - courseCodes / deptCodes / semesterCodes  short，字典编码
+ *   - studentIdx    int，学号字典下标
+ *   - gradeIds      long，t_grade 主键，配合开放寻址索引支持按主键原地更新
+ * 扫描先按列逐块生成位图（每 64 行一个 long），再在位图上做聚合，循环体只访问原始数组，便于 JIT 自动向量化.
+ *
+ * 本类非线程安全，由 GradeAnalyticsService 以读写锁保护.
+ */
+public class GradeColumnStore {
+
+    public static final short NULL_SCORE = -1;
+    public static final short DELETED = Short.MIN_VALUE;
+    /** 0.0 ~ 100.0 分，每 0.1 分一档 */
+    public static final int SCORE_BINS = 1001;
+    private static final BigDecimal MAX_SCORE = BigDecimal.valueOf(100);
+    public static final int PASS_SCORE_TENTHS = 600;
+    /** 不按该维度过滤 */
+    public static final int ANY = -1;
+
+    public enum Dimension { COURSE, DEPT, SEMESTER }
+
+    private int size;
+    private int deleted;
+    private long[] gradeIds;
+    private short[] scores;
+    private short[] courseCodes;
+    private short[] deptCodes;
+    private short[] semesterCodes;
+    private int[] studentIdx;
+
+    private final Dictionary<Long> courses = new Dictionary<>(Short.MAX_VALUE);
+    private final Dictionary<String> depts = new Dictionary<>(Short.MAX_VALUE);
+    private final Dictionary<String> semesters = new Dictionary<>(Short.MAX_VALUE);
+    private final Dictionary<String> students = new Dictionary<>(Integer.MAX_VALUE);
+    /** 学生所属院系编码，按学号字典下标索引 */
+    private short[] studentDepts = new short[1024];
+    private LongIntIndex rowIndex;
+
+    public GradeColumnStore(int initialCapacity) {
+        int cap = Math.max(64, initialCapacity);
+        gradeIds = new long[cap];
+        scores = new short[cap];
+        courseCodes = new short[cap];
+        deptCodes = new short[cap];
+        semesterCodes = new short[cap];
+        studentIdx = new int[cap];
+        rowIndex = new LongIntIndex(cap);
+    }
+
+    // ---------- writes ----------
+    /**
+     * 登记学生所属院系（新增成绩前需要先知道学生的院系）.
+     * 已登记且院系变化时视为转院系，顺带改写该学生已有成绩行的院系编码（扫描一遍 studentIdx，转院系很少发生）
+     */
+    public void putStudent(String studentId, String deptName) {
+        boolean known = students.lookup(studentId) >= 0;
+        int s = students.encode(studentId);
+        if (s >= studentDepts.length) {
+            studentDepts = Arrays.copyOf(studentDepts, Math.max(s + 1, studentDepts.length * 2));
+        }
+        short dept = (short) depts.encode(deptName);
+        if (known && studentDepts[s] != dept) {
+            for (int row = 0; row < size; row++) {
+                if (studentIdx[row] == s) deptCodes[row] = dept;
+            }
+        }
+        studentDepts[s] = dept;
+    }
+
+    public boolean hasStudent(String studentId) {
+        return students.lookup(studentId) >= 0;
+    }
+
+    /**
+     * 分布按 0.0 ~ 100.0 分档；库表 decimal(4,1) 最大可存 999.9，超出该范围的成绩不能写入
+     */
+    public static boolean inRange(BigDecimal score) {
+        return score == null || score.signum() >= 0 && score.compareTo(MAX_SCORE) <= 0;
+    }
+
+    /**
+     * 按主键新增或覆盖一行；学生须已通过 putStudent 登记，成绩须满足 inRange
+     */
+    public void upsert(long gradeId, String studentId, Long courseId, String semester, BigDecimal score) {
+        int s = students.lookup(studentId);
+        if (s < 0) {
+            throw new IllegalStateException("unknown student " + studentId);
+        }
+        if (!inRange(score)) {
+            throw new IllegalArgumentException("score out of range " + score + " for grade " + gradeId);
+        }
+        int row = rowIndex.get(gradeId);
+        if (row < 0) {
+            ensureCapacity(size + 1);
+            row = size++;
+            gradeIds[row] = gradeId;
+            rowIndex.put(gradeId, row);
+        } else if (scores[row] == DELETED) {
+            deleted--;
+        }
+        scores[row] = encodeScore(score);
+        courseCodes[row] = (short) courses.encode(courseId);
+        deptCodes[row] = studentDepts[s];
+        semesterCodes[row] = (short) semesters.encode(semester);
+        studentIdx[row] = s;
+    }
+
+    public void delete(long gradeId) {
+        int row = rowIndex.get(gradeId);
+        if (row >= 0 && scores[row] != DELETED) {
+            scores[row] = DELETED;
+            deleted++;
+            if (deleted > 1024 && deleted > size / 4) {
+                compact();
+            }
+        }
+    }
+
+    private static short encodeScore(BigDecimal score) {
+        return score == null ? NULL_SCORE : (short) score.movePointRight(1).intValue();
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= gradeIds.length) return;
+        int cap = Math.max(required, gradeIds.length + (gradeIds.length >> 1));
+        gradeIds = Arrays.copyOf(gradeIds, cap);
+        scores = Arrays.copyOf(scores, cap);
+        courseCodes = Arrays.copyOf(courseCodes, cap);
+        deptCodes = Arrays.copyOf(deptCodes, cap);
+        semesterCodes = Arrays.copyOf(semesterCodes, cap);
+        studentIdx = Arrays.copyOf(studentIdx, cap);
+    }
+
+    /**
+     * 清除已删除的行并重建主键索引
+     */
+    private void compact() {
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            if (scores[r] == DELETED) continue;
+            gradeIds[w] = gradeIds[r];
+            scores[w] = scores[r];
+            courseCodes[w] = courseCodes[r];
+            deptCodes[w] = deptCodes[r];
+            semesterCodes[w] = semesterCodes[r];
+            studentIdx[w] = studentIdx[r];
+            w++;
+        }
+        size = w;
+        deleted = 0;
+        rowIndex = new LongIntIndex(Math.max(64, size));
+        for (int r = 0; r < size; r++) {
+            rowIndex.put(gradeIds[r], r);
+        }
+    }
+
+    // ---------- scan ----------
+    /**
+     * 字典编码查询，未出现过的值返回 -2（不会匹配任何行）
+     */
+    public int courseCode(Long courseId) {
+        return courseId == null ? ANY : codeOrMiss(courses.lookup(courseId));
+    }
+
+    public int deptCode(String deptName) {
+        return deptName == null ? ANY : codeOrMiss(depts.lookup(deptName));
+    }
+
+    public int semesterCode(String semester) {
+        return semester == null ? ANY : codeOrMiss(semesters.lookup(semester));
+    }
+
+    private static int codeOrMiss(int code) {
+        return code < 0 ? -2 : code;
+    }
+
+    /**
+     * 按维度过滤，返回选中行位图；各参数为 ANY 时不过滤该维度
+     */
+    public long[] select(int courseCode, int deptCode, int semesterCode) {
+        long[] selection = new long[(size + 63) >>> 6];
+        liveRows(selection);
+        if (courseCode != ANY) and(selection, courseCodes, courseCode);
+        if (deptCode != ANY) and(selection, deptCodes, deptCode);
+        if (semesterCode != ANY) and(selection, semesterCodes, semesterCode);
+        return selection;
+    }
+
+    private void liveRows(long[] selection) {
+        for (int w = 0; w < selection.length; w++) {
+            int base = w << 6;
+            int end = Math.min(64, size - base);
+            long bits = 0L;
+            for (int j = 0; j < end; j++) {
+                bits |= (scores[base + j] != DELETED ? 1L : 0L) << j;
+            }
+            selection[w] = bits;
+        }
+    }
+
+    private void and(long[] selection, short[] column, int code) {
+        short c = (short) code;
+        for (int w = 0; w < selection.length; w++) {
+            long current = selection[w];
+            if (current == 0L) continue;
+            int base = w << 6;
+            int end = Math.min(64, size - base);
+            long bits = 0L;
+            for (int j = 0; j < end; j++) {
+                bits |= (column[base + j] == c ? 1L : 0L) << j;
+            }
+            selection[w] = current & bits;
+        }
+    }
+
+    /**
+     * 选中行的成绩分布
+     */
+    public ScoreDistribution aggregate(long[] selection) {
+        ScoreDistribution d = new ScoreDistribution();
+        for (int w = 0; w < selection.length; w++) {
+            long bits = selection[w];
+            int base = w << 6;
+            while (bits != 0L) {
+                d.add(scores[base + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * 选中行按维度分组的成绩分布，按分组值有序
+     */
+    public Map<String, ScoreDistribution> groupBy(long[] selection, Dimension dimension) {
+        short[] column = switch (dimension) {
+            case COURSE -> courseCodes;
+            case DEPT -> deptCodes;
+            case SEMESTER -> semesterCodes;
+        };
+        Dictionary<?> dictionary = switch (dimension) {
+            case COURSE -> courses;
+            case DEPT -> depts;
+            case SEMESTER -> semesters;
+        };
+        ScoreDistribution[] groups = new ScoreDistribution[dictionary.size()];
+        for (int w = 0; w < selection.length; w++) {
+            long bits = selection[w];
+            int base = w << 6;
+            while (bits != 0L) {
+                int row = base + Long.numberOfTrailingZeros(bits);
+                int g = column[row];
+                ScoreDistribution d = groups[g];
+                if (d == null) groups[g] = d = new ScoreDistribution();
+                d.add(scores[row]);
+                bits &= bits - 1;
+            }
+        }
+        List<Integer> present = new ArrayList<>();
+        for (int g = 0; g < groups.length; g++) {
+            if (groups[g] != null) present.add(g);
+        }
+        present.sort((a, b) -> String.valueOf(dictionary.decode(a)).compareTo(String.valueOf(dictionary.decode(b))));
+        Map<String, ScoreDistribution> result = new LinkedHashMap<>();
+        present.forEach(g -> result.put(String.valueOf(dictionary.decode(g)), groups[g]));
+        return result;
+    }
+
+    // ---------- stats ----------
+    public int getRowCount() { return size - deleted; }
+    public int getDeletedRows() { return deleted; }
+    public int getCapacity() { return gradeIds.length; }
+    public int getStudentCount() { return students.size(); }
+
+    /**
+     * 列数组实际占用字节数（按容量计）
+     */
+    public long getColumnBytes() {
+        long perRow = Long.BYTES + Short.BYTES * 4L + Integer.BYTES;
+        return perRow * gradeIds.length + (long) Short.BYTES * studentDepts.length;
+    }
+
+    public long getIndexBytes() {
+        return rowIndex.getBytes();
+    }
+
+    /**
+     * 字典估算占用字节数
+     */
+    public long getDictionaryBytes() {
+        return courses.estimateBytes() + depts.estimateBytes() + semesters.estimateBytes() + students.estimateBytes();
+    }
+
+    /**
+     * 成绩分布：按 0.1 分一档计数，百分位为精确值
+     */
+    public static final class ScoreDistribution {
+        private final int[] counts = new int[SCORE_BINS];
+        private long count;
+        private long nullCount;
+        private long sumTenths;
+        private long passCount;
+
+        void add(short score) {
+            if (score == NULL_SCORE) {
+                nullCount++;
+                return;
+            }
+            counts[score]++;
+            count++;
+            sumTenths += score;
+            if (score >= PASS_SCORE_TENTHS) passCount++;
+        }
+
+        /** 有成绩的条数 */
+        public long getCount() { return count; }
+        /** 未录入成绩的条数 */
+        public long getNullCount() { return nullCount; }
+
+        public double getMean() {
+            return count == 0 ? 0D : sumTenths / 10D / count;
+        }
+
+        public double getPassRate() {
+            return count == 0 ? 0D : (double) passCount / count;
+        }
+
+        public double getMin() {
+            for (int i = 0; i < SCORE_BINS; i++) if (counts[i] > 0) return i / 10D;
+            return 0D;
+        }
+
+        public double getMax() {
+            for (int i = SCORE_BINS - 1; i >= 0; i--) if (counts[i] > 0) return i / 10D;
+            return 0D;
+        }
+
+        /**
+         * 最近秩法百分位
+         *
+         * @param p 0-100
+         */
+        public double percentile(double p) {
+            if (count == 0) return 0D;
+            long rank = Math.max(1L, (long) Math.ceil(p / 100D * count));
+            long seen = 0;
+            for (int i = 0; i < SCORE_BINS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return i / 10D;
+            }
+            return 100D;
+        }
+
+        /**
+         * 按 bucketWidth 分为等宽分数段，最后一段包含 100 分
+         */
+        public long[] histogram(int bucketWidth) {
+            int buckets = (100 + bucketWidth - 1) / bucketWidth;
+            long[] h = new long[buckets];
+            for (int i = 0; i < SCORE_BINS; i++) {
+                if (counts[i] == 0) continue;
+                h[Math.min(buckets - 1, i / (bucketWidth * 10))] += counts[i];
+            }
+            return h;
+        }
+    }
+
+    /**
+     * 值 <-> 连续编码 的双向字典
+     */
+    static final class Dictionary<K> {
+        private final Map<K, Integer> codes = new HashMap<>();
+        private final List<K> values = new ArrayList<>();
+        private final int maxSize;
+
+        Dictionary(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        int encode(K value) {
+            Integer code = codes.get(value);
+            if (code != null) return code;
+            if (values.size() >= maxSize) {
+                throw new IllegalStateException("dictionary overflow, max " + maxSize);
+            }
+            int c = values.size();
+            codes.put(value, c);
+            values.add(value);
+            return c;
+        }
+
+        int lookup(K value) {
+            Integer code = codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        K decode(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        /**
+         * 粗略估算：HashMap 节点、桶、装箱编码与列表引用约 64 字节/项，外加键本身
+         */
+        long estimateBytes() {
+            long bytes = 0;
+            for (K v : values) {
+                bytes += 64 + (v instanceof String s ? 40 + s.length() : 16);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * 主键 -> 行号 的开放寻址索引（线性探测，主键 0 视为空槽）
+     */
+    static final class LongIntIndex {
+        private long[] keys;
+        private int[] values;
+        private int count;
+
+        LongIntIndex(int expected) {
+            int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+            keys = new long[cap];
+            values = new int[cap];
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == key) return values[i];
+                if (k == 0L) return -1;
+            }
+        }
+
+        void put(long key, int value) {
+            if ((count + 1) * 2 > keys.length) rehash();
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == 0L) {
+                    keys[i] = key;
+                    values[i] = value;
+                    count++;
+                    return;
+                }
+            }
+        }
+
+        void putAll(LongIntIndex other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.keys[i] != 0L) put(other.keys[i], other.values[i]);
+            }
+        }
+
+        int size() {
+            return count;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0L) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        long getBytes() {
+            return (long) keys.length * (Long.BYTES + Integer.BYTES);
+        }
+    }
+}
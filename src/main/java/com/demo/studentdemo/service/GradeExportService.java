@@ -0,0 +1,92 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.util.CsvWriter;
+import com.demo.studentdemo.util.TabularWriter;
+import com.demo.studentdemo.util.XlsxStreamWriter;
+import com.demo.studentdemo.vo.StudentGradeVO;
+import com.demo.studentdemo.vo.StudentQueryReq;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 成绩全量导出：MyBatis 服务端游标逐行读出 StudentGradeVO，直接写入响应输出流，
+ * 堆上只保留当前行和写出缓冲区，导出行数不受内存限制.
+ */
+@Slf4j
+@Service
+public class GradeExportService {
+
+    public enum Format { CSV, XLSX }
+
+    private static final List<String> HEADER = List.of(
+            "学号", "姓名", "院系", "课程代码", "课程名称", "学分", "课程类型", "学期", "成绩", "等级");
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private GradeArchiveService gradeArchiveService;
+
+    @Value("${grade.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    /**
+     * 导出直接以游标读取主库成绩表，启用成绩分片时不可用；须在开始写响应之前调用
+     */
+    public void checkAvailable() {
+        if (shardingEnabled) {
+            throw new BusinessException(409, "已启用成绩分片，暂不支持全量导出，请使用 queryAllGrade 分页查询");
+        }
+    }
+
+    /**
+     * 按 queryAllGrade 的条件与排序导出全部成绩
+     *
+     * @param gzip 是否对输出做 gzip 压缩（调用方负责设置 Content-Encoding）
+     * @return 导出的数据行数（不含表头）
+     */
+    public long export(StudentQueryReq req, Format format, boolean gzip, OutputStream out) throws IOException {
+        checkAvailable();
+        long start = System.nanoTime();
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        OutputStream target = gzipStream != null ? gzipStream : out;
+        long rows;
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<StudentGradeVO> cursor = session.getMapper(StudentMapper.class)
+                     .streamAllGrade(req, gradeArchiveService.route(req))) {
+            TabularWriter writer = format == Format.CSV ? new CsvWriter(target) : new XlsxStreamWriter(target, "成绩");
+            writer.writeRow(HEADER);
+            for (StudentGradeVO vo : cursor) {
+                writer.writeRow(Arrays.asList(vo.getStudentId(), vo.getStudentName(), vo.getDepartment(),
+                        vo.getCourseCode(), vo.getCourseName(), vo.getCredit(), vo.getCourseType(),
+                        vo.getSemester(), vo.getScore(), vo.getGradeLetter()));
+            }
+            writer.close();
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+            rows = writer.getRowCount() - 1;
+        } catch (IOException e) {
+            // 多为客户端中途断开下载，游标随 SqlSession 一起关闭
+            log.warn("成绩导出中断: {}", e.getMessage());
+            throw e;
+        }
+        log.info("成绩导出完成，格式: {}，gzip: {}，行数: {}，耗时: {} ms", format, gzip, rows,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return rows;
+    }
+}
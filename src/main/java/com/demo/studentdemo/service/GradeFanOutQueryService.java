@@ -0,0 +1,283 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.demo.studentdemo.config.QueryCancellation;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.vo.StudentGradeVO;
+import com.demo.studentdemo.vo.StudentQueryReq;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 成绩查询扇出：把一个跨多个学期的大查询拆成按学期或按学号区间的子查询，
+ * 在有界线程池上各用一个连接并发执行，再按 queryAllGrade 的排序（学期倒序、学号、课程代码）k 路归并.
+ *
+ * 按学期拆分时相邻学期合并为至多 partitions 个学期区间；各区间互不重叠且按学期倒序，结果依次拼接即可，
+ * 取满 maxRows 行后不再等待其余子查询.
+ *
+ * 各子查询分页读取，页大小 ceil(maxRows / 子查询数) + 1：首页并发预取，合计约 maxRows + 2 × 子查询数 行，
+ * 此后只在拼接 / 归并读到某个子查询的页尾时才取它的下一页（分布不均时多出几次顺序的分页查询，换取内存与数据库读量有界）.
+ * 取满或出错后，尚在排队的子查询不再执行，正在执行的语句经 QueryCancellation 取消；每条语句另有查询超时兜底.
+ *
+ * 子查询数受线程池大小约束并发执行；线程数接近或超过连接池大小时，子查询会排队等待连接，
+ * 并行带来的收益随之消失（见 src/test 下的 GradeFanOutBenchmark）.
+ */
+@Slf4j
+@Service
+public class GradeFanOutQueryService {
+
+    public enum SplitMode {
+        /** 不拆分，单条语句（基准） */
+        NONE,
+        /** 按学期区间拆分，至多 partitions 个子查询 */
+        SEMESTER,
+        /** 按学号等分为 partitions 段 */
+        STUDENT_RANGE
+    }
+
+    /**
+     * 与 queryAllGrade 的 ORDER BY g.semester DESC, s.student_id, c.course_code 一致
+     * （这三列均为大写字母与数字，数据库排序规则与 String 自然序相同）
+     */
+    public static final Comparator<StudentGradeVO> RESULT_ORDER = Comparator
+            .comparing(StudentGradeVO::getSemester, Comparator.reverseOrder())
+            .thenComparing(StudentGradeVO::getStudentId)
+            .thenComparing(StudentGradeVO::getCourseCode);
+
+    public record FanOutResult(SplitMode mode, int subQueries, List<StudentGradeVO> records, boolean truncated,
+                               long elapsedMillis) {
+    }
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    @Autowired
+    private GradeArchiveService gradeArchiveService;
+
+    @Value("${grade.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @Value("${grade.fan-out.query-timeout-seconds:30}")
+    private int queryTimeoutSeconds;
+
+    @Autowired
+    @Qualifier("gradeQueryExecutor")
+    private ThreadPoolTaskExecutor gradeQueryExecutor;
+
+    public FanOutResult query(StudentQueryReq req, SplitMode mode, int partitions, int maxRows) {
+        return query(req, mode, partitions, maxRows, gradeQueryExecutor);
+    }
+
+    /**
+     * @param partitions STUDENT_RANGE 模式下的分段数，SEMESTER 模式下的子查询数上限
+     * @param maxRows    最多返回的行数，超出时截断并标记 truncated
+     * @param executor   执行子查询的线程池
+     */
+    public FanOutResult query(StudentQueryReq req, SplitMode mode, int partitions, int maxRows, Executor executor) {
+        if (shardingEnabled) {
+            // 分片查询本身已向各分片并行下发，子查询直接读主库成绩表只会得到空或残缺的结果
+            throw new BusinessException(409, "已启用成绩分片，暂不支持扇出查询，请使用 queryAllGrade 分页查询");
+        }
+        long start = System.nanoTime();
+        List<StudentQueryReq> subRequests = split(req, mode, partitions);
+
+        // 合计最多取 maxRows + 1 行（不做 count），以便判断是否截断
+        int pageSize = (maxRows + subRequests.size() - 1) / subRequests.size() + 1;
+        QueryCancellation cancellation = new QueryCancellation(queryTimeoutSeconds);
+        List<PagedSubQuery> parts = new ArrayList<>(subRequests.size());
+        List<StudentGradeVO> merged;
+        try {
+            for (StudentQueryReq sub : subRequests) {
+                parts.add(new PagedSubQuery(sub, pageSize, cancellation, executor));
+            }
+            merged = mode == SplitMode.SEMESTER ? concat(parts, maxRows + 1) : merge(parts, maxRows + 1);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        } finally {
+            parts.forEach(PagedSubQuery::cancel);
+            cancellation.cancel();
+        }
+        boolean truncated = merged.size() > maxRows;
+        if (truncated) {
+            merged = merged.subList(0, maxRows);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("扇出查询完成，模式: {}，子查询: {}，行数: {}，截断: {}，耗时: {} ms",
+                mode, subRequests.size(), merged.size(), truncated, elapsed);
+        return new FanOutResult(mode, subRequests.size(), merged, truncated, elapsed);
+    }
+
+    private List<StudentQueryReq> split(StudentQueryReq req, SplitMode mode, int partitions) {
+        List<StudentQueryReq> subs = new ArrayList<>();
+        switch (mode) {
+            case NONE -> subs.add(req);
+            case SEMESTER -> {
+                if (req.getSemester() != null && !req.getSemester().isEmpty()) {
+                    subs.add(req);
+                    break;
+                }
+                List<String> semesters = studentMapper.listGradeSemesters(req, gradeArchiveService.route(req));
+                int groups = Math.min(partitions, semesters.size());
+                for (int g = 0; g < groups; g++) {
+                    // 倒序列表中的连续一段：[first, last] 对应学期区间 [last, first]
+                    List<String> group = semesters.subList(semesters.size() * g / groups, semesters.size() * (g + 1) / groups);
+                    StudentQueryReq sub = copy(req);
+                    sub.setSemesterFrom(group.get(group.size() - 1));
+                    sub.setSemesterTo(group.get(0));
+                    subs.add(sub);
+                }
+            }
+            case STUDENT_RANGE -> {
+                if (req.getStudentId() != null && !req.getStudentId().isEmpty()) {
+                    subs.add(req);
+                    break;
+                }
+                List<String> boundaries = studentMapper.listStudentIdBoundaries(partitions);
+                for (int i = 0; i < boundaries.size(); i++) {
+                    String from = i == 0 ? null : boundaries.get(i);
+                    String to = i + 1 < boundaries.size() ? boundaries.get(i + 1) : null;
+                    StudentQueryReq sub = copy(req);
+                    sub.setStudentIdFrom(max(req.getStudentIdFrom(), from));
+                    sub.setStudentIdTo(min(req.getStudentIdTo(), to));
+                    if (sub.getStudentIdFrom() == null || sub.getStudentIdTo() == null
+                            || sub.getStudentIdFrom().compareTo(sub.getStudentIdTo()) < 0) {
+                        subs.add(sub);
+                    }
+                }
+            }
+        }
+        if (subs.isEmpty()) {
+            subs.add(req);
+        }
+        return subs;
+    }
+
+    private static StudentQueryReq copy(StudentQueryReq req) {
+        StudentQueryReq sub = new StudentQueryReq();
+        BeanUtils.copyProperties(req, sub);
+        return sub;
+    }
+
+    private static String max(String a, String b) {
+        if (a == null || a.isEmpty()) return b;
+        if (b == null) return a;
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static String min(String a, String b) {
+        if (a == null || a.isEmpty()) return b;
+        if (b == null) return a;
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /**
+     * 一个子查询的分页读取：构造时即在线程池上提交首页，此后读到页尾才取下一页；取回不足一页即为读完.
+     * 表在构造时选定，各页读同一张表
+     */
+    private final class PagedSubQuery implements Iterator<StudentGradeVO> {
+
+        private final StudentQueryReq req;
+        private final GradeArchiveService.GradeSource source;
+        private final int pageSize;
+        private final QueryCancellation cancellation;
+        private final Executor executor;
+        private CompletableFuture<List<StudentGradeVO>> pending;
+        private List<StudentGradeVO> rows = List.of();
+        private int position;
+        private long pageNo;
+        private boolean exhausted;
+
+        PagedSubQuery(StudentQueryReq req, int pageSize, QueryCancellation cancellation, Executor executor) {
+            this.req = req;
+            this.source = gradeArchiveService.route(req);
+            this.pageSize = pageSize;
+            this.cancellation = cancellation;
+            this.executor = executor;
+            this.pending = fetch(++pageNo);
+        }
+
+        private CompletableFuture<List<StudentGradeVO>> fetch(long current) {
+            return CompletableFuture.supplyAsync(() -> cancellation.run(() ->
+                    studentMapper.queryAllGrade(new Page<>(current, pageSize, false), req, source).getRecords()), executor);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == rows.size()) {
+                if (pending == null) {
+                    if (exhausted) return false;
+                    pending = fetch(++pageNo);
+                }
+                rows = pending.join();
+                pending = null;
+                position = 0;
+                exhausted = rows.size() < pageSize;
+                if (rows.isEmpty()) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public StudentGradeVO next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return rows.get(position++);
+        }
+
+        /**
+         * 尚未开始执行的页不再执行
+         */
+        void cancel() {
+            if (pending != null) pending.cancel(false);
+        }
+    }
+
+    /**
+     * 依次拼接互不重叠、整体有序的子结果，取满 limit 行后不再读取其余子查询
+     */
+    static List<StudentGradeVO> concat(List<? extends Iterator<StudentGradeVO>> parts, int limit) {
+        List<StudentGradeVO> rows = new ArrayList<>();
+        for (int i = 0; i < parts.size() && rows.size() < limit; i++) {
+            Iterator<StudentGradeVO> part = parts.get(i);
+            while (rows.size() < limit && part.hasNext()) {
+                rows.add(part.next());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * k 路归并各自有序的子结果，最多取 limit 行
+     */
+    static List<StudentGradeVO> merge(List<? extends Iterator<StudentGradeVO>> parts, int limit) {
+        record Head(StudentGradeVO row, Iterator<StudentGradeVO> rest) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(parts.size(), Comparator.comparing(Head::row, RESULT_ORDER));
+        for (Iterator<StudentGradeVO> it : parts) {
+            if (it.hasNext()) heads.add(new Head(it.next(), it));
+        }
+        List<StudentGradeVO> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head h = heads.poll();
+            merged.add(h.row());
+            if (h.rest().hasNext()) heads.add(new Head(h.rest().next(), h.rest()));
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,450 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.GradeMapper;
+import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.util.OrderStatisticTree;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 成绩排名服务：在内存中为每个 课程+学期 以及每个院系维护按分数有序的顺序统计树，
+ * 每次成绩写入（GradeChangedEvent）以 O(log n) 增量更新，前 N 名、个人名次、百分位均直接从内存回答.
+ *
+ *   - 课程排名：按该课程该学期的成绩排序
+ *   - 院系排名：按学生全部已录入成绩的平均分排序
+ * 名次为竞争排名（同分同名次，下一名次跳过），百分位为“低于该生分数的人数 / (总人数 - 1)”.
+ * 排名数据在首次查询时从数据库构建，构建期间到达的变更事件暂存后补放.
+ * 成绩按 id 记录所在位置，事件按“先删除该 id 的旧条目、再放入新条目”应用，补放到游标已读到的行也不会重复计入.
+ */
+@Slf4j
+@Service
+public class GradeRankingService {
+
+    public record RankedEntry(int rank, String studentId, String studentName, double score, double percentile) {
+    }
+
+    public record StudentRank(String scope, String studentId, int rank, int total, double score, double percentile) {
+    }
+
+    private record CourseEntry(int scoreTenths, String studentId, long gradeId) {
+    }
+
+    /**
+     * 一条成绩当前所在的课程榜及条目
+     */
+    private record Placement(String courseKey, CourseEntry entry) {
+    }
+
+    private record DeptEntry(double mean, String studentId) {
+    }
+
+    private static final Comparator<CourseEntry> COURSE_ORDER = Comparator.comparingInt(CourseEntry::scoreTenths).reversed()
+            .thenComparing(CourseEntry::studentId)
+            .thenComparingLong(CourseEntry::gradeId);
+    private static final Comparator<DeptEntry> DEPT_ORDER = Comparator.comparingDouble(DeptEntry::mean).reversed()
+            .thenComparing(DeptEntry::studentId);
+
+    private static final class CourseBoard {
+        private final OrderStatisticTree<CourseEntry> tree = new OrderStatisticTree<>(COURSE_ORDER);
+        // 同一学期重修同一课程时一个学生可有多条成绩
+        private final Map<String, List<CourseEntry>> byStudent = new HashMap<>();
+    }
+
+    private static final class StudentAgg {
+        private String dept;
+        private long sumTenths;
+        private int count;
+        private DeptEntry entry;
+
+        private StudentAgg(String dept) {
+            this.dept = dept;
+        }
+    }
+
+    private static final class Rankings {
+        private final Map<String, CourseBoard> courseBoards = new HashMap<>();
+        private final Map<String, OrderStatisticTree<DeptEntry>> deptBoards = new HashMap<>();
+        private final Map<String, StudentAgg> students = new HashMap<>();
+        private final Map<Long, Placement> grades = new HashMap<>();
+    }
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    /**
+     * 启用成绩分片时存在，此时全量扫描改读各分片及主库归档表
+     */
+    @Autowired(required = false)
+    private ShardedGradeStore shardedGradeStore;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private Rankings rankings;                               // guarded by lock
+    private List<Consumer<Rankings>> pendingDuringRebuild;   // guarded by lock, non-null while rebuilding
+
+    // ---------- build & maintenance ----------
+    /**
+     * 从数据库全量重建排名
+     */
+    public void refresh() {
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            long start = System.nanoTime();
+            Rankings fresh;
+            try {
+                fresh = build();
+            } catch (RuntimeException | Error e) {
+                // 构建失败：保留旧排名，停止暂存增量
+                lock.writeLock().lock();
+                try {
+                    pendingDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                for (Consumer<Rankings> change : pendingDuringRebuild) {
+                    change.accept(fresh);
+                }
+                rankings = fresh;
+            } finally {
+                pendingDuringRebuild = null;
+                lock.writeLock().unlock();
+            }
+            log.info("成绩排名已构建，课程榜: {} 个，院系榜: {} 个，耗时: {} ms", fresh.courseBoards.size(),
+                    fresh.deptBoards.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private Rankings build() {
+        Rankings fresh = new Rankings();
+        studentMapper.selectList(new LambdaQueryWrapper<Student>().select(Student::getStudentId, Student::getDeptName))
+                .forEach(s -> fresh.students.put(s.getStudentId(), new StudentAgg(s.getDeptName())));
+        Consumer<Grade> place = g -> {
+            StudentAgg agg = fresh.students.get(g.getStudentId());
+            if (agg != null && g.getScore() != null && placeCourseEntry(fresh, g)) {
+                agg.sumTenths += tenths(g.getScore());
+                agg.count++;
+            }
+        };
+        if (shardedGradeStore != null) {
+            shardedGradeStore.scan(null, null, place);
+        } else {
+            try (SqlSession session = sqlSessionFactory.openSession();
+                 Cursor<Grade> cursor = session.getMapper(GradeMapper.class).scanAll()) {
+                for (Grade g : cursor) {
+                    place.accept(g);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("关闭成绩游标失败", e);
+            }
+        }
+        // 院系榜在全部成绩读完后一次性插入，避免逐条成绩反复删除/插入
+        fresh.students.forEach((studentId, agg) -> {
+            if (agg.count > 0) addDeptEntry(fresh, studentId, agg);
+        });
+        return fresh;
+    }
+
+    @EventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        Student student = resolveUnknownStudent(event.after());
+        mutate(r -> apply(r, event, student));
+    }
+
+    /**
+     * 学生转院系：把其院系榜条目移到新院系
+     */
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        Student before = event.before();
+        Student after = event.after();
+        if (before == null || after == null || Objects.equals(before.getDeptName(), after.getDeptName())) return;
+        mutate(r -> moveStudent(r, after.getStudentId(), after.getDeptName()));
+    }
+
+    private void mutate(Consumer<Rankings> change) {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            } else if (rankings != null) {
+                change.accept(rankings);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 新学生的首条成绩需要补查院系；在加写锁之前查询，重建期间一律补查（新的排名数据中是否已有该生此时未知）
+     *
+     * @return 无需补查或学生不存在时为 null
+     */
+    private Student resolveUnknownStudent(Grade after) {
+        if (after == null || after.getScore() == null) return null;
+        lock.readLock().lock();
+        try {
+            if (pendingDuringRebuild == null && (rankings == null || rankings.students.containsKey(after.getStudentId()))) {
+                return null;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return studentMapper.selectOne(new LambdaQueryWrapper<Student>()
+                .select(Student::getStudentId, Student::getDeptName)
+                .eq(Student::getStudentId, after.getStudentId()));
+    }
+
+    /**
+     * 按成绩 id 幂等应用：先移除该 id 当前的条目（不论其分数），再放入修改后的成绩
+     *
+     * @param student 预先查出的学生，排名中尚无该生时用于建立院系聚合
+     */
+    private void apply(Rankings r, GradeChangedEvent event, Student student) {
+        Grade after = event.after();
+        Long gradeId = after != null ? after.getId() : event.before().getId();
+        removeGrade(r, gradeId);
+        if (after == null || after.getScore() == null) return;
+        StudentAgg agg = r.students.get(after.getStudentId());
+        if (agg == null) {
+            if (student == null) return;
+            agg = new StudentAgg(student.getDeptName());
+            r.students.put(after.getStudentId(), agg);
+        }
+        if (placeCourseEntry(r, after)) {
+            removeDeptEntry(r, agg);
+            agg.sumTenths += tenths(after.getScore());
+            agg.count++;
+            addDeptEntry(r, after.getStudentId(), agg);
+        }
+    }
+
+    private static void removeGrade(Rankings r, Long gradeId) {
+        Placement placement = r.grades.remove(gradeId);
+        if (placement == null) return;
+        CourseEntry entry = placement.entry();
+        CourseBoard board = r.courseBoards.get(placement.courseKey());
+        if (board == null || !board.tree.remove(entry)) return;
+        List<CourseEntry> own = board.byStudent.get(entry.studentId());
+        if (own != null) {
+            own.remove(entry);
+            if (own.isEmpty()) board.byStudent.remove(entry.studentId());
+        }
+        StudentAgg agg = r.students.get(entry.studentId());
+        if (agg != null) {
+            removeDeptEntry(r, agg);
+            agg.sumTenths -= entry.scoreTenths();
+            agg.count--;
+            if (agg.count > 0) addDeptEntry(r, entry.studentId(), agg);
+        }
+    }
+
+    private static void moveStudent(Rankings r, String studentId, String dept) {
+        StudentAgg agg = r.students.get(studentId);
+        if (agg == null || Objects.equals(agg.dept, dept)) return;
+        removeDeptEntry(r, agg);
+        agg.dept = dept;
+        if (agg.count > 0) addDeptEntry(r, studentId, agg);
+    }
+
+    /**
+     * 放入课程榜并记录位置
+     *
+     * @return false 表示该成绩 id 已在榜中，调用方不应再计入院系聚合
+     */
+    private static boolean placeCourseEntry(Rankings r, Grade g) {
+        if (r.grades.containsKey(g.getId())) return false;
+        String key = courseKey(g.getCourseId(), g.getSemester());
+        CourseBoard board = r.courseBoards.computeIfAbsent(key, k -> new CourseBoard());
+        CourseEntry entry = new CourseEntry(tenths(g.getScore()), g.getStudentId(), g.getId());
+        if (!board.tree.add(entry)) return false;
+        board.byStudent.computeIfAbsent(g.getStudentId(), k -> new ArrayList<>(1)).add(entry);
+        r.grades.put(g.getId(), new Placement(key, entry));
+        return true;
+    }
+
+    private static void addDeptEntry(Rankings r, String studentId, StudentAgg agg) {
+        agg.entry = new DeptEntry(agg.sumTenths / 10D / agg.count, studentId);
+        r.deptBoards.computeIfAbsent(agg.dept, k -> new OrderStatisticTree<>(DEPT_ORDER)).add(agg.entry);
+    }
+
+    private static void removeDeptEntry(Rankings r, StudentAgg agg) {
+        if (agg.entry == null) return;
+        OrderStatisticTree<DeptEntry> board = r.deptBoards.get(agg.dept);
+        if (board != null) board.remove(agg.entry);
+        agg.entry = null;
+    }
+
+    private static String courseKey(Long courseId, String semester) {
+        return courseId + ":" + semester;
+    }
+
+    private static int tenths(BigDecimal score) {
+        return score.movePointRight(1).intValue();
+    }
+
+    private <R> R read(Function<Rankings, R> query) {
+        lock.readLock().lock();
+        try {
+            if (rankings != null) return query.apply(rankings);
+        } finally {
+            lock.readLock().unlock();
+        }
+        synchronized (rebuildMonitor) {
+            // 等待监视器期间其他线程可能已构建完成，不再重复全量构建
+            if (!built()) refresh();
+        }
+        return read(query);
+    }
+
+    private boolean built() {
+        lock.readLock().lock();
+        try {
+            return rankings != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- queries ----------
+    /**
+     * 课程某学期的前 limit 名
+     */
+    public List<RankedEntry> topOfCourse(Long courseId, String semester, int limit) {
+        List<RankedEntry> top = read(r -> {
+            CourseBoard board = r.courseBoards.get(courseKey(courseId, semester));
+            if (board == null) return List.<RankedEntry>of();
+            List<RankedEntry> result = new ArrayList<>();
+            int rank = 0;
+            int previous = Integer.MIN_VALUE;
+            List<CourseEntry> head = board.tree.head(limit);
+            for (int i = 0; i < head.size(); i++) {
+                CourseEntry e = head.get(i);
+                if (e.scoreTenths() != previous) rank = i + 1;
+                previous = e.scoreTenths();
+                result.add(new RankedEntry(rank, e.studentId(), null, e.scoreTenths() / 10D, coursePercentile(board, e)));
+            }
+            return result;
+        });
+        return withNames(top);
+    }
+
+    /**
+     * 院系按平均分的前 limit 名
+     */
+    public List<RankedEntry> topOfDept(String deptName, int limit) {
+        List<RankedEntry> top = read(r -> {
+            OrderStatisticTree<DeptEntry> board = r.deptBoards.get(deptName);
+            if (board == null) return List.<RankedEntry>of();
+            List<RankedEntry> result = new ArrayList<>();
+            int rank = 0;
+            double previous = Double.NaN;
+            List<DeptEntry> head = board.head(limit);
+            for (int i = 0; i < head.size(); i++) {
+                DeptEntry e = head.get(i);
+                if (e.mean() != previous) rank = i + 1;
+                previous = e.mean();
+                result.add(new RankedEntry(rank, e.studentId(), null, e.mean(), deptPercentile(board, e)));
+            }
+            return result;
+        });
+        return withNames(top);
+    }
+
+    /**
+     * 学生在某课程某学期中的名次
+     */
+    public StudentRank rankInCourse(String studentId, Long courseId, String semester) {
+        return read(r -> {
+            CourseBoard board = r.courseBoards.get(courseKey(courseId, semester));
+            List<CourseEntry> own = board == null ? null : board.byStudent.get(studentId);
+            if (own == null || own.isEmpty()) {
+                throw new BusinessException(404, "学生 " + studentId + " 在课程 " + courseId + " (" + semester + ") 中没有成绩");
+            }
+            // 多条成绩时按最好的一条排名
+            CourseEntry e = own.stream().min(COURSE_ORDER).orElseThrow();
+            int rank = board.tree.countBefore(new CourseEntry(e.scoreTenths(), "", Long.MIN_VALUE)) + 1;
+            return new StudentRank("course:" + courseKey(courseId, semester), studentId, rank, board.tree.size(),
+                    e.scoreTenths() / 10D, coursePercentile(board, e));
+        });
+    }
+
+    /**
+     * 学生在本院系中按平均分的名次
+     */
+    public StudentRank rankInDept(String studentId) {
+        return read(r -> {
+            StudentAgg agg = r.students.get(studentId);
+            if (agg == null || agg.entry == null) {
+                throw new BusinessException(404, "学生 " + studentId + " 没有已录入的成绩");
+            }
+            OrderStatisticTree<DeptEntry> board = r.deptBoards.get(agg.dept);
+            int rank = board.countBefore(new DeptEntry(agg.entry.mean(), "")) + 1;
+            return new StudentRank("dept:" + agg.dept, studentId, rank, board.size(), agg.entry.mean(),
+                    deptPercentile(board, agg.entry));
+        });
+    }
+
+    private static double coursePercentile(CourseBoard board, CourseEntry e) {
+        int n = board.tree.size();
+        if (n <= 1) return 100D;
+        int atOrAbove = board.tree.countBefore(new CourseEntry(e.scoreTenths() - 1, "", Long.MIN_VALUE));
+        return (n - atOrAbove) * 100D / (n - 1);
+    }
+
+    private static double deptPercentile(OrderStatisticTree<DeptEntry> board, DeptEntry e) {
+        int n = board.size();
+        if (n <= 1) return 100D;
+        int atOrAbove = board.countBefore(new DeptEntry(Math.nextDown(e.mean()), ""));
+        return (n - atOrAbove) * 100D / (n - 1);
+    }
+
+    private List<RankedEntry> withNames(List<RankedEntry> entries) {
+        if (entries.isEmpty()) return entries;
+        Map<String, String> names = studentMapper.selectList(new LambdaQueryWrapper<Student>()
+                        .select(Student::getStudentId, Student::getName)
+                        .in(Student::getStudentId, entries.stream().map(RankedEntry::studentId).toList()))
+                .stream()
+                .collect(Collectors.toMap(Student::getStudentId, Student::getName, (a, b) -> a));
+        return entries.stream()
+                .map(e -> new RankedEntry(e.rank(), e.studentId(), names.get(e.studentId()), e.score(), e.percentile()))
+                .toList();
+    }
+}
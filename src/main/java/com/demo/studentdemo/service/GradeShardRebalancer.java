@@ -0,0 +1,189 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.config.BatchJobControl;
+import com.demo.studentdemo.config.GradeShardRouter;
+import com.demo.studentdemo.config.StreamBatchProcessor;
+import com.demo.studentdemo.entity.Grade;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 成绩分片再平衡.
+ * 逐个扫描来源表（可选地包括主库 t_grade，用于首次迁移），把不在其哈希分片上的行按目标分片攒成块，
+ * 每块先以 INSERT ... ON DUPLICATE KEY UPDATE 写入目标分片，再从来源删除；中途失败或取消后重跑是幂等的.
+ * 来源只删除复制之后未被修改的行：复制与删除之间 ShardedGradeStore 可能把改分、删除落到来源（见其 onOwningShard），
+ * 被修改的行重新读取后再复制，已在来源被删除的行从目标撤回，不丢失也不复活.
+ * 迁移期间被搬动学生的查询可能短暂看到重复或缺失的行，应在低峰期执行.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "grade.sharding", name = "enabled", havingValue = "true")
+public class GradeShardRebalancer {
+
+    private static final int CHUNK_ROWS = 500;
+    private static final RowMapper<Grade> GRADE_ROW_MAPPER = new BeanPropertyRowMapper<>(Grade.class);
+    private static final int WORKER_THREADS = 2;
+    private static final String PRIMARY = "primary";
+    private static final int MAX_CUTOVER_ATTEMPTS = 5;
+    private static final String COLUMNS = "id, student_id, course_id, semester, score, created_at, updated_at, created_by, updated_by";
+
+    @Autowired
+    private GradeShardRouter router;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * 一块待搬迁的行：同一来源、同一目标分片
+     */
+    private record Chunk(String source, JdbcTemplate sourceJdbc, GradeShardRouter.Shard target, List<Grade> rows) {
+    }
+
+    /**
+     * @return 各 "来源->目标" 路径上搬迁的行数
+     */
+    public Map<String, Long> rebalance(boolean includePrimary, BatchJobControl control) throws InterruptedException {
+        Map<String, JdbcTemplate> sources = new LinkedHashMap<>();
+        if (includePrimary) {
+            sources.put(PRIMARY, new JdbcTemplate(dataSource));
+        }
+        router.getShards().forEach(s -> sources.put(s.name(), s.jdbcTemplate()));
+
+        Map<String, AtomicLong> moved = new ConcurrentHashMap<>();
+        for (Map.Entry<String, JdbcTemplate> source : sources.entrySet()) {
+            if (control != null && control.isCancelled()) break;
+            StreamBatchProcessor processor = StreamBatchProcessor.builder()
+                    .workerThreads(WORKER_THREADS)
+                    .queueCapacity(8)
+                    .build();
+            JdbcTemplate streaming = new JdbcTemplate(source.getValue().getDataSource());
+            streaming.setFetchSize(Integer.MIN_VALUE); // MySQL 逐行流式读取
+            try (Stream<Grade> rows = streaming.queryForStream(
+                    "SELECT " + COLUMNS + " FROM t_grade", GRADE_ROW_MAPPER)) {
+                Iterator<Chunk> chunks = misplaced(source.getKey(), source.getValue(), rows.iterator());
+                processor.processAndWait(() -> chunks,
+                        this::move,
+                        (chunk, count) -> moved.computeIfAbsent(chunk.source() + "->" + chunk.target().name(),
+                                k -> new AtomicLong()).addAndGet(count),
+                        (chunk, ex) -> log.error("成绩分片搬迁失败 {} -> {}", chunk == null ? source.getKey() : chunk.source(),
+                                chunk == null ? null : chunk.target().name(), ex),
+                        control);
+            } finally {
+                processor.shutdown();
+            }
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        moved.forEach((k, v) -> result.put(k, v.get()));
+        log.info("成绩分片再平衡结束，分片数: {}，搬迁: {}", router.size(), result);
+        return result;
+    }
+
+    /**
+     * 只向前读一行的分块迭代器：过滤出不属于来源分片的行，按目标分片各自攒满 CHUNK_ROWS 行后输出，
+     * 来源读完时输出全部残余块
+     */
+    private Iterator<Chunk> misplaced(String source, JdbcTemplate sourceJdbc, Iterator<Grade> rows) {
+        return new Iterator<>() {
+            private final Map<Integer, List<Grade>> pending = new HashMap<>();
+            private final List<Chunk> ready = new ArrayList<>();
+
+            @Override
+            public boolean hasNext() {
+                while (ready.isEmpty() && rows.hasNext()) {
+                    Grade g = rows.next();
+                    GradeShardRouter.Shard target = router.shardOf(g.getStudentId());
+                    if (target.name().equals(source)) continue;
+                    List<Grade> buf = pending.computeIfAbsent(target.index(), k -> new ArrayList<>(CHUNK_ROWS));
+                    buf.add(g);
+                    if (buf.size() >= CHUNK_ROWS) {
+                        ready.add(new Chunk(source, sourceJdbc, target, List.copyOf(buf)));
+                        buf.clear();
+                    }
+                }
+                if (ready.isEmpty() && !rows.hasNext()) {
+                    pending.forEach((idx, buf) -> {
+                        if (!buf.isEmpty()) ready.add(new Chunk(source, sourceJdbc, router.getShards().get(idx), List.copyOf(buf)));
+                    });
+                    pending.clear();
+                }
+                return !ready.isEmpty();
+            }
+
+            @Override
+            public Chunk next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return ready.remove(ready.size() - 1);
+            }
+        };
+    }
+
+    /**
+     * 复制 → 切换 → 删除：先写目标，再按复制时的 score / updated_at 有条件地删除来源，保证任何时刻每行至少存在于一处.
+     * 条件不成立的行说明复制后来源被改写：重新读取来源，仍存在的再次复制，已不存在的从目标删除；
+     * 多次仍未切换完成的行留在来源，由下次再平衡处理
+     *
+     * @return 从来源删除的行数
+     */
+    private Long move(Chunk chunk) {
+        NamedParameterJdbcTemplate source = new NamedParameterJdbcTemplate(chunk.sourceJdbc());
+        NamedParameterJdbcTemplate target = new NamedParameterJdbcTemplate(chunk.target().jdbcTemplate());
+        List<Grade> rows = chunk.rows();
+        long moved = 0;
+        for (int attempt = 1; !rows.isEmpty(); attempt++) {
+            if (attempt > MAX_CUTOVER_ATTEMPTS) {
+                log.warn("成绩分片搬迁 {} -> {}：{} 行持续被修改，留待下次再平衡", chunk.source(), chunk.target().name(), rows.size());
+                break;
+            }
+            target.batchUpdate("INSERT INTO t_grade (" + COLUMNS + ") "
+                            + "VALUES (:id, :studentId, :courseId, :semester, :score, :createdAt, :updatedAt, :createdBy, :updatedBy) "
+                            + "ON DUPLICATE KEY UPDATE score = VALUES(score), updated_at = VALUES(updated_at), updated_by = VALUES(updated_by)",
+                    params(rows));
+            int[] deleted = source.batchUpdate("DELETE FROM t_grade WHERE id = :id"
+                            + " AND (score = :score OR score IS NULL AND :score IS NULL)"
+                            + " AND (updated_at = :updatedAt OR updated_at IS NULL AND :updatedAt IS NULL)",
+                    params(rows));
+            List<Long> changed = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (deleted[i] > 0) {
+                    moved++;
+                } else {
+                    changed.add(rows.get(i).getId());
+                }
+            }
+            if (changed.isEmpty()) break;
+            rows = source.query("SELECT " + COLUMNS + " FROM t_grade WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", changed), GRADE_ROW_MAPPER);
+            Set<Long> stillThere = rows.stream().map(Grade::getId).collect(Collectors.toSet());
+            List<Long> gone = changed.stream().filter(id -> !stillThere.contains(id)).toList();
+            if (!gone.isEmpty()) {
+                target.update("DELETE FROM t_grade WHERE id IN (:ids)", new MapSqlParameterSource("ids", gone));
+            }
+        }
+        return moved;
+    }
+
+    private static MapSqlParameterSource[] params(List<Grade> rows) {
+        return rows.stream().map(ShardedGradeStore::gradeParams).toArray(MapSqlParameterSource[]::new);
+    }
+}
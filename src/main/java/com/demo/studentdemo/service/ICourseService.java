@@ -7,10 +7,27 @@ import com.baomidou.mybatisplus.extension.service.IService;
  * <p>
  * 课程信息 服务类
  * </p>
+ * 课程表很小且极少变化，读取统一走内存中的版本化目录快照（catalog），
+ * 写入后立即重建快照；另有定时任务按指纹检查库表变化后原子替换.
  *
  * @author admin
  * @since 2025-08-03
  */
 public interface ICourseService extends IService<Course> {
 
+    /**
+     * 当前课程目录快照（首次调用时加载）
+     */
+    CourseCatalog catalog();
+
+    /**
+     * 从数据库重新加载目录并原子替换
+     */
+    CourseCatalog reloadCatalog();
+
+    Course addCourse(Course course);
+
+    Course updateCourse(Long id, Course course);
+
+    void removeCourse(Long id);
 }
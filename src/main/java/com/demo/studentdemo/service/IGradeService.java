@@ -0,0 +1,23 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.demo.studentdemo.entity.Grade;
+
+import java.math.BigDecimal;
+
+/**
+ * <p>
+ * 成绩记录 服务类
+ * </p>
+ * 成绩写入成功后发布 GradeChangedEvent，供内存分析快照、排名等增量维护.
+ *
+ * @author admin
+ */
+public interface IGradeService extends IService<Grade> {
+
+    Grade addGrade(Grade grade);
+
+    Grade updateScore(Long id, BigDecimal score);
+
+    void removeGrade(Long id);
+}
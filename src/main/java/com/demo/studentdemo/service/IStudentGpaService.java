@@ -0,0 +1,26 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.demo.studentdemo.config.BatchJobControl;
+import com.demo.studentdemo.entity.StudentGpa;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 学生学期绩点 服务类
+ * </p>
+ *
+ * @author admin
+ */
+public interface IStudentGpaService extends IService<StudentGpa> {
+
+    /**
+     * 全量重算所有学生各学期的学分加权绩点并写回 t_student_gpa
+     *
+     * @param control 作业控制句柄（通过 BatchJobRegistry 提交时传入），可为 null
+     */
+    void recompute(BatchJobControl control) throws InterruptedException;
+
+    List<StudentGpa> listByStudentId(String studentId);
+}
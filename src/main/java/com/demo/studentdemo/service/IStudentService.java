@@ -1,5 +1,6 @@
 package com.demo.studentdemo.service;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.demo.studentdemo.entity.Student;
@@ -7,6 +8,7 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.demo.studentdemo.vo.PageQueryParam;
 import com.demo.studentdemo.vo.StudentGradeVO;
 import com.demo.studentdemo.vo.StudentQueryReq;
+import com.demo.studentdemo.vo.StudentRowSet;
 
 import java.util.List;
 
@@ -20,4 +22,14 @@ import java.util.List;
  */
 public interface IStudentService extends IService<Student> {
     IPage<StudentGradeVO> queryAllGrade(PageQueryParam<StudentQueryReq> studentQueryReq);
+
+    /**
+     * 按条件查询学生，结果逐行写入紧凑列式结构，不生成中间的 List&lt;Student&gt;
+     */
+    StudentRowSet listRowSet(Wrapper<Student> queryWrapper);
+
+    /**
+     * 分页查询学生，当前页逐行写入紧凑列式结构；总数写回 page
+     */
+    StudentRowSet pageRowSet(IPage<Student> page, Wrapper<Student> queryWrapper);
 }
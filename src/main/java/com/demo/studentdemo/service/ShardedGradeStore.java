@@ -0,0 +1,500 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.demo.studentdemo.config.GradeShardRouter;
+import com.demo.studentdemo.entity.Course;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.util.SortedMerge;
+import com.demo.studentdemo.vo.PageQueryParam;
+import com.demo.studentdemo.vo.StudentGradeVO;
+import com.demo.studentdemo.vo.StudentQueryReq;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 分片成绩存储，grade.sharding.enabled=true 时替代主库 t_grade.
+ *
+ * 按学号的查询与写入只访问一个分片；queryAllGrade 及其 count 向全部分片并行下发（scatter），
+ * 各分片按全局排序（学期倒序、学号、课程代码）各取前 offset + size 行，再 k 路归并后截取当前页（gather）.
+ * 每个分片都要返回 offset 之前的全部行，因此翻页深度受 grade.sharding.max-window 限制.
+ * 主库归档表 t_grade_archive 按 GradeArchiveService.route 的结果作为额外的一路参与 scatter-gather.
+ *
+ * 学生、课程不在分片库中. 为与 queryAllGrade 的内连接语义一致：课程按课程目录限定为 course_id IN (现有课程)，
+ * 学生与各分片上的学号镜像 t_student_key 内连接（启动时与主库对齐，之后随 StudentChangedEvent 增删），
+ * 主库归档表直接与 t_student 内连接. 当前页的姓名、院系按学号回主库批量查询.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "grade.sharding", name = "enabled", havingValue = "true")
+public class ShardedGradeStore {
+
+    private static final String COLUMNS = "id, student_id, course_id, semester, score, created_at, updated_at, created_by, updated_by";
+    private static final String G_COLUMNS = "g.id, g.student_id, g.course_id, g.semester, g.score, g.created_at, g.updated_at, g.created_by, g.updated_by";
+    private static final int KEY_BATCH = 500;
+    private static final RowMapper<Grade> GRADE_ROW_MAPPER = new BeanPropertyRowMapper<>(Grade.class);
+    private static final Comparator<Grade> STUDENT_SEMESTER = Comparator.comparing(Grade::getStudentId)
+            .thenComparing(Grade::getSemester);
+
+    @Autowired
+    private GradeShardRouter router;
+
+    @Autowired
+    private ICourseService courseService;
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    @Autowired
+    private GradeArchiveService gradeArchiveService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("gradeQueryExecutor")
+    private ThreadPoolTaskExecutor gradeQueryExecutor;
+
+    @Value("${grade.sharding.max-window:10000}")
+    private int maxWindow;
+
+    /**
+     * scatter 的一路：分片上的在线表，或主库上的归档表
+     *
+     * @param from 含学生内连接的 FROM 子句，成绩表别名为 g
+     */
+    private record Source(NamedParameterJdbcTemplate jdbc, String from) {
+    }
+
+    // ---------- 单学生 / 单行 ----------
+
+    public Grade insert(Grade grade) {
+        grade.setId(IdWorker.getId());
+        named(router.shardOf(grade.getStudentId())).update(
+                "INSERT INTO t_grade (" + COLUMNS + ") VALUES (:id, :studentId, :courseId, :semester, :score, "
+                        + ":createdAt, :updatedAt, :createdBy, :updatedBy)",
+                gradeParams(grade));
+        return grade;
+    }
+
+    /**
+     * 按 id 查找需广播到全部分片（id 不含分片信息）
+     */
+    public Grade findById(Long id) {
+        for (GradeShardRouter.Shard shard : router.getShards()) {
+            List<Grade> rows = shard.jdbcTemplate().query(
+                    "SELECT " + COLUMNS + " FROM t_grade WHERE id = ?", GRADE_ROW_MAPPER, id);
+            if (!rows.isEmpty()) {
+                return rows.get(0);
+            }
+        }
+        return null;
+    }
+
+    public void updateScore(Grade grade, BigDecimal score, String updatedBy) {
+        onOwningShard(grade, jdbc -> jdbc.update(
+                "UPDATE t_grade SET score = ?, updated_at = ?, updated_by = ? WHERE id = ?",
+                score, LocalDateTime.now(), updatedBy, grade.getId()));
+    }
+
+    public void delete(Grade grade) {
+        onOwningShard(grade, jdbc -> jdbc.update("DELETE FROM t_grade WHERE id = ?", grade.getId()));
+    }
+
+    /**
+     * 先在学号所属分片执行单行写入. 再平衡期间该行可能仍在来源分片（尚未搬迁，或已复制、尚未从来源删除），
+     * 0 行命中时依次在其余分片执行，都未命中再回到所属分片重试一次（期间可能刚搬迁完成）；仍未命中时抛出 409.
+     * 写入来源分片的行在复制后被修改，GradeShardRebalancer 不会删除它，而是重新复制.
+     */
+    private void onOwningShard(Grade grade, ToIntFunction<JdbcTemplate> statement) {
+        GradeShardRouter.Shard home = router.shardOf(grade.getStudentId());
+        if (statement.applyAsInt(home.jdbcTemplate()) > 0) return;
+        boolean hit = false;
+        for (GradeShardRouter.Shard shard : router.getShards()) {
+            if (shard != home && statement.applyAsInt(shard.jdbcTemplate()) > 0) hit = true;
+        }
+        if (hit || statement.applyAsInt(home.jdbcTemplate()) > 0) return;
+        throw new BusinessException(409, "成绩记录已被删除或正在迁移，请刷新后重试: " + grade.getId());
+    }
+
+    public List<Grade> listByStudent(String studentId) {
+        return router.shardOf(studentId).jdbcTemplate().query(
+                "SELECT " + COLUMNS + " FROM t_grade WHERE student_id = ? ORDER BY semester, course_id",
+                GRADE_ROW_MAPPER, studentId);
+    }
+
+    // ---------- 全量扫描 ----------
+
+    /**
+     * 流式读取学号在 [from, to) 内的全部成绩：各分片在线表及主库归档表依次读取，不做连接，用于构建内存快照.
+     * from / to 为 null 表示该侧不设界
+     */
+    public void scan(String from, String to, Consumer<Grade> action) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (from != null) {
+            where.append(" AND student_id >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            where.append(" AND student_id < :to");
+            params.addValue("to", to);
+        }
+        tables().forEach((source, table) ->
+                new NamedParameterJdbcTemplate(streaming(source)).query("SELECT " + COLUMNS + " FROM " + table + where, params,
+                        (RowCallbackHandler) rs -> action.accept(GRADE_ROW_MAPPER.mapRow(rs, rs.getRow()))));
+    }
+
+    /**
+     * 各分片在线表与主库归档表的总行数，用于预估快照容量
+     */
+    public long countAll() {
+        long total = 0;
+        for (Map.Entry<DataSource, String> e : tables().entrySet()) {
+            Long rows = new JdbcTemplate(e.getKey()).queryForObject("SELECT COUNT(*) FROM " + e.getValue(), Long.class);
+            total += rows == null ? 0 : rows;
+        }
+        return total;
+    }
+
+    /**
+     * 按学号、学期顺序流式读取全部成绩（不含审计列）：各分片在线表与主库归档表各开一个服务端游标，
+     * 按 idx_student_semester 索引顺序读出（不排序），k 路归并为一路. 每路独占一个连接，调用方必须关闭返回的流.
+     * 再平衡期间同一行可能同时出现在来源与目标分片，两份学号相同、在结果中相邻，由调用方按 id 去重
+     */
+    public Stream<Grade> streamOrderByStudent() {
+        List<Stream<Grade>> opened = new ArrayList<>();
+        try {
+            tables().forEach((source, table) -> opened.add(streaming(source).queryForStream(
+                    "SELECT id, student_id, course_id, semester, score FROM " + table
+                            + " FORCE INDEX (idx_student_semester) ORDER BY student_id, semester",
+                    GRADE_ROW_MAPPER)));
+        } catch (RuntimeException e) {
+            opened.forEach(Stream::close);
+            throw e;
+        }
+        Iterator<Grade> merged = SortedMerge.merge(opened.stream().map(Stream::iterator).toList(), STUDENT_SEMESTER);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(() -> opened.forEach(Stream::close));
+    }
+
+    /**
+     * 全量读取的各路来源：各分片的 t_grade，以及主库的 t_grade_archive
+     */
+    private Map<DataSource, String> tables() {
+        Map<DataSource, String> tables = new LinkedHashMap<>();
+        router.getShards().forEach(shard -> tables.put(shard.dataSource(), "t_grade"));
+        tables.put(dataSource, "t_grade_archive");
+        return tables;
+    }
+
+    private static JdbcTemplate streaming(DataSource source) {
+        JdbcTemplate streaming = new JdbcTemplate(source);
+        streaming.setFetchSize(Integer.MIN_VALUE); // MySQL 逐行流式读取
+        return streaming;
+    }
+
+    // ---------- 学号镜像 ----------
+
+    /**
+     * 启动时把各分片的 t_student_key 与主库 t_student 对齐：补齐缺失的学号、删除已不存在的学号
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void syncStudentKeys() {
+        try {
+            Set<String> expected = new HashSet<>(new JdbcTemplate(dataSource)
+                    .queryForList("SELECT student_id FROM t_student", String.class));
+            for (GradeShardRouter.Shard shard : router.getShards()) {
+                Set<String> present = new HashSet<>(shard.jdbcTemplate()
+                        .queryForList("SELECT student_id FROM t_student_key", String.class));
+                List<String> missing = expected.stream().filter(id -> !present.contains(id)).toList();
+                List<String> stale = present.stream().filter(id -> !expected.contains(id)).toList();
+                addStudentKeys(shard, missing);
+                for (int i = 0; i < stale.size(); i += KEY_BATCH) {
+                    named(shard).update("DELETE FROM t_student_key WHERE student_id IN (:ids)",
+                            new MapSqlParameterSource("ids", stale.subList(i, Math.min(stale.size(), i + KEY_BATCH))));
+                }
+                if (!missing.isEmpty() || !stale.isEmpty()) {
+                    log.info("分片 {} 学号镜像已对齐，补齐 {} 个，删除 {} 个", shard.name(), missing.size(), stale.size());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("分片学号镜像对齐失败，学生已删除的成绩可能仍出现在跨分片查询中: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 学生新增、删除或学号变化时同步各分片的学号镜像
+     */
+    @EventListener
+    public synchronized void onStudentChanged(StudentChangedEvent event) {
+        String before = event.before() == null ? null : event.before().getStudentId();
+        String after = event.after() == null ? null : event.after().getStudentId();
+        if (Objects.equals(before, after)) return;
+        for (GradeShardRouter.Shard shard : router.getShards()) {
+            if (before != null) {
+                shard.jdbcTemplate().update("DELETE FROM t_student_key WHERE student_id = ?", before);
+            }
+            if (after != null) {
+                addStudentKeys(shard, List.of(after));
+            }
+        }
+    }
+
+    private static void addStudentKeys(GradeShardRouter.Shard shard, List<String> studentIds) {
+        if (studentIds.isEmpty()) return;
+        shard.jdbcTemplate().batchUpdate("INSERT IGNORE INTO t_student_key (student_id) VALUES (?)",
+                studentIds, KEY_BATCH, (ps, id) -> ps.setString(1, id));
+    }
+
+    // ---------- scatter-gather ----------
+
+    /**
+     * 与 StudentMapper.queryAllGrade 相同的条件、排序与分页语义
+     */
+    public IPage<StudentGradeVO> queryAllGrade(PageQueryParam<StudentQueryReq> param) {
+        StudentQueryReq req = param.getCondition() == null ? new StudentQueryReq() : param.getCondition();
+        long offset = (long) (param.getPageNum() - 1) * param.getPageSize();
+        int window = (int) Math.min(Integer.MAX_VALUE, offset + param.getPageSize());
+        if (window > maxWindow) {
+            throw new BusinessException(400, "分片查询最多翻到第 " + maxWindow + " 行，请缩小查询条件");
+        }
+        Page<StudentGradeVO> page = new Page<>(param.getPageNum(), param.getPageSize());
+        CourseCatalog catalog = courseService.catalog();
+        List<Course> courseOrder = catalog.list(null, null);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = where(req, catalog, params);
+        if (where == null) {
+            page.setTotal(0);
+            return page;
+        }
+
+        List<Source> sources = sources(req);
+        List<CompletableFuture<Long>> counts = scatter(sources, source -> source.jdbc().queryForObject(
+                "SELECT COUNT(*) FROM " + source.from() + " WHERE 1 = 1" + where, params, Long.class));
+        String fieldOrder = courseOrder.isEmpty() ? "" : ", FIELD(g.course_id, "
+                + courseOrder.stream().map(c -> String.valueOf(c.getId())).collect(Collectors.joining(",")) + ")";
+        String pageSql = " WHERE 1 = 1" + where + " ORDER BY g.semester DESC, g.student_id" + fieldOrder + " LIMIT " + window;
+        List<CompletableFuture<List<Grade>>> pages = scatter(sources, source -> source.jdbc().query(
+                "SELECT " + G_COLUMNS + " FROM " + source.from() + pageSql, params, GRADE_ROW_MAPPER));
+
+        page.setTotal(join(counts).stream().mapToLong(Long::longValue).sum());
+        List<Grade> merged = merge(join(pages), courseOrder, offset, param.getPageSize());
+        page.setRecords(toVO(merged, catalog));
+        return page;
+    }
+
+    /**
+     * 条件与 StudentMapper.xml 的 gradeConditions 一致；与 t_course 的内连接及课程名条件借助课程目录换成 course_id IN.
+     *
+     * @return null 表示没有课程满足条件，结果必为空
+     */
+    private static String where(StudentQueryReq req, CourseCatalog catalog, MapSqlParameterSource params) {
+        StringBuilder sql = new StringBuilder();
+        if (notEmpty(req.getStudentId())) {
+            sql.append(" AND g.student_id = :studentId");
+            params.addValue("studentId", req.getStudentId());
+        }
+        List<Long> courseIds = catalog.list(null, null).stream()
+                .filter(c -> !notEmpty(req.getCourseName())
+                        || c.getCourseName() != null && c.getCourseName().contains(req.getCourseName()))
+                .map(Course::getId)
+                .toList();
+        if (courseIds.isEmpty()) return null;
+        sql.append(" AND g.course_id IN (:courseIds)");
+        params.addValue("courseIds", courseIds);
+        if (notEmpty(req.getSemester())) {
+            sql.append(" AND g.semester = :semester");
+            params.addValue("semester", req.getSemester());
+        }
+        if (notEmpty(req.getSemesterFrom())) {
+            sql.append(" AND g.semester >= :semesterFrom");
+            params.addValue("semesterFrom", req.getSemesterFrom());
+        }
+        if (notEmpty(req.getSemesterTo())) {
+            sql.append(" AND g.semester <= :semesterTo");
+            params.addValue("semesterTo", req.getSemesterTo());
+        }
+        if (notEmpty(req.getStudentIdFrom())) {
+            sql.append(" AND g.student_id >= :studentIdFrom");
+            params.addValue("studentIdFrom", req.getStudentIdFrom());
+        }
+        if (notEmpty(req.getStudentIdTo())) {
+            sql.append(" AND g.student_id < :studentIdTo");
+            params.addValue("studentIdTo", req.getStudentIdTo());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * 指定学号时只访问该学生所在分片；学期范围涉及已归档学期时加上主库归档表
+     */
+    private List<Source> sources(StudentQueryReq req) {
+        GradeArchiveService.GradeSource route = gradeArchiveService.route(req);
+        List<Source> sources = new ArrayList<>();
+        if (route != GradeArchiveService.GradeSource.ARCHIVE) {
+            List<GradeShardRouter.Shard> shards = notEmpty(req.getStudentId())
+                    ? List.of(router.shardOf(req.getStudentId())) : router.getShards();
+            shards.forEach(shard -> sources.add(new Source(named(shard),
+                    "t_grade g INNER JOIN t_student_key k ON g.student_id = k.student_id")));
+        }
+        if (route != GradeArchiveService.GradeSource.HOT) {
+            sources.add(new Source(new NamedParameterJdbcTemplate(dataSource),
+                    "t_grade_archive g INNER JOIN t_student s ON g.student_id = s.student_id"));
+        }
+        return sources;
+    }
+
+    private <R> List<CompletableFuture<R>> scatter(List<Source> sources, Function<Source, R> query) {
+        return sources.stream()
+                .map(source -> CompletableFuture.supplyAsync(() -> query.apply(source), gradeQueryExecutor))
+                .toList();
+    }
+
+    private static <R> List<R> join(List<CompletableFuture<R>> futures) {
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /**
+     * 各分片结果已按全局顺序排好，k 路归并后跳过 offset 行取 limit 行
+     */
+    private static List<Grade> merge(List<List<Grade>> shardRows, List<Course> courseOrder, long offset, int limit) {
+        Map<Long, Integer> courseRank = new HashMap<>();
+        for (int i = 0; i < courseOrder.size(); i++) {
+            courseRank.put(courseOrder.get(i).getId(), i + 1);
+        }
+        // FIELD() 对不在列表中的值返回 0，排在最前
+        Comparator<Grade> order = Comparator.comparing(Grade::getSemester, Comparator.reverseOrder())
+                .thenComparing(Grade::getStudentId)
+                .thenComparingInt(g -> courseRank.getOrDefault(g.getCourseId(), 0));
+        record Head(Grade grade, int shard, int index) {
+        }
+        PriorityQueue<Head> heap = new PriorityQueue<>(Comparator.comparing(Head::grade, order));
+        for (int s = 0; s < shardRows.size(); s++) {
+            if (!shardRows.get(s).isEmpty()) heap.add(new Head(shardRows.get(s).get(0), s, 0));
+        }
+        List<Grade> result = new ArrayList<>(limit);
+        long skipped = 0;
+        while (!heap.isEmpty() && result.size() < limit) {
+            Head head = heap.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(head.grade());
+            }
+            List<Grade> rows = shardRows.get(head.shard());
+            if (head.index() + 1 < rows.size()) {
+                heap.add(new Head(rows.get(head.index() + 1), head.shard(), head.index() + 1));
+            }
+        }
+        return result;
+    }
+
+    private List<StudentGradeVO> toVO(List<Grade> grades, CourseCatalog catalog) {
+        if (grades.isEmpty()) return List.of();
+        Map<String, Student> students = studentMapper.selectList(new LambdaQueryWrapper<Student>()
+                        .select(Student::getStudentId, Student::getName, Student::getDeptName)
+                        .in(Student::getStudentId, grades.stream().map(Grade::getStudentId).distinct().toList()))
+                .stream()
+                .collect(Collectors.toMap(Student::getStudentId, Function.identity(), (a, b) -> a));
+        List<StudentGradeVO> result = new ArrayList<>(grades.size());
+        for (Grade g : grades) {
+            StudentGradeVO vo = new StudentGradeVO();
+            vo.setStudentId(g.getStudentId());
+            Student s = students.get(g.getStudentId());
+            if (s != null) {
+                vo.setStudentName(s.getName());
+                vo.setDepartment(s.getDeptName());
+            }
+            catalog.byId(g.getCourseId()).ifPresent(c -> {
+                vo.setCourseCode(c.getCourseCode());
+                vo.setCourseName(c.getCourseName());
+                vo.setCredit(c.getCredit() == null ? null : c.getCredit().intValue());
+                vo.setCourseType(c.getCourseType());
+            });
+            vo.setSemester(g.getSemester());
+            vo.setScore(g.getScore() == null ? null : g.getScore().doubleValue());
+            vo.setGradeLetter(gradeLetter(g.getScore()));
+            result.add(vo);
+        }
+        return result;
+    }
+
+    /**
+     * 与 SQL 中 CASE 表达式一致：分数为空时落入 ELSE 分支
+     */
+    private static String gradeLetter(BigDecimal score) {
+        if (score == null) return "F";
+        double v = score.doubleValue();
+        return v >= 90 ? "A" : v >= 80 ? "B" : v >= 70 ? "C" : v >= 60 ? "D" : "F";
+    }
+
+    static MapSqlParameterSource gradeParams(Grade grade) {
+        return new MapSqlParameterSource()
+                .addValue("id", grade.getId())
+                .addValue("studentId", grade.getStudentId())
+                .addValue("courseId", grade.getCourseId())
+                .addValue("semester", grade.getSemester())
+                .addValue("score", grade.getScore())
+                .addValue("createdAt", grade.getCreatedAt())
+                .addValue("updatedAt", grade.getUpdatedAt())
+                .addValue("createdBy", grade.getCreatedBy())
+                .addValue("updatedBy", grade.getUpdatedBy());
+    }
+
+    private static NamedParameterJdbcTemplate named(GradeShardRouter.Shard shard) {
+        return new NamedParameterJdbcTemplate(shard.jdbcTemplate());
+    }
+
+    private static boolean notEmpty(String s) {
+        return s != null && !s.isEmpty();
+    }
+}
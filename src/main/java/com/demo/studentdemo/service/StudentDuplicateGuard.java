@@ -0,0 +1,407 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 学生入学查重：学号、身份证号各一个布隆过滤器，覆盖 t_student 中已有的值（对应表上的两个唯一约束）.
+ *
+ *   - 过滤器判定“一定不存在”的键（批量导入的绝大多数行）直接放行，不访问数据库
+ *   - 判定“可能存在”的键按批 IN 查询确认，只有确实存在的才报冲突；误判只多一次查询，不会误报
+ * 过滤器在应用启动后于舱壁 batch-task 中流式扫描构建，之后每次新增 / 修改学生时加入新值；
+ * 删除的值无法移出，只会让误判率略升. 插入次数超过预期容量时自动重建. 构建完成前所有键都走数据库确认.
+ */
+@Slf4j
+@Service
+public class StudentDuplicateGuard {
+
+    /**
+     * 冲突类型：数据库中已存在 / 同一文件内重复 / 缺少该字段
+     */
+    public enum ConflictType {
+        EXISTS, DUPLICATE_IN_FILE, MISSING
+    }
+
+    /**
+     * @param row      行号：CSV 文件中为物理行号（表头为第 1 行，空行同样计数）；JSON 数组中为从 1 开始的序号
+     * @param field    studentId 或 idCard
+     * @param firstRow DUPLICATE_IN_FILE 时该值首次出现的行号，其余为 null
+     */
+    public record Conflict(int row, String field, String value, ConflictType type, Integer firstRow) {
+    }
+
+    /**
+     * @param bloomNegatives 布隆过滤器判定不存在、未访问数据库的键数
+     * @param dbChecked      经数据库确认的键数
+     * @param falsePositives 过滤器判定可能存在、数据库确认不存在的键数
+     */
+    public record CheckResult(int rows, int conflictRows, List<Conflict> conflicts, boolean truncated,
+                              int bloomNegatives, int dbChecked, int falsePositives, boolean filterReady,
+                              long elapsedMillis) {
+    }
+
+    private record Filters(BloomFilter studentIds, BloomFilter idCards) {
+    }
+
+    /**
+     * CSV 导入文件的数据行
+     *
+     * @param lineNumbers 与 rows 一一对应的物理行号
+     */
+    public record CsvRows(List<Student> rows, List<Integer> lineNumbers) {
+    }
+
+    private static final String FIELD_STUDENT_ID = "studentId";
+    private static final String FIELD_ID_CARD = "idCard";
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final StudentMapper studentMapper;
+    private final ThreadPoolTaskExecutor batchTaskExecutor;
+    private final double fpp;
+    private final long minCapacity;
+    private final int confirmBatchSize;
+    private final boolean buildOnStartup;
+
+    private final Object rebuildMonitor = new Object();
+    private final Object filterLock = new Object();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile Filters filters;                 // 写入由 filterLock 保护
+    private List<Student> pendingDuringRebuild;       // guarded by filterLock，重建期间非 null
+
+    private final Counter bloomNegative;
+    private final Counter confirmedExisting;
+    private final Counter falsePositive;
+
+    public StudentDuplicateGuard(SqlSessionFactory sqlSessionFactory, StudentMapper studentMapper,
+                                 @Qualifier("batchTaskExecutor") ThreadPoolTaskExecutor batchTaskExecutor,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${student.dedup.fpp:0.001}") double fpp,
+                                 @Value("${student.dedup.min-capacity:100000}") long minCapacity,
+                                 @Value("${student.dedup.confirm-batch-size:1000}") int confirmBatchSize,
+                                 @Value("${student.dedup.build-on-startup:true}") boolean buildOnStartup) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.studentMapper = studentMapper;
+        this.batchTaskExecutor = batchTaskExecutor;
+        this.fpp = fpp;
+        this.minCapacity = minCapacity;
+        this.confirmBatchSize = confirmBatchSize;
+        this.buildOnStartup = buildOnStartup;
+        this.bloomNegative = meterRegistry.counter("student.dedup.lookups", "outcome", "bloom_negative");
+        this.confirmedExisting = meterRegistry.counter("student.dedup.lookups", "outcome", "exists");
+        this.falsePositive = meterRegistry.counter("student.dedup.lookups", "outcome", "false_positive");
+    }
+
+    // ---------- build & maintenance ----------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (buildOnStartup) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * 从数据库全量重建过滤器，容量取 max(min-capacity, 现有学生数 * 2)
+     */
+    public void rebuild() {
+        synchronized (rebuildMonitor) {
+            synchronized (filterLock) {
+                pendingDuringRebuild = new ArrayList<>();
+            }
+            long start = System.nanoTime();
+            Filters fresh = null;
+            try {
+                fresh = build();
+            } finally {
+                synchronized (filterLock) {
+                    if (fresh != null) {
+                        for (Student s : pendingDuringRebuild) {
+                            put(fresh, s);
+                        }
+                        filters = fresh;
+                    }
+                    pendingDuringRebuild = null;
+                }
+            }
+            log.info("学生查重布隆过滤器已构建，学生数: {}，容量: {}，位图 {} KB x 2，哈希函数 {} 个，耗时: {} ms",
+                    fresh.studentIds().getInsertions(), fresh.studentIds().getExpectedInsertions(),
+                    fresh.studentIds().getSizeInBytes() / 1024, fresh.studentIds().getHashCount(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private Filters build() {
+        long capacity = Math.max(minCapacity, studentMapper.selectCount(null) * 2);
+        Filters fresh = new Filters(new BloomFilter(capacity, fpp), new BloomFilter(capacity, fpp));
+        try (SqlSession session = sqlSessionFactory.openSession();
+             Cursor<Student> cursor = session.getMapper(StudentMapper.class).scanUniqueKeys()) {
+            for (Student s : cursor) {
+                put(fresh, s);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("关闭学生游标失败", e);
+        }
+        return fresh;
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) return;
+        try {
+            batchTaskExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("学生查重布隆过滤器构建失败，查重暂时全部走数据库确认: {}", e.getMessage());
+                } finally {
+                    rebuildScheduled.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rebuildScheduled.set(false);
+            log.warn("学生查重布隆过滤器重建任务被拒绝: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 学生写入数据库成功后调用，把学号、身份证号加入过滤器
+     */
+    public void record(Student student) {
+        Filters current;
+        synchronized (filterLock) {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(student);
+            }
+            current = filters;
+            if (current != null) {
+                put(current, student);
+            }
+        }
+        if (current != null && current.studentIds().getInsertions() > current.studentIds().getExpectedInsertions()) {
+            scheduleRebuild();
+        }
+    }
+
+    private static void put(Filters f, Student s) {
+        f.studentIds().put(normalize(s.getStudentId()));
+        f.idCards().put(normalizeIdCard(s.getIdCard()));
+    }
+
+    // ---------- checks ----------
+
+    /**
+     * 单个学生的冲突，无冲突时为空列表
+     */
+    public List<Conflict> check(Student student) {
+        return check(List.of(student), Integer.MAX_VALUE).conflicts();
+    }
+
+    /**
+     * 新增学生前调用，学号或身份证号已存在时抛出 409
+     */
+    public void requireUnique(Student student) {
+        for (Conflict c : check(student)) {
+            if (c.type() == ConflictType.EXISTS) {
+                throw new BusinessException(409, (FIELD_STUDENT_ID.equals(c.field()) ? "学号已存在: " : "身份证号已存在: ") + c.value());
+            }
+        }
+    }
+
+    /**
+     * 批量查重：报告每行缺失、文件内重复及与数据库已有学生冲突的学号 / 身份证号，最多返回 maxConflicts 条
+     */
+    public CheckResult check(List<Student> rows, int maxConflicts) {
+        return check(rows, i -> i + 1, maxConflicts);
+    }
+
+    /**
+     * 批量查重 CSV 文件，冲突按文件中的物理行号报告
+     */
+    public CheckResult check(CsvRows csv, int maxConflicts) {
+        return check(csv.rows(), i -> csv.lineNumbers().get(i), maxConflicts);
+    }
+
+    private CheckResult check(List<Student> rows, IntUnaryOperator rowNumber, int maxConflicts) {
+        long start = System.nanoTime();
+        Filters f = filters;
+        List<Conflict> conflicts = new ArrayList<>();
+        Stats stats = new Stats();
+        Function<Student, String> studentIdKey = s -> normalize(s.getStudentId());
+        Function<Student, String> idCardKey = s -> normalizeIdCard(s.getIdCard());
+        Map<String, Integer> studentIds = scan(rows, rowNumber, FIELD_STUDENT_ID, studentIdKey,
+                f == null ? null : f.studentIds(), conflicts, stats);
+        Map<String, Integer> idCards = scan(rows, rowNumber, FIELD_ID_CARD, idCardKey,
+                f == null ? null : f.idCards(), conflicts, stats);
+        confirm(studentIds, FIELD_STUDENT_ID, Student::getStudentId, studentIdKey, f != null, conflicts, stats);
+        confirm(idCards, FIELD_ID_CARD, Student::getIdCard, idCardKey, f != null, conflicts, stats);
+
+        conflicts.sort(Comparator.comparingInt(Conflict::row));
+        Set<Integer> conflictRows = new HashSet<>();
+        conflicts.forEach(c -> conflictRows.add(c.row()));
+        boolean truncated = conflicts.size() > maxConflicts;
+        return new CheckResult(rows.size(), conflictRows.size(),
+                truncated ? List.copyOf(conflicts.subList(0, maxConflicts)) : conflicts, truncated,
+                stats.bloomNegatives, stats.dbChecked, stats.falsePositives, f != null,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static final class Stats {
+        private int bloomNegatives;
+        private int dbChecked;
+        private int falsePositives;
+    }
+
+    /**
+     * 检查一列：缺失与文件内重复直接记为冲突；返回过滤器判定可能存在、需要数据库确认的值 -> 行号
+     */
+    private Map<String, Integer> scan(List<Student> rows, IntUnaryOperator rowNumber, String field,
+                                      Function<Student, String> key, BloomFilter filter,
+                                      List<Conflict> conflicts, Stats stats) {
+        Map<String, Integer> firstRows = new HashMap<>(rows.size() * 2);
+        Map<String, Integer> toConfirm = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            int row = rowNumber.applyAsInt(i);
+            String value = key.apply(rows.get(i));
+            if (value == null) {
+                conflicts.add(new Conflict(row, field, null, ConflictType.MISSING, null));
+                continue;
+            }
+            Integer first = firstRows.putIfAbsent(value, row);
+            if (first != null) {
+                conflicts.add(new Conflict(row, field, value, ConflictType.DUPLICATE_IN_FILE, first));
+            } else if (filter == null || filter.mightContain(value)) {
+                toConfirm.put(value, row);
+            } else {
+                stats.bloomNegatives++;
+                bloomNegative.increment();
+            }
+        }
+        return toConfirm;
+    }
+
+    /**
+     * 按批 IN 查询确认可能存在的值
+     */
+    private void confirm(Map<String, Integer> toConfirm, String field, SFunction<Student, String> column,
+                         Function<Student, String> key, boolean filterReady, List<Conflict> conflicts, Stats stats) {
+        if (toConfirm.isEmpty()) return;
+        List<String> values = new ArrayList<>(toConfirm.keySet());
+        Set<String> existing = new LinkedHashSet<>();
+        for (int from = 0; from < values.size(); from += confirmBatchSize) {
+            List<String> chunk = values.subList(from, Math.min(values.size(), from + confirmBatchSize));
+            studentMapper.selectList(new LambdaQueryWrapper<Student>().select(column).in(column, chunk))
+                    .forEach(s -> existing.add(key.apply(s)));
+        }
+        stats.dbChecked += values.size();
+        for (String value : values) {
+            if (existing.contains(value)) {
+                conflicts.add(new Conflict(toConfirm.get(value), field, value, ConflictType.EXISTS, null));
+                confirmedExisting.increment();
+            } else if (filterReady) {
+                stats.falsePositives++;
+                falsePositive.increment();
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) return null;
+        String v = value.trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    /**
+     * 身份证号末位校验码 x 统一为大写（与 MySQL 默认排序规则下的比较一致）
+     */
+    private static String normalizeIdCard(String value) {
+        String v = normalize(value);
+        return v == null ? null : v.toUpperCase(Locale.ROOT);
+    }
+
+    // ---------- import file ----------
+
+    /**
+     * 读取 CSV 导入文件（UTF-8，首行为表头）. 表头需包含学号列（student_id / studentId / 学号）
+     * 与身份证号列（id_card / idCard / 身份证号），其余列忽略. 字段中不应含逗号.
+     * 空行跳过但计入行号，冲突按编辑器中看到的行号报告
+     */
+    public static CsvRows readCsv(InputStream in, int maxRows) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new BusinessException(400, "文件为空");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        String[] columns = header.split(",", -1);
+        int studentIdColumn = -1;
+        int idCardColumn = -1;
+        for (int i = 0; i < columns.length; i++) {
+            String name = unquote(columns[i]).replace("_", "").toLowerCase(Locale.ROOT);
+            if (name.equals("studentid") || name.equals("学号")) studentIdColumn = i;
+            if (name.equals("idcard") || name.equals("身份证号")) idCardColumn = i;
+        }
+        if (studentIdColumn < 0 || idCardColumn < 0) {
+            throw new BusinessException(400, "表头缺少学号或身份证号列");
+        }
+        List<Student> rows = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        int lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+            if (rows.size() >= maxRows) {
+                throw new BusinessException(400, "文件超过 " + maxRows + " 行");
+            }
+            String[] cells = line.split(",", -1);
+            Student s = new Student();
+            s.setStudentId(studentIdColumn < cells.length ? unquote(cells[studentIdColumn]) : null);
+            s.setIdCard(idCardColumn < cells.length ? unquote(cells[idCardColumn]) : null);
+            rows.add(s);
+            lineNumbers.add(lineNumber);
+        }
+        return new CsvRows(rows, lineNumbers);
+    }
+
+    private static String unquote(String cell) {
+        String v = cell.trim();
+        return v.length() >= 2 && v.startsWith("\"") && v.endsWith("\"") ? v.substring(1, v.length() - 1).trim() : v;
+    }
+}
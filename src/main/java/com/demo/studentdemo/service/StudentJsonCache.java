@@ -0,0 +1,134 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.config.DataSourceRouting;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 学生详情的预序列化 JSON 缓存.
+ * 按主键缓存已编码好的 UTF-8 JSON 字节及其 ETag（主键 + updated_at），命中时直接写出字节，不再经过 Jackson.
+ *
+ * 失效：本进程内的更新 / 删除通过 StudentChangedEvent 立即失效；其他实例或直接改库造成的变化由 TTL 兜底.
+ * 加载与失效并发时，以全局失效序号判断：加载期间发生过任何失效，则本次结果只返回不入缓存，避免旧数据回填.
+ * 加载固定走主库：失效事件在写入提交后发布，此时从库可能尚未追上，从从库加载会把旧行写回缓存并一直留到 TTL 到期.
+ */
+@Service
+public class StudentJsonCache {
+
+    /**
+     * 一条已编码的学生 JSON
+     */
+    public record Entry(byte[] json, String etag, long loadedAtNanos) {
+    }
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final IStudentService studentService;
+    private final ObjectMapper objectMapper;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public StudentJsonCache(IStudentService studentService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${student.json-cache.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${student.json-cache.max-entries:50000}") int maxEntries) {
+        this.studentService = studentService;
+        this.objectMapper = objectMapper;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.hits = meterRegistry.counter("student.json-cache", "outcome", "hit");
+        this.misses = meterRegistry.counter("student.json-cache", "outcome", "miss");
+    }
+
+    /**
+     * @return 学生不存在时为 null
+     */
+    public Entry get(Long id) {
+        Entry entry = entries.get(id);
+        if (entry != null && System.nanoTime() - entry.loadedAtNanos() < ttlNanos) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        long sequence = invalidations.get();
+        Student student = DataSourceRouting.primary(() -> studentService.getById(id));
+        if (student == null) {
+            entries.remove(id);
+            return null;
+        }
+        byte[] json = encode(student);
+        Entry loaded = new Entry(json, etag(student, json), System.nanoTime());
+        if (invalidations.get() == sequence) {
+            if (entries.size() >= maxEntries) {
+                evictSome();
+            }
+            entries.put(id, loaded);
+        }
+        return loaded;
+    }
+
+    @EventListener
+    public void onStudentChanged(StudentChangedEvent event) {
+        invalidations.incrementAndGet();
+        entries.remove(event.id());
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private byte[] encode(Student student) {
+        try {
+            return objectMapper.writeValueAsBytes(student);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("学生信息序列化失败: " + student.getId(), e);
+        }
+    }
+
+    /**
+     * 主键 + updated_at 版本，再附上内容校验和：updated_at 只精确到秒，同一秒内的两次修改也能区分
+     */
+    private static String etag(Student student, byte[] json) {
+        long version = student.getUpdatedAt() == null ? 0L
+                : student.getUpdatedAt().toInstant(ZoneOffset.ofHours(8)).toEpochMilli();
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        return "\"" + student.getId() + "-" + version + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    /**
+     * 超出容量时先丢弃过期条目，仍不足则随遍历顺序丢弃约十分之一
+     */
+    private void evictSome() {
+        long now = System.nanoTime();
+        entries.values().removeIf(e -> now - e.loadedAtNanos() >= ttlNanos);
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<Long> it = entries.keySet().iterator();
+        while (toRemove-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -1,11 +1,26 @@
 package com.demo.studentdemo.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.demo.studentdemo.config.DataSourceRouting;
 import com.demo.studentdemo.entity.Course;
+import com.demo.studentdemo.event.CourseCatalogChangedEvent;
+import com.demo.studentdemo.exception.BusinessException;
 import com.demo.studentdemo.mapper.CourseMapper;
+import com.demo.studentdemo.service.CourseCatalog;
 import com.demo.studentdemo.service.ICourseService;
+import com.demo.studentdemo.util.SingleFlight;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * <p>
  * 课程信息 服务实现类
@@ -14,7 +29,124 @@ import org.springframework.stereotype.Service;
  * @author admin
  * @since 2025-08-03
  */
+@Slf4j
 @Service
 public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> implements ICourseService {
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<CourseCatalog> catalog = new AtomicReference<>();
+    private final Object reloadMonitor = new Object();
+
+    /**
+     * 合并并发的目录加载：首次访问时的并发读者、同时发现指纹变化的定时检查只触发一次全表加载
+     */
+    private final SingleFlight<String, CourseCatalog> reloadFlight;
+
+    public CourseServiceImpl(MeterRegistry meterRegistry) {
+        this.reloadFlight = new SingleFlight<>("course.catalog.reload", meterRegistry, 0, 1);
+    }
+
+    @Override
+    public CourseCatalog catalog() {
+        CourseCatalog current = catalog.get();
+        return current != null ? current : loadCatalog();
+    }
+
+    /**
+     * 课程增删改之后调用：先使进行中的加载失效，保证返回的快照在本次写入之后读取
+     */
+    @Override
+    public CourseCatalog reloadCatalog() {
+        reloadFlight.invalidateAll();
+        return loadCatalog();
+    }
+
+    /**
+     * 快照与指纹都从主库读取：写入后立即重载不能取到从库的旧数据，
+     * 定时检查若读从库，复制延迟期间的旧指纹会与主库指纹不一致，导致按从库旧数据再次重载
+     */
+    private CourseCatalog loadCatalog() {
+        return reloadFlight.execute("catalog", () -> DataSourceRouting.primary(this::doReloadCatalog));
+    }
+
+    private CourseCatalog doReloadCatalog() {
+        CourseCatalog previous;
+        CourseCatalog next;
+        synchronized (reloadMonitor) {
+            String fingerprint = fingerprint();
+            previous = catalog.get();
+            long version = previous == null ? 1L : previous.getVersion() + 1;
+            next = new CourseCatalog(version, fingerprint, list());
+            catalog.set(next);
+            log.info("课程目录已加载，版本: {}，课程数: {}", version, next.size());
+        }
+        // 在锁外发布：监听方（如检索索引）按版本号判断新旧，并发重载时事件乱序不影响结果
+        eventPublisher.publishEvent(new CourseCatalogChangedEvent(previous, next));
+        return next;
+    }
+
+    /**
+     * 定时检查课程表是否变化（行数 + 最后更新时间，精确到毫秒），有变化才重新加载；尚未加载过时不做任何事
+     */
+    @Scheduled(initialDelayString = "${course.catalog.refresh-interval-ms:60000}",
+            fixedDelayString = "${course.catalog.refresh-interval-ms:60000}")
+    public void refreshIfChanged() {
+        CourseCatalog current = catalog.get();
+        if (current == null) return;
+        try {
+            if (!DataSourceRouting.primary(this::fingerprint).equals(current.getFingerprint())) {
+                loadCatalog();
+            }
+        } catch (RuntimeException e) {
+            log.warn("课程目录刷新检查失败，继续使用版本 {}: {}", current.getVersion(), e.getMessage());
+        }
+    }
+
+    private String fingerprint() {
+        Map<String, Object> row = getMap(new QueryWrapper<Course>().select("COUNT(*) AS cnt", "MAX(updated_at) AS last_updated"));
+        return row == null ? "0" : row.get("cnt") + "@" + row.get("last_updated");
+    }
+
+    @Override
+    public Course addCourse(Course course) {
+        if (catalog().byCode(course.getCourseCode()).isPresent()) {
+            throw new BusinessException(409, "课程代码已存在: " + course.getCourseCode());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        course.setId(null);
+        course.setCreatedAt(now);
+        course.setUpdatedAt(now);
+        course.setCreatedBy("admin"); // 实际应用中应该从登录用户获取
+        course.setUpdatedBy("admin");
+        save(course);
+        reloadCatalog();
+        return course;
+    }
+
+    @Override
+    public Course updateCourse(Long id, Course course) {
+        return DataSourceRouting.primary(() -> {
+            Course existing = getById(id);
+            if (existing == null) {
+                throw new BusinessException(404, "课程不存在: " + id);
+            }
+            course.setId(id);
+            course.setUpdatedAt(LocalDateTime.now());
+            course.setUpdatedBy("admin");
+            course.setCreatedAt(existing.getCreatedAt());
+            course.setCreatedBy(existing.getCreatedBy());
+            updateById(course);
+            return reloadCatalog().byId(id).orElse(course);
+        });
+    }
+
+    @Override
+    public void removeCourse(Long id) {
+        if (!removeById(id)) {
+            throw new BusinessException(404, "课程不存在: " + id);
+        }
+        reloadCatalog();
+    }
 }
@@ -0,0 +1,140 @@
+package com.demo.studentdemo.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.demo.studentdemo.config.DataSourceRouting;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.GradeMapper;
+import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.service.GradeArchiveService;
+import com.demo.studentdemo.service.ICourseService;
+import com.demo.studentdemo.service.IGradeService;
+import com.demo.studentdemo.service.ShardedGradeStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * <p>
+ * 成绩记录 服务实现类
+ * </p>
+ *
+ * @author admin
+ */
+@Service
+public class GradeServiceImpl extends ServiceImpl<GradeMapper, Grade> implements IGradeService {
+
+    private static final BigDecimal MAX_SCORE = BigDecimal.valueOf(100);
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    @Autowired
+    private ICourseService courseService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private GradeArchiveService gradeArchiveService;
+
+    /**
+     * 启用成绩分片时存在，此时成绩读写改走分片库
+     */
+    @Autowired(required = false)
+    private ShardedGradeStore shardedGradeStore;
+
+    @Override
+    public Grade getById(Serializable id) {
+        return shardedGradeStore != null ? shardedGradeStore.findById((Long) id) : super.getById(id);
+    }
+
+    @Override
+    public Grade addGrade(Grade grade) {
+        checkScore(grade.getScore());
+        if (grade.getSemester() == null || grade.getSemester().isBlank()) {
+            throw new BusinessException(400, "学期不能为空");
+        }
+        if (gradeArchiveService.isArchived(grade.getSemester())) {
+            throw new BusinessException(409, "学期已归档，不能再录入成绩: " + grade.getSemester());
+        }
+        if (!studentMapper.exists(new LambdaQueryWrapper<Student>().eq(Student::getStudentId, grade.getStudentId()))) {
+            throw new BusinessException(404, "学生不存在: " + grade.getStudentId());
+        }
+        if (grade.getCourseId() == null || courseService.catalog().byId(grade.getCourseId()).isEmpty()) {
+            throw new BusinessException(404, "课程不存在: " + grade.getCourseId());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        grade.setId(null);
+        grade.setCreatedAt(now);
+        grade.setUpdatedAt(now);
+        grade.setCreatedBy("admin"); // 实际应用中应该从登录用户获取
+        grade.setUpdatedBy("admin");
+        if (shardedGradeStore != null) {
+            shardedGradeStore.insert(grade);
+        } else {
+            save(grade);
+        }
+        eventPublisher.publishEvent(new GradeChangedEvent(null, grade));
+        return grade;
+    }
+
+    /**
+     * 修改前后的读取都走主库：事件中的 before / after 会被成绩列存、排名、院系看板增量应用，不能取到从库的旧数据
+     */
+    @Override
+    public Grade updateScore(Long id, BigDecimal score) {
+        checkScore(score);
+        return DataSourceRouting.primary(() -> {
+            Grade before = existing(id);
+            // 显式 set，允许把分数清空为 null（updateById 会忽略 null 字段）
+            if (shardedGradeStore != null) {
+                shardedGradeStore.updateScore(before, score, "admin");
+            } else {
+                update(new LambdaUpdateWrapper<Grade>()
+                        .eq(Grade::getId, id)
+                        .set(Grade::getScore, score)
+                        .set(Grade::getUpdatedAt, LocalDateTime.now())
+                        .set(Grade::getUpdatedBy, "admin"));
+            }
+            Grade after = getById(id);
+            eventPublisher.publishEvent(new GradeChangedEvent(before, after));
+            return after;
+        });
+    }
+
+    @Override
+    public void removeGrade(Long id) {
+        DataSourceRouting.primary(() -> {
+            Grade before = existing(id);
+            if (shardedGradeStore != null) {
+                shardedGradeStore.delete(before);
+            } else {
+                removeById(id);
+            }
+            eventPublisher.publishEvent(new GradeChangedEvent(before, null));
+        });
+    }
+
+    private Grade existing(Long id) {
+        Grade grade = getById(id);
+        if (grade == null) {
+            throw new BusinessException(404, "成绩记录不存在: " + id);
+        }
+        return grade;
+    }
+
+    private static void checkScore(BigDecimal score) {
+        if (score != null && (score.signum() < 0 || score.compareTo(MAX_SCORE) > 0 || score.scale() > 1)) {
+            throw new BusinessException(400, "成绩须在0-100之间，最多一位小数");
+        }
+    }
+}
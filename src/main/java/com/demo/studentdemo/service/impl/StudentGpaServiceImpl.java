@@ -0,0 +1,274 @@
+package com.demo.studentdemo.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.demo.studentdemo.config.BatchJobControl;
+import com.demo.studentdemo.config.BatchingResultSink;
+import com.demo.studentdemo.config.StreamBatchProcessor;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.StudentGpa;
+import com.demo.studentdemo.mapper.GradeArchiveMapper;
+import com.demo.studentdemo.mapper.GradeMapper;
+import com.demo.studentdemo.mapper.StudentGpaMapper;
+import com.demo.studentdemo.service.ICourseService;
+import com.demo.studentdemo.service.IStudentGpaService;
+import com.demo.studentdemo.service.ShardedGradeStore;
+import com.demo.studentdemo.util.SortedMerge;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * 学生学期绩点 服务实现类
+ * </p>
+ *
+ * @author admin
+ */
+@Slf4j
+@Service
+public class StudentGpaServiceImpl extends ServiceImpl<StudentGpaMapper, StudentGpa> implements IStudentGpaService {
+
+    private static final int WORKER_THREADS = 4;
+    private static final int UPSERT_STUDENTS_PER_BATCH = 100;
+    private static final Comparator<Grade> STUDENT_SEMESTER = Comparator.comparing(Grade::getStudentId)
+            .thenComparing(Grade::getSemester);
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private ICourseService courseService;
+
+    /**
+     * 启用成绩分片时存在，此时在线成绩改读各分片
+     */
+    @Autowired(required = false)
+    private ShardedGradeStore shardedGradeStore;
+
+    /**
+     * 同一学生的全部成绩（按学期有序），作为一个处理分区
+     */
+    private record StudentGrades(String studentId, List<Grade> grades) {
+    }
+
+    /**
+     * 单遍流式重算：
+     *   1. 课程学分取自内存中的课程目录快照
+     *   2. t_grade 与 t_grade_archive 各开一个服务端游标，按 idx_student_semester 索引顺序读出（不排序），
+     *      两路按 student_id, semester 归并后相邻同学号的行聚成一个分区，内存中同时只保留队列容量个学生的成绩.
+     *      在线表游标先打开：归档在两次打开之间提交的行只会被读到两次而不会漏读，分区内按成绩 id 去重.
+     *      启用成绩分片时改为各分片在线表与归档表多路归并（见 ShardedGradeStore.streamOrderByStudent），再平衡中的重复行同样去重
+     *   3. 各分区在 StreamBatchProcessor 上并行计算，同一学生只会落在一个分区，互不冲突
+     *   4. 结果经 BatchingResultSink 攒批后以 INSERT ... ON DUPLICATE KEY UPDATE 写回
+     * 刷写失败的学生计入作业失败数（作业以 PARTIAL 结束）；没有任何学生写回成功时作业失败.
+     */
+    @Override
+    public void recompute(BatchJobControl control) throws InterruptedException {
+        Map<Long, Integer> credits = courseService.catalog().credits();
+        log.info("绩点重算开始，课程数: {}", credits.size());
+
+        AtomicLong skippedGrades = new AtomicLong();
+        AtomicLong upserted = new AtomicLong();
+        AtomicLong flushFailedStudents = new AtomicLong();
+        LocalDateTime now = LocalDateTime.now();
+
+        BatchingResultSink<List<StudentGpa>> sink = BatchingResultSink.<List<StudentGpa>>builder()
+                .name("gpa-recompute")
+                .maxBatchSize(UPSERT_STUDENTS_PER_BATCH)
+                .linger(Duration.ofMillis(500))
+                .flusher(batch -> {
+                    List<StudentGpa> rows = batch.stream().flatMap(List::stream).toList();
+                    if (!rows.isEmpty()) {
+                        baseMapper.upsertBatch(rows);
+                        upserted.addAndGet(rows.size());
+                    }
+                })
+                .onFlushError((batch, ex) -> {
+                    flushFailedStudents.addAndGet(batch.size());
+                    log.error("绩点写回失败，涉及学生 {} 名", batch.size(), ex);
+                })
+                .build();
+
+        StreamBatchProcessor gpaProcessor = StreamBatchProcessor.builder()
+                .workerThreads(WORKER_THREADS)
+                .queueCapacity(256)
+                .build();
+
+        try (Stream<Grade> rows = shardedGradeStore != null ? shardedGradeStore.streamOrderByStudent() : scanOrderByStudent();
+             sink) {
+            Iterator<StudentGrades> partitions = groupByStudent(rows.iterator());
+            gpaProcessor.processAndWait(() -> partitions,
+                    p -> computeGpa(p, credits, now, skippedGrades),
+                    sink,
+                    (p, ex) -> log.error("学生 [{}] 绩点计算失败", p == null ? null : p.studentId(), ex),
+                    control);
+        } finally {
+            gpaProcessor.shutdown();
+        }
+        long flushFailed = flushFailedStudents.get();
+        if (control != null) {
+            control.reclassifyAsFailed(flushFailed);
+        }
+        log.info("绩点重算结束，学生数: {}，写回失败学生: {}，写入学期绩点: {} 条，跳过成绩（无分数或课程不存在）: {} 条，刷写统计: {}",
+                gpaProcessor.getConsumed(), flushFailed, upserted.get(), skippedGrades.get(), sink.getStats());
+        if (flushFailed > 0 && flushFailed >= gpaProcessor.getConsumed()) {
+            throw new IllegalStateException("绩点写回全部失败，共 " + flushFailed + " 名学生");
+        }
+    }
+
+    @Override
+    public List<StudentGpa> listByStudentId(String studentId) {
+        return list(new LambdaQueryWrapper<StudentGpa>()
+                .eq(StudentGpa::getStudentId, studentId)
+                .orderByAsc(StudentGpa::getSemester));
+    }
+
+    /**
+     * 主库在线表与归档表两路游标按学号、学期归并. 流式结果集独占连接，两路游标各用一个 SqlSession，关闭返回的流时一并关闭
+     */
+    private Stream<Grade> scanOrderByStudent() {
+        List<Closeable> opened = new ArrayList<>();
+        try {
+            SqlSession hotSession = sqlSessionFactory.openSession();
+            opened.add(hotSession);
+            SqlSession archiveSession = sqlSessionFactory.openSession();
+            opened.add(archiveSession);
+            Cursor<Grade> hot = hotSession.getMapper(GradeMapper.class).scanOrderByStudent();
+            opened.add(0, hot);
+            Cursor<Grade> archived = archiveSession.getMapper(GradeArchiveMapper.class).scanOrderByStudent();
+            opened.add(0, archived);
+            Iterator<Grade> merged = SortedMerge.merge(List.of(hot.iterator(), archived.iterator()), STUDENT_SEMESTER);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                    .onClose(() -> closeAll(opened));
+        } catch (RuntimeException e) {
+            closeAll(opened);
+            throw e;
+        }
+    }
+
+    /**
+     * 先关游标再关会话；某个关闭失败时其余仍会关闭
+     */
+    private static void closeAll(List<Closeable> resources) {
+        IllegalStateException failure = null;
+        for (Closeable resource : resources) {
+            try {
+                resource.close();
+            } catch (IOException | RuntimeException e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("关闭成绩游标失败", e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * 把按学号有序的成绩流切分为每个学生一个分区，只向前看一行；同一分区内重复的成绩 id 只保留一行
+     */
+    private static Iterator<StudentGrades> groupByStudent(Iterator<Grade> rows) {
+        return new Iterator<>() {
+            private Grade lookahead = rows.hasNext() ? rows.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return lookahead != null;
+            }
+
+            @Override
+            public StudentGrades next() {
+                if (lookahead == null) throw new NoSuchElementException();
+                String studentId = lookahead.getStudentId();
+                List<Grade> grades = new ArrayList<>();
+                Set<Long> ids = new HashSet<>();
+                do {
+                    if (lookahead.getId() == null || ids.add(lookahead.getId())) grades.add(lookahead);
+                    lookahead = rows.hasNext() ? rows.next() : null;
+                } while (lookahead != null && studentId.equals(lookahead.getStudentId()));
+                return new StudentGrades(studentId, grades);
+            }
+        };
+    }
+
+    /**
+     * 计算一个学生各学期的学分加权绩点，成绩已按学期有序
+     */
+    private static List<StudentGpa> computeGpa(StudentGrades partition, Map<Long, Integer> credits,
+                                               LocalDateTime now, AtomicLong skippedGrades) {
+        List<StudentGpa> result = new ArrayList<>();
+        String semester = null;
+        long weightedPoints = 0;
+        int totalCredits = 0;
+        int courseCount = 0;
+        for (Grade g : partition.grades()) {
+            if (!g.getSemester().equals(semester)) {
+                addSemester(result, partition.studentId(), semester, weightedPoints, totalCredits, courseCount, now);
+                semester = g.getSemester();
+                weightedPoints = 0;
+                totalCredits = 0;
+                courseCount = 0;
+            }
+            Integer credit = credits.get(g.getCourseId());
+            if (g.getScore() == null || credit == null) {
+                skippedGrades.incrementAndGet();
+                continue;
+            }
+            weightedPoints += (long) gradePoint(g.getScore()) * credit;
+            totalCredits += credit;
+            courseCount++;
+        }
+        addSemester(result, partition.studentId(), semester, weightedPoints, totalCredits, courseCount, now);
+        return result;
+    }
+
+    private static void addSemester(List<StudentGpa> result, String studentId, String semester,
+                                    long weightedPoints, int totalCredits, int courseCount, LocalDateTime now) {
+        if (semester == null || totalCredits == 0) return;
+        StudentGpa gpa = new StudentGpa();
+        gpa.setStudentId(studentId);
+        gpa.setSemester(semester);
+        gpa.setGpa(BigDecimal.valueOf(weightedPoints).divide(BigDecimal.valueOf(totalCredits), 2, RoundingMode.HALF_UP));
+        gpa.setTotalCredits(totalCredits);
+        gpa.setCourseCount(courseCount);
+        gpa.setUpdatedAt(now);
+        result.add(gpa);
+    }
+
+    /**
+     * 与 queryAllGrade 的等级划分一致：A=4, B=3, C=2, D=1, F=0
+     */
+    private static int gradePoint(BigDecimal score) {
+        int s = score.intValue();
+        if (s >= 90) return 4;
+        if (s >= 80) return 3;
+        if (s >= 70) return 2;
+        if (s >= 60) return 1;
+        return 0;
+    }
+}
@@ -1,16 +1,33 @@
 package com.demo.studentdemo.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.demo.studentdemo.config.DataSourceRouting;
 import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.CourseCatalogChangedEvent;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.event.StudentChangedEvent;
 import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.service.GradeArchiveService;
 import com.demo.studentdemo.service.IStudentService;
+import com.demo.studentdemo.service.ShardedGradeStore;
+import com.demo.studentdemo.service.StudentDuplicateGuard;
+import com.demo.studentdemo.util.SingleFlight;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.demo.studentdemo.vo.PageQueryParam;
 import com.demo.studentdemo.vo.StudentGradeVO;
 import com.demo.studentdemo.vo.StudentQueryReq;
+import com.demo.studentdemo.vo.StudentRowSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,11 +41,137 @@ import java.util.List;
 @Service
 public class StudentServiceImpl extends ServiceImpl<StudentMapper, Student> implements IStudentService {
 
+    /**
+     * 启用成绩分片时存在，此时成绩查询改为跨分片 scatter-gather
+     */
+    @Autowired(required = false)
+    private ShardedGradeStore shardedGradeStore;
+
+    @Autowired
+    private GradeArchiveService gradeArchiveService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StudentDuplicateGuard studentDuplicateGuard;
+
+    /**
+     * 成绩查询的合并键：页码、页大小及归一化后的查询条件（空串视同未传）
+     */
+    private record GradeQueryKey(int pageNum, int pageSize, String studentId, String courseName, String semester,
+                                 String semesterFrom, String semesterTo, String studentIdFrom, String studentIdTo) {
+
+        static GradeQueryKey of(PageQueryParam<StudentQueryReq> param) {
+            StudentQueryReq req = param.getCondition() == null ? new StudentQueryReq() : param.getCondition();
+            return new GradeQueryKey(param.getPageNum(), param.getPageSize(),
+                    normalize(req.getStudentId()), normalize(req.getCourseName()), normalize(req.getSemester()),
+                    normalize(req.getSemesterFrom()), normalize(req.getSemesterTo()),
+                    normalize(req.getStudentIdFrom()), normalize(req.getStudentIdTo()));
+        }
+
+        private static String normalize(String s) {
+            return s == null || s.isEmpty() ? null : s;
+        }
+    }
+
+    /**
+     * 成绩放榜时大量相同条件的并发查询只执行一次联表 + count，结果在极短窗口内复用
+     */
+    private final SingleFlight<GradeQueryKey, IPage<StudentGradeVO>> gradeQueryFlight;
+
+    public StudentServiceImpl(MeterRegistry meterRegistry,
+                              @Value("${grade.query.micro-cache-ms:1000}") long microCacheMillis,
+                              @Value("${grade.query.micro-cache-entries:1000}") int microCacheEntries) {
+        this.gradeQueryFlight = new SingleFlight<>("grade.query.singleflight", meterRegistry, microCacheMillis, microCacheEntries);
+    }
+
+    @Override
+    public boolean save(Student entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            studentDuplicateGuard.record(entity);
+            eventPublisher.publishEvent(new StudentChangedEvent(entity.getId(), null, entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean saveBatch(Collection<Student> entityList, int batchSize) {
+        boolean saved = super.saveBatch(entityList, batchSize);
+        if (saved) {
+            for (Student entity : entityList) {
+                studentDuplicateGuard.record(entity);
+                eventPublisher.publishEvent(new StudentChangedEvent(entity.getId(), null, entity));
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * 修改前后的读取都走主库，避免事件带出从库上的旧记录（JSON 缓存、院系看板据此更新）
+     */
+    @Override
+    public boolean updateById(Student entity) {
+        return DataSourceRouting.primary(() -> {
+            Student before = getById(entity.getId());
+            boolean updated = super.updateById(entity);
+            if (updated) {
+                // 学号 / 身份证号可能被修改，新值加入查重过滤器
+                studentDuplicateGuard.record(entity);
+                // updateById 忽略 null 字段，事件中带回数据库中的完整记录
+                eventPublisher.publishEvent(new StudentChangedEvent(entity.getId(), before, getById(entity.getId())));
+            }
+            return updated;
+        });
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        return DataSourceRouting.primary(() -> {
+            Student before = getById(id);
+            boolean removed = super.removeById(id);
+            if (removed) {
+                eventPublisher.publishEvent(new StudentChangedEvent((Long) id, before, null));
+            }
+            return removed;
+        });
+    }
 
     @Override
     public IPage<StudentGradeVO> queryAllGrade(PageQueryParam<StudentQueryReq> studentQueryReq) {
+        return gradeQueryFlight.execute(GradeQueryKey.of(studentQueryReq), () -> doQueryAllGrade(studentQueryReq));
+    }
+
+    @Override
+    public StudentRowSet listRowSet(Wrapper<Student> queryWrapper) {
+        StudentRowSet.Builder builder = StudentRowSet.builder();
+        this.baseMapper.selectList(queryWrapper, context -> builder.add(context.getResultObject()));
+        return builder.build();
+    }
+
+    @Override
+    public StudentRowSet pageRowSet(IPage<Student> page, Wrapper<Student> queryWrapper) {
+        StudentRowSet.Builder builder = StudentRowSet.builder((int) Math.min(page.getSize(), 1024));
+        this.baseMapper.selectList(page, queryWrapper, context -> builder.add(context.getResultObject()));
+        return builder.build();
+    }
+
+    /**
+     * 成绩、学生（姓名 / 院系）或课程目录（课程名 / 学分）变更后丢弃微缓存，已在执行中的查询不受影响
+     */
+    @EventListener({GradeChangedEvent.class, StudentChangedEvent.class, CourseCatalogChangedEvent.class})
+    public void onGradeQueryDataChanged() {
+        gradeQueryFlight.invalidateAll();
+    }
+
+    private IPage<StudentGradeVO> doQueryAllGrade(PageQueryParam<StudentQueryReq> studentQueryReq) {
+        if (shardedGradeStore != null) {
+            return shardedGradeStore.queryAllGrade(studentQueryReq);
+        }
         Page<StudentGradeVO> page = new Page<>(studentQueryReq.getPageNum(), studentQueryReq.getPageSize());
-        Page<StudentGradeVO> students = this.baseMapper.queryAllGrade(page, studentQueryReq.getCondition());
+        Page<StudentGradeVO> students = this.baseMapper.queryAllGrade(page, studentQueryReq.getCondition(),
+                gradeArchiveService.route(studentQueryReq.getCondition()));
         return students;
     }
 }
@@ -0,0 +1,136 @@
+package com.demo.studentdemo.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * BloomFilter - 字符串键的位压缩布隆过滤器
+ *
+ *   - mightContain 为 false：一定没有加入过，可以跳过数据库确认
+ *   - mightContain 为 true：可能加入过，误判率约为 fpp（按 expectedInsertions 计算位数与哈希函数个数）
+ *
+ * 位图为 long[]，每个元素 64 位；k 个位置由两个 64 位哈希双重散列得到（h1 + i * h2）.
+ * 置位用 CAS 完成，put 与 mightContain 可并发调用，无需加锁. 不支持删除，超出预期容量后误判率上升，应重建.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * @param expectedInsertions 预期元素个数
+     * @param fpp                目标误判率，(0, 1)
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp 应在 (0, 1) 之间: " + fpp);
+        }
+        this.expectedInsertions = Math.max(1L, expectedInsertions);
+        long m = (long) Math.ceil(-this.expectedInsertions * Math.log(fpp) / (LN2 * LN2));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1L, (m + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / this.expectedInsertions * LN2));
+    }
+
+    /**
+     * 加入一个键，null 忽略
+     */
+    public void put(String key) {
+        if (key == null) return;
+        long h = hash64(key);
+        long h1 = mix64(h);
+        long h2 = mix64(h ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, bitSize);
+            setBit((int) (index >>> 6), 1L << index);
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * 是否可能包含该键；null 返回 false
+     */
+    public boolean mightContain(String key) {
+        if (key == null) return false;
+        long h = hash64(key);
+        long h1 = mix64(h);
+        long h2 = mix64(h ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBit(int word, long mask) {
+        long current = bits.get(word);
+        while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+            current = bits.get(word);
+        }
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * put 调用次数（重复键也计数）
+     */
+    public long getInsertions() {
+        return insertions.get();
+    }
+
+    /**
+     * 按当前插入次数估算的误判率 (1 - e^(-kn/m))^k
+     */
+    public double getExpectedFpp() {
+        return Math.pow(1 - Math.exp(-hashCount * (double) insertions.get() / bitSize), hashCount);
+    }
+
+    /**
+     * 位图占用字节数
+     */
+    public long getSizeInBytes() {
+        return bitSize >>> 3;
+    }
+
+    /**
+     * FNV-1a 64 位，逐 char 计算（学号、身份证号均为 ASCII，无需先编码为字节）
+     */
+    private static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * MurmurHash3 fmix64，打散 FNV 低位相关性
+     */
+    private static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,73 @@
+package com.demo.studentdemo.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV 输出，UTF-8 并带 BOM，便于 Excel 直接打开中文内容.
+ * 以 = + - @ 或制表符、回车开头的文本单元格会被 Excel 当作公式求值（CSV 注入），写出时前置单引号使其按文本显示；
+ * 数值单元格原样写出.
+ * close 时只 flush，不关闭底层输出流.
+ */
+public class CsvWriter implements TabularWriter {
+
+    private final Writer writer;
+    private long rowCount;
+
+    public CsvWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF');
+    }
+
+    @Override
+    public void writeRow(List<?> cells) throws IOException {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) writer.write(',');
+            Object cell = cells.get(i);
+            if (cell instanceof Number) {
+                writer.write(cell.toString());
+            } else if (cell != null) {
+                writeField(cell.toString());
+            }
+        }
+        writer.write("\r\n");
+        rowCount++;
+    }
+
+    private void writeField(String value) throws IOException {
+        if (!value.isEmpty() && isFormulaTrigger(value.charAt(0))) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean isFormulaTrigger(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+}
@@ -0,0 +1,170 @@
+package com.demo.studentdemo.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 顺序统计树（按子树大小增强的 Treap）.
+ * 插入、删除、按名次取元素、求元素名次均为期望 O(log n)，用于增量维护的排行榜.
+ * 元素按 comparator 去重，比较结果为 0 的元素视为同一个.
+ *
+ * 非线程安全，由调用方加锁.
+ */
+public class OrderStatisticTree<E> {
+
+    private static final class Node<E> {
+        private final E key;
+        private final int priority;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private final Random random = new Random();
+    private Node<E> root;
+
+    public OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean contains(E key) {
+        Node<E> n = root;
+        while (n != null) {
+            int c = comparator.compare(key, n.key);
+            if (c == 0) return true;
+            n = c < 0 ? n.left : n.right;
+        }
+        return false;
+    }
+
+    /**
+     * @return false 表示元素已存在
+     */
+    public boolean add(E key) {
+        if (contains(key)) return false;
+        Node<E>[] parts = split(root, key, false);
+        root = merge(merge(parts[0], new Node<>(key, random.nextInt())), parts[1]);
+        return true;
+    }
+
+    /**
+     * @return false 表示元素不存在
+     */
+    public boolean remove(E key) {
+        Node<E>[] lower = split(root, key, false);   // (< key, >= key)
+        Node<E>[] upper = split(lower[1], key, true); // (== key, > key)
+        root = merge(lower[0], upper[1]);
+        return upper[0] != null;
+    }
+
+    /**
+     * 严格排在 probe 之前的元素个数（probe 不必在树中）
+     */
+    public int countBefore(E probe) {
+        int count = 0;
+        Node<E> n = root;
+        while (n != null) {
+            if (comparator.compare(probe, n.key) <= 0) {
+                n = n.left;
+            } else {
+                count += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 第 index 个元素（0 起）
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        Node<E> n = root;
+        while (true) {
+            int leftSize = size(n.left);
+            if (index < leftSize) {
+                n = n.left;
+            } else if (index == leftSize) {
+                return n.key;
+            } else {
+                index -= leftSize + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    /**
+     * 前 limit 个元素，按顺序
+     */
+    public List<E> head(int limit) {
+        List<E> result = new ArrayList<>(Math.min(limit, size()));
+        collect(root, limit, result);
+        return result;
+    }
+
+    private void collect(Node<E> n, int limit, List<E> out) {
+        if (n == null || out.size() >= limit) return;
+        collect(n.left, limit, out);
+        if (out.size() < limit) out.add(n.key);
+        collect(n.right, limit, out);
+    }
+
+    // ---------- treap internals ----------
+    private static int size(Node<?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static void update(Node<?> n) {
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    /**
+     * inclusive=false: (< key, >= key)；inclusive=true: (<= key, > key)
+     */
+    @SuppressWarnings("unchecked")
+    private Node<E>[] split(Node<E> n, E key, boolean inclusive) {
+        if (n == null) return new Node[]{null, null};
+        int c = comparator.compare(n.key, key);
+        if (c < 0 || (inclusive && c == 0)) {
+            Node<E>[] parts = split(n.right, key, inclusive);
+            n.right = parts[0];
+            update(n);
+            parts[0] = n;
+            return parts;
+        } else {
+            Node<E>[] parts = split(n.left, key, inclusive);
+            n.left = parts[1];
+            update(n);
+            parts[1] = n;
+            return parts;
+        }
+    }
+
+    private Node<E> merge(Node<E> a, Node<E> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.demo.studentdemo.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight - 相同 key 的并发调用合并为一次执行，外加极短的结果缓存
+ *
+ *   - 同一 key 的第一个调用者（leader）在自己的线程中执行，其余并发调用者等待并共享同一结果或异常
+ *   - 执行成功后结果在 microCacheNanos 窗口内直接返回；窗口为 0 时只做合并不缓存
+ *   - 缓存条目数超过 maxCachedEntries 时先清理过期条目，仍超出则本次结果不入缓存
+ *   - invalidateAll() 递增失效序号：调用时已在执行的 leader 结果只返回给已合并的调用者，不入缓存；
+ *     失效之后到达的调用者不再合并到这些旧的执行上，而是发起新的执行
+ *   - 等待 leader 的调用者被中断时恢复中断标记并立即抛出异常，不再继续等待
+ *
+ * 共享的结果对象会同时交给多个调用者，调用方不得修改.
+ * 指标：Counter "{metricName}"，标签 outcome = executed / coalesced / cached.
+ */
+public class SingleFlight<K, V> {
+
+    private record Cached<V>(V value, long expiresAtNanos, long sequence) {
+    }
+
+    /**
+     * 一次执行及其开始时的失效序号
+     */
+    private record Flight<V>(CompletableFuture<V> future, long sequence) {
+    }
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Cached<V>> cache = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final long microCacheNanos;
+    private final int maxCachedEntries;
+
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter cached;
+
+    public SingleFlight(String metricName, MeterRegistry meterRegistry, long microCacheMillis, int maxCachedEntries) {
+        this.microCacheNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, microCacheMillis));
+        this.maxCachedEntries = maxCachedEntries;
+        this.executed = meterRegistry.counter(metricName, "outcome", "executed");
+        this.coalesced = meterRegistry.counter(metricName, "outcome", "coalesced");
+        this.cached = meterRegistry.counter(metricName, "outcome", "cached");
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        long sequence = invalidations.get();
+        if (microCacheNanos > 0) {
+            Cached<V> hit = cache.get(key);
+            if (hit != null && hit.sequence() == sequence && hit.expiresAtNanos() - System.nanoTime() > 0) {
+                cached.increment();
+                return hit.value();
+            }
+        }
+        Flight<V> mine = new Flight<>(new CompletableFuture<>(), sequence);
+        // 只合并到失效之后开始的执行；更早的执行被本次执行顶替，其 leader 结束时不会移除本次登记
+        Flight<V> leader = inFlight.compute(key,
+                (k, current) -> current != null && current.sequence() >= sequence ? current : mine);
+        if (leader != mine) {
+            coalesced.increment();
+            return await(leader.future());
+        }
+        executed.increment();
+        try {
+            V value = loader.get();
+            if (microCacheNanos > 0 && invalidations.get() == sequence) {
+                remember(key, value, sequence);
+            }
+            mine.future().complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.future().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 清空缓存（数据变更时调用）. 正在执行的调用照常返回给已合并的调用者，但其结果不入缓存
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.clear();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private void remember(K key, V value, long sequence) {
+        long now = System.nanoTime();
+        if (cache.size() >= maxCachedEntries) {
+            cache.values().removeIf(c -> c.expiresAtNanos() - now <= 0);
+            if (cache.size() >= maxCachedEntries) return;
+        }
+        cache.put(key, new Cached<>(value, now + microCacheNanos, sequence));
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待合并执行的结果时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.demo.studentdemo.util;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * 多路有序流的 k 路归并.
+ *
+ * 每一路已按 order 有序（如各表按索引顺序读出的服务端游标），归并结果整体有序；
+ * 每一路只向前看一行，内存占用与路数成正比，与总行数无关. 顺序相等时按来源顺序输出.
+ */
+public final class SortedMerge {
+
+    private SortedMerge() {
+    }
+
+    public static <T> Iterator<T> merge(List<? extends Iterator<? extends T>> sources, Comparator<? super T> order) {
+        record Head<T>(T value, int source) {
+        }
+        Comparator<Head<T>> byValue = Comparator.comparing(Head::value, order);
+        PriorityQueue<Head<T>> heap = new PriorityQueue<>(Math.max(1, sources.size()),
+                byValue.thenComparingInt(Head::source));
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i).hasNext()) heap.add(new Head<>(sources.get(i).next(), i));
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                Head<T> head = heap.poll();
+                if (head == null) throw new NoSuchElementException();
+                Iterator<? extends T> source = sources.get(head.source());
+                if (source.hasNext()) heap.add(new Head<>(source.next(), head.source()));
+                return head.value();
+            }
+        };
+    }
+}
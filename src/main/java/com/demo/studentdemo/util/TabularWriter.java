@@ -0,0 +1,20 @@
+package com.demo.studentdemo.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 逐行写出的表格输出（CSV / XLSX），实现类只缓冲当前行，内存占用与总行数无关.
+ * 单元格为 Number 时按数值写出，null 写为空单元格，其余按 toString 写为文本.
+ * close 结束文件并 flush，但不关闭底层输出流.
+ */
+public interface TabularWriter extends Closeable {
+
+    void writeRow(List<?> cells) throws IOException;
+
+    /**
+     * 已写出的行数（含表头）
+     */
+    long getRowCount();
+}
@@ -4,11 +4,15 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 import lombok.Getter;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 
 @Data
 public class ApiResponse<T> {
+    private static final ZoneOffset CHINA = ZoneOffset.ofHours(8); // 中国时区
+    private static final Clock CHINA_CLOCK = Clock.system(CHINA);  // 复用时钟，构造时不再创建 Clock / 查找偏移量
+
     private int code;              // 状态码
     private String message;        // 消息
     private T data;                // 数据
@@ -41,7 +45,7 @@ public class ApiResponse<T> {
         this.code = code;
         this.message = message;
         this.data = data;
-        this.timestamp = LocalDateTime.now(ZoneOffset.ofHours(8)); // 中国时区
+        this.timestamp = LocalDateTime.now(CHINA_CLOCK);
     }
 
     // Getters
@@ -52,6 +56,6 @@ public class ApiResponse<T> {
 
     // 设置时间戳格式（备选方案）
     public long getTimestampMillis() {
-        return timestamp.atZone(ZoneOffset.ofHours(8)).toInstant().toEpochMilli();
+        return timestamp.toInstant(CHINA).toEpochMilli();
     }
 }
@@ -0,0 +1,30 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.AuthTokenService;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Data
+public class AuthUserVO {
+    @Schema(description = "用户ID", example = "1")
+    private Long userId;
+    @Schema(description = "学号", example = "202103210001")
+    private String studentId;
+    @Schema(description = "登录账号", example = "zhangsan")
+    private String username;
+    @Schema(description = "令牌过期时间")
+    private LocalDateTime expiresAt;
+
+    public static AuthUserVO of(AuthTokenService.Claims claims) {
+        AuthUserVO vo = new AuthUserVO();
+        vo.setUserId(claims.userId());
+        vo.setStudentId(claims.studentId());
+        vo.setUsername(claims.username());
+        vo.setExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(claims.expiresAtEpochSecond()), ZoneOffset.ofHours(8)));
+        return vo;
+    }
+}
@@ -0,0 +1,57 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.config.BatchJobControl;
+import com.demo.studentdemo.config.BatchJobRegistry;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BatchJobVO {
+    @Schema(description = "作业ID", example = "job-1")
+    private String id;
+    @Schema(description = "作业名称", example = "demo-example")
+    private String name;
+    @Schema(description = "状态", example = "RUNNING")
+    private String state;
+    @Schema(description = "当前工作线程数（BatchTaskProcessor 为并发数）")
+    private Integer workerThreads;
+    @Schema(description = "已入队/已提交条数")
+    private Long produced;
+    @Schema(description = "处理成功条数")
+    private Long consumed;
+    @Schema(description = "处理失败条数")
+    private Long failed;
+    @Schema(description = "平均吞吐（条/秒）")
+    private Double averageThroughput;
+    @Schema(description = "最近吞吐（条/秒）")
+    private Double recentThroughput;
+    @Schema(description = "已运行时长(ms)")
+    private Long elapsedMillis;
+    @Schema(description = "提交时间")
+    private LocalDateTime submittedAt;
+    @Schema(description = "结束时间")
+    private LocalDateTime finishedAt;
+    @Schema(description = "失败原因")
+    private String error;
+
+    public static BatchJobVO of(BatchJobRegistry.BatchJob job) {
+        BatchJobControl control = job.getControl();
+        BatchJobVO vo = new BatchJobVO();
+        vo.setId(job.getId());
+        vo.setName(job.getName());
+        vo.setState(job.getState().name());
+        vo.setWorkerThreads(control.getWorkerThreads());
+        vo.setProduced(control.getProduced());
+        vo.setConsumed(control.getConsumed());
+        vo.setFailed(control.getFailed());
+        vo.setAverageThroughput(control.getAverageThroughput());
+        vo.setRecentThroughput(control.getRecentThroughput());
+        vo.setElapsedMillis(control.getElapsedMillis());
+        vo.setSubmittedAt(job.getSubmittedAt());
+        vo.setFinishedAt(job.getFinishedAt());
+        vo.setError(job.getError());
+        return vo;
+    }
+}
@@ -0,0 +1,38 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.config.Bulkhead;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class BulkheadStatusVO {
+    @Schema(description = "舱壁名称", example = "batch-task")
+    private String name;
+    @Schema(description = "线程数", example = "8")
+    private Integer maxThreads;
+    @Schema(description = "活跃线程数")
+    private Integer active;
+    @Schema(description = "排队任务数")
+    private Integer queued;
+    @Schema(description = "队列容量", example = "1000")
+    private Integer queueCapacity;
+    @Schema(description = "拒绝策略", example = "ABORT")
+    private String rejectionPolicy;
+    @Schema(description = "累计拒绝次数")
+    private Long rejected;
+    @Schema(description = "饱和度：(活跃 + 排队) / (线程数 + 队列容量)", example = "0.25")
+    private Double saturation;
+
+    public static BulkheadStatusVO of(Bulkhead bulkhead) {
+        BulkheadStatusVO vo = new BulkheadStatusVO();
+        vo.setName(bulkhead.getName());
+        vo.setMaxThreads(bulkhead.getMaxThreads());
+        vo.setActive(bulkhead.getActive());
+        vo.setQueued(bulkhead.getQueued());
+        vo.setQueueCapacity(bulkhead.getQueueCapacity());
+        vo.setRejectionPolicy(bulkhead.getRejectionPolicy().name());
+        vo.setRejected(bulkhead.getRejected());
+        vo.setSaturation(bulkhead.getSaturation());
+        return vo;
+    }
+}
@@ -0,0 +1,32 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.CourseCatalog;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class CourseCatalogVO {
+    @Schema(description = "目录版本，每次重新加载加一")
+    private Long version;
+    @Schema(description = "加载时间")
+    private LocalDateTime loadedAt;
+    @Schema(description = "课程数")
+    private Integer courses;
+    @Schema(description = "开课院系")
+    private List<String> depts;
+    @Schema(description = "课程类型")
+    private List<String> types;
+
+    public static CourseCatalogVO of(CourseCatalog catalog) {
+        CourseCatalogVO vo = new CourseCatalogVO();
+        vo.setVersion(catalog.getVersion());
+        vo.setLoadedAt(catalog.getLoadedAt());
+        vo.setCourses(catalog.size());
+        vo.setDepts(catalog.depts());
+        vo.setTypes(catalog.types());
+        return vo;
+    }
+}
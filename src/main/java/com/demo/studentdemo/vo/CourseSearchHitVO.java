@@ -0,0 +1,35 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.entity.Course;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class CourseSearchHitVO {
+    @Schema(description = "课程ID", example = "1")
+    private Long courseId;
+    @Schema(description = "课程代码", example = "CS0001")
+    private String courseCode;
+    @Schema(description = "课程名称", example = "计算机网络")
+    private String courseName;
+    @Schema(description = "开课院系名称", example = "计算机学院")
+    private String deptName;
+    @Schema(description = "课程类型", example = "必修")
+    private String courseType;
+    @Schema(description = "学分", example = "3")
+    private Integer credit;
+    @Schema(description = "BM25 相关度得分", example = "7.42")
+    private Double score;
+
+    public static CourseSearchHitVO of(Course course, double score) {
+        CourseSearchHitVO vo = new CourseSearchHitVO();
+        vo.setCourseId(course.getId());
+        vo.setCourseCode(course.getCourseCode());
+        vo.setCourseName(course.getCourseName());
+        vo.setDeptName(course.getDeptName());
+        vo.setCourseType(course.getCourseType());
+        vo.setCredit(course.getCredit() == null ? null : course.getCredit().intValue());
+        vo.setScore(score);
+        return vo;
+    }
+}
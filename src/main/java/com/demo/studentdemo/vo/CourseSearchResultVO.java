@@ -0,0 +1,30 @@
+package com.demo.studentdemo.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CourseSearchResultVO {
+    @Schema(description = "查询词", example = "网络协议")
+    private String query;
+    @Schema(description = "至少命中一个词项的课程总数")
+    private Integer total;
+    @Schema(description = "按相关度排序的前 limit 条结果")
+    private List<CourseSearchHitVO> hits;
+    @Schema(description = "检索耗时(微秒)")
+    private Long tookMicros;
+    @Schema(description = "索引对应的课程目录版本")
+    private Long catalogVersion;
+
+    public static CourseSearchResultVO of(String query, int total, List<CourseSearchHitVO> hits, long tookMicros, long catalogVersion) {
+        CourseSearchResultVO vo = new CourseSearchResultVO();
+        vo.setQuery(query);
+        vo.setTotal(total);
+        vo.setHits(hits);
+        vo.setTookMicros(tookMicros);
+        vo.setCatalogVersion(catalogVersion);
+        return vo;
+    }
+}
@@ -0,0 +1,29 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.DeptDashboardService;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class CourseTypeStatsVO {
+    @Schema(description = "课程类型（合计时为空）", example = "必修")
+    private String courseType;
+    @Schema(description = "已录入成绩条数")
+    private Long graded;
+    @Schema(description = "平均分", example = "78.6")
+    private Double avgScore;
+    @Schema(description = "不及格(<60)条数")
+    private Long failed;
+    @Schema(description = "不及格率", example = "0.08")
+    private Double failureRate;
+
+    public static CourseTypeStatsVO of(DeptDashboardService.CourseTypeStats stats) {
+        CourseTypeStatsVO vo = new CourseTypeStatsVO();
+        vo.setCourseType(stats.courseType());
+        vo.setGraded(stats.graded());
+        vo.setAvgScore(stats.avgScore());
+        vo.setFailed(stats.failed());
+        vo.setFailureRate(stats.failureRate());
+        return vo;
+    }
+}
@@ -0,0 +1,78 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.config.ReadWriteRoutingDataSource;
+import com.demo.studentdemo.config.ReadWriteRoutingInterceptor;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@Data
+public class DataSourceTargetVO {
+    @Schema(description = "目标名", example = "replica-0")
+    private String name;
+    @Schema(description = "JDBC URL")
+    private String jdbcUrl;
+    @Schema(description = "是否健康（主库恒为 true）")
+    private Boolean healthy;
+    @Schema(description = "复制延迟(s)")
+    private Long lagSeconds;
+    @Schema(description = "最近一次健康检查错误")
+    private String lastError;
+    @Schema(description = "最近一次健康检查时间")
+    private LocalDateTime lastCheckedAt;
+    @Schema(description = "路由到该目标的取连接次数")
+    private Long routed;
+    @Schema(description = "取连接失败次数")
+    private Long failures;
+    @Schema(description = "活跃连接数")
+    private Integer activeConnections;
+    @Schema(description = "空闲连接数")
+    private Integer idleConnections;
+    @Schema(description = "总连接数")
+    private Integer totalConnections;
+    @Schema(description = "等待连接的线程数")
+    private Integer threadsAwaitingConnection;
+    @Schema(description = "执行语句数")
+    private Long statements;
+    @Schema(description = "平均语句耗时(ms)")
+    private Double meanMillis;
+    @Schema(description = "最大语句耗时(ms)")
+    private Double maxMillis;
+
+    public static DataSourceTargetVO of(ReadWriteRoutingDataSource.Target target, MeterRegistry meterRegistry) {
+        DataSourceTargetVO vo = new DataSourceTargetVO();
+        vo.setName(target.getName());
+        vo.setJdbcUrl(target.getJdbcUrl());
+        vo.setHealthy(target.isHealthy());
+        vo.setLagSeconds(target.getLagSeconds());
+        vo.setLastError(target.getLastError());
+        if (target.getLastCheckedAt() > 0) {
+            vo.setLastCheckedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(target.getLastCheckedAt()), ZoneId.systemDefault()));
+        }
+        vo.setRouted(target.getRouted());
+        vo.setFailures(target.getFailures());
+        HikariPoolMXBean pool = target.getPool();
+        if (pool != null) {
+            vo.setActiveConnections(pool.getActiveConnections());
+            vo.setIdleConnections(pool.getIdleConnections());
+            vo.setTotalConnections(pool.getTotalConnections());
+            vo.setThreadsAwaitingConnection(pool.getThreadsAwaitingConnection());
+        }
+        Collection<Timer> timers = meterRegistry.find(ReadWriteRoutingInterceptor.TIMER_NAME)
+                .tag("target", target.getName()).timers();
+        long count = timers.stream().mapToLong(Timer::count).sum();
+        double total = timers.stream().mapToDouble(t -> t.totalTime(TimeUnit.MILLISECONDS)).sum();
+        vo.setStatements(count);
+        vo.setMeanMillis(count == 0 ? 0D : total / count);
+        vo.setMaxMillis(timers.stream().mapToDouble(t -> t.max(TimeUnit.MILLISECONDS)).max().orElse(0D));
+        return vo;
+    }
+}
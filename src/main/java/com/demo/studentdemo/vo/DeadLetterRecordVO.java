@@ -0,0 +1,20 @@
+package com.demo.studentdemo.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class DeadLetterRecordVO {
+    @Schema(description = "失败的数据项")
+    private String item;
+    @Schema(description = "异常类型")
+    private String exceptionClass;
+    @Schema(description = "异常信息")
+    private String message;
+    @Schema(description = "已尝试次数")
+    private Integer attempts;
+    @Schema(description = "失败时间")
+    private LocalDateTime failedAt;
+}
@@ -0,0 +1,33 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.config.DeadLetterRegistry;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class DeadLetterStatusVO {
+    @Schema(description = "死信存储名称", example = "demo-task")
+    private String name;
+    @Schema(description = "fsync 策略", example = "BATCH")
+    private String fsyncPolicy;
+    @Schema(description = "累计追加条数")
+    private Long appended;
+    @Schema(description = "累计落盘条数")
+    private Long written;
+    @Schema(description = "累计落盘字节数")
+    private Long writtenBytes;
+    @Schema(description = "当前死信文件总字节数")
+    private Long storedBytes;
+    @Schema(description = "尚在内存缓冲中的条数")
+    private Integer pendingInBuffer;
+    @Schema(description = "累计回放条数")
+    private Long replayed;
+    @Schema(description = "写入失败而丢弃的条数")
+    private Long dropped;
+    @Schema(description = "回放时无法解析而移入隔离文件的记录数")
+    private Long quarantined;
+    @Schema(description = "是否正在回放")
+    private Boolean replaying;
+    @Schema(description = "最近一次回放结果")
+    private DeadLetterRegistry.ReplayReport lastReplay;
+}
@@ -0,0 +1,36 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.DeptDashboardService;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class DeptDashboardVO {
+    @Schema(description = "院系名称")
+    private String deptName;
+    @Schema(description = "学生人数")
+    private Long students;
+    @Schema(description = "各入学年份学生人数，按年份升序", example = "{\"2022\": 312, \"2023\": 298}")
+    private Map<Integer, Long> studentsByYear;
+    @Schema(description = "全部课程合计")
+    private CourseTypeStatsVO overall;
+    @Schema(description = "按课程类型统计")
+    private List<CourseTypeStatsVO> byCourseType;
+    @Schema(description = "该院系聚合最后更新时间")
+    private LocalDateTime updatedAt;
+
+    public static DeptDashboardVO of(DeptDashboardService.DeptDashboard dashboard) {
+        DeptDashboardVO vo = new DeptDashboardVO();
+        vo.setDeptName(dashboard.deptName());
+        vo.setStudents(dashboard.students());
+        vo.setStudentsByYear(dashboard.studentsByYear());
+        vo.setOverall(CourseTypeStatsVO.of(dashboard.overall()));
+        vo.setByCourseType(dashboard.byCourseType().stream().map(CourseTypeStatsVO::of).toList());
+        vo.setUpdatedAt(dashboard.updatedAt());
+        return vo;
+    }
+}
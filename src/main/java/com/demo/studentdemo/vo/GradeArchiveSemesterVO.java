@@ -0,0 +1,18 @@
+package com.demo.studentdemo.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class GradeArchiveSemesterVO {
+    @Schema(description = "已归档学期", example = "2022F")
+    private String semester;
+    @Schema(description = "归档行数")
+    private Long rowCount;
+    @Schema(description = "最近一次归档时间")
+    private LocalDateTime archivedAt;
+    @Schema(description = "ARCHIVING 归档中 / DONE 已完成")
+    private String status;
+}
@@ -0,0 +1,51 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.GradeColumnStore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class GradeDistributionVO {
+    @Schema(description = "分组值（分组统计时为课程ID/院系/学期）", example = "2023S")
+    private String group;
+    @Schema(description = "有成绩的条数")
+    private Long count;
+    @Schema(description = "未录入成绩的条数")
+    private Long nullCount;
+    @Schema(description = "平均分")
+    private Double mean;
+    @Schema(description = "最低分")
+    private Double min;
+    @Schema(description = "最高分")
+    private Double max;
+    @Schema(description = "及格率(>=60)", example = "0.92")
+    private Double passRate;
+    @Schema(description = "百分位，键为百分位数", example = "{\"50\": 78.5, \"90\": 92.0}")
+    private Map<String, Double> percentiles;
+    @Schema(description = "等宽分数段人数，从 0 分开始")
+    private List<Long> histogram;
+
+    public static GradeDistributionVO of(String group, GradeColumnStore.ScoreDistribution d,
+                                         double[] percentiles, int bucketWidth) {
+        GradeDistributionVO vo = new GradeDistributionVO();
+        vo.setGroup(group);
+        vo.setCount(d.getCount());
+        vo.setNullCount(d.getNullCount());
+        vo.setMean(d.getMean());
+        vo.setMin(d.getMin());
+        vo.setMax(d.getMax());
+        vo.setPassRate(d.getPassRate());
+        Map<String, Double> p = new LinkedHashMap<>();
+        for (double pct : percentiles) {
+            p.put(pct == Math.rint(pct) ? String.valueOf((long) pct) : String.valueOf(pct), d.percentile(pct));
+        }
+        vo.setPercentiles(p);
+        vo.setHistogram(bucketWidth > 0 ? Arrays.stream(d.histogram(bucketWidth)).boxed().toList() : null);
+        return vo;
+    }
+}
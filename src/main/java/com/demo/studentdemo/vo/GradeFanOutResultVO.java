@@ -0,0 +1,34 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.GradeFanOutQueryService;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GradeFanOutResultVO {
+    @Schema(description = "拆分模式", example = "SEMESTER")
+    private String mode;
+    @Schema(description = "子查询数")
+    private Integer subQueries;
+    @Schema(description = "返回行数")
+    private Integer rows;
+    @Schema(description = "是否因超过 maxRows 被截断")
+    private Boolean truncated;
+    @Schema(description = "总耗时(ms)")
+    private Long elapsedMillis;
+    @Schema(description = "成绩记录，排序与 queryAllGrade 一致")
+    private List<StudentGradeVO> records;
+
+    public static GradeFanOutResultVO of(GradeFanOutQueryService.FanOutResult result) {
+        GradeFanOutResultVO vo = new GradeFanOutResultVO();
+        vo.setMode(result.mode().name());
+        vo.setSubQueries(result.subQueries());
+        vo.setRows(result.records().size());
+        vo.setTruncated(result.truncated());
+        vo.setElapsedMillis(result.elapsedMillis());
+        vo.setRecords(result.records());
+        return vo;
+    }
+}
@@ -0,0 +1,52 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.GradeAnalyticsService;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class GradeStoreMemoryVO {
+    @Schema(description = "有效行数")
+    private Integer rows;
+    @Schema(description = "待压缩的已删除行数")
+    private Integer deletedRows;
+    @Schema(description = "列数组容量（行）")
+    private Integer capacity;
+    @Schema(description = "学生数")
+    private Integer students;
+    @Schema(description = "列数组占用(字节)")
+    private Long columnBytes;
+    @Schema(description = "主键索引占用(字节)")
+    private Long indexBytes;
+    @Schema(description = "字典估算占用(字节)")
+    private Long dictionaryBytes;
+    @Schema(description = "合计(字节)")
+    private Long totalBytes;
+    @Schema(description = "同样行数的 StudentGradeVO 估算占用(字节)")
+    private Long estimatedVoBytes;
+    @Schema(description = "StudentGradeVO 估算占用 / 列式快照占用")
+    private Double compressionRatio;
+    @Schema(description = "快照构建时间")
+    private LocalDateTime loadedAt;
+    @Schema(description = "快照构建耗时(ms)")
+    private Long loadMillis;
+
+    public static GradeStoreMemoryVO of(GradeAnalyticsService.MemoryReport report) {
+        GradeStoreMemoryVO vo = new GradeStoreMemoryVO();
+        vo.setRows(report.rows());
+        vo.setDeletedRows(report.deletedRows());
+        vo.setCapacity(report.capacity());
+        vo.setStudents(report.students());
+        vo.setColumnBytes(report.columnBytes());
+        vo.setIndexBytes(report.indexBytes());
+        vo.setDictionaryBytes(report.dictionaryBytes());
+        vo.setTotalBytes(report.totalBytes());
+        vo.setEstimatedVoBytes(report.estimatedVoBytes());
+        vo.setCompressionRatio(report.totalBytes() == 0 ? 0D : (double) report.estimatedVoBytes() / report.totalBytes());
+        vo.setLoadedAt(report.loadedAt());
+        vo.setLoadMillis(report.loadMillis());
+        return vo;
+    }
+}
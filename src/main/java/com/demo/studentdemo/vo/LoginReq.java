@@ -0,0 +1,12 @@
+package com.demo.studentdemo.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class LoginReq {
+    @Schema(description = "登录账号", example = "zhangsan")
+    private String username;
+    @Schema(description = "密码", example = "******")
+    private String password;
+}
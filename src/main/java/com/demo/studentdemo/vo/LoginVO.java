@@ -0,0 +1,25 @@
+package com.demo.studentdemo.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class LoginVO {
+    @Schema(description = "访问令牌，放入请求头 Authorization: Bearer {token}")
+    private String token;
+    @Schema(description = "令牌类型", example = "Bearer")
+    private String tokenType;
+    @Schema(description = "有效期(秒)", example = "900")
+    private Long expiresIn;
+    @Schema(description = "登录用户")
+    private AuthUserVO user;
+
+    public static LoginVO of(String token, long expiresIn, AuthUserVO user) {
+        LoginVO vo = new LoginVO();
+        vo.setToken(token);
+        vo.setTokenType("Bearer");
+        vo.setExpiresIn(expiresIn);
+        vo.setUser(user);
+        return vo;
+    }
+}
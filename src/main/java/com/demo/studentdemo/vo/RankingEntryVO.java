@@ -0,0 +1,29 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.GradeRankingService;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class RankingEntryVO {
+    @Schema(description = "名次（同分同名次）", example = "1")
+    private Integer rank;
+    @Schema(description = "学号", example = "202103210001")
+    private String studentId;
+    @Schema(description = "姓名")
+    private String studentName;
+    @Schema(description = "分数（院系排名为平均分）", example = "95.5")
+    private Double score;
+    @Schema(description = "百分位：低于该生的人数占比(%)", example = "98.7")
+    private Double percentile;
+
+    public static RankingEntryVO of(GradeRankingService.RankedEntry entry) {
+        RankingEntryVO vo = new RankingEntryVO();
+        vo.setRank(entry.rank());
+        vo.setStudentId(entry.studentId());
+        vo.setStudentName(entry.studentName());
+        vo.setScore(entry.score());
+        vo.setPercentile(entry.percentile());
+        return vo;
+    }
+}
@@ -0,0 +1,35 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.config.TokenBucketRateLimiter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class RateLimiterStatusVO {
+    @Schema(description = "资源名称", example = "demo-task")
+    private String name;
+    @Schema(description = "每秒令牌数，<=0 表示不限流", example = "200")
+    private Double permitsPerSecond;
+    @Schema(description = "令牌桶容量（突发上限）", example = "50")
+    private Long burst;
+    @Schema(description = "当前可用令牌数")
+    private Double availableTokens;
+    @Schema(description = "累计获取令牌次数")
+    private Long acquired;
+    @Schema(description = "累计被限流等待的次数")
+    private Long throttled;
+    @Schema(description = "累计等待时长(ms)")
+    private Long totalWaitMillis;
+
+    public static RateLimiterStatusVO of(TokenBucketRateLimiter limiter) {
+        RateLimiterStatusVO vo = new RateLimiterStatusVO();
+        vo.setName(limiter.getName());
+        vo.setPermitsPerSecond(limiter.getPermitsPerSecond());
+        vo.setBurst(limiter.getBurst());
+        vo.setAvailableTokens(limiter.getAvailableTokens());
+        vo.setAcquired(limiter.getAcquired());
+        vo.setThrottled(limiter.getThrottled());
+        vo.setTotalWaitMillis(limiter.getTotalWaitMillis());
+        return vo;
+    }
+}
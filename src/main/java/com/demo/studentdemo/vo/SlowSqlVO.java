@@ -0,0 +1,47 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.config.SqlMonitorInterceptor;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class SlowSqlVO {
+    @Schema(description = "语句ID", example = "com.demo.studentdemo.mapper.StudentMapper.queryAllGrade")
+    private String statementId;
+    @Schema(description = "语句类型", example = "SELECT")
+    private String type;
+    @Schema(description = "SQL")
+    private String sql;
+    @Schema(description = "绑定参数（按占位符顺序）")
+    private List<String> parameters;
+    @Schema(description = "耗时(ms)")
+    private Long elapsedMillis;
+    @Schema(description = "返回/影响行数，-1 表示未知")
+    private Long rows;
+    @Schema(description = "失败原因")
+    private String error;
+    @Schema(description = "EXPLAIN 执行计划（未开启采集时为空）")
+    private List<Map<String, Object>> explain;
+    @Schema(description = "执行时间")
+    private LocalDateTime executedAt;
+
+    public static SlowSqlVO of(SqlMonitorInterceptor.SlowStatement slow) {
+        SlowSqlVO vo = new SlowSqlVO();
+        vo.setStatementId(slow.statementId());
+        vo.setType(slow.type());
+        vo.setSql(slow.sql());
+        vo.setParameters(slow.parameters());
+        vo.setElapsedMillis(slow.elapsedMillis());
+        vo.setRows(slow.rows());
+        vo.setError(slow.error());
+        vo.setExplain(slow.explain());
+        vo.setExecutedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(slow.timestamp()), ZoneId.systemDefault()));
+        return vo;
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.config.SqlMonitorInterceptor;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class SqlStatementStatsVO {
+    @Schema(description = "语句ID", example = "com.demo.studentdemo.mapper.StudentMapper.queryAllGrade")
+    private String statementId;
+    @Schema(description = "语句类型", example = "SELECT")
+    private String type;
+    @Schema(description = "成功执行次数")
+    private Long count;
+    @Schema(description = "失败次数")
+    private Long errors;
+    @Schema(description = "平均耗时(ms)")
+    private Double meanMillis;
+    @Schema(description = "最大耗时(ms)")
+    private Double maxMillis;
+    @Schema(description = "P50 耗时(ms)")
+    private Double p50Millis;
+    @Schema(description = "P95 耗时(ms)")
+    private Double p95Millis;
+    @Schema(description = "P99 耗时(ms)")
+    private Double p99Millis;
+    @Schema(description = "平均返回/影响行数")
+    private Double meanRows;
+    @Schema(description = "最大返回/影响行数")
+    private Double maxRows;
+
+    public static SqlStatementStatsVO of(SqlMonitorInterceptor.StatementStats stats) {
+        SqlStatementStatsVO vo = new SqlStatementStatsVO();
+        vo.setStatementId(stats.statementId());
+        vo.setType(stats.type());
+        vo.setCount(stats.count());
+        vo.setErrors(stats.errors());
+        vo.setMeanMillis(stats.meanMillis());
+        vo.setMaxMillis(stats.maxMillis());
+        vo.setP50Millis(stats.p50Millis());
+        vo.setP95Millis(stats.p95Millis());
+        vo.setP99Millis(stats.p99Millis());
+        vo.setMeanRows(stats.meanRows());
+        vo.setMaxRows(stats.maxRows());
+        return vo;
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.StudentDuplicateGuard;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StudentImportCheckVO {
+    @Schema(description = "检查行数")
+    private Integer rows;
+    @Schema(description = "存在冲突的行数")
+    private Integer conflictRows;
+    @Schema(description = "冲突明细是否因超过 maxConflicts 被截断")
+    private Boolean truncated;
+    @Schema(description = "布隆过滤器判定不存在、未访问数据库的键数")
+    private Integer bloomNegatives;
+    @Schema(description = "经数据库确认的键数")
+    private Integer dbChecked;
+    @Schema(description = "过滤器误判（数据库确认不存在）的键数")
+    private Integer falsePositives;
+    @Schema(description = "过滤器是否已构建；未构建时全部键经数据库确认")
+    private Boolean filterReady;
+    @Schema(description = "耗时(ms)")
+    private Long elapsedMillis;
+    @Schema(description = "冲突明细，按行号升序")
+    private List<StudentImportConflictVO> conflicts;
+
+    public static StudentImportCheckVO of(StudentDuplicateGuard.CheckResult result) {
+        StudentImportCheckVO vo = new StudentImportCheckVO();
+        vo.setRows(result.rows());
+        vo.setConflictRows(result.conflictRows());
+        vo.setTruncated(result.truncated());
+        vo.setBloomNegatives(result.bloomNegatives());
+        vo.setDbChecked(result.dbChecked());
+        vo.setFalsePositives(result.falsePositives());
+        vo.setFilterReady(result.filterReady());
+        vo.setElapsedMillis(result.elapsedMillis());
+        vo.setConflicts(result.conflicts().stream().map(StudentImportConflictVO::of).toList());
+        return vo;
+    }
+}
@@ -0,0 +1,29 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.StudentDuplicateGuard;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class StudentImportConflictVO {
+    @Schema(description = "行号（从 1 开始，不含表头）", example = "12")
+    private Integer row;
+    @Schema(description = "冲突字段", example = "studentId")
+    private String field;
+    @Schema(description = "冲突的值", example = "202103210001")
+    private String value;
+    @Schema(description = "冲突类型：EXISTS 数据库已存在 / DUPLICATE_IN_FILE 文件内重复 / MISSING 缺少该字段", example = "EXISTS")
+    private String type;
+    @Schema(description = "文件内重复时该值首次出现的行号")
+    private Integer firstRow;
+
+    public static StudentImportConflictVO of(StudentDuplicateGuard.Conflict conflict) {
+        StudentImportConflictVO vo = new StudentImportConflictVO();
+        vo.setRow(conflict.row());
+        vo.setField(conflict.field());
+        vo.setValue(conflict.value());
+        vo.setType(conflict.type().name());
+        vo.setFirstRow(conflict.firstRow());
+        return vo;
+    }
+}
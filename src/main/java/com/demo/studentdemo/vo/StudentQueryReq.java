@@ -9,4 +9,14 @@ public class StudentQueryReq {
     private String studentId;
     @Schema(description = "课程名称", example = "计算机网络", required = false)
     private String courseName;
+    @Schema(description = "学期", example = "2023S", required = false)
+    private String semester;
+    @Schema(description = "学期下限（含）", example = "2022F", required = false)
+    private String semesterFrom;
+    @Schema(description = "学期上限（含）", example = "2023S", required = false)
+    private String semesterTo;
+    @Schema(description = "学号下限（含）", example = "202103210001", required = false)
+    private String studentIdFrom;
+    @Schema(description = "学号上限（不含）", example = "202103220001", required = false)
+    private String studentIdTo;
 }
@@ -0,0 +1,32 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.service.GradeRankingService;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class StudentRankVO {
+    @Schema(description = "排名范围", example = "course:12:2023S")
+    private String scope;
+    @Schema(description = "学号", example = "202103210001")
+    private String studentId;
+    @Schema(description = "名次（同分同名次）", example = "3")
+    private Integer rank;
+    @Schema(description = "参与排名总人数", example = "120")
+    private Integer total;
+    @Schema(description = "分数（院系排名为平均分）", example = "91.0")
+    private Double score;
+    @Schema(description = "百分位：低于该生的人数占比(%)", example = "98.3")
+    private Double percentile;
+
+    public static StudentRankVO of(GradeRankingService.StudentRank rank) {
+        StudentRankVO vo = new StudentRankVO();
+        vo.setScope(rank.scope());
+        vo.setStudentId(rank.studentId());
+        vo.setRank(rank.rank());
+        vo.setTotal(rank.total());
+        vo.setScore(rank.score());
+        vo.setPercentile(rank.percentile());
+        return vo;
+    }
+}
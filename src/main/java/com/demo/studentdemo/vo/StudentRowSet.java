@@ -0,0 +1,302 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.entity.Student;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * 学生列表的紧凑列式表示，用于 /student/list、/student/page 等批量结果.
+ *
+ *   - 院系、创建人、更新人等低基数列做字典编码：同一个值只保留一个 String，每行只存 int 编码
+ *   - created_at / updated_at 存为自 1970-01-01T00:00 起的微秒数（按 UTC 换算，不涉及时区），入学年份存为 epoch day
+ *   - 学号、身份证号、姓名基本各不相同，仍按 String 存放
+ * 各列为平行的基本类型数组，不再为每行保留 Student、Long、LocalDateTime、LocalDate 对象.
+ *
+ * JSON 由 Serializer 直接按列写出，结构与 List&lt;Student&gt; 完全一致（字段顺序、null 字段、日期格式均相同，日期交给 ObjectMapper 配置的序列化器）.
+ * 同时是只读的 List&lt;Student&gt;，按下标访问时临时还原 Student，其他按列表处理的转换器（如列式 JSON）无需改动.
+ */
+@JsonSerialize(using = StudentRowSet.Serializer.class)
+public final class StudentRowSet extends AbstractList<Student> implements RandomAccess {
+
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int NULL_CODE = -1;
+
+    private final int size;
+    private final long[] ids;
+    private final String[] studentIds;
+    private final String[] idCards;
+    private final String[] names;
+    private final int[] deptCodes;
+    private final int[] enrollmentDays;
+    private final long[] createdAtMicros;
+    private final long[] updatedAtMicros;
+    private final int[] createdByCodes;
+    private final int[] updatedByCodes;
+    // 院系、创建人、更新人共用一个字典
+    private final String[] dictionary;
+
+    private StudentRowSet(Builder b) {
+        this.size = b.size;
+        this.ids = Arrays.copyOf(b.ids, size);
+        this.studentIds = Arrays.copyOf(b.studentIds, size);
+        this.idCards = Arrays.copyOf(b.idCards, size);
+        this.names = Arrays.copyOf(b.names, size);
+        this.deptCodes = Arrays.copyOf(b.deptCodes, size);
+        this.enrollmentDays = Arrays.copyOf(b.enrollmentDays, size);
+        this.createdAtMicros = Arrays.copyOf(b.createdAtMicros, size);
+        this.updatedAtMicros = Arrays.copyOf(b.updatedAtMicros, size);
+        this.createdByCodes = Arrays.copyOf(b.createdByCodes, size);
+        this.updatedByCodes = Arrays.copyOf(b.updatedByCodes, size);
+        this.dictionary = b.dictionaryValues.toArray(new String[0]);
+    }
+
+    public static Builder builder() {
+        return new Builder(64);
+    }
+
+    public static Builder builder(int expectedRows) {
+        return new Builder(expectedRows);
+    }
+
+    public static StudentRowSet of(Collection<Student> students) {
+        Builder builder = new Builder(students.size());
+        students.forEach(builder::add);
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按下标临时还原一个 Student（每次调用都是新对象）
+     */
+    @Override
+    public Student get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        Student s = new Student();
+        s.setId(ids[index] == NULL_LONG ? null : ids[index]);
+        s.setStudentId(studentIds[index]);
+        s.setIdCard(idCards[index]);
+        s.setName(names[index]);
+        s.setDeptName(decode(deptCodes[index]));
+        s.setEnrollmentYear(toDate(enrollmentDays[index]));
+        s.setCreatedAt(toDateTime(createdAtMicros[index]));
+        s.setUpdatedAt(toDateTime(updatedAtMicros[index]));
+        s.setCreatedBy(decode(createdByCodes[index]));
+        s.setUpdatedBy(decode(updatedByCodes[index]));
+        return s;
+    }
+
+    /**
+     * 字典中不同取值的个数
+     */
+    public int getDictionarySize() {
+        return dictionary.length;
+    }
+
+    private String decode(int code) {
+        return code == NULL_CODE ? null : dictionary[code];
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NULL_INT ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static LocalDateTime toDateTime(long micros) {
+        if (micros == NULL_LONG) return null;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    /**
+     * MySQL TIMESTAMP / DATETIME 最多精确到微秒，按微秒存放不丢精度
+     */
+    private static long toMicros(LocalDateTime t) {
+        return t == null ? NULL_LONG : t.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + t.getNano() / 1000;
+    }
+
+    /**
+     * 逐行追加，数组按需倍增，build 时截断到实际行数
+     */
+    public static final class Builder {
+        private int size;
+        private long[] ids;
+        private String[] studentIds;
+        private String[] idCards;
+        private String[] names;
+        private int[] deptCodes;
+        private int[] enrollmentDays;
+        private long[] createdAtMicros;
+        private long[] updatedAtMicros;
+        private int[] createdByCodes;
+        private int[] updatedByCodes;
+        private final Map<String, Integer> dictionaryCodes = new HashMap<>();
+        private final List<String> dictionaryValues = new ArrayList<>();
+
+        private Builder(int expectedRows) {
+            int cap = Math.max(16, expectedRows);
+            ids = new long[cap];
+            studentIds = new String[cap];
+            idCards = new String[cap];
+            names = new String[cap];
+            deptCodes = new int[cap];
+            enrollmentDays = new int[cap];
+            createdAtMicros = new long[cap];
+            updatedAtMicros = new long[cap];
+            createdByCodes = new int[cap];
+            updatedByCodes = new int[cap];
+        }
+
+        public Builder add(Student s) {
+            if (size == ids.length) grow();
+            ids[size] = s.getId() == null ? NULL_LONG : s.getId();
+            studentIds[size] = s.getStudentId();
+            idCards[size] = s.getIdCard();
+            names[size] = s.getName();
+            deptCodes[size] = encode(s.getDeptName());
+            enrollmentDays[size] = s.getEnrollmentYear() == null ? NULL_INT : (int) s.getEnrollmentYear().toEpochDay();
+            createdAtMicros[size] = toMicros(s.getCreatedAt());
+            updatedAtMicros[size] = toMicros(s.getUpdatedAt());
+            createdByCodes[size] = encode(s.getCreatedBy());
+            updatedByCodes[size] = encode(s.getUpdatedBy());
+            size++;
+            return this;
+        }
+
+        public StudentRowSet build() {
+            return new StudentRowSet(this);
+        }
+
+        private int encode(String value) {
+            if (value == null) return NULL_CODE;
+            Integer code = dictionaryCodes.get(value);
+            if (code == null) {
+                code = dictionaryValues.size();
+                dictionaryCodes.put(value, code);
+                dictionaryValues.add(value);
+            }
+            return code;
+        }
+
+        private void grow() {
+            int cap = ids.length * 2;
+            ids = Arrays.copyOf(ids, cap);
+            studentIds = Arrays.copyOf(studentIds, cap);
+            idCards = Arrays.copyOf(idCards, cap);
+            names = Arrays.copyOf(names, cap);
+            deptCodes = Arrays.copyOf(deptCodes, cap);
+            enrollmentDays = Arrays.copyOf(enrollmentDays, cap);
+            createdAtMicros = Arrays.copyOf(createdAtMicros, cap);
+            updatedAtMicros = Arrays.copyOf(updatedAtMicros, cap);
+            createdByCodes = Arrays.copyOf(createdByCodes, cap);
+            updatedByCodes = Arrays.copyOf(updatedByCodes, cap);
+        }
+    }
+
+    /**
+     * 按列直接写出 JSON 数组，字段名与顺序同 Student 的 Jackson 输出
+     */
+    public static final class Serializer extends StdSerializer<StudentRowSet> {
+
+        private static final SerializableString ID = new SerializedString("id");
+        private static final SerializableString STUDENT_ID = new SerializedString("studentId");
+        private static final SerializableString ID_CARD = new SerializedString("idCard");
+        private static final SerializableString NAME = new SerializedString("name");
+        private static final SerializableString DEPT_NAME = new SerializedString("deptName");
+        private static final SerializableString ENROLLMENT_YEAR = new SerializedString("enrollmentYear");
+        private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+        private static final SerializableString UPDATED_AT = new SerializedString("updatedAt");
+        private static final SerializableString CREATED_BY = new SerializedString("createdBy");
+        private static final SerializableString UPDATED_BY = new SerializedString("updatedBy");
+
+        public Serializer() {
+            super(StudentRowSet.class);
+        }
+
+        @Override
+        public void serialize(StudentRowSet rows, JsonGenerator g, SerializerProvider provider) throws IOException {
+            JsonSerializer<Object> dateSerializer = provider.findValueSerializer(LocalDate.class);
+            JsonSerializer<Object> dateTimeSerializer = provider.findValueSerializer(LocalDateTime.class);
+            // 字典值每次序列化只转义、编码一次
+            SerializableString[] dictionary = new SerializableString[rows.dictionary.length];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = new SerializedString(rows.dictionary[i]);
+            }
+            g.writeStartArray(rows, rows.size);
+            for (int i = 0; i < rows.size; i++) {
+                g.writeStartObject();
+                g.writeFieldName(ID);
+                if (rows.ids[i] == NULL_LONG) {
+                    g.writeNull();
+                } else {
+                    g.writeNumber(rows.ids[i]);
+                }
+                writeString(g, STUDENT_ID, rows.studentIds[i]);
+                writeString(g, ID_CARD, rows.idCards[i]);
+                writeString(g, NAME, rows.names[i]);
+                writeCode(g, DEPT_NAME, dictionary, rows.deptCodes[i]);
+                g.writeFieldName(ENROLLMENT_YEAR);
+                writeValue(g, provider, dateSerializer, toDate(rows.enrollmentDays[i]));
+                g.writeFieldName(CREATED_AT);
+                writeValue(g, provider, dateTimeSerializer, toDateTime(rows.createdAtMicros[i]));
+                g.writeFieldName(UPDATED_AT);
+                writeValue(g, provider, dateTimeSerializer, toDateTime(rows.updatedAtMicros[i]));
+                writeCode(g, CREATED_BY, dictionary, rows.createdByCodes[i]);
+                writeCode(g, UPDATED_BY, dictionary, rows.updatedByCodes[i]);
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+        }
+
+        private static void writeString(JsonGenerator g, SerializableString field, String value) throws IOException {
+            g.writeFieldName(field);
+            if (value == null) {
+                g.writeNull();
+            } else {
+                g.writeString(value);
+            }
+        }
+
+        private static void writeCode(JsonGenerator g, SerializableString field, SerializableString[] dictionary,
+                                      int code) throws IOException {
+            g.writeFieldName(field);
+            if (code == NULL_CODE) {
+                g.writeNull();
+            } else {
+                g.writeString(dictionary[code]);
+            }
+        }
+
+        private static void writeValue(JsonGenerator g, SerializerProvider provider, JsonSerializer<Object> serializer,
+                                       Object value) throws IOException {
+            if (value == null) {
+                g.writeNull();
+            } else {
+                serializer.serialize(value, g, provider);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+-- 成绩分片库建表：每个分片库（grade.sharding.shards 中的每个 URL）各执行一次
+-- 主键由应用生成（雪花 ID / 迁移时沿用原 id），不使用自增，保证跨分片唯一
+create table t_grade
+(
+    id         bigint                              not null comment '成绩ID（全局唯一）'
+        primary key,
+    student_id char(12)                            not null comment '学号（分片键）',
+    course_id  bigint                              not null comment '课程表主键',
+    semester   char(5)                             not null comment '学期(如2023S)',
+    score      decimal(4, 1) unsigned              null comment '百分制成绩',
+    created_at timestamp default CURRENT_TIMESTAMP null comment '创建时间',
+    updated_at timestamp default CURRENT_TIMESTAMP null on update CURRENT_TIMESTAMP comment '最后更新时间',
+    created_by varchar(36)                         not null comment '创建人',
+    updated_by varchar(36)                         not null comment '最后更新人'
+)
+    comment '成绩记录（分片）';
+
+create index idx_student_semester
+    on t_grade (student_id, semester);
+
+-- 跨分片分页查询按 semester DESC, student_id 排序
+create index idx_semester_student
+    on t_grade (semester, student_id);
+
+-- 主库学号镜像：跨分片查询与之内连接，排除学生已删除的成绩（与主库 queryAllGrade 的内连接一致）
+-- 应用启动时与主库 t_student 对齐，之后随学生增删同步
+create table t_student_key
+(
+    student_id char(12) not null comment '学号'
+        primary key
+)
+    comment '学号镜像（分片）';
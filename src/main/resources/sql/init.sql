@@ -9,7 +9,7 @@ create table t_course
     dept_name   varchar(30)                         not null comment '开课院系名称',
     course_desc text                                null comment '课程描述',
     created_at  timestamp default CURRENT_TIMESTAMP null comment '创建时间',
-    updated_at  timestamp default CURRENT_TIMESTAMP null on update CURRENT_TIMESTAMP comment '最后更新时间',
+    updated_at  timestamp(3) default CURRENT_TIMESTAMP(3) null on update CURRENT_TIMESTAMP(3) comment '最后更新时间(毫秒)',
     created_by  varchar(36)                         not null comment '创建人',
     updated_by  varchar(36)                         not null comment '最后更新人',
     constraint course_code
@@ -41,6 +41,37 @@ create index idx_course_semester
 create index idx_student_semester
     on t_grade (student_id, semester);
 
+create table t_grade_archive
+(
+    id         bigint                              not null comment '原成绩记录ID'
+        primary key,
+    student_id char(12)                            not null comment '学号',
+    course_id  bigint                              not null comment '课程表主键',
+    semester   char(5)                             not null comment '学期(如2023S)',
+    score      decimal(4, 1) unsigned              null comment '百分制成绩',
+    created_at timestamp default CURRENT_TIMESTAMP null comment '创建时间',
+    updated_at timestamp default CURRENT_TIMESTAMP null comment '最后更新时间',
+    created_by varchar(36)                         not null comment '创建人',
+    updated_by varchar(36)                         not null comment '最后更新人'
+)
+    comment '已关闭学期的成绩归档' row_format = compressed key_block_size = 8;
+
+create index idx_semester_student
+    on t_grade_archive (semester, student_id);
+
+create index idx_student_semester
+    on t_grade_archive (student_id, semester);
+
+create table t_grade_archive_semester
+(
+    semester    char(5)                             not null comment '已归档学期'
+        primary key,
+    row_count   bigint                              not null comment '归档行数',
+    archived_at timestamp default CURRENT_TIMESTAMP null comment '归档时间',
+    status      varchar(10) default 'DONE'              not null comment 'ARCHIVING 归档中（行正在搬迁，查询须走两表并集）/ DONE 已完成'
+)
+    comment '成绩归档学期登记';
+
 create table t_student
 (
     id              bigint auto_increment comment '自增主键ID'
@@ -61,6 +92,21 @@ create table t_student
 )
     comment '学生基本信息';
 
+create table t_student_gpa
+(
+    id            bigint auto_increment comment '自增主键ID'
+        primary key,
+    student_id    char(12)                            not null comment '学号',
+    semester      char(5)                             not null comment '学期(如2023S)',
+    gpa           decimal(3, 2) unsigned              not null comment '学分加权绩点(0-4)',
+    total_credits smallint unsigned                   not null comment '计入绩点的总学分',
+    course_count  smallint unsigned                   not null comment '计入绩点的课程数',
+    updated_at    timestamp default CURRENT_TIMESTAMP null comment '最后计算时间',
+    constraint uk_student_semester
+        unique (student_id, semester)
+)
+    comment '学生学期绩点';
+
 create table t_user_auth
 (
     id             bigint auto_increment comment '自增主键ID'
@@ -0,0 +1,122 @@
+package com.demo.studentdemo;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 慢接口并发压测：对运行中的实例同时发起大量慢请求，在它们未完成期间持续探测一个快接口，
+ * 观察服务端能同时容纳的慢请求数以及快接口是否仍然可用.
+ *
+ * 慢接口在 Tomcat 线程上同步执行时，同时处理的慢请求数受 server.tomcat.threads.max 限制，超出部分连同探测请求一起排队；
+ * 改为 WebAsyncTask 后连接器线程立即释放，同时处理的慢请求数由接口所用舱壁的线程数 + 队列容量决定，
+ * 探测请求不受影响. 可分别对同步 / 异步版本运行（例如都以 --server.tomcat.threads.max=20 启动）对比输出.
+ *
+ * 运行参数（均可省略）：
+ *   args[0] 服务地址，默认 http://localhost:8080
+ *   args[1] 慢接口路径（GET），默认 /demo/runExampleAsync
+ *   args[2] 并发慢请求数，默认 200
+ *   args[3] 快接口探测路径（GET），默认 /actuator/health
+ *   args[4] 探测时长(秒)，默认 20
+ *   args[5] 慢接口所用舱壁，默认 web-demo
+ */
+public class AsyncEndpointLoadTest {
+
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(2);
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        String slowPath = args.length > 1 ? args[1] : "/demo/runExampleAsync";
+        int slowRequests = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        String probePath = args.length > 3 ? args[3] : "/actuator/health";
+        int probeSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+        String bulkhead = args.length > 5 ? args[5] : "web-demo";
+
+        ExecutorService clientPool = Executors.newCachedThreadPool();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(clientPool)
+                .build();
+
+        Map<String, AtomicInteger> slowOutcomes = new ConcurrentHashMap<>();
+        AtomicInteger slowPending = new AtomicInteger(slowRequests);
+        List<CompletableFuture<?>> slow = new ArrayList<>(slowRequests);
+        long start = System.nanoTime();
+        for (int i = 0; i < slowRequests; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + slowPath)).GET().build();
+            slow.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((resp, ex) -> {
+                        String outcome = ex != null ? ex.getClass().getSimpleName() : String.valueOf(resp.statusCode());
+                        slowOutcomes.computeIfAbsent(outcome, k -> new AtomicInteger()).incrementAndGet();
+                        slowPending.decrementAndGet();
+                        return null;
+                    }));
+        }
+
+        // 慢请求发出后持续探测快接口，同时采样服务端舱壁的活跃 / 排队数
+        List<Long> probeMillis = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger probeFailures = new AtomicInteger();
+        AtomicLong peakActive = new AtomicLong();
+        AtomicLong peakQueued = new AtomicLong();
+        long probeUntil = System.nanoTime() + Duration.ofSeconds(probeSeconds).toNanos();
+        while (System.nanoTime() < probeUntil && slowPending.get() > 0) {
+            long t0 = System.nanoTime();
+            try {
+                HttpRequest probe = HttpRequest.newBuilder(URI.create(base + probePath)).timeout(PROBE_TIMEOUT).GET().build();
+                client.send(probe, HttpResponse.BodyHandlers.discarding());
+                probeMillis.add((System.nanoTime() - t0) / 1_000_000);
+            } catch (Exception e) {
+                probeFailures.incrementAndGet();
+            }
+            peakActive.accumulateAndGet(metric(client, base, "bulkhead.active", bulkhead), Math::max);
+            peakQueued.accumulateAndGet(metric(client, base, "bulkhead.queued", bulkhead), Math::max);
+            Thread.sleep(200);
+        }
+
+        CompletableFuture.allOf(slow.toArray(CompletableFuture[]::new)).join();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        clientPool.shutdown();
+
+        System.out.printf("慢请求 %d 个 (%s)，全部完成耗时 %d ms，结果 %s%n", slowRequests, slowPath, elapsedMs, new TreeMap<>(slowOutcomes));
+        System.out.printf("服务端舱壁 %s 峰值：活跃 %d，排队 %d（-1 表示该指标不可用，如同步实现）%n", bulkhead, peakActive.get(), peakQueued.get());
+        List<Long> sorted = new ArrayList<>(probeMillis);
+        Collections.sort(sorted);
+        System.out.printf("探测 %s：成功 %d，失败/超时(>%ds) %d，p50 %d ms，p99 %d ms，max %d ms%n", probePath,
+                sorted.size(), PROBE_TIMEOUT.toSeconds(), probeFailures.get(),
+                percentile(sorted, 0.5), percentile(sorted, 0.99), sorted.isEmpty() ? -1 : sorted.get(sorted.size() - 1));
+    }
+
+    private static long metric(HttpClient client, String base, String name, String bulkhead) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/actuator/metrics/" + name + "?tag=name:" + bulkhead))
+                    .timeout(PROBE_TIMEOUT).GET().build();
+            HttpResponse<String> resp = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Matcher m = METRIC_VALUE.matcher(resp.body());
+            return resp.statusCode() == 200 && m.find() ? (long) Double.parseDouble(m.group(1)) : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return -1;
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(p * sorted.size()) - 1));
+    }
+}
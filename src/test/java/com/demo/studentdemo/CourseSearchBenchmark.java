@@ -0,0 +1,108 @@
+package com.demo.studentdemo;
+
+import com.demo.studentdemo.entity.Course;
+import com.demo.studentdemo.service.CourseCatalog;
+import com.demo.studentdemo.service.CourseSearchIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 课程全文检索基准：合成课程目录，比较全量构建与单门课程变更后增量更新的耗时，统计检索延迟分位数，
+ * 并校验增量更新后的检索结果与全量重建一致. 不需要数据库.
+ *
+ * 运行参数（均可省略）：
+ *   args[0] 课程数，默认 5000
+ *   args[1] 检索次数，默认 20000
+ */
+public class CourseSearchBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static final String[] TOPICS = {"计算机网络", "数据结构", "操作系统", "数据库系统", "机器学习", "编译原理", "线性代数",
+            "概率统计", "软件工程", "信息安全", "数字电路", "信号处理", "大学英语", "高等数学", "离散数学", "人工智能"};
+    private static final String[] PHRASES = {"介绍基本概念与原理", "涵盖 TCP/IP 协议栈与路由算法", "讲授算法设计与复杂度分析",
+            "包括进程调度、内存管理与文件系统", "学习关系模型、SQL 与事务处理", "覆盖监督学习与神经网络", "通过实验掌握工程实践",
+            "注重数学推导与证明", "结合 Java 与 Python 编程", "讨论密码学与网络攻防", "包含课程设计与期末项目"};
+    private static final String[] QUERIES = {"网络协议", "算法", "数据库 事务", "神经网络", "Java", "内存管理", "密码学", "课程设计 项目",
+            "路由", "概率"};
+
+    public static void main(String[] args) {
+        int courses = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        Random random = new Random(42);
+        List<Course> list = new ArrayList<>(courses);
+        for (int i = 1; i <= courses; i++) {
+            list.add(course(i, random));
+        }
+
+        CourseCatalog v1 = new CourseCatalog(1, "v1", list);
+        CourseSearchIndex full = null;
+        long t0 = 0;
+        // 前几轮用于 JIT 预热，只报告最后一轮
+        for (int round = 0; round < WARMUP_ROUNDS + 1; round++) {
+            t0 = System.nanoTime();
+            full = CourseSearchIndex.build(v1);
+        }
+        System.out.printf("全量构建: 课程 %d，词项 %d，倒排表 %d 字节，%.1f ms%n", full.getDocCount(), full.getTermCount(),
+                full.getPostingBytes(), (System.nanoTime() - t0) / 1e6);
+
+        // 修改一门课程的描述、删除一门、新增一门
+        List<Course> changed = new ArrayList<>(list);
+        Course edited = course(7, random);
+        edited.setCourseDesc("全新的课程描述：区块链与分布式共识");
+        changed.set(6, edited);
+        changed.remove(10);
+        changed.add(course(courses + 1, random));
+        CourseCatalog v2 = new CourseCatalog(2, "v2", changed);
+        CourseSearchIndex incremental = null;
+        double incrementalMs = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + 1; round++) {
+            t0 = System.nanoTime();
+            incremental = full.update(v2);
+            incrementalMs = (System.nanoTime() - t0) / 1e6;
+        }
+        t0 = System.nanoTime();
+        CourseSearchIndex rebuilt = CourseSearchIndex.build(v2);
+        System.out.printf("3 门课程变更: 增量更新 %.2f ms，全量重建 %.1f ms%n", incrementalMs, (System.nanoTime() - t0) / 1e6);
+
+        List<String> queries = new ArrayList<>(Arrays.asList(QUERIES));
+        queries.add("区块链");
+        for (String q : queries) {
+            if (!incremental.search(q, 20, null).equals(rebuilt.search(q, 20, null))) {
+                throw new IllegalStateException("增量索引与全量重建结果不一致: " + q);
+            }
+        }
+        System.out.println("增量索引与全量重建结果一致，\"区块链\" 命中: " + incremental.search("区块链", 5, null).hits());
+
+        for (int i = 0; i < iterations / 2; i++) incremental.search(QUERIES[i % QUERIES.length], 20, null);
+        long[] nanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long s = System.nanoTime();
+            incremental.search(QUERIES[i % QUERIES.length], 20, null);
+            nanos[i] = System.nanoTime() - s;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("检索 %d 次 (top 20): p50 %.1f us，p99 %.1f us，max %.1f us%n", iterations,
+                nanos[iterations / 2] / 1e3, nanos[(int) (iterations * 0.99)] / 1e3, nanos[iterations - 1] / 1e3);
+    }
+
+    private static Course course(int id, Random random) {
+        Course c = new Course();
+        c.setId((long) id);
+        c.setCourseCode(String.format("C%05d", id));
+        String topic = TOPICS[random.nextInt(TOPICS.length)];
+        c.setCourseName(topic + (random.nextBoolean() ? "（实验）" : ""));
+        StringBuilder desc = new StringBuilder("本课程").append(topic);
+        for (int k = 0; k < 3 + random.nextInt(4); k++) {
+            desc.append("，").append(PHRASES[random.nextInt(PHRASES.length)]);
+        }
+        c.setCourseDesc(desc.append("。").toString());
+        c.setCredit((byte) (1 + random.nextInt(6)));
+        c.setCourseType(random.nextBoolean() ? "必修" : "选修");
+        c.setDeptName("学院" + random.nextInt(8));
+        return c;
+    }
+}
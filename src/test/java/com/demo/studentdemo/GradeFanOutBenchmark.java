@@ -0,0 +1,94 @@
+package com.demo.studentdemo;
+
+import com.demo.studentdemo.service.GradeFanOutQueryService;
+import com.demo.studentdemo.service.GradeFanOutQueryService.SplitMode;
+import com.demo.studentdemo.vo.StudentQueryReq;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 扇出查询基准：对比单条语句与按学期 / 学号区间拆分的耗时，并逐步增大线程数，
+ * 观察线程数超过连接池大小后，子查询排队等连接使加速比消失的拐点.
+ *
+ * 需要本地 MySQL 中有足够的成绩数据。运行参数（均可省略）：
+ *   args[0] 连接池大小，默认 10
+ *   args[1] 每组重复次数，默认 5
+ */
+public class GradeFanOutBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 12, 16, 32};
+
+    public static void main(String[] args) {
+        int poolSize = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int maxRows = 1_000_000;
+
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(StudentDemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "logging.level.com.demo.studentdemo=warn")
+                .run()) {
+            GradeFanOutQueryService service = ctx.getBean(GradeFanOutQueryService.class);
+            HikariDataSource dataSource = ctx.getBean(HikariDataSource.class);
+            StudentQueryReq req = new StudentQueryReq();
+
+            ExecutorService single = Executors.newSingleThreadExecutor();
+            // 预热：连接池、语句缓存、InnoDB buffer pool
+            service.query(req, SplitMode.NONE, 1, maxRows, single);
+            long baseline = median(repeats, () -> service.query(req, SplitMode.NONE, 1, maxRows, single).elapsedMillis());
+            int rows = service.query(req, SplitMode.NONE, 1, maxRows, single).records().size();
+            single.shutdown();
+
+            System.out.printf("%n连接池大小: %d，结果行数: %d，单条语句中位耗时: %d ms%n", poolSize, rows, baseline);
+            System.out.printf("%-14s %8s %10s %10s %9s %14s%n", "mode", "threads", "subQueries", "median(ms)", "speed-up", "maxAwaitingConn");
+            for (SplitMode mode : new SplitMode[]{SplitMode.SEMESTER, SplitMode.STUDENT_RANGE}) {
+                for (int threads : THREADS) {
+                    ExecutorService pool = Executors.newFixedThreadPool(threads);
+                    AtomicInteger subQueries = new AtomicInteger();
+                    AtomicInteger maxAwaiting = new AtomicInteger();
+                    Thread sampler = new Thread(() -> {
+                        while (!Thread.currentThread().isInterrupted()) {
+                            maxAwaiting.accumulateAndGet(dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection(), Math::max);
+                            try {
+                                Thread.sleep(1);
+                            } catch (InterruptedException e) {
+                                return;
+                            }
+                        }
+                    });
+                    sampler.setDaemon(true);
+                    sampler.start();
+                    long median = median(repeats, () -> {
+                        GradeFanOutQueryService.FanOutResult r = service.query(req, mode, threads, maxRows, pool);
+                        subQueries.set(r.subQueries());
+                        return r.elapsedMillis();
+                    });
+                    sampler.interrupt();
+                    pool.shutdown();
+                    System.out.printf("%-14s %8d %10d %10d %8.2fx %14d%n", mode, threads, subQueries.get(), median,
+                            median == 0 ? 0D : (double) baseline / median, maxAwaiting.get());
+                }
+            }
+        }
+    }
+
+    private interface Run {
+        long elapsedMillis();
+    }
+
+    private static long median(int repeats, Run run) {
+        long[] samples = new long[repeats];
+        for (int i = 0; i < repeats; i++) {
+            samples[i] = run.elapsedMillis();
+        }
+        Arrays.sort(samples);
+        return samples[repeats / 2];
+    }
+}
@@ -0,0 +1,142 @@
+package com.demo.studentdemo;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.demo.studentdemo.config.ColumnarJsonHttpMessageConverter;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.vo.StudentGradeVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 响应格式基准：对 queryAllGrade 分页结果与 /student/list 全量列表，比较 JSON、Smile、CBOR、列式 JSON
+ * 的响应字节数（原始 / gzip）及每次序列化的 CPU 耗时. 数据为合成数据，不需要数据库.
+ *
+ * 运行参数（均可省略）：
+ *   args[0] 每种格式的计时迭代次数，默认 2000
+ */
+public class ResponseFormatBenchmark {
+
+    private static final String[] NAMES = {"张伟", "王芳", "李娜", "刘洋", "陈静", "杨磊", "赵敏", "黄强"};
+    private static final String[] DEPTS = {"计算机学院", "电子工程学院", "数学学院", "外国语学院"};
+    private static final String[] COURSES = {"计算机网络", "数据结构", "操作系统", "高等数学", "大学英语", "线性代数"};
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .simpleDateFormat("yyyy-MM-dd HH:mm:ss")
+                .timeZone("GMT+8");
+        ObjectMapper json = builder.build();
+
+        Map<String, AbstractGenericHttpMessageConverter<Object>> converters = new LinkedHashMap<>();
+        converters.put("json", new MappingJackson2HttpMessageConverter(json));
+        converters.put("smile", new MappingJackson2SmileHttpMessageConverter(
+                builder.createXmlMapper(false).factory(new SmileFactory()).build()));
+        converters.put("cbor", new MappingJackson2CborHttpMessageConverter(
+                builder.createXmlMapper(false).factory(new CBORFactory()).build()));
+        converters.put("columnar", new ColumnarJsonHttpMessageConverter(json));
+
+        Random random = new Random(42);
+        Map<String, Object> payloads = new LinkedHashMap<>();
+        for (int size : new int[]{10, 50, 200}) {
+            payloads.put("gradePage-" + size, gradePage(size, random));
+        }
+        payloads.put("studentList-5000", students(5000, random));
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.out.printf("%-18s %-9s %10s %10s %8s %12s%n", "payload", "format", "bytes", "gzipBytes", "vsJson", "cpuUs/op");
+        for (Map.Entry<String, Object> payload : payloads.entrySet()) {
+            long jsonBytes = 0;
+            for (Map.Entry<String, AbstractGenericHttpMessageConverter<Object>> converter : converters.entrySet()) {
+                byte[] body = write(converter.getValue(), payload.getValue());
+                if (jsonBytes == 0) jsonBytes = body.length;
+                // 预热
+                for (int i = 0; i < iterations / 4; i++) write(converter.getValue(), payload.getValue());
+                long cpuStart = threads.getCurrentThreadCpuTime();
+                for (int i = 0; i < iterations; i++) write(converter.getValue(), payload.getValue());
+                double cpuMicros = (threads.getCurrentThreadCpuTime() - cpuStart) / 1000D / iterations;
+                System.out.printf("%-18s %-9s %10d %10d %7.0f%% %12.1f%n", payload.getKey(), converter.getKey(),
+                        body.length, gzip(body).length, body.length * 100D / jsonBytes, cpuMicros);
+            }
+        }
+    }
+
+    private static byte[] write(AbstractGenericHttpMessageConverter<Object> converter, Object value) throws IOException {
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        MediaType type = converter.getSupportedMediaTypes().get(0);
+        converter.write(value, value.getClass(), type, out);
+        return out.getBodyAsBytes();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(buf)) {
+            gz.write(body);
+        }
+        return buf.toByteArray();
+    }
+
+    private static Page<StudentGradeVO> gradePage(int size, Random random) {
+        Page<StudentGradeVO> page = new Page<>(1, size);
+        List<StudentGradeVO> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StudentGradeVO vo = new StudentGradeVO();
+            vo.setStudentId(String.format("2021%08d", random.nextInt(100_000)));
+            vo.setStudentName(NAMES[random.nextInt(NAMES.length)]);
+            vo.setDepartment(DEPTS[random.nextInt(DEPTS.length)]);
+            int course = random.nextInt(COURSES.length);
+            vo.setCourseCode(String.format("CS%04d", course));
+            vo.setCourseName(COURSES[course]);
+            vo.setCredit(2 + course % 3);
+            vo.setCourseType(course % 2 == 0 ? "必修" : "选修");
+            vo.setSemester("2023S");
+            double score = 40 + random.nextInt(600) / 10D;
+            vo.setScore(score);
+            vo.setGradeLetter(score >= 90 ? "A" : score >= 80 ? "B" : score >= 70 ? "C" : score >= 60 ? "D" : "F");
+            records.add(vo);
+        }
+        page.setRecords(records);
+        page.setTotal(100_000);
+        return page;
+    }
+
+    private static List<Student> students(int count, Random random) {
+        List<Student> students = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.of(2026, 9, 1, 8, 0);
+        for (int i = 0; i < count; i++) {
+            Student s = new Student();
+            s.setId((long) i + 1);
+            s.setStudentId(String.format("2021%08d", i));
+            s.setIdCard(String.format("110101200301%06d", random.nextInt(1_000_000)));
+            s.setName(NAMES[random.nextInt(NAMES.length)]);
+            s.setDeptName(DEPTS[random.nextInt(DEPTS.length)]);
+            s.setEnrollmentYear(LocalDate.of(2021, 1, 1));
+            s.setCreatedAt(now);
+            s.setUpdatedAt(now);
+            s.setCreatedBy("admin");
+            s.setUpdatedBy("admin");
+            students.add(s);
+        }
+        return students;
+    }
+}
@@ -0,0 +1,122 @@
+package com.demo.studentdemo;
+
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.vo.StudentRowSet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+
+/**
+ * 学生列表紧凑表示基准：按 JDBC 驱动的方式合成学生行（每行新建 String / LocalDateTime），
+ * 比较 List&lt;Student&gt; 与 StudentRowSet 常驻堆内存（GC 后）的每行字节数与 JSON 序列化耗时，
+ * 并校验两者输出的 JSON 完全一致. 不需要数据库.
+ *
+ * 运行参数（均可省略）：
+ *   args[0] 学生数，默认 200000
+ *   args[1] 序列化轮数，默认 10
+ */
+public class StudentRowSetBenchmark {
+
+    private static final String[] DEPTS = {"计算机学院", "数学学院", "物理学院", "化学学院", "外国语学院", "经济管理学院", "机械工程学院",
+            "电子信息学院", "土木工程学院", "法学院", "医学院", "艺术学院"};
+    private static final String[] OPERATORS = {"admin", "system", "import-job", "teacher01", "teacher02"};
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        // 与 application.properties 中的 spring.jackson.* 配置一致
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .simpleDateFormat("yyyy-MM-dd HH:mm:ss")
+                .timeZone(TimeZone.getTimeZone("GMT+8"))
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        long base = usedHeap();
+        List<Student> list = new ArrayList<>(rows);
+        generate(rows, list::add);
+        long listBytes = usedHeap() - base;
+
+        base = usedHeap();
+        StudentRowSet.Builder builder = StudentRowSet.builder(rows);
+        generate(rows, builder::add);
+        StudentRowSet rowSet = builder.build();
+        builder = null;
+        long rowSetBytes = usedHeap() - base;
+
+        System.out.printf("rows=%d, dictionary=%d%n", rows, rowSet.getDictionarySize());
+        System.out.printf("List<Student>  : %8.1f MB, %6.1f B/row%n", listBytes / 1048576.0, (double) listBytes / rows);
+        System.out.printf("StudentRowSet  : %8.1f MB, %6.1f B/row (%.1f%%)%n", rowSetBytes / 1048576.0,
+                (double) rowSetBytes / rows, 100.0 * rowSetBytes / listBytes);
+
+        byte[] expected = mapper.writeValueAsBytes(list);
+        byte[] actual = mapper.writeValueAsBytes(rowSet);
+        if (!Arrays.equals(expected, actual)) {
+            throw new IllegalStateException("JSON 不一致: " + new String(actual, 0, Math.min(400, actual.length)));
+        }
+        for (int i = 0; i < rows; i += Math.max(1, rows / 1000)) {
+            if (!mapper.writeValueAsString(list.get(i)).equals(mapper.writeValueAsString(rowSet.get(i)))) {
+                throw new IllegalStateException("第 " + i + " 行还原不一致");
+            }
+        }
+        System.out.printf("JSON 一致，%d 字节%n", actual.length);
+
+        for (int r = 0; r < 3; r++) {
+            mapper.writeValueAsBytes(list);
+            mapper.writeValueAsBytes(rowSet);
+        }
+        long listNanos = 0;
+        long rowSetNanos = 0;
+        for (int r = 0; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            mapper.writeValueAsBytes(list);
+            long t1 = System.nanoTime();
+            mapper.writeValueAsBytes(rowSet);
+            listNanos += t1 - t0;
+            rowSetNanos += System.nanoTime() - t1;
+        }
+        System.out.printf("序列化 List<Student> : %6.1f ms/次%n", listNanos / 1e6 / rounds);
+        System.out.printf("序列化 StudentRowSet : %6.1f ms/次%n", rowSetNanos / 1e6 / rounds);
+    }
+
+    /**
+     * 相同种子生成相同数据；字符串与时间对象逐行新建，与 JDBC 驱动映射结果的对象图一致
+     */
+    private static void generate(int rows, Consumer<Student> sink) {
+        Random random = new Random(42);
+        LocalDateTime origin = LocalDateTime.of(2020, 9, 1, 8, 0);
+        for (int i = 1; i <= rows; i++) {
+            Student s = new Student();
+            s.setId((long) i);
+            s.setStudentId(String.format("S%09d", i));
+            s.setIdCard(String.format("11010119%02d%02d%02d%04d", 70 + random.nextInt(30), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(10000)));
+            s.setName(new String("学生" + Integer.toString(random.nextInt(1_000_000), 36)));
+            s.setDeptName(new String(DEPTS[random.nextInt(DEPTS.length)]));
+            s.setEnrollmentYear(LocalDate.of(2018 + random.nextInt(8), 9, 1));
+            LocalDateTime created = origin.plusSeconds(random.nextInt(150_000_000)).withNano(random.nextInt(1000) * 1000);
+            s.setCreatedAt(created);
+            s.setUpdatedAt(random.nextInt(10) == 0 ? null : created.plusSeconds(random.nextInt(1_000_000)));
+            s.setCreatedBy(new String(OPERATORS[random.nextInt(OPERATORS.length)]));
+            s.setUpdatedBy(random.nextInt(10) == 0 ? null : new String(OPERATORS[random.nextInt(OPERATORS.length)]));
+            sink.accept(s);
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
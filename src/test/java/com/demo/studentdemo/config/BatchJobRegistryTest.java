@@ -0,0 +1,103 @@
+package com.demo.studentdemo.config;
+
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.vo.BatchProcessResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchJobRegistryTest {
+
+    private final ThreadPoolTaskExecutor jobExecutor = executor(1, 1);
+    private final ThreadPoolTaskExecutor taskExecutor = executor(4, 100);
+    private final BatchJobRegistry registry = new BatchJobRegistry(jobExecutor);
+
+    @AfterEach
+    void tearDown() {
+        jobExecutor.shutdown();
+        taskExecutor.shutdown();
+    }
+
+    @Test
+    void jobsQueueBehindTheBoundedPoolAndAreRejectedWhenItIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BatchJobRegistry.BatchJob running = registry.submit("running", control -> release.await());
+        AtomicBoolean queuedRan = new AtomicBoolean();
+        BatchJobRegistry.BatchJob queued = registry.submit("queued", control -> queuedRan.set(true));
+        awaitState(running, BatchJobRegistry.JobState.RUNNING);
+        assertThat(queued.getState()).isEqualTo(BatchJobRegistry.JobState.QUEUED);
+
+        BusinessException e = assertThrows(BusinessException.class, () -> registry.submit("rejected", control -> { }));
+        assertThat(e.getCode()).isEqualTo(503);
+        assertThat(registry.list()).extracting(BatchJobRegistry.BatchJob::getName).containsExactly("queued", "running");
+
+        // 排队中取消的作业不再执行
+        registry.cancel(queued.getId());
+        release.countDown();
+        queued.getCompletion().get(5, TimeUnit.SECONDS);
+        assertThat(queued.getState()).isEqualTo(BatchJobRegistry.JobState.CANCELLED);
+        assertThat(queuedRan).isFalse();
+        assertThat(running.getState()).isEqualTo(BatchJobRegistry.JobState.COMPLETED);
+    }
+
+    @Test
+    void cancelInterruptsTasksInFlight() throws Exception {
+        BatchTaskProcessor processor = new BatchTaskProcessor(taskExecutor);
+        CountDownLatch started = new CountDownLatch(4);
+        AtomicReference<BatchProcessResult<Integer, Integer>> result = new AtomicReference<>();
+        AtomicInteger batches = new AtomicInteger();
+
+        BatchJobRegistry.BatchJob job = registry.submit("slow", control -> result.set(processor.processStream(
+                () -> batches.getAndIncrement() == 0 ? List.of(1, 2, 3, 4) : List.of(),
+                item -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("任务被中断", e);
+                    }
+                    return item;
+                },
+                BatchTaskProcessor.StreamOptions.<Integer>concurrency(4).control(control))));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        registry.cancel(job.getId());
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertThat(job.getState()).isEqualTo(BatchJobRegistry.JobState.CANCELLED);
+        assertThat(result.get().failedTasks()).isZero();
+        assertThat(job.getControl().getFailed()).isZero();
+        // 取消的中断标记不会留在线程池线程上
+        for (int i = 0; i < 8; i++) {
+            assertThat(taskExecutor.submit(() -> Thread.currentThread().isInterrupted()).get(5, TimeUnit.SECONDS)).isFalse();
+        }
+    }
+
+    private static void awaitState(BatchJobRegistry.BatchJob job, BatchJobRegistry.JobState state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (job.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(job.getState()).isEqualTo(state);
+    }
+
+    private static ThreadPoolTaskExecutor executor(int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,121 @@
+package com.demo.studentdemo.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadLetterStoreTest {
+
+    /**
+     * UTF-8 字符串；内容为 "bad" 的数据项读回时视为损坏
+     */
+    private static final ItemSerializer<String> SERIALIZER = new ItemSerializer<>() {
+        @Override
+        public byte[] serialize(String item) {
+            return item.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) throws IOException {
+            String s = new String(bytes, StandardCharsets.UTF_8);
+            if (s.equals("bad")) throw new IOException("损坏的数据项");
+            return s;
+        }
+    };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayReturnsRecordsInOrderAndFinishRemovesFiles() {
+        try (DeadLetterStore<String> store = store()) {
+            for (int i = 0; i < 50; i++) {
+                store.append("item-" + i, new IllegalStateException("boom " + i), 3);
+            }
+            store.flush();
+            assertThat(store.peek(2)).extracting(DeadLetterStore.DeadLetter::item).containsExactly("item-0", "item-1");
+
+            DeadLetterStore<String>.Replay replay = store.openReplay();
+            List<DeadLetterStore.DeadLetter<String>> read = drain(replay);
+            replay.finish();
+
+            assertThat(read).hasSize(50);
+            assertThat(read.get(7).item()).isEqualTo("item-7");
+            assertThat(read.get(7).exceptionClass()).isEqualTo(IllegalStateException.class.getName());
+            assertThat(read.get(7).message()).isEqualTo("boom 7");
+            assertThat(read.get(7).attempts()).isEqualTo(3);
+            assertThat(store.getStoredBytes()).isZero();
+        }
+    }
+
+    @Test
+    void undecodableRecordIsQuarantinedAndReplayContinues() throws Exception {
+        try (DeadLetterStore<String> store = store()) {
+            store.append("a", new RuntimeException(), 1);
+            store.append("bad", new RuntimeException(), 1);
+            store.append("c", new RuntimeException(), 1);
+            store.flush();
+
+            DeadLetterStore<String>.Replay replay = store.openReplay();
+            assertThat(drain(replay)).extracting(DeadLetterStore.DeadLetter::item).containsExactly("a", "c");
+            replay.finish();
+
+            assertThat(store.getQuarantined()).isEqualTo(1);
+            assertThat(Files.size(dir.resolve("test.corrupt"))).isPositive();
+            // 回放文件已删除，下一次回放不会再次停在同一条记录上
+            DeadLetterStore<String>.Replay again = store.openReplay();
+            assertThat(again.hasNext()).isFalse();
+            again.finish();
+        }
+    }
+
+    @Test
+    void corruptLengthQuarantinesRestOfFile() throws Exception {
+        try (DeadLetterStore<String> store = store()) {
+            store.append("a", new RuntimeException(), 1);
+            store.append("b", new RuntimeException(), 1);
+            store.append("c", new RuntimeException(), 1);
+            store.flush();
+            Path active = dir.resolve("test.dlq");
+            long total = Files.size(active);
+            long secondFrame;
+            try (RandomAccessFile file = new RandomAccessFile(active.toFile(), "rw")) {
+                secondFrame = 4 + file.readInt();
+                file.seek(secondFrame);
+                file.writeInt(-1);
+            }
+
+            DeadLetterStore<String>.Replay replay = store.openReplay();
+            assertThat(drain(replay)).extracting(DeadLetterStore.DeadLetter::item).containsExactly("a");
+            replay.finish();
+
+            assertThat(store.getQuarantined()).isEqualTo(1);
+            assertThat(Files.size(dir.resolve("test.corrupt"))).isEqualTo(total - secondFrame);
+            assertThat(store.getStoredBytes()).isZero();
+        }
+    }
+
+    private DeadLetterStore<String> store() {
+        return DeadLetterStore.<String>builder()
+                .name("test")
+                .directory(dir)
+                .serializer(SERIALIZER)
+                .fsyncPolicy(DeadLetterStore.FsyncPolicy.NONE)
+                .build();
+    }
+
+    private static List<DeadLetterStore.DeadLetter<String>> drain(DeadLetterStore<String>.Replay replay) {
+        List<DeadLetterStore.DeadLetter<String>> read = new ArrayList<>();
+        replay.forEachRemaining(read::add);
+        return read;
+    }
+}
@@ -0,0 +1,115 @@
+package com.demo.studentdemo.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DiskSpillQueueTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void keepsFifoOrderAcrossMemoryAndDisk() {
+        try (DiskSpillQueue<Integer> queue = queue(2)) {
+            for (int i = 0; i < 3000; i++) {
+                queue.offer(i);
+            }
+            assertThat(queue.getStats().onDisk()).isEqualTo(2990);
+            List<Integer> out = new ArrayList<>();
+            for (int i = 0; i < 1500; i++) {
+                out.add(queue.poll());
+            }
+            // 磁盘上仍有元素时，新元素继续写磁盘，排在其后
+            for (int i = 3000; i < 3500; i++) {
+                queue.offer(i);
+            }
+            queue.drainTo(out);
+            assertThat(out).isEqualTo(IntStream.range(0, 3500).boxed().toList());
+            assertThat(queue.getStats().segmentsRecycled()).isPositive();
+        }
+    }
+
+    @Test
+    void iteratorIsNonConsumingSnapshot() {
+        try (DiskSpillQueue<Integer> queue = queue(2)) {
+            for (int i = 0; i < 1000; i++) {
+                queue.offer(i);
+            }
+            List<Integer> seen = new ArrayList<>();
+            queue.iterator().forEachRemaining(seen::add);
+            assertThat(seen).isEqualTo(IntStream.range(0, 1000).boxed().toList());
+            assertThat(queue).hasSize(1000);
+            assertThat(queue.contains(777)).isTrue();
+
+            // 迭代期间消费并复用的段被跳过，不会读到复用后写入的新数据
+            Iterator<Integer> it = queue.iterator();
+            assertThat(it.next()).isZero();
+            for (int i = 0; i < 1000; i++) {
+                queue.poll();
+            }
+            for (int i = 0; i < 1000; i++) {
+                queue.offer(-1);
+            }
+            it.forEachRemaining(v -> assertThat(v).isNotNegative());
+        }
+    }
+
+    @Test
+    void clearResetsSegmentsWithoutReadingBack() throws IOException {
+        DiskSpillQueue<Integer> queue = new DiskSpillQueue<>(10, dir, 4096, 1, failingOnRead());
+        try {
+            for (int i = 0; i < 5000; i++) {
+                queue.offer(i);
+            }
+            assertThat(segmentFiles()).hasSizeGreaterThan(2);
+            queue.clear();
+            assertThat(queue.isEmpty()).isTrue();
+            assertThat(queue.getStats().onDisk()).isZero();
+            assertThat(queue.getStats().freeSegments()).isEqualTo(1);
+            assertThat(segmentFiles()).hasSize(1);
+        } finally {
+            queue.close();
+        }
+        assertThat(segmentFiles()).isEmpty();
+        assertThrows(IllegalStateException.class, () -> queue.offer(1));
+    }
+
+    private DiskSpillQueue<Integer> queue(int maxFreeSegments) {
+        return new DiskSpillQueue<>(10, dir, 4096, maxFreeSegments, ItemSerializer.javaSerialization());
+    }
+
+    /**
+     * 写入正常、读回即失败的序列化器，用于确认 clear() 不逐条读回
+     */
+    private static ItemSerializer<Integer> failingOnRead() {
+        return new ItemSerializer<>() {
+            @Override
+            public byte[] serialize(Integer item) {
+                return new byte[]{item.byteValue()};
+            }
+
+            @Override
+            public Integer deserialize(byte[] bytes) throws IOException {
+                throw new IOException("不应读回");
+            }
+        };
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".seg")).toList();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.demo.studentdemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 分片路由：同一学号在不同版本、不同进程中必须落在同一分片（否则已有数据找不到），
+ * 追加分片时只有约 1/(n+1) 的学生迁移，且只迁往新分片
+ */
+class GradeShardRouterTest {
+
+    private static final List<String> STUDENT_IDS = IntStream.range(0, 20_000)
+            .mapToObj(i -> String.format("2023%06d", i))
+            .toList();
+
+    /**
+     * 固定值：算法或哈希输入（CRC32 / UTF-8）的任何改动都会让已落库的成绩路由到错误分片
+     */
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "S0000,      0, 1, 1, 3, 4, 15",
+            "S0001,      0, 1, 2, 3, 3, 3",
+            "S0042,      0, 1, 1, 1, 6, 6",
+            "2023000001, 0, 1, 2, 2, 7, 7",
+            "2023999999, 0, 1, 1, 1, 6, 6",
+    })
+    void placementIsStableAcrossReleases(String studentId, int of1, int of2, int of3, int of4, int of8, int of16) {
+        assertThat(List.of(1, 2, 3, 4, 8, 16))
+                .map(n -> GradeShardRouter.shardIndex(studentId, n))
+                .containsExactly(of1, of2, of3, of4, of8, of16);
+    }
+
+    @Test
+    void routerUsesConfiguredShardOrder() {
+        try (GradeShardRouter router = router(4)) {
+            for (String id : STUDENT_IDS.subList(0, 500)) {
+                GradeShardRouter.Shard shard = router.shardOf(id);
+                assertThat(shard.index()).isEqualTo(GradeShardRouter.shardIndex(id, 4));
+                assertThat(router.getShards().get(shard.index())).isSameAs(shard);
+            }
+            assertThat(router.getShards()).extracting(GradeShardRouter.Shard::name)
+                    .containsExactly("shard-0", "shard-1", "shard-2", "shard-3");
+        }
+    }
+
+    @Test
+    void studentsSpreadEvenly() {
+        int shards = 4;
+        int[] counts = new int[shards];
+        STUDENT_IDS.forEach(id -> counts[GradeShardRouter.shardIndex(id, shards)]++);
+        double expected = (double) STUDENT_IDS.size() / shards;
+        for (int count : counts) {
+            assertThat((double) count).isCloseTo(expected, within(expected * 0.05));
+        }
+    }
+
+    @ParameterizedTest(name = "{0} -> {0}+1")
+    @ValueSource(ints = {1, 2, 3, 4, 7, 15})
+    void appendingAShardMovesAboutOneInNPlusOneStudentsAllToTheNewShard(int n) {
+        long moved = 0;
+        for (String id : STUDENT_IDS) {
+            int before = GradeShardRouter.shardIndex(id, n);
+            int after = GradeShardRouter.shardIndex(id, n + 1);
+            if (before != after) {
+                assertThat(after).as(id).isEqualTo(n);
+                moved++;
+            }
+        }
+        assertThat((double) moved / STUDENT_IDS.size()).isCloseTo(1.0 / (n + 1), within(0.02));
+    }
+
+    @Test
+    void rejectsEmptyShardList() {
+        assertThrows(IllegalArgumentException.class, () -> new GradeShardRouter(List.of()));
+    }
+
+    /**
+     * 数据源不会被连接：路由只用到分片序号
+     */
+    private static GradeShardRouter router(int shards) {
+        return new GradeShardRouter(IntStream.range(0, shards).mapToObj(i -> new HikariDataSource()).toList());
+    }
+}
@@ -0,0 +1,120 @@
+package com.demo.studentdemo.config;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.ResultHandler;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 经拦截器登记的语句可被取消；作用域之外的语句不受影响
+ */
+class QueryCancellationTest {
+
+    /**
+     * H2 上足够慢、会定期检查取消标记的查询
+     */
+    private static final String SLOW_QUERY = "SELECT MAX(RAND()) FROM SYSTEM_RANGE(1, 5000000000)";
+    private static final Method QUERY = queryMethod();
+
+    private final QueryCancellationInterceptor interceptor = new QueryCancellationInterceptor();
+    private final Connection connection = connect();
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void cancelStopsTheRunningStatementAndRejectsLaterOnes() throws Exception {
+        QueryCancellation cancellation = new QueryCancellation(0);
+        CountDownLatch executing = new CountDownLatch(1);
+        StatementHandler handler = mock(StatementHandler.class);
+        when(handler.query(any(), any())).thenAnswer(a -> {
+            executing.countDown();
+            return List.of(((Statement) a.getArgument(0)).execute(SLOW_QUERY));
+        });
+
+        try (Statement statement = connection.createStatement()) {
+            CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> cancellation.run(() -> intercept(handler, statement)));
+            assertThat(executing.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(50);
+            cancellation.cancel();
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+            assertThat(e).rootCause().isInstanceOf(SQLException.class).hasMessageContaining("canceled");
+            assertThat(cancellation.isCancelled()).isTrue();
+        }
+        try (Statement later = connection.createStatement()) {
+            assertThrows(CancellationException.class, () -> cancellation.run(() -> intercept(handler, later)));
+        }
+    }
+
+    @Test
+    void statementsOutsideTheScopeAreNotRegistered() throws Exception {
+        QueryCancellation cancellation = new QueryCancellation(0);
+        cancellation.cancel();
+        StatementHandler handler = mock(StatementHandler.class);
+        when(handler.query(any(), any())).thenAnswer(a -> List.of(((Statement) a.getArgument(0)).execute("SELECT 1")));
+
+        try (Statement statement = connection.createStatement()) {
+            assertThat(intercept(handler, statement)).isEqualTo(List.of(true));
+        }
+    }
+
+    @Test
+    void timeoutIsAppliedToRegisteredStatements() throws Exception {
+        StatementHandler handler = mock(StatementHandler.class);
+        when(handler.query(any(), any())).thenAnswer(a -> List.of(((Statement) a.getArgument(0)).getQueryTimeout()));
+
+        try (Statement statement = connection.createStatement()) {
+            assertThat(new QueryCancellation(7).run(() -> intercept(handler, statement))).isEqualTo(List.of(7));
+        }
+    }
+
+    private Object intercept(StatementHandler handler, Statement statement) {
+        try {
+            return interceptor.intercept(new Invocation(handler, QUERY, new Object[]{statement, null}));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Connection connect() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:");
+        try {
+            return h2.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Method queryMethod() {
+        try {
+            return StatementHandler.class.getMethod("query", Statement.class, ResultHandler.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
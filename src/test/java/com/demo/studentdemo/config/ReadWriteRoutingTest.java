@@ -0,0 +1,139 @@
+package com.demo.studentdemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingTest {
+
+    private final Configuration configuration = new Configuration();
+    private final ReadWriteRoutingInterceptor interceptor = new ReadWriteRoutingInterceptor(new SimpleMeterRegistry());
+
+    @Test
+    void plainSelectMayUseReplica() throws Throwable {
+        assertThat(replicaAllowedDuring("select * from t_student", SqlCommandType.SELECT)).isTrue();
+        assertThat(DataSourceRouting.replicaAllowed()).isFalse();
+    }
+
+    @Test
+    void writesAndLockingReadsStayOnPrimary() throws Throwable {
+        assertThat(replicaAllowedDuring("update t_grade set score = ?", SqlCommandType.UPDATE)).isFalse();
+        assertThat(replicaAllowedDuring("select * from t_grade where id = ? for update", SqlCommandType.SELECT)).isFalse();
+        assertThat(replicaAllowedDuring("select * from t_grade lock in share mode", SqlCommandType.SELECT)).isFalse();
+    }
+
+    @Test
+    void primaryScopeOverridesSelect() throws Throwable {
+        AtomicReference<Boolean> inner = new AtomicReference<>();
+        DataSourceRouting.primary(() -> {
+            try {
+                inner.set(replicaAllowedDuring("select * from t_student", SqlCommandType.SELECT));
+                // 嵌套作用域退出后外层仍强制主库
+                DataSourceRouting.primary(() -> { });
+                assertThat(replicaAllowedDuring("select 1", SqlCommandType.SELECT)).isFalse();
+            } catch (Throwable e) {
+                throw new AssertionError(e);
+            }
+        });
+        assertThat(inner.get()).isFalse();
+        assertThat(replicaAllowedDuring("select * from t_student", SqlCommandType.SELECT)).isTrue();
+    }
+
+    @Test
+    void dataSourceRoutesByMarkAndScope() throws Exception {
+        HikariDataSource primary = mock(HikariDataSource.class);
+        HikariDataSource replica = mock(HikariDataSource.class);
+        Connection primaryConnection = mock(Connection.class);
+        Connection replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, List.of(replica),
+                ReadWriteRoutingDataSource.LagProbe.NONE, 5);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        Boolean previous = DataSourceRouting.markReadOnly(true);
+        try {
+            assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+            assertThat(DataSourceRouting.lastTarget()).isEqualTo("replica-0");
+            assertThat(DataSourceRouting.primary(() -> {
+                try {
+                    return dataSource.getConnection();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            })).isSameAs(primaryConnection);
+        } finally {
+            DataSourceRouting.markReadOnly(previous);
+        }
+        assertThat(dataSource.getReplicas().get(0).getRouted()).isEqualTo(1);
+        assertThat(dataSource.getPrimary().getRouted()).isEqualTo(2);
+    }
+
+    @Test
+    void failedReplicaFallsBackToPrimaryAndIsMarkedDown() throws Exception {
+        HikariDataSource primary = mock(HikariDataSource.class);
+        HikariDataSource replica = mock(HikariDataSource.class);
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenThrow(new java.sql.SQLException("down"));
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, List.of(replica),
+                ReadWriteRoutingDataSource.LagProbe.NONE, 5);
+
+        Boolean previous = DataSourceRouting.markReadOnly(true);
+        try {
+            assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        } finally {
+            DataSourceRouting.markReadOnly(previous);
+        }
+        assertThat(dataSource.getReplicas().get(0).isHealthy()).isFalse();
+        assertThat(dataSource.getFallbacks()).isEqualTo(1);
+    }
+
+    /**
+     * 经拦截器执行一条语句，返回执行期间是否允许走从库
+     */
+    @SuppressWarnings("unchecked")
+    private boolean replicaAllowedDuring(String sql, SqlCommandType type) throws Throwable {
+        MappedStatement ms = new MappedStatement.Builder(configuration, "test." + type + sql.hashCode(),
+                new StaticSqlSource(configuration, sql), type).build();
+        Executor executor = mock(Executor.class);
+        AtomicReference<Boolean> seen = new AtomicReference<>();
+        Invocation invocation;
+        if (type == SqlCommandType.SELECT) {
+            when(executor.query(any(), any(), any(), any())).thenAnswer(a -> {
+                seen.set(DataSourceRouting.replicaAllowed());
+                return List.of();
+            });
+            Method query = Executor.class.getMethod("query", MappedStatement.class, Object.class, RowBounds.class,
+                    ResultHandler.class);
+            invocation = new Invocation(executor, query, new Object[]{ms, null, RowBounds.DEFAULT, null});
+        } else {
+            when(executor.update(any(), any())).thenAnswer(a -> {
+                seen.set(DataSourceRouting.replicaAllowed());
+                return 1;
+            });
+            Method update = Executor.class.getMethod("update", MappedStatement.class, Object.class);
+            invocation = new Invocation(executor, update, new Object[]{ms, null});
+        }
+        interceptor.intercept(invocation);
+        return seen.get();
+    }
+}
@@ -0,0 +1,64 @@
+package com.demo.studentdemo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class StreamBatchProcessorTest {
+
+    @Test
+    void processesEveryItem() throws Exception {
+        StreamBatchProcessor processor = StreamBatchProcessor.builder().workerThreads(3).queueCapacity(8).build();
+        try {
+            List<Integer> input = IntStream.range(0, 500).boxed().toList();
+            ConcurrentHashMap<Integer, Integer> results = new ConcurrentHashMap<>();
+            processor.processAndWait(input::iterator, i -> i * 2, results::put, null);
+            assertThat(results).hasSize(500);
+            assertThat(results.get(499)).isEqualTo(998);
+        } finally {
+            processor.shutdown();
+        }
+    }
+
+    @Test
+    void saturatedInjectedExecutorFailsInsteadOfHanging() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        StreamBatchProcessor processor = StreamBatchProcessor.builder()
+                .workerExecutor(executor)
+                .workerThreads(1)
+                .queueCapacity(2)
+                .producerOfferTimeout(Duration.ofMillis(50))
+                .build();
+        try {
+            List<Integer> input = IntStream.range(0, 100).boxed().toList();
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                    assertThrows(TaskRejectedException.class,
+                            () -> processor.processAndWait(input::iterator, i -> i, (i, r) -> { }, null)));
+        } finally {
+            release.countDown();
+            processor.shutdown();
+            executor.shutdown();
+        }
+    }
+}
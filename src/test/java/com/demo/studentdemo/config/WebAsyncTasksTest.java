@@ -0,0 +1,100 @@
+package com.demo.studentdemo.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class WebAsyncTasksTest {
+
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicBoolean interrupted = new AtomicBoolean();
+    private final MockMvc mvc;
+
+    WebAsyncTasksTest() {
+        executor.initialize();
+        mvc = MockMvcBuilders.standaloneSetup(new StreamController()).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void streamsBodyInChunksWithResponseHeaders() throws Exception {
+        MvcResult started = mvc.perform(get("/stream").param("lines", "20000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(5000);
+        String body = mvc.perform(asyncDispatch(started)).andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(started.getResponse().getContentType()).startsWith("text/csv");
+        assertThat(body.lines()).hasSize(20000).startsWith("行 0").endsWith("行 19999");
+    }
+
+    @Test
+    void timeoutIsPerResponseAndInterruptsWriter() throws Exception {
+        MvcResult started = mvc.perform(get("/blocked")).andExpect(request().asyncStarted()).andReturn();
+        MockAsyncContext context = (MockAsyncContext) started.getRequest().getAsyncContext();
+        assertThat(context.getTimeout()).isEqualTo(50);
+
+        // MockMvc 不计时，手动触发超时回调
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!interrupted.get() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(interrupted).isTrue();
+        release.countDown();
+    }
+
+    @RestController
+    class StreamController {
+
+        @GetMapping("/stream")
+        ResponseEntity<ResponseBodyEmitter> stream(@RequestParam int lines) {
+            return ResponseEntity.ok().contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .body(WebAsyncTasks.streaming(60_000, executor, out -> {
+                        for (int i = 0; i < lines; i++) {
+                            out.write(("行 " + i + "\n").getBytes(StandardCharsets.UTF_8));
+                        }
+                    }));
+        }
+
+        @GetMapping("/blocked")
+        ResponseEntity<ResponseBodyEmitter> blocked() {
+            return ResponseEntity.ok().body(WebAsyncTasks.streaming(50, executor, out -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.demo.studentdemo.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTest {
+
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new ThrowingController())
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void httpLikeBusinessCodesBecomeTheResponseStatus() throws Exception {
+        for (int code : new int[]{400, 403, 404, 409, 429, 503}) {
+            mvc.perform(get("/throw").param("code", String.valueOf(code)))
+                    .andExpect(status().is(code))
+                    .andExpect(jsonPath("$.code").value(code))
+                    .andExpect(jsonPath("$.message").value("失败 " + code));
+        }
+    }
+
+    @Test
+    void unauthorizedCarriesChallengeHeader() throws Exception {
+        mvc.perform(get("/throw").param("code", "401"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+        mvc.perform(get("/throw").param("code", "403"))
+                .andExpect(status().isForbidden())
+                .andExpect(header().doesNotExist(HttpHeaders.WWW_AUTHENTICATE));
+    }
+
+    @Test
+    void legacyBusinessCodesStayBadRequest() throws Exception {
+        for (int code : new int[]{0, 200, 302, 1001, 40001}) {
+            mvc.perform(get("/throw").param("code", String.valueOf(code)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value(code));
+        }
+    }
+
+    @Test
+    void unexpectedExceptionsAreInternalErrors() throws Exception {
+        mvc.perform(get("/boom"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("Internal server error"));
+    }
+
+    @RestController
+    static class ThrowingController {
+
+        @GetMapping("/throw")
+        String fail(@RequestParam int code) {
+            throw new BusinessException(code, "失败 " + code);
+        }
+
+        @GetMapping("/boom")
+        String boom() {
+            throw new IllegalStateException("secret detail");
+        }
+    }
+}
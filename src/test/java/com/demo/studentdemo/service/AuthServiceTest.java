@@ -0,0 +1,122 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.demo.studentdemo.entity.UserAuth;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.UserAuthMapper;
+import com.demo.studentdemo.vo.LoginVO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String PASSWORD = "correct horse";
+    private static final String HASH = new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+    private final UserAuthMapper userAuthMapper = mock(UserAuthMapper.class);
+    private final AuthTokenService tokens = new AuthTokenService("0123456789abcdef0123456789abcdef", 900);
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final AuthService auth;
+
+    AuthServiceTest() {
+        executor.initialize();
+        auth = new AuthService(userAuthMapper, tokens, executor, new SimpleMeterRegistry(), 60_000);
+    }
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), UserAuth.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        auth.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    void loginIssuesTokenAcceptedByAuthenticate() throws Exception {
+        when(userAuthMapper.selectOne(any())).thenReturn(user("ACTIVE"));
+        LoginVO login = auth.login("zhangsan", PASSWORD).get();
+
+        AuthTokenService.Claims claims = auth.authenticate("Bearer " + login.getToken());
+        assertThat(claims.userId()).isEqualTo(7L);
+        assertThat(claims.username()).isEqualTo("zhangsan");
+        assertThat(auth.authenticate("bearer  " + login.getToken())).isEqualTo(claims);
+    }
+
+    @Test
+    void wrongPasswordAndUnknownUserAreIndistinguishable() {
+        when(userAuthMapper.selectOne(any())).thenReturn(user("ACTIVE"));
+        assertThat(codeOf(auth.login("zhangsan", "wrong"))).isEqualTo(401);
+
+        when(userAuthMapper.selectOne(any())).thenReturn(null);
+        assertThat(codeOf(auth.login("nobody", PASSWORD))).isEqualTo(401);
+    }
+
+    @Test
+    void lockedAccountIsForbiddenOnlyWithCorrectPassword() {
+        when(userAuthMapper.selectOne(any())).thenReturn(user("LOCKED"));
+
+        assertThat(codeOf(auth.login("zhangsan", PASSWORD))).isEqualTo(403);
+        assertThat(codeOf(auth.login("zhangsan", "wrong"))).isEqualTo(401);
+    }
+
+    @Test
+    void staleQueuedLoginIsShedWithBusy() {
+        AuthService impatient = new AuthService(userAuthMapper, tokens, executor, new SimpleMeterRegistry(), 0);
+        try {
+            when(userAuthMapper.selectOne(any())).thenReturn(user("ACTIVE"));
+            assertThat(codeOf(impatient.login("zhangsan", PASSWORD))).isEqualTo(503);
+        } finally {
+            impatient.shutdown();
+        }
+    }
+
+    @Test
+    void invalidInputIsRejectedBeforeHashing() {
+        assertThat(assertThrows(BusinessException.class, () -> auth.login("", PASSWORD)).getCode()).isEqualTo(400);
+        assertThat(assertThrows(BusinessException.class, () -> auth.login("zhangsan", "")).getCode()).isEqualTo(400);
+        assertThat(assertThrows(BusinessException.class, () -> auth.login("zhangsan", "密".repeat(25))).getCode()).isEqualTo(400);
+    }
+
+    @Test
+    void missingOrInvalidAuthorizationIsUnauthorized() {
+        String token = tokens.issue(user("ACTIVE"));
+        for (String header : new String[]{null, "", "Bearer", "Bearer ", "Basic " + token, token, "Bearer " + token + "x"}) {
+            assertThat(assertThrows(BusinessException.class, () -> auth.authenticate(header)).getCode())
+                    .as(String.valueOf(header)).isEqualTo(401);
+        }
+    }
+
+    private static int codeOf(CompletableFuture<LoginVO> login) {
+        ExecutionException e = assertThrows(ExecutionException.class, login::get);
+        assertThat(e.getCause()).isInstanceOf(BusinessException.class);
+        return ((BusinessException) e.getCause()).getCode();
+    }
+
+    private static UserAuth user(String status) {
+        UserAuth user = new UserAuth();
+        user.setId(7L);
+        user.setStudentId("S001");
+        user.setUsername("zhangsan");
+        user.setPasswordHash(HASH);
+        user.setAccountStatus(status);
+        return user;
+    }
+}
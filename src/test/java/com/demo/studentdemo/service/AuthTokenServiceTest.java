@@ -0,0 +1,88 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.entity.UserAuth;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuthTokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final AuthTokenService tokens = new AuthTokenService(SECRET, 900);
+
+    @Test
+    void issuedTokenVerifiesToItsClaims() {
+        long before = System.currentTimeMillis() / 1000;
+        AuthTokenService.Claims claims = tokens.verify(tokens.issue(user()));
+
+        assertThat(claims).isNotNull();
+        assertThat(claims.userId()).isEqualTo(7L);
+        assertThat(claims.studentId()).isEqualTo("S001");
+        assertThat(claims.username()).isEqualTo("zhang|san");
+        assertThat(claims.expiresAtEpochSecond()).isBetween(before + 900, before + 901);
+        // 同一密钥的另一实例（多实例部署）认可该令牌
+        assertThat(new AuthTokenService(SECRET, 900).verify(tokens.issue(user()))).isEqualTo(claims);
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = tokens.issue(user());
+        int dot = token.lastIndexOf('.');
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+
+        // 改载荷（延长有效期）但沿用原签名
+        String forgedPayload = payload.replaceFirst("\\|\\d+\\|", "|9999999999|");
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(forgedPayload.getBytes(StandardCharsets.UTF_8))
+                + token.substring(dot);
+        assertThat(tokens.verify(forged)).isNull();
+
+        // 改签名的一个字符
+        char last = token.charAt(token.length() - 1);
+        assertThat(tokens.verify(token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A'))).isNull();
+
+        // 其他密钥签发的令牌
+        assertThat(tokens.verify(new AuthTokenService("fedcba9876543210fedcba9876543210", 900).issue(user()))).isNull();
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        for (String token : new String[]{null, "", ".", "abc", "abc.", ".abc", "a.b.c", "!!!.###", "YQ.YQ"}) {
+            assertThat(tokens.verify(token)).as(token).isNull();
+        }
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        AuthTokenService shortLived = new AuthTokenService(SECRET, 0);
+        assertThat(shortLived.verify(shortLived.issue(user()))).isNull();
+        assertThat(tokens.verify(shortLived.issue(user()))).isNull();
+    }
+
+    @Test
+    void missingSecretUsesRandomKeyPerInstance() {
+        AuthTokenService a = new AuthTokenService("", 900);
+        AuthTokenService b = new AuthTokenService(null, 900);
+
+        assertThat(a.verify(a.issue(user()))).isNotNull();
+        assertThat(b.verify(a.issue(user()))).isNull();
+    }
+
+    @Test
+    void shortSecretFailsFast() {
+        assertThrows(IllegalStateException.class, () -> new AuthTokenService("too-short", 900));
+        assertThrows(IllegalStateException.class, () -> new AuthTokenService("0123456789abcdef0123456789abcde", 900));
+    }
+
+    private static UserAuth user() {
+        UserAuth user = new UserAuth();
+        user.setId(7L);
+        user.setStudentId("S001");
+        user.setUsername("zhang|san");
+        return user;
+    }
+}
@@ -0,0 +1,61 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.entity.Course;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourseSearchIndexTest {
+
+    @Test
+    void singleHanQueryMatchesBigramTerms() {
+        CourseSearchIndex index = CourseSearchIndex.build(catalog(1,
+                course(1L, "高等数学", "极限与微积分"),
+                course(2L, "数据结构", "线性表、树与图"),
+                course(3L, "大学英语", "English reading"),
+                course(4L, "数", null)));
+
+        assertThat(ids(index.search("数", 10, null))).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(ids(index.search("树", 10, null))).containsExactly(2L);
+        assertThat(ids(index.search("数学", 10, null))).containsExactly(1L);
+        assertThat(ids(index.search("english", 10, null))).containsExactly(3L);
+        assertThat(ids(index.search("化", 10, null))).isEmpty();
+    }
+
+    @Test
+    void updateReflectsRenamedAndRemovedCourses() {
+        CourseSearchIndex v1 = CourseSearchIndex.build(catalog(1,
+                course(1L, "高等数学", null),
+                course(2L, "数据结构", null)));
+        CourseSearchIndex v2 = v1.update(catalog(2,
+                course(1L, "线性代数", null),
+                course(3L, "概率论", null)));
+
+        assertThat(v2.getCatalogVersion()).isEqualTo(2);
+        assertThat(ids(v2.search("数学", 10, null))).isEmpty();
+        assertThat(ids(v2.search("代", 10, null))).containsExactly(1L);
+        assertThat(ids(v2.search("数", 10, null))).containsExactly(1L);
+        assertThat(ids(v2.search("概率", 10, null))).containsExactly(3L);
+        // 旧版本不受影响
+        assertThat(ids(v1.search("数学", 10, null))).containsExactly(1L);
+    }
+
+    private static List<Long> ids(CourseSearchIndex.Result result) {
+        return result.hits().stream().map(CourseSearchIndex.Hit::courseId).toList();
+    }
+
+    private static CourseCatalog catalog(long version, Course... courses) {
+        return new CourseCatalog(version, "v" + version, List.of(courses));
+    }
+
+    private static Course course(Long id, String name, String desc) {
+        Course c = new Course();
+        c.setId(id);
+        c.setCourseCode("C" + id);
+        c.setCourseName(name);
+        c.setCourseDesc(desc);
+        return c;
+    }
+}
@@ -0,0 +1,159 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.demo.studentdemo.entity.Course;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 院系看板的增量维护与重建补放：随机的学生 / 成绩事件（含重复投递）与暴力重算比较
+ */
+class DeptDashboardServiceTest {
+
+    private static final String[] TYPES = {"必修", "选修", "实践"};
+    private static final int COURSES = 10;
+
+    private final FakeGradeDb db = new FakeGradeDb(7, 300, COURSES).listener(this::fire).duplicateOneIn(5);
+    private DeptDashboardService service;
+    private ThreadPoolTaskExecutor rebuildExecutor;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Student.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<Course> courses = new ArrayList<>();
+        for (long i = 1; i <= COURSES; i++) {
+            Course c = new Course();
+            c.setId(i);
+            c.setCourseCode("C" + i);
+            c.setCourseType(TYPES[(int) (i % TYPES.length)]);
+            courses.add(c);
+        }
+        ICourseService courseService = mock(ICourseService.class);
+        when(courseService.catalog()).thenReturn(new CourseCatalog(1, "v1", courses));
+
+        // 单线程扫描各区间，扫描过程中穿插的写入与测试线程之间没有数据竞争
+        rebuildExecutor = new ThreadPoolTaskExecutor();
+        rebuildExecutor.setCorePoolSize(1);
+        rebuildExecutor.setMaxPoolSize(1);
+        rebuildExecutor.initialize();
+
+        service = new DeptDashboardService();
+        ReflectionTestUtils.setField(service, "sqlSessionFactory", db.sqlSessionFactory());
+        ReflectionTestUtils.setField(service, "studentMapper", db.studentMapper());
+        ReflectionTestUtils.setField(service, "courseService", courseService);
+        ReflectionTestUtils.setField(service, "dashboardRebuildExecutor", rebuildExecutor);
+        ReflectionTestUtils.setField(service, "rebuildPartitions", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rebuildExecutor.shutdown();
+    }
+
+    @Test
+    void incrementalEventsWithReplaysMatchRecomputation() {
+        for (int i = 0; i < 500; i++) {
+            db.mutate();
+        }
+        service.refresh();
+        assertMatchesRecomputation();
+
+        for (int i = 0; i < 20000; i++) {
+            db.mutate();
+            if (i % 2000 == 0) assertMatchesRecomputation();
+        }
+        assertMatchesRecomputation();
+    }
+
+    @Test
+    void eventsDuringRebuildAreReplayedIdempotently() {
+        for (int i = 0; i < 1500; i++) {
+            db.mutate();
+        }
+        // 游标读取“当前”数据，读取过程中穿插写入：同一变更既可能被扫描读到，又会作为暂存事件补放
+        db.onRead(() -> {
+            if (db.random.nextInt(3) == 0) db.mutate();
+        });
+        service.refresh();
+        db.onRead(null);
+        assertMatchesRecomputation();
+
+        for (int i = 0; i < 2000; i++) {
+            db.mutate();
+        }
+        assertMatchesRecomputation();
+    }
+
+    private void fire(Object event) {
+        if (event instanceof GradeChangedEvent e) {
+            service.onGradeChanged(e);
+        } else {
+            service.onStudentChanged((StudentChangedEvent) event);
+        }
+    }
+
+    // ---------- brute-force comparison ----------
+
+    private void assertMatchesRecomputation() {
+        Map<String, List<Student>> byDept = db.students.values().stream().collect(Collectors.groupingBy(Student::getDeptName));
+        assertThat(service.list()).extracting(DeptDashboardService.DeptDashboard::deptName)
+                .containsExactlyElementsOf(new TreeMap<>(byDept).keySet());
+
+        for (Map.Entry<String, List<Student>> dept : byDept.entrySet()) {
+            DeptDashboardService.DeptDashboard dashboard = service.get(dept.getKey());
+            assertThat(dashboard.students()).isEqualTo(dept.getValue().size());
+            Map<Integer, Long> byYear = dept.getValue().stream().filter(s -> s.getEnrollmentYear() != null)
+                    .collect(Collectors.groupingBy(s -> s.getEnrollmentYear().getYear(), TreeMap::new, Collectors.counting()));
+            assertThat(dashboard.studentsByYear()).isEqualTo(byYear);
+
+            List<Grade> scored = db.grades.values().stream()
+                    .filter(g -> g.getScore() != null && db.students.containsKey(g.getStudentId())
+                            && db.students.get(g.getStudentId()).getDeptName().equals(dept.getKey()))
+                    .toList();
+            assertStats(dashboard.overall(), scored);
+            Map<String, List<Grade>> byType = scored.stream().collect(Collectors.groupingBy(g -> TYPES[(int) (g.getCourseId() % TYPES.length)]));
+            Map<String, DeptDashboardService.CourseTypeStats> actual = dashboard.byCourseType().stream()
+                    .collect(Collectors.toMap(DeptDashboardService.CourseTypeStats::courseType, Function.identity()));
+            assertThat(actual.keySet()).isEqualTo(byType.keySet());
+            byType.forEach((type, list) -> assertStats(actual.get(type), list));
+        }
+    }
+
+    private static void assertStats(DeptDashboardService.CourseTypeStats stats, List<Grade> scored) {
+        long sum = 0;
+        long failed = 0;
+        for (Grade g : scored) {
+            int tenths = g.getScore().movePointRight(1).intValue();
+            sum += tenths;
+            if (tenths < 600) failed++;
+        }
+        assertThat(stats.graded()).isEqualTo(scored.size());
+        assertThat(stats.failed()).isEqualTo(failed);
+        assertThat(stats.avgScore()).isEqualTo(scored.isEmpty() ? 0D : Math.round((double) sum / scored.size()) / 10D);
+    }
+}
@@ -0,0 +1,336 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import com.demo.studentdemo.mapper.GradeArchiveMapper;
+import com.demo.studentdemo.mapper.GradeMapper;
+import com.demo.studentdemo.mapper.StudentMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 测试用的内存“数据库”：学生表、在线成绩表与归档成绩表.
+ *
+ * 随机写入在修改数据的同时按真实服务的方式发布 GradeChangedEvent / StudentChangedEvent（可按比例重复投递），
+ * 事件与游标读到的都是副本. mapper 由 Mockito 装配：scanAll / scanStudentRange 按主键顺序读取“当前”数据（在线表后接归档表），
+ * scanOrderByStudent 按学号、学期顺序读取各自的表；设置 onRead 后游标每读一行前执行一次，用于模拟扫描期间的并发写入.
+ */
+final class FakeGradeDb {
+
+    static final String[] DEPTS = {"计算机学院", "数学学院", "物理学院"};
+    static final String[] SEMESTERS = {"2024-1", "2024-2"};
+
+    final Random random;
+    final TreeMap<String, Student> students = new TreeMap<>();
+    final TreeMap<Long, Grade> grades = new TreeMap<>();
+    final TreeMap<Long, Grade> archived = new TreeMap<>();
+
+    private final int studentIds;
+    private final int courses;
+    private Consumer<Object> listener = e -> { };
+    private Supplier<BigDecimal> scores;
+    private int duplicateOneIn;
+    private boolean courseChanges;
+    private Runnable onRead = () -> { };
+    private long nextGradeId = 1;
+
+    /**
+     * @param studentIds 学号取值范围 S0000 .. S{studentIds-1}，成绩可能指向尚未登记或已删除的学生
+     * @param courses    课程主键取值范围 1 .. courses
+     */
+    FakeGradeDb(long seed, int studentIds, int courses) {
+        this.random = new Random(seed);
+        this.studentIds = studentIds;
+        this.courses = courses;
+        this.scores = () -> random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(1001), 1);
+    }
+
+    FakeGradeDb listener(Consumer<Object> listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    FakeGradeDb scores(Supplier<BigDecimal> scores) {
+        this.scores = scores;
+        return this;
+    }
+
+    /**
+     * 约 1/n 的事件投递两次；0 表示不重复
+     */
+    FakeGradeDb duplicateOneIn(int n) {
+        this.duplicateOneIn = n;
+        return this;
+    }
+
+    /**
+     * 改分时四分之一同时改课程（GradeServiceImpl 只改分数，用于覆盖服务对任意 before / after 的处理）
+     */
+    FakeGradeDb courseChanges() {
+        this.courseChanges = true;
+        return this;
+    }
+
+    void onRead(Runnable onRead) {
+        this.onRead = onRead == null ? () -> { } : onRead;
+    }
+
+    // ---------- writes ----------
+
+    /**
+     * 随机写入一条学生或成绩：三成为学生新增 / 修改 / 删除，其余见 mutateGrade
+     */
+    void mutate() {
+        int op = random.nextInt(10);
+        if (op < 2 || students.isEmpty()) {
+            putStudent(studentId(random.nextInt(studentIds)), DEPTS[random.nextInt(DEPTS.length)],
+                    random.nextInt(8) == 0 ? null : LocalDate.of(2020 + random.nextInt(4), 9, 1));
+        } else if (op < 3) {
+            removeStudent(pick(students).getStudentId());
+        } else {
+            mutateGrade();
+        }
+    }
+
+    /**
+     * 随机写入一条成绩：新增、改分、删除约为 4 : 4 : 2
+     */
+    void mutateGrade() {
+        int op = random.nextInt(10);
+        if (op < 4 || grades.isEmpty()) {
+            insertGrade(studentId(random.nextInt(studentIds)), 1L + random.nextInt(courses),
+                    SEMESTERS[random.nextInt(SEMESTERS.length)], scores.get());
+        } else if (op < 8) {
+            Grade before = pick(grades);
+            Grade after = copy(before);
+            after.setScore(scores.get());
+            if (courseChanges && op == 7) after.setCourseId(1L + random.nextInt(courses));
+            grades.put(after.getId(), after);
+            publish(new GradeChangedEvent(copy(before), copy(after)));
+        } else {
+            Grade before = grades.remove(pick(grades).getId());
+            publish(new GradeChangedEvent(copy(before), null));
+        }
+    }
+
+    Student putStudent(String studentId, String deptName, LocalDate enrollmentYear) {
+        Student after = new Student();
+        after.setStudentId(studentId);
+        after.setName("学生" + studentId);
+        after.setDeptName(deptName);
+        after.setEnrollmentYear(enrollmentYear);
+        Student before = students.put(studentId, after);
+        publish(new StudentChangedEvent(null, before == null ? null : copy(before), copy(after)));
+        return after;
+    }
+
+    void removeStudent(String studentId) {
+        Student before = students.remove(studentId);
+        publish(new StudentChangedEvent(null, copy(before), null));
+    }
+
+    Grade insertGrade(String studentId, Long courseId, String semester, BigDecimal score) {
+        Grade g = new Grade();
+        g.setId(nextGradeId++);
+        g.setStudentId(studentId);
+        g.setCourseId(courseId);
+        g.setSemester(semester);
+        g.setScore(score);
+        grades.put(g.getId(), g);
+        publish(new GradeChangedEvent(null, copy(g)));
+        return g;
+    }
+
+    /**
+     * 把在线成绩原样搬到归档表（沿用主键），与归档作业一样不发布事件
+     */
+    void archive(Long gradeId) {
+        archived.put(gradeId, grades.remove(gradeId));
+    }
+
+    private void publish(Object event) {
+        listener.accept(event);
+        if (duplicateOneIn > 0 && random.nextInt(duplicateOneIn) == 0) listener.accept(event);
+    }
+
+    <T> T pick(Map<?, T> map) {
+        return map.values().stream().skip(random.nextInt(map.size())).findFirst().orElseThrow();
+    }
+
+    static String studentId(int n) {
+        return String.format("S%04d", n);
+    }
+
+    // ---------- mappers ----------
+
+    /**
+     * 每次 openSession 返回新的会话，mapper 读取本库的当前数据
+     */
+    SqlSessionFactory sqlSessionFactory() {
+        GradeMapper gradeMapper = mock(GradeMapper.class);
+        when(gradeMapper.scanAll()).thenAnswer(a -> new ScanCursor(null, null));
+        when(gradeMapper.scanStudentRange(nullable(String.class), nullable(String.class)))
+                .thenAnswer(a -> new ScanCursor(a.getArgument(0), a.getArgument(1)));
+        when(gradeMapper.scanOrderByStudent()).thenAnswer(a -> orderByStudent(grades));
+        GradeArchiveMapper archiveMapper = mock(GradeArchiveMapper.class);
+        when(archiveMapper.scanOrderByStudent()).thenAnswer(a -> orderByStudent(archived));
+
+        SqlSessionFactory factory = mock(SqlSessionFactory.class);
+        when(factory.openSession()).thenAnswer(a -> {
+            SqlSession session = mock(SqlSession.class);
+            when(session.getMapper(GradeMapper.class)).thenReturn(gradeMapper);
+            when(session.getMapper(GradeArchiveMapper.class)).thenReturn(archiveMapper);
+            return session;
+        });
+        return factory;
+    }
+
+    /**
+     * selectList 返回全部学生；listStudentIdBoundaries 与 SQL 一致：按学号排序后每 ceil(n / parts) 个取一个
+     */
+    StudentMapper studentMapper() {
+        StudentMapper studentMapper = mock(StudentMapper.class);
+        when(studentMapper.selectList(any())).thenAnswer(a -> students.values().stream().map(FakeGradeDb::copy).toList());
+        when(studentMapper.listStudentIdBoundaries(anyInt())).thenAnswer(a -> {
+            int parts = a.getArgument(0);
+            List<String> ids = new ArrayList<>(students.keySet());
+            int step = Math.max(1, (ids.size() + parts - 1) / parts);
+            List<String> bounds = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i += step) {
+                bounds.add(ids.get(i));
+            }
+            return bounds;
+        });
+        return studentMapper;
+    }
+
+    private Cursor<Grade> orderByStudent(TreeMap<Long, Grade> table) {
+        return cursor(table.values().stream()
+                .sorted(Comparator.comparing(Grade::getStudentId).thenComparing(Grade::getSemester))
+                .map(FakeGradeDb::copy)
+                .iterator());
+    }
+
+    /**
+     * 把迭代器包装为 MyBatis 游标
+     */
+    static Cursor<Grade> cursor(Iterator<Grade> rows) {
+        return new Cursor<>() {
+            @Override
+            public Iterator<Grade> iterator() { return rows; }
+
+            @Override
+            public boolean isOpen() { return true; }
+
+            @Override
+            public boolean isConsumed() { return !rows.hasNext(); }
+
+            @Override
+            public int getCurrentIndex() { return -1; }
+
+            @Override
+            public void close() { }
+        };
+    }
+
+    /**
+     * 按主键顺序读取学号区间 [from, to) 内的当前成绩，先在线表后归档表
+     */
+    private final class ScanCursor implements Cursor<Grade> {
+        private final String from;
+        private final String to;
+        private final List<TreeMap<Long, Grade>> tables = List.of(grades, archived);
+        private int table;
+        private long lastId;
+
+        private ScanCursor(String from, String to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private Map.Entry<Long, Grade> nextEntry() {
+            for (; table < tables.size(); table++, lastId = 0) {
+                TreeMap<Long, Grade> rows = tables.get(table);
+                for (Map.Entry<Long, Grade> e = rows.higherEntry(lastId); e != null; e = rows.higherEntry(e.getKey())) {
+                    String id = e.getValue().getStudentId();
+                    if ((from == null || id.compareTo(from) >= 0) && (to == null || id.compareTo(to) < 0)) {
+                        return e;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Iterator<Grade> iterator() {
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return nextEntry() != null;
+                }
+
+                @Override
+                public Grade next() {
+                    onRead.run();
+                    Map.Entry<Long, Grade> e = nextEntry();
+                    if (e == null) throw new NoSuchElementException();
+                    lastId = e.getKey();
+                    return copy(e.getValue());
+                }
+            };
+        }
+
+        @Override
+        public boolean isOpen() { return true; }
+
+        @Override
+        public boolean isConsumed() { return nextEntry() == null; }
+
+        @Override
+        public int getCurrentIndex() { return -1; }
+
+        @Override
+        public void close() { }
+    }
+
+    static Grade copy(Grade g) {
+        Grade c = new Grade();
+        c.setId(g.getId());
+        c.setStudentId(g.getStudentId());
+        c.setCourseId(g.getCourseId());
+        c.setSemester(g.getSemester());
+        c.setScore(g.getScore());
+        return c;
+    }
+
+    static Student copy(Student s) {
+        Student c = new Student();
+        c.setStudentId(s.getStudentId());
+        c.setName(s.getName());
+        c.setDeptName(s.getDeptName());
+        c.setEnrollmentYear(s.getEnrollmentYear());
+        return c;
+    }
+}
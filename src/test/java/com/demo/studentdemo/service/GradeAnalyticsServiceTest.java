@@ -0,0 +1,188 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import com.demo.studentdemo.mapper.GradeMapper;
+import com.demo.studentdemo.mapper.StudentMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GradeAnalyticsServiceTest {
+
+    private StudentMapper studentMapper;
+    private GradeAnalyticsService service;
+    private long lookupsUnderWriteLock;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Student.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new GradeAnalyticsService();
+        ReentrantReadWriteLock lock = (ReentrantReadWriteLock) ReflectionTestUtils.getField(service, "lock");
+        studentMapper = mock(StudentMapper.class);
+        when(studentMapper.selectOne(any())).thenAnswer(a -> {
+            if (lock.isWriteLockedByCurrentThread()) lookupsUnderWriteLock++;
+            return student("S001", "计算机学院");
+        });
+        ReflectionTestUtils.setField(service, "studentMapper", studentMapper);
+        GradeColumnStore store = new GradeColumnStore(16);
+        store.putStudent("S002", "数学学院");
+        store.upsert(2L, "S002", 10L, "2024-1", new BigDecimal("70"));
+        ReflectionTestUtils.setField(service, "store", store);
+    }
+
+    @Test
+    void newStudentIsResolvedOutsideTheWriteLockOnce() {
+        service.onGradeChanged(new GradeChangedEvent(null, grade(1L, "S001", "90")));
+        service.onGradeChanged(new GradeChangedEvent(null, grade(3L, "S001", "80")));
+        service.onGradeChanged(new GradeChangedEvent(null, grade(4L, "S002", "60")));
+
+        verify(studentMapper, times(1)).selectOne(any());
+        assertThat(lookupsUnderWriteLock).isZero();
+        assertThat(service.distribution(null, "计算机学院", null).getCount()).isEqualTo(2);
+        assertThat(service.distribution(null, "数学学院", null).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void studentChangedEventMovesExistingGradesToTheNewDept() {
+        Student before = student("S002", "数学学院");
+        Student after = student("S002", "物理学院");
+        service.onStudentChanged(new StudentChangedEvent(2L, before, after));
+        service.onGradeChanged(new GradeChangedEvent(null, grade(5L, "S002", "85")));
+
+        assertThat(service.distribution(null, "数学学院", null).getCount()).isZero();
+        assertThat(service.distribution(null, "物理学院", null).getCount()).isEqualTo(2);
+        assertThat(service.breakdown(GradeColumnStore.Dimension.DEPT, null, null, null)).containsOnlyKeys("物理学院");
+        verify(studentMapper, times(0)).selectOne(any());
+    }
+
+    @Test
+    void registeredStudentNeedsNoLookup() {
+        service.onStudentChanged(new StudentChangedEvent(1L, null, student("S001", "外语学院")));
+        service.onGradeChanged(new GradeChangedEvent(null, grade(1L, "S001", "75")));
+
+        verify(studentMapper, times(0)).selectOne(any());
+        assertThat(service.distribution(null, "外语学院", null).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentFirstReadsBuildOnce() throws Exception {
+        ReflectionTestUtils.setField(service, "store", null);
+        // 第一个读者构建时停在 countAll 上，其余读者在重建监视器上等待
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GradeMapper gradeMapper = gradeTable();
+        when(gradeMapper.countAll()).thenAnswer(a -> {
+            building.countDown();
+            release.await();
+            return 0L;
+        });
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> reads = IntStream.range(0, 4)
+                    .mapToObj(i -> readers.submit(() -> service.distribution(null, null, null).getCount()))
+                    .toList();
+            assertThat(building.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<Long> read : reads) {
+                assertThat(read.get(5, TimeUnit.SECONDS)).isZero();
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+
+        verify(gradeMapper, times(1)).countAll();
+    }
+
+    @Test
+    void failedBuildKeepsNoReplayQueue() {
+        ReflectionTestUtils.setField(service, "store", null);
+        GradeMapper gradeMapper = gradeTable();
+        when(gradeMapper.countAll()).thenThrow(new IllegalStateException("连接中断")).thenReturn(0L);
+
+        assertThatThrownBy(() -> service.refresh()).isInstanceOf(IllegalStateException.class);
+        assertThat(ReflectionTestUtils.getField(service, "pendingDuringRebuild")).isNull();
+        assertThat(service.distribution(null, null, null).getCount()).isZero();
+    }
+
+    @Test
+    void outOfRangeScoresAreLeftOutOfTheSnapshot() {
+        // decimal(4,1) 可存到 999.9：改成超出范围的分数后，旧值也不再计入
+        service.onGradeChanged(new GradeChangedEvent(null, grade(2L, "S002", "150.0")));
+        assertThat(service.distribution(null, "数学学院", null).getCount()).isZero();
+
+        ReflectionTestUtils.setField(service, "store", null);
+        when(studentMapper.selectList(any())).thenReturn(List.of(student("S002", "数学学院")));
+        gradeTable(grade(2L, "S002", "999.9"), grade(3L, "S002", "100.0"), grade(4L, "S002", "0.0"));
+        service.refresh();
+
+        GradeColumnStore.ScoreDistribution d = service.distribution(null, "数学学院", null);
+        assertThat(d.getCount()).isEqualTo(2);
+        assertThat(d.getMax()).isEqualTo(100D);
+        assertThat(d.histogram(10)).hasSize(10).containsExactly(1, 0, 0, 0, 0, 0, 0, 0, 0, 1);
+    }
+
+    /**
+     * 重建时依次扫描出 rows 的成绩表
+     */
+    private GradeMapper gradeTable(Grade... rows) {
+        GradeMapper gradeMapper = mock(GradeMapper.class);
+        when(gradeMapper.countAll()).thenReturn((long) rows.length);
+        when(gradeMapper.scanAll()).thenAnswer(a -> FakeGradeDb.cursor(List.of(rows).iterator()));
+        SqlSession session = mock(SqlSession.class);
+        when(session.getMapper(GradeMapper.class)).thenReturn(gradeMapper);
+        SqlSessionFactory factory = mock(SqlSessionFactory.class);
+        when(factory.openSession()).thenReturn(session);
+        ReflectionTestUtils.setField(service, "gradeMapper", gradeMapper);
+        ReflectionTestUtils.setField(service, "sqlSessionFactory", factory);
+        return gradeMapper;
+    }
+
+    private static Student student(String studentId, String deptName) {
+        Student s = new Student();
+        s.setStudentId(studentId);
+        s.setDeptName(deptName);
+        return s;
+    }
+
+    private static Grade grade(Long id, String studentId, String score) {
+        Grade g = new Grade();
+        g.setId(id);
+        g.setStudentId(studentId);
+        g.setCourseId(10L);
+        g.setSemester("2024-1");
+        g.setScore(new BigDecimal(score));
+        return g;
+    }
+}
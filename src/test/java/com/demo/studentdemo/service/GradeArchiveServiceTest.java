@@ -0,0 +1,122 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.mapper.GradeArchiveMapper;
+import com.demo.studentdemo.service.GradeArchiveService.GradeSource;
+import com.demo.studentdemo.vo.GradeArchiveSemesterVO;
+import com.demo.studentdemo.vo.StudentQueryReq;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * route 的选表规则：水位 W 之前（含）只在归档表，之后只在在线表，跨越 W 或不限学期时两表都查
+ */
+class GradeArchiveServiceTest {
+
+    private final GradeArchiveMapper mapper = mock(GradeArchiveMapper.class);
+    private final GradeArchiveService service = new GradeArchiveService();
+
+    GradeArchiveServiceTest() {
+        ReflectionTestUtils.setField(service, "gradeArchiveMapper", mapper);
+    }
+
+    /**
+     * 水位 2022F（2021S ~ 2022F 已归档完成）
+     */
+    @ParameterizedTest(name = "semester={0}, from={1}, to={2} -> {3}")
+    @CsvSource(nullValues = "null", value = {
+            // 单学期：边界学期本身在归档表
+            "2022F,  null,  null,  ARCHIVE",
+            "2021S,  null,  null,  ARCHIVE",
+            "2023S,  null,  null,  HOT",
+            // 闭区间
+            "null,   2021S, 2022F, ARCHIVE",
+            "null,   2023S, 2024F, HOT",
+            "null,   2022F, 2023S, ALL",
+            "null,   2022S, 2022F, ARCHIVE",
+            // 开放区间
+            "null,   null,  2022F, ARCHIVE",
+            "null,   null,  2023S, ALL",
+            "null,   2023S, null,  HOT",
+            "null,   2022F, null,  ALL",
+            "null,   null,  null,  ALL",
+            // 空串视为未设置
+            "'',     '',    '',    ALL",
+            "'',     2023S, '',    HOT",
+            // 单学期与区间同时给出时取交集
+            "2023S,  2020S, null,  HOT",
+            "2022F,  null,  2024F, ARCHIVE",
+            "2023S,  null,  2022F, ARCHIVE",
+    })
+    void routesBySemesterRangeAgainstWatermark(String semester, String from, String to, GradeSource expected) {
+        watermark(done("2021S"), done("2021F"), done("2022S"), done("2022F"));
+        assertThat(service.route(req(semester, from, to))).isEqualTo(expected);
+    }
+
+    @Test
+    void unionUntilWatermarkIsLoadedOrWhileArchiving() {
+        assertThat(service.route(req("2020S", null, null))).isEqualTo(GradeSource.ALL);
+
+        watermark(done("2021S"), archiving("2021F"));
+        assertThat(service.route(req("2021S", null, null))).isEqualTo(GradeSource.ALL);
+        assertThat(service.route(req("2024S", null, null))).isEqualTo(GradeSource.ALL);
+        assertThat(service.isArchived("2021F")).isTrue();
+        assertThat(service.isArchived("2022S")).isFalse();
+
+        watermark(done("2021S"), done("2021F"));
+        assertThat(service.route(req("2021F", null, null))).isEqualTo(GradeSource.ARCHIVE);
+        assertThat(service.route(null)).isEqualTo(GradeSource.ALL);
+    }
+
+    @Test
+    void nothingArchivedReadsHotOnly() {
+        watermark();
+        assertThat(service.route(req(null, null, null))).isEqualTo(GradeSource.HOT);
+        assertThat(service.route(req("2010S", null, null))).isEqualTo(GradeSource.HOT);
+        assertThat(service.isArchived("2010S")).isFalse();
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousWatermark() {
+        watermark(done("2022F"));
+        when(mapper.listArchivedSemesters()).thenThrow(new IllegalStateException("db down"));
+        service.refreshWatermark();
+        assertThat(service.route(req("2022F", null, null))).isEqualTo(GradeSource.ARCHIVE);
+    }
+
+    private void watermark(GradeArchiveSemesterVO... semesters) {
+        when(mapper.listArchivedSemesters()).thenReturn(List.copyOf(Arrays.asList(semesters)));
+        service.refreshWatermark();
+    }
+
+    private static GradeArchiveSemesterVO done(String semester) {
+        return semester(semester, "DONE");
+    }
+
+    private static GradeArchiveSemesterVO archiving(String semester) {
+        return semester(semester, "ARCHIVING");
+    }
+
+    private static GradeArchiveSemesterVO semester(String semester, String status) {
+        GradeArchiveSemesterVO vo = new GradeArchiveSemesterVO();
+        vo.setSemester(semester);
+        vo.setStatus(status);
+        return vo;
+    }
+
+    private static StudentQueryReq req(String semester, String from, String to) {
+        StudentQueryReq req = new StudentQueryReq();
+        req.setSemester(semester);
+        req.setSemesterFrom(from);
+        req.setSemesterTo(to);
+        return req;
+    }
+}
@@ -0,0 +1,27 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GradeExportServiceTest {
+
+    private final GradeExportService service = new GradeExportService();
+
+    @Test
+    void exportIsRejectedWith409WhenShardingIsEnabled() {
+        ReflectionTestUtils.setField(service, "shardingEnabled", true);
+
+        BusinessException e = assertThrows(BusinessException.class, service::checkAvailable);
+        assertThat(e.getCode()).isEqualTo(409);
+    }
+
+    @Test
+    void exportIsAvailableWithoutSharding() {
+        assertThatNoException().isThrownBy(service::checkAvailable);
+    }
+}
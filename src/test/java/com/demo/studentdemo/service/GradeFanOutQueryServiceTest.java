@@ -0,0 +1,108 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.vo.StudentGradeVO;
+import com.demo.studentdemo.vo.StudentQueryReq;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GradeFanOutQueryServiceTest {
+
+    // 倒序，与 listGradeSemesters 一致
+    private static final List<String> SEMESTERS = IntStream.range(0, 10)
+            .mapToObj(i -> String.format("20%02d-%d", 24 - i / 2, 2 - i % 2)).toList();
+    private static final int ROWS_PER_SEMESTER = 5;
+
+    private final List<StudentQueryReq> subQueries = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger fetchedRows = new AtomicInteger();
+    private GradeFanOutQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        StudentMapper studentMapper = mock(StudentMapper.class);
+        when(studentMapper.listGradeSemesters(any(), any())).thenReturn(SEMESTERS);
+        when(studentMapper.queryAllGrade(any(), any(), any())).thenAnswer(a -> {
+            Page<StudentGradeVO> page = a.getArgument(0);
+            StudentQueryReq req = a.getArgument(1);
+            if (page.getCurrent() == 1) subQueries.add(req);
+            List<StudentGradeVO> rows = SEMESTERS.stream()
+                    .filter(s -> s.compareTo(req.getSemesterFrom()) >= 0 && s.compareTo(req.getSemesterTo()) <= 0)
+                    .flatMap(s -> IntStream.range(0, ROWS_PER_SEMESTER).mapToObj(i -> row(s, i)))
+                    .skip(page.offset())
+                    .limit(page.getSize())
+                    .toList();
+            fetchedRows.addAndGet(rows.size());
+            return page.setRecords(rows);
+        });
+        service = new GradeFanOutQueryService();
+        ReflectionTestUtils.setField(service, "studentMapper", studentMapper);
+        ReflectionTestUtils.setField(service, "gradeArchiveService", mock(GradeArchiveService.class));
+    }
+
+    @Test
+    void semesterModeGroupsSemestersIntoAtMostPartitionRanges() {
+        GradeFanOutQueryService.FanOutResult result = service.query(new StudentQueryReq(),
+                GradeFanOutQueryService.SplitMode.SEMESTER, 3, 1000, Runnable::run);
+
+        assertThat(result.subQueries()).isEqualTo(3);
+        assertThat(subQueries).extracting(StudentQueryReq::getSemesterTo).containsExactly("2024-2", "2023-1", "2021-2");
+        assertThat(subQueries).extracting(StudentQueryReq::getSemesterFrom).containsExactly("2023-2", "2022-1", "2020-1");
+        assertThat(result.truncated()).isFalse();
+        assertThat(result.records()).hasSize(SEMESTERS.size() * ROWS_PER_SEMESTER)
+                .isSortedAccordingTo(GradeFanOutQueryService.RESULT_ORDER);
+    }
+
+    @Test
+    void semesterModeStopsOnceMaxRowsAreCollected() {
+        GradeFanOutQueryService.FanOutResult result = service.query(new StudentQueryReq(),
+                GradeFanOutQueryService.SplitMode.SEMESTER, 64, 7, Runnable::run);
+
+        assertThat(result.subQueries()).isEqualTo(SEMESTERS.size());
+        assertThat(result.truncated()).isTrue();
+        assertThat(result.records()).hasSize(7).isSortedAccordingTo(GradeFanOutQueryService.RESULT_ORDER);
+        assertThat(result.records()).extracting(StudentGradeVO::getSemester).containsOnly("2024-2", "2024-1");
+        // 每个子查询首页 ceil(7 / 10) + 1 = 2 行，之后只为拼接到的前两个学期取后续页
+        assertThat(fetchedRows.get()).isLessThanOrEqualTo(7 + 2 * SEMESTERS.size());
+    }
+
+    @Test
+    void laterPagesAreReadOnlyAsFarAsNeeded() {
+        GradeFanOutQueryService.FanOutResult result = service.query(new StudentQueryReq(),
+                GradeFanOutQueryService.SplitMode.SEMESTER, 2, 1000, Runnable::run);
+
+        // 两个子查询各 25 行，页大小 501：各一页读完
+        assertThat(result.truncated()).isFalse();
+        assertThat(result.records()).hasSize(SEMESTERS.size() * ROWS_PER_SEMESTER)
+                .isSortedAccordingTo(GradeFanOutQueryService.RESULT_ORDER);
+        assertThat(fetchedRows.get()).isEqualTo(SEMESTERS.size() * ROWS_PER_SEMESTER);
+
+        fetchedRows.set(0);
+        result = service.query(new StudentQueryReq(), GradeFanOutQueryService.SplitMode.SEMESTER, 2, 12, Runnable::run);
+
+        // 页大小 7：第一个子查询读两页，第二个只有预取的首页
+        assertThat(result.truncated()).isTrue();
+        assertThat(result.records()).hasSize(12).extracting(StudentGradeVO::getSemester).doesNotContain("2021-2");
+        assertThat(fetchedRows.get()).isEqualTo(7 + 7 + 7);
+    }
+
+    private static StudentGradeVO row(String semester, int i) {
+        StudentGradeVO vo = new StudentGradeVO();
+        vo.setSemester(semester);
+        vo.setStudentId(String.format("S%03d", i));
+        vo.setCourseCode("C1");
+        return vo;
+    }
+}
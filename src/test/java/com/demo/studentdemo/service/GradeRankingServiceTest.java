@@ -0,0 +1,210 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 排名增量维护与重建补放：以内存中的“数据库”模拟游标扫描期间的并发写入，结果与暴力重算比较
+ */
+class GradeRankingServiceTest {
+
+    private static final long[] COURSES = {1L, 2L, 3L};
+    private static final String[] DEPTS = FakeGradeDb.DEPTS;
+    private static final int STUDENTS = 40;
+
+    private final FakeGradeDb db = new FakeGradeDb(11, STUDENTS, COURSES.length).courseChanges().listener(this::fire);
+    private final SqlSessionFactory sqlSessionFactory = db.sqlSessionFactory();
+    private GradeRankingService service;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // LambdaQueryWrapper 解析列名依赖实体的表信息，正常由 MyBatis-Plus 启动时注册
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Student.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new GradeRankingService();
+        ReflectionTestUtils.setField(service, "sqlSessionFactory", sqlSessionFactory);
+        ReflectionTestUtils.setField(service, "studentMapper", db.studentMapper());
+        // 学生固定，成绩都指向已登记的学生；分数集中在少数取值上，覆盖同分并列
+        for (int i = 0; i < STUDENTS; i++) {
+            db.putStudent(FakeGradeDb.studentId(i), DEPTS[i % DEPTS.length], null);
+        }
+        db.scores(() -> db.random.nextInt(15) == 0 ? null : BigDecimal.valueOf(600 + db.random.nextInt(20) * 20, 1));
+    }
+
+    @Test
+    void replayDuringRebuildAndLiveEventsMatchRecomputation() {
+        for (int i = 0; i < 300; i++) {
+            db.mutateGrade();
+        }
+        // 游标按 id 顺序读取“当前”数据，读取过程中穿插写入：新插入的行随后会被游标读到，对应事件又会被补放
+        db.onRead(() -> {
+            if (db.random.nextInt(3) == 0) db.mutateGrade();
+        });
+        service.refresh();
+        db.onRead(null);
+        assertMatchesRecomputation();
+
+        for (int i = 0; i < 2000; i++) {
+            db.mutateGrade();
+            if (i % 250 == 0) assertMatchesRecomputation();
+        }
+        assertMatchesRecomputation();
+    }
+
+    @Test
+    void departmentMoveRelocatesStudent() {
+        for (int i = 0; i < 100; i++) {
+            db.mutateGrade();
+        }
+        service.refresh();
+
+        Student mover = db.students.values().stream()
+                .filter(s -> db.grades.values().stream().anyMatch(g -> g.getStudentId().equals(s.getStudentId()) && g.getScore() != null))
+                .findFirst().orElseThrow();
+        String dept = DEPTS[(List.of(DEPTS).indexOf(mover.getDeptName()) + 1) % DEPTS.length];
+        db.putStudent(mover.getStudentId(), dept, null);
+
+        assertThat(service.rankInDept(mover.getStudentId()).scope()).isEqualTo("dept:" + dept);
+        assertMatchesRecomputation();
+    }
+
+    @Test
+    void concurrentFirstReadsBuildOnce() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            db.mutateGrade();
+        }
+        // 第一个读者构建时停在游标上，其余读者在重建监视器上等待
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        db.onRead(() -> {
+            if (!first.getAndSet(false)) return;
+            scanning.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<GradeRankingService.RankedEntry>>> reads = IntStream.range(0, 4)
+                    .mapToObj(i -> readers.submit(() -> service.topOfCourse(COURSES[0], FakeGradeDb.SEMESTERS[0], 10)))
+                    .toList();
+            assertThat(scanning.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<List<GradeRankingService.RankedEntry>> read : reads) {
+                read.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        db.onRead(null);
+
+        // 每次构建打开一个会话扫描全部成绩
+        verify(sqlSessionFactory, times(1)).openSession();
+        assertMatchesRecomputation();
+    }
+
+    @Test
+    void failedBuildKeepsNoReplayQueueAndNextReadRebuilds() {
+        for (int i = 0; i < 100; i++) {
+            db.mutateGrade();
+        }
+        db.onRead(() -> {
+            throw new IllegalStateException("连接中断");
+        });
+        assertThatThrownBy(() -> service.refresh()).isInstanceOf(IllegalStateException.class);
+        db.onRead(null);
+        assertThat(ReflectionTestUtils.getField(service, "pendingDuringRebuild")).isNull();
+
+        for (int i = 0; i < 50; i++) {
+            db.mutateGrade();
+        }
+        assertMatchesRecomputation();
+    }
+
+    private void fire(Object event) {
+        if (event instanceof GradeChangedEvent e) {
+            service.onGradeChanged(e);
+        } else {
+            service.onStudentChanged((StudentChangedEvent) event);
+        }
+    }
+
+    // ---------- brute-force comparison ----------
+    private void assertMatchesRecomputation() {
+        List<Grade> scored = db.grades.values().stream().filter(g -> g.getScore() != null).toList();
+        for (long courseId : COURSES) {
+            for (String semester : FakeGradeDb.SEMESTERS) {
+                List<Grade> board = scored.stream()
+                        .filter(g -> g.getCourseId() == courseId && g.getSemester().equals(semester))
+                        .sorted(Comparator.comparing(Grade::getScore).reversed()
+                                .thenComparing(Grade::getStudentId).thenComparing(Grade::getId))
+                        .toList();
+                List<GradeRankingService.RankedEntry> top = service.topOfCourse(courseId, semester, Integer.MAX_VALUE);
+                assertThat(top).extracting(GradeRankingService.RankedEntry::studentId)
+                        .containsExactlyElementsOf(board.stream().map(Grade::getStudentId).toList());
+                assertThat(top).extracting(GradeRankingService.RankedEntry::score)
+                        .containsExactlyElementsOf(board.stream().map(g -> g.getScore().doubleValue()).toList());
+                for (Grade g : board) {
+                    BigDecimal best = board.stream().filter(o -> o.getStudentId().equals(g.getStudentId()))
+                            .map(Grade::getScore).max(Comparator.naturalOrder()).orElseThrow();
+                    long higher = board.stream().filter(o -> o.getScore().compareTo(best) > 0).count();
+                    assertThat(service.rankInCourse(g.getStudentId(), courseId, semester).rank()).isEqualTo(higher + 1);
+                }
+            }
+        }
+        Map<String, long[]> sums = new HashMap<>();
+        for (Grade g : scored) {
+            long[] agg = sums.computeIfAbsent(g.getStudentId(), k -> new long[2]);
+            agg[0] += g.getScore().movePointRight(1).intValue();
+            agg[1]++;
+        }
+        for (String dept : DEPTS) {
+            List<Map.Entry<String, Double>> expected = sums.entrySet().stream()
+                    .filter(e -> db.students.get(e.getKey()).getDeptName().equals(dept))
+                    .map(e -> Map.entry(e.getKey(), e.getValue()[0] / 10D / e.getValue()[1]))
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .collect(Collectors.toList());
+            List<GradeRankingService.RankedEntry> top = service.topOfDept(dept, Integer.MAX_VALUE);
+            assertThat(top).extracting(GradeRankingService.RankedEntry::studentId)
+                    .containsExactlyElementsOf(expected.stream().map(Map.Entry::getKey).toList());
+            assertThat(top).extracting(GradeRankingService.RankedEntry::score)
+                    .containsExactlyElementsOf(expected.stream().map(Map.Entry::getValue).toList());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.entity.Grade;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * 成绩分片测试用的 H2 内存库（MySQL 兼容模式），建表取自 sql/grade_shard.sql.
+ *
+ * H2 不支持的 MySQL 写法在测试侧兼容：建表去掉 unsigned 与 on update（写入方总是显式给出 updated_at），SQL 去掉 FORCE INDEX 提示，
+ * 忽略 MySQL 流式读取用的 setFetchSize(Integer.MIN_VALUE)，FIELD() 以 Java 函数注册.
+ * 可设置 beforePrepare 钩子，在每条 SQL 预编译前执行，用于在两条语句之间模拟并发写入.
+ */
+final class GradeShardDatabases {
+
+    private static final Pattern FORCE_INDEX = Pattern.compile("\\s+FORCE INDEX \\([^)]*\\)");
+    private static final String SHARD_DDL = loadShardDdl();
+
+    private GradeShardDatabases() {
+    }
+
+    /**
+     * 一个分片库：t_grade 与 t_student_key
+     */
+    static HikariDataSource shard(Consumer<String> beforePrepare) {
+        HikariDataSource ds = open(beforePrepare);
+        execute(ds, SHARD_DDL);
+        return ds;
+    }
+
+    static HikariDataSource shard() {
+        return shard(sql -> { });
+    }
+
+    /**
+     * 主库：与分片同构的 t_grade（再平衡的首次迁移来源），外加 t_grade_archive 与 t_student
+     */
+    static HikariDataSource primary() {
+        HikariDataSource ds = shard();
+        execute(ds, "CREATE TABLE t_grade_archive AS SELECT * FROM t_grade WITH NO DATA;"
+                + "CREATE INDEX idx_archive_student_semester ON t_grade_archive (student_id, semester);"
+                + "CREATE TABLE t_student (student_id char(12) NOT NULL PRIMARY KEY)");
+        return ds;
+    }
+
+    /**
+     * 绕过钩子直接访问同一个库，用于模拟其他连接上的并发写入
+     */
+    static JdbcTemplate direct(HikariDataSource ds) {
+        JdbcDataSource raw = new JdbcDataSource();
+        raw.setURL(((H2Url) ds.getDataSource()).url());
+        return new JdbcTemplate(raw);
+    }
+
+    static void insert(DataSource ds, String table, Grade grade) {
+        new NamedParameterJdbcTemplate(ds).update("INSERT INTO " + table
+                        + " (id, student_id, course_id, semester, score, created_at, updated_at, created_by, updated_by) "
+                        + "VALUES (:id, :studentId, :courseId, :semester, :score, :createdAt, :updatedAt, :createdBy, :updatedBy)",
+                ShardedGradeStore.gradeParams(grade));
+    }
+
+    static List<Grade> rows(DataSource ds, String table) {
+        return new JdbcTemplate(ds).query("SELECT * FROM " + table + " ORDER BY id", new BeanPropertyRowMapper<>(Grade.class));
+    }
+
+    static void close(HikariDataSource... dataSources) {
+        for (HikariDataSource ds : dataSources) {
+            direct(ds).execute("SHUTDOWN");
+            ds.close();
+        }
+    }
+
+    /**
+     * 以 CREATE ALIAS 注册的函数，H2 通过反射调用，须为 public 类
+     */
+    public static final class MySqlFunctions {
+
+        private MySqlFunctions() {
+        }
+
+        /**
+         * MySQL FIELD(value, v1, v2, ...)：value 在列表中的位置（从 1 开始），不在列表中为 0
+         */
+        public static int field(long value, long... list) {
+            for (int i = 0; i < list.length; i++) {
+                if (list[i] == value) return i + 1;
+            }
+            return 0;
+        }
+    }
+
+    // ---------- H2 兼容层 ----------
+
+    /**
+     * 包装出的 DataSource 同时暴露库 URL，供 direct 使用
+     */
+    private interface H2Url extends DataSource {
+        String url();
+    }
+
+    private static HikariDataSource open(Consumer<String> beforePrepare) {
+        String url = "jdbc:h2:mem:grade_" + UUID.randomUUID().toString().replace("-", "")
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL(url);
+        H2Url shim = proxy(H2Url.class, (p, method, args) -> switch (method.getName()) {
+            case "url" -> url;
+            case "getConnection" -> connection((Connection) invoke(h2, method, args), beforePrepare);
+            default -> invoke(h2, method, args);
+        });
+        HikariDataSource ds = new HikariDataSource();
+        ds.setDataSource(shim);
+        ds.setMaximumPoolSize(8);
+        ds.setMinimumIdle(0);
+        return ds;
+    }
+
+    private static Connection connection(Connection target, Consumer<String> beforePrepare) {
+        return proxy(Connection.class, (p, method, args) -> {
+            if (method.getName().equals("prepareStatement") || method.getName().equals("prepareCall")) {
+                beforePrepare.accept((String) args[0]);
+                args[0] = FORCE_INDEX.matcher((String) args[0]).replaceAll("");
+            }
+            Object result = invoke(target, method, args);
+            return result instanceof Statement statement ? statement(statement) : result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S extends Statement> S statement(S target) {
+        Class<?> type = target instanceof java.sql.CallableStatement ? java.sql.CallableStatement.class
+                : target instanceof java.sql.PreparedStatement ? java.sql.PreparedStatement.class : Statement.class;
+        return (S) proxy(type, (p, method, args) -> {
+            if (method.getName().equals("setFetchSize") && (int) args[0] < 0) return null;
+            if (args != null && args.length > 0 && args[0] instanceof String sql && method.getName().startsWith("execute")) {
+                args[0] = FORCE_INDEX.matcher(sql).replaceAll("");
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(GradeShardDatabases.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void execute(DataSource ds, String script) {
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        for (String sql : script.split(";")) {
+            if (!sql.isBlank()) jdbc.execute(sql);
+        }
+    }
+
+    private static String loadShardDdl() {
+        try (InputStream in = GradeShardDatabases.class.getResourceAsStream("/sql/grade_shard.sql")) {
+            String ddl = new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                    .replaceAll("(?m)^\\s*--.*$", "")
+                    .replace(" unsigned", "")
+                    .replace(" on update CURRENT_TIMESTAMP", "");
+            return ddl + ";CREATE ALIAS FIELD FOR \"" + MySqlFunctions.class.getName() + ".field\"";
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
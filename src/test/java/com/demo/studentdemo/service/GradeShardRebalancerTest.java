@@ -0,0 +1,178 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.config.GradeShardRouter;
+import com.demo.studentdemo.entity.Grade;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 从两个分片扩到三个：复制 → 切换 → 删除之后每行恰好留在其哈希分片上一份；
+ * 复制与删除来源之间落到来源的改分、删除（ShardedGradeStore 的回退写入）不丢失也不复活
+ */
+class GradeShardRebalancerTest {
+
+    private static final String CONDITIONAL_DELETE = "DELETE FROM t_grade WHERE id = ? AND";
+
+    /**
+     * 在某个分片第一次执行有条件删除（即切换）之前运行一次
+     */
+    private final Map<Integer, AtomicReference<Runnable>> beforeCutover = new HashMap<>();
+    private final HikariDataSource[] shards = IntStream.range(0, 3)
+            .mapToObj(i -> {
+                AtomicReference<Runnable> hook = beforeCutover.computeIfAbsent(i, k -> new AtomicReference<>());
+                return GradeShardDatabases.shard(sql -> {
+                    Runnable r = sql.startsWith(CONDITIONAL_DELETE) ? hook.getAndSet(null) : null;
+                    if (r != null) r.run();
+                });
+            })
+            .toArray(HikariDataSource[]::new);
+    private final HikariDataSource primary = GradeShardDatabases.primary();
+    private final GradeShardRouter router = new GradeShardRouter(List.of(shards));
+    private final GradeShardRebalancer rebalancer = new GradeShardRebalancer();
+    private final Map<Long, Grade> grades = new HashMap<>();
+    private final Random random = new Random(5);
+    private long nextId = 1;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rebalancer, "router", router);
+        ReflectionTestUtils.setField(rebalancer, "dataSource", primary);
+        // 扩容前只有前两个分片
+        for (int i = 0; i < 300; i++) {
+            String studentId = String.format("2023%06d", i);
+            for (int n = random.nextInt(3) + 1; n > 0; n--) {
+                put(shards[GradeShardRouter.shardIndex(studentId, 2)], grade(studentId));
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.close();
+        GradeShardDatabases.close(primary);
+        GradeShardDatabases.close(shards);
+    }
+
+    @Test
+    void everyRowEndsOnItsHomeShardExactlyOnce() throws InterruptedException {
+        long toMove = grades.values().stream().filter(g -> home(g) == 2).count();
+
+        Map<String, Long> moved = rebalancer.rebalance(false, null);
+
+        assertThat(moved.keySet()).isSubsetOf("shard-0->shard-2", "shard-1->shard-2");
+        assertThat(moved.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(toMove);
+        assertPlacedAndUnchanged();
+        assertThat(rebalancer.rebalance(false, null)).isEmpty();
+    }
+
+    @Test
+    void includePrimaryMigratesTheUnshardedTable() throws InterruptedException {
+        List<Grade> legacy = new ArrayList<>();
+        for (int i = 300; i < 360; i++) {
+            Grade g = grade(String.format("2023%06d", i));
+            put(primary, g);
+            legacy.add(g);
+        }
+
+        Map<String, Long> moved = rebalancer.rebalance(true, null);
+
+        assertThat(GradeShardDatabases.rows(primary, "t_grade")).isEmpty();
+        assertThat(moved.entrySet().stream().filter(e -> e.getKey().startsWith("primary->"))
+                .mapToLong(Map.Entry::getValue).sum()).isEqualTo(legacy.size());
+        assertPlacedAndUnchanged();
+    }
+
+    @Test
+    void rowUpdatedBetweenCopyAndCutoverIsCopiedAgain() throws InterruptedException {
+        Grade g = movingRow();
+        Grade updated = FakeGradeDb.copy(g);
+        updated.setCreatedAt(g.getCreatedAt());
+        updated.setCreatedBy(g.getCreatedBy());
+        updated.setScore(new BigDecimal("12.3"));
+        updated.setUpdatedAt(LocalDateTime.of(2024, 9, 2, 8, 0));
+        updated.setUpdatedBy("tester");
+        beforeCutover.get(GradeShardRouter.shardIndex(g.getStudentId(), 2)).set(() ->
+                GradeShardDatabases.direct(shards[GradeShardRouter.shardIndex(g.getStudentId(), 2)]).update(
+                        "UPDATE t_grade SET score = ?, updated_at = ?, updated_by = ? WHERE id = ?",
+                        updated.getScore(), updated.getUpdatedAt(), updated.getUpdatedBy(), g.getId()));
+        grades.put(g.getId(), updated);
+
+        rebalancer.rebalance(false, null);
+
+        assertPlacedAndUnchanged();
+    }
+
+    @Test
+    void rowDeletedBetweenCopyAndCutoverIsNotResurrected() throws InterruptedException {
+        Grade g = movingRow();
+        beforeCutover.get(GradeShardRouter.shardIndex(g.getStudentId(), 2)).set(() ->
+                GradeShardDatabases.direct(shards[GradeShardRouter.shardIndex(g.getStudentId(), 2)])
+                        .update("DELETE FROM t_grade WHERE id = ?", g.getId()));
+        grades.remove(g.getId());
+
+        rebalancer.rebalance(false, null);
+
+        assertPlacedAndUnchanged();
+    }
+
+    /**
+     * 每个分片上只有哈希到该分片的行，全部分片合起来与期望的行一一对应
+     */
+    private void assertPlacedAndUnchanged() {
+        List<Grade> all = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            List<Grade> rows = GradeShardDatabases.rows(shards[i], "t_grade");
+            int shard = i;
+            assertThat(rows).allSatisfy(r -> assertThat(home(r)).as("grade %d", r.getId()).isEqualTo(shard));
+            all.addAll(rows);
+        }
+        // Grade 没有 equals，按包含全部列的 toString 比较
+        assertThat(all).extracting(Grade::toString)
+                .containsExactlyInAnyOrderElementsOf(grades.values().stream().map(Grade::toString).toList());
+    }
+
+    /**
+     * 扩容后要从原分片搬到新分片的一行
+     */
+    private Grade movingRow() {
+        return grades.values().stream().filter(g -> home(g) == 2).findFirst().orElseThrow();
+    }
+
+    private static int home(Grade g) {
+        return GradeShardRouter.shardIndex(g.getStudentId(), 3);
+    }
+
+    private void put(HikariDataSource ds, Grade g) {
+        GradeShardDatabases.insert(ds, "t_grade", g);
+        grades.put(g.getId(), g);
+    }
+
+    private Grade grade(String studentId) {
+        Grade g = new Grade();
+        g.setId(nextId++);
+        g.setStudentId(studentId);
+        g.setCourseId(1L + random.nextInt(10));
+        g.setSemester(random.nextBoolean() ? "2024S" : "2024F");
+        g.setScore(random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(1001), 1));
+        g.setCreatedAt(LocalDateTime.of(2024, 9, 1, 8, 0));
+        g.setUpdatedAt(random.nextInt(10) == 0 ? null : LocalDateTime.of(2024, 9, 1, 8, random.nextInt(60)));
+        g.setCreatedBy("admin");
+        g.setUpdatedBy("admin");
+        return g;
+    }
+}
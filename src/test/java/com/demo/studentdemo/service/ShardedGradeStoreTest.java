@@ -0,0 +1,285 @@
+package com.demo.studentdemo.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.demo.studentdemo.config.GradeShardRouter;
+import com.demo.studentdemo.entity.Course;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.exception.BusinessException;
+import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.vo.PageQueryParam;
+import com.demo.studentdemo.vo.StudentGradeVO;
+import com.demo.studentdemo.vo.StudentQueryReq;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 跨分片 scatter-gather 与全量读取：三个 H2 分片加一个主库（归档表），结果与在内存中对全部成绩排序分页一致
+ */
+class ShardedGradeStoreTest {
+
+    private static final String[] SEMESTERS = {"2023F", "2024S", "2024F"};
+    private static final String ARCHIVED_SEMESTER = "2022F";
+    private static final String DELETED_STUDENT = "2023999999";
+    private static final long UNLISTED_COURSE = 9;
+
+    private final HikariDataSource[] shards = {
+            GradeShardDatabases.shard(), GradeShardDatabases.shard(), GradeShardDatabases.shard()};
+    private final HikariDataSource primary = GradeShardDatabases.primary();
+    private final GradeShardRouter router = new GradeShardRouter(List.of(shards));
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final ShardedGradeStore store = new ShardedGradeStore();
+    private final List<Grade> hot = new ArrayList<>();
+    private final List<Grade> archived = new ArrayList<>();
+    private CourseCatalog catalog;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Student.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 课程代码顺序与主键顺序相反，FIELD() 排序必须按课程目录而不是 course_id
+        List<Course> courses = IntStream.rangeClosed(1, 8).mapToObj(id -> {
+            Course c = new Course();
+            c.setId((long) id);
+            c.setCourseCode("C" + (9 - id));
+            c.setCourseName("课程" + id);
+            c.setCredit((byte) 2);
+            return c;
+        }).toList();
+        catalog = new CourseCatalog(1, "v1", courses);
+        ICourseService courseService = mock(ICourseService.class);
+        when(courseService.catalog()).thenReturn(catalog);
+        GradeArchiveService archiveService = mock(GradeArchiveService.class);
+        when(archiveService.route(any())).thenReturn(GradeArchiveService.GradeSource.ALL);
+
+        List<Student> students = IntStream.range(0, 40).mapToObj(i -> {
+            Student s = new Student();
+            s.setStudentId(String.format("2023%06d", i));
+            s.setName("学生" + i);
+            s.setDeptName("计算机学院");
+            return s;
+        }).toList();
+        StudentMapper studentMapper = mock(StudentMapper.class);
+        when(studentMapper.selectList(any())).thenReturn(students);
+        students.forEach(s -> GradeShardDatabases.direct(primary)
+                .update("INSERT INTO t_student (student_id) VALUES (?)", s.getStudentId()));
+
+        executor.setCorePoolSize(4);
+        executor.initialize();
+        ReflectionTestUtils.setField(store, "router", router);
+        ReflectionTestUtils.setField(store, "courseService", courseService);
+        ReflectionTestUtils.setField(store, "studentMapper", studentMapper);
+        ReflectionTestUtils.setField(store, "gradeArchiveService", archiveService);
+        ReflectionTestUtils.setField(store, "dataSource", primary);
+        ReflectionTestUtils.setField(store, "gradeQueryExecutor", executor);
+        ReflectionTestUtils.setField(store, "maxWindow", 10_000);
+        store.syncStudentKeys();
+
+        Random random = new Random(11);
+        List<String> ids = new ArrayList<>(students.stream().map(Student::getStudentId).toList());
+        ids.add(DELETED_STUDENT);
+        for (String studentId : ids) {
+            for (long course = 1; course <= UNLISTED_COURSE; course++) {
+                for (String semester : SEMESTERS) {
+                    if (random.nextInt(3) == 0) hot.add(store.insert(grade(studentId, course, semester, random)));
+                }
+                if (random.nextInt(3) == 0) {
+                    Grade g = grade(studentId, course, ARCHIVED_SEMESTER, random);
+                    g.setId(-(long) archived.size() - 1);
+                    GradeShardDatabases.insert(primary, "t_grade_archive", g);
+                    archived.add(g);
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        router.close();
+        GradeShardDatabases.close(primary);
+        GradeShardDatabases.close(shards);
+    }
+
+    @Test
+    void insertsLandOnTheStudentsShard() {
+        for (int i = 0; i < shards.length; i++) {
+            int shard = i;
+            assertThat(GradeShardDatabases.rows(shards[i], "t_grade"))
+                    .allSatisfy(g -> assertThat(GradeShardRouter.shardIndex(g.getStudentId(), shards.length)).isEqualTo(shard));
+        }
+        assertThat(Stream.of(shards).mapToInt(s -> GradeShardDatabases.rows(s, "t_grade").size()).sum()).isEqualTo(hot.size());
+    }
+
+    @Test
+    void everyPageMatchesTheGlobalOrder() {
+        assertPages(new StudentQueryReq(), 23, g -> true);
+    }
+
+    @Test
+    void conditionsMatchAcrossShardsAndArchive() {
+        StudentQueryReq byStudent = new StudentQueryReq();
+        byStudent.setStudentId("2023000007");
+        assertPages(byStudent, 50, g -> g.getStudentId().equals("2023000007"));
+
+        StudentQueryReq bySemester = new StudentQueryReq();
+        bySemester.setSemesterFrom(ARCHIVED_SEMESTER);
+        bySemester.setSemesterTo("2024S");
+        assertPages(bySemester, 50, g -> g.getSemester().compareTo("2024S") <= 0);
+
+        StudentQueryReq byCourse = new StudentQueryReq();
+        byCourse.setCourseName("课程3");
+        byCourse.setStudentIdFrom("2023000010");
+        byCourse.setStudentIdTo("2023000030");
+        assertPages(byCourse, 50, g -> g.getCourseId() == 3
+                && g.getStudentId().compareTo("2023000010") >= 0 && g.getStudentId().compareTo("2023000030") < 0);
+    }
+
+    @Test
+    void pagesBeyondTheWindowAreRejected() {
+        ReflectionTestUtils.setField(store, "maxWindow", 50);
+        assertThat(store.queryAllGrade(param(new StudentQueryReq(), 5, 10)).getRecords()).hasSize(10);
+        BusinessException e = assertThrows(BusinessException.class,
+                () -> store.queryAllGrade(param(new StudentQueryReq(), 6, 10)));
+        assertThat(e.getCode()).isEqualTo(400);
+    }
+
+    @Test
+    void streamOrderByStudentMergesShardsAndArchive() {
+        List<Grade> streamed;
+        try (Stream<Grade> rows = store.streamOrderByStudent()) {
+            streamed = rows.toList();
+        }
+        assertThat(streamed).extracting(Grade::getId)
+                .containsExactlyInAnyOrderElementsOf(Stream.concat(hot.stream(), archived.stream()).map(Grade::getId).toList());
+        assertThat(streamed).isSortedAccordingTo(Comparator.comparing(Grade::getStudentId).thenComparing(Grade::getSemester));
+        assertThat(store.countAll()).isEqualTo(hot.size() + archived.size());
+
+        List<Grade> scanned = new ArrayList<>();
+        store.scan("2023000010", "2023000020", scanned::add);
+        assertThat(scanned).extracting(Grade::getId).containsExactlyInAnyOrderElementsOf(
+                Stream.concat(hot.stream(), archived.stream())
+                        .filter(g -> g.getStudentId().compareTo("2023000010") >= 0 && g.getStudentId().compareTo("2023000020") < 0)
+                        .map(Grade::getId).toList());
+    }
+
+    /**
+     * 再平衡尚未搬走的行：所属分片上没有，写入落到仍持有它的来源分片
+     */
+    @Test
+    void writesFallBackToTheShardStillHoldingTheRow() {
+        Grade g = hot.get(0);
+        int home = GradeShardRouter.shardIndex(g.getStudentId(), shards.length);
+        HikariDataSource source = shards[(home + 1) % shards.length];
+        GradeShardDatabases.direct(shards[home]).update("DELETE FROM t_grade WHERE id = ?", g.getId());
+        GradeShardDatabases.insert(source, "t_grade", g);
+
+        store.updateScore(g, new BigDecimal("88.5"), "tester");
+        assertThat(GradeShardDatabases.rows(source, "t_grade")).filteredOn(r -> r.getId().equals(g.getId()))
+                .singleElement()
+                .satisfies(r -> assertThat(r.getScore()).isEqualByComparingTo("88.5"));
+        assertThat(store.findById(g.getId()).getUpdatedBy()).isEqualTo("tester");
+
+        store.delete(g);
+        assertThat(store.findById(g.getId())).isNull();
+    }
+
+    @Test
+    void writesToAMissingRowFailWith409() {
+        Grade g = hot.get(1);
+        store.delete(g);
+        BusinessException update = assertThrows(BusinessException.class,
+                () -> store.updateScore(g, BigDecimal.TEN, "tester"));
+        assertThat(update.getCode()).isEqualTo(409);
+        assertThat(assertThrows(BusinessException.class, () -> store.delete(g)).getCode()).isEqualTo(409);
+    }
+
+    /**
+     * 逐页读到空页为止，拼接结果与每页的 total 都与期望一致
+     */
+    private void assertPages(StudentQueryReq req, int pageSize, Predicate<Grade> condition) {
+        List<String> expected = expected(condition);
+        List<String> actual = new ArrayList<>();
+        for (int page = 1; ; page++) {
+            IPage<StudentGradeVO> result = store.queryAllGrade(param(req, page, pageSize));
+            assertThat(result.getTotal()).isEqualTo(expected.size());
+            if (result.getRecords().isEmpty()) break;
+            result.getRecords().forEach(vo -> actual.add(key(vo)));
+        }
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    /**
+     * 全部成绩排除已删除学生与目录外课程后，按学期倒序、学号、课程目录顺序排列
+     */
+    private List<String> expected(Predicate<Grade> condition) {
+        Map<Long, Integer> rank = new HashMap<>();
+        List<Course> order = catalog.list(null, null);
+        for (int i = 0; i < order.size(); i++) {
+            rank.put(order.get(i).getId(), i);
+        }
+        return Stream.concat(hot.stream(), archived.stream())
+                .filter(g -> !g.getStudentId().equals(DELETED_STUDENT) && rank.containsKey(g.getCourseId()))
+                .filter(condition)
+                .sorted(Comparator.comparing(Grade::getSemester, Comparator.reverseOrder())
+                        .thenComparing(Grade::getStudentId)
+                        .thenComparing(g -> rank.get(g.getCourseId())))
+                .map(g -> g.getStudentId() + "/" + g.getSemester() + "/" + catalog.byId(g.getCourseId()).orElseThrow().getCourseCode()
+                        + "/" + (g.getScore() == null ? null : g.getScore().doubleValue()))
+                .toList();
+    }
+
+    private static String key(StudentGradeVO vo) {
+        return vo.getStudentId() + "/" + vo.getSemester() + "/" + vo.getCourseCode() + "/" + vo.getScore();
+    }
+
+    private static PageQueryParam<StudentQueryReq> param(StudentQueryReq req, int pageNum, int pageSize) {
+        PageQueryParam<StudentQueryReq> param = new PageQueryParam<>();
+        param.setCondition(req);
+        param.setPageNum(pageNum);
+        param.setPageSize(pageSize);
+        return param;
+    }
+
+    private static Grade grade(String studentId, long courseId, String semester, Random random) {
+        Grade g = new Grade();
+        g.setStudentId(studentId);
+        g.setCourseId(courseId);
+        g.setSemester(semester);
+        g.setScore(random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(1001), 1));
+        g.setCreatedAt(LocalDateTime.of(2024, 9, 1, 8, 0));
+        g.setUpdatedAt(LocalDateTime.of(2024, 9, 1, 8, 0));
+        g.setCreatedBy("admin");
+        g.setUpdatedBy("admin");
+        return g;
+    }
+}
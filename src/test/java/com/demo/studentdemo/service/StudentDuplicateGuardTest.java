@@ -0,0 +1,40 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StudentDuplicateGuardTest {
+
+    @Test
+    void readCsvReportsPhysicalLineNumbers() throws IOException {
+        String csv = "\uFEFFname,\"student_id\",身份证号\r\n"
+                + "张三,S001,11010119900101001X\r\n"
+                + "\r\n"
+                + "   \n"
+                + "李四,S002,110101199001010028\n"
+                + "王五,S003\n";
+        StudentDuplicateGuard.CsvRows rows = StudentDuplicateGuard.readCsv(stream(csv), 10);
+
+        assertThat(rows.rows()).extracting(Student::getStudentId).containsExactly("S001", "S002", "S003");
+        assertThat(rows.rows()).extracting(Student::getIdCard).containsExactly("11010119900101001X", "110101199001010028", null);
+        assertThat(rows.lineNumbers()).containsExactly(2, 5, 6);
+    }
+
+    @Test
+    void readCsvRejectsMissingColumnsAndTooManyRows() {
+        assertThrows(BusinessException.class, () -> StudentDuplicateGuard.readCsv(stream("name,学号\n张三,S001\n"), 10));
+        assertThrows(BusinessException.class, () -> StudentDuplicateGuard.readCsv(stream("学号,身份证号\na,1\nb,2\n"), 1));
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
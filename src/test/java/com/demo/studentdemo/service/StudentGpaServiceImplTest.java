@@ -0,0 +1,116 @@
+package com.demo.studentdemo.service;
+
+import com.demo.studentdemo.entity.Course;
+import com.demo.studentdemo.entity.Grade;
+import com.demo.studentdemo.entity.StudentGpa;
+import com.demo.studentdemo.mapper.StudentGpaMapper;
+import com.demo.studentdemo.service.impl.StudentGpaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 绩点重算读取在线表与归档表两路有序游标并归并：结果与按全部成绩暴力计算一致
+ */
+class StudentGpaServiceImplTest {
+
+    private static final int COURSES = 6;
+
+    private final FakeGradeDb db = new FakeGradeDb(5, 120, COURSES);
+    private final List<StudentGpa> written = Collections.synchronizedList(new ArrayList<>());
+    private StudentGpaServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        List<Course> courses = LongStream.rangeClosed(1, COURSES).mapToObj(id -> {
+            Course c = new Course();
+            c.setId(id);
+            c.setCourseCode("C" + id);
+            c.setCredit((byte) (1 + id % 4));
+            return c;
+        }).toList();
+        ICourseService courseService = mock(ICourseService.class);
+        when(courseService.catalog()).thenReturn(new CourseCatalog(1, "v1", courses));
+        StudentGpaMapper gpaMapper = mock(StudentGpaMapper.class);
+        when(gpaMapper.upsertBatch(anyList())).thenAnswer(a -> {
+            List<StudentGpa> rows = a.getArgument(0);
+            written.addAll(rows);
+            return rows.size();
+        });
+
+        service = new StudentGpaServiceImpl();
+        ReflectionTestUtils.setField(service, "sqlSessionFactory", db.sqlSessionFactory());
+        ReflectionTestUtils.setField(service, "courseService", courseService);
+        ReflectionTestUtils.setField(service, "baseMapper", gpaMapper);
+    }
+
+    @Test
+    void hotAndArchivedGradesAreMergedPerStudentAndSemester() throws InterruptedException {
+        for (int i = 0; i < 3000; i++) {
+            db.mutateGrade();
+        }
+        // 约一半成绩已归档，同一学生同一学期的成绩分布在两张表中
+        for (Long id : new ArrayList<>(db.grades.keySet())) {
+            if (db.random.nextBoolean()) db.archive(id);
+        }
+        // 归档在两路游标打开之间提交：同一行在两张表中各出现一次
+        List<Long> hotIds = new ArrayList<>(db.grades.keySet());
+        for (int i = 0; i < 50; i++) {
+            Long id = hotIds.get(db.random.nextInt(hotIds.size()));
+            db.archived.put(id, FakeGradeDb.copy(db.grades.get(id)));
+        }
+
+        service.recompute(null);
+
+        Map<String, StudentGpa> actual = written.stream()
+                .collect(Collectors.toMap(g -> g.getStudentId() + "/" + g.getSemester(), g -> g, (a, b) -> {
+                    throw new AssertionError("重复写入 " + a.getStudentId() + "/" + a.getSemester());
+                }, TreeMap::new));
+        Map<String, StudentGpa> expected = expected();
+        assertThat(actual).containsOnlyKeys(expected.keySet());
+        expected.forEach((key, gpa) -> assertThat(actual.get(key)).as(key)
+                .usingRecursiveComparison().ignoringFields("updatedAt").isEqualTo(gpa));
+    }
+
+    private Map<String, StudentGpa> expected() {
+        Map<Long, Grade> all = new TreeMap<>(db.archived);
+        all.putAll(db.grades);
+        Map<String, List<Grade>> bySemester = all.values().stream()
+                .filter(g -> g.getScore() != null)
+                .collect(Collectors.groupingBy(g -> g.getStudentId() + "/" + g.getSemester()));
+        Map<String, StudentGpa> expected = new TreeMap<>();
+        bySemester.forEach((key, grades) -> {
+            long points = 0;
+            int credits = 0;
+            for (Grade g : grades) {
+                int credit = (int) (1 + g.getCourseId() % 4);
+                int s = g.getScore().intValue();
+                points += (long) (s >= 90 ? 4 : s >= 80 ? 3 : s >= 70 ? 2 : s >= 60 ? 1 : 0) * credit;
+                credits += credit;
+            }
+            StudentGpa gpa = new StudentGpa();
+            gpa.setStudentId(grades.get(0).getStudentId());
+            gpa.setSemester(grades.get(0).getSemester());
+            gpa.setGpa(BigDecimal.valueOf(points).divide(BigDecimal.valueOf(credits), 2, RoundingMode.HALF_UP));
+            gpa.setTotalCredits(credits);
+            gpa.setCourseCount(grades.size());
+            expected.put(key, gpa);
+        });
+        return expected;
+    }
+}
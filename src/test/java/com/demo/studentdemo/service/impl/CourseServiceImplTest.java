@@ -0,0 +1,98 @@
+package com.demo.studentdemo.service.impl;
+
+import com.demo.studentdemo.entity.Course;
+import com.demo.studentdemo.mapper.CourseMapper;
+import com.demo.studentdemo.service.CourseCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 课程目录加载经 SingleFlight 合并：并发首读只加载一次，写入后的重载不复用写入前开始的加载
+ */
+class CourseServiceImplTest {
+
+    private final CourseMapper courseMapper = mock(CourseMapper.class);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+    private CourseServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        // 第一次加载停在查询上，之后的加载直接返回
+        when(courseMapper.selectList(any())).thenAnswer(a -> {
+            int n = loads.incrementAndGet();
+            if (n == 1) {
+                loading.countDown();
+                release.await();
+            }
+            return List.of(course(n));
+        });
+        service = new CourseServiceImpl(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "baseMapper", courseMapper);
+        ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentFirstReadsLoadOnce() throws Exception {
+        List<Future<CourseCatalog>> reads = IntStream.range(0, 4)
+                .mapToObj(i -> callers.submit(service::catalog))
+                .toList();
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(50);
+        release.countDown();
+
+        for (Future<CourseCatalog> read : reads) {
+            assertThat(read.get(5, TimeUnit.SECONDS).getVersion()).isEqualTo(1L);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void reloadAfterWriteDoesNotJoinAnEarlierLoad() throws Exception {
+        Future<CourseCatalog> firstRead = callers.submit(service::catalog);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 写入后的重载等首次加载结束（重载监视器），但不复用它的结果
+        Future<CourseCatalog> reload = callers.submit(service::reloadCatalog);
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(reload.get(5, TimeUnit.SECONDS).byCode("C00002")).isPresent();
+        assertThat(firstRead.get(5, TimeUnit.SECONDS).byCode("C00001")).isPresent();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private static Course course(int n) {
+        Course course = new Course();
+        course.setId((long) n);
+        course.setCourseCode(String.format("C%05d", n));
+        course.setCourseName("课程" + n);
+        return course;
+    }
+}
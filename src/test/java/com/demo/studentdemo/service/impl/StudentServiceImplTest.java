@@ -0,0 +1,69 @@
+package com.demo.studentdemo.service.impl;
+
+import com.demo.studentdemo.entity.Student;
+import com.demo.studentdemo.event.CourseCatalogChangedEvent;
+import com.demo.studentdemo.event.GradeChangedEvent;
+import com.demo.studentdemo.event.StudentChangedEvent;
+import com.demo.studentdemo.mapper.StudentMapper;
+import com.demo.studentdemo.service.GradeArchiveService;
+import com.demo.studentdemo.vo.PageQueryParam;
+import com.demo.studentdemo.vo.StudentQueryReq;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 成绩查询微缓存随联表涉及的任一数据变更失效
+ */
+class StudentServiceImplTest {
+
+    private final StudentMapper studentMapper = mock(StudentMapper.class);
+    private final StaticApplicationContext context = new StaticApplicationContext();
+    private StudentServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(studentMapper.queryAllGrade(any(), any(), any())).thenAnswer(a -> a.getArgument(0));
+        service = new StudentServiceImpl(new SimpleMeterRegistry(), 60_000, 100);
+        ReflectionTestUtils.setField(service, "baseMapper", studentMapper);
+        ReflectionTestUtils.setField(service, "gradeArchiveService", mock(GradeArchiveService.class));
+        AnnotationConfigUtils.registerAnnotationConfigProcessors(context);
+        context.getBeanFactory().registerSingleton("studentService", service);
+        context.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"grade", "student", "catalog"})
+    void microCacheIsDroppedWhenJoinedDataChanges(String changed) {
+        PageQueryParam<StudentQueryReq> param = new PageQueryParam<>();
+        service.queryAllGrade(param);
+        service.queryAllGrade(param);
+        verify(studentMapper, times(1)).queryAllGrade(any(), any(), any());
+
+        ApplicationEventPublisher publisher = context;
+        publisher.publishEvent(switch (changed) {
+            case "grade" -> new GradeChangedEvent(null, null);
+            case "student" -> new StudentChangedEvent(1L, null, new Student());
+            default -> new CourseCatalogChangedEvent(null, null);
+        });
+        service.queryAllGrade(param);
+        verify(studentMapper, times(2)).queryAllGrade(any(), any(), any());
+    }
+}
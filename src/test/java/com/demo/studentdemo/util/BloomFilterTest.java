@@ -0,0 +1,66 @@
+package com.demo.studentdemo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BloomFilterTest {
+
+    private static final int KEYS = 200_000;
+    private static final double FPP = 0.001;
+
+    @Test
+    void falsePositiveRateStaysNearTargetWithoutFalseNegatives() {
+        BloomFilter filter = new BloomFilter(KEYS, FPP);
+        for (int i = 0; i < KEYS; i++) {
+            filter.put(studentId(i));
+        }
+        for (int i = 0; i < KEYS; i++) {
+            assertThat(filter.mightContain(studentId(i))).isTrue();
+        }
+        // 与已加入的键格式相同、但从未加入的学号
+        int falsePositives = 0;
+        for (int i = KEYS; i < 2 * KEYS; i++) {
+            if (filter.mightContain(studentId(i))) falsePositives++;
+        }
+        double measured = (double) falsePositives / KEYS;
+        assertThat(measured).isLessThan(FPP * 1.5);
+        assertThat(filter.getExpectedFpp()).isBetween(FPP * 0.8, FPP * 1.2);
+        assertThat(filter.getHashCount()).isEqualTo(10);
+        assertThat(filter.getSizeInBytes()).isLessThan(360 * 1024);
+    }
+
+    @Test
+    void concurrentPutsDoNotLoseBits() {
+        BloomFilter filter = new BloomFilter(KEYS, FPP);
+        CompletableFuture.allOf(IntStream.range(0, 8)
+                .mapToObj(t -> CompletableFuture.runAsync(() -> {
+                    for (int i = t; i < KEYS; i += 8) {
+                        filter.put(studentId(i));
+                    }
+                }))
+                .toArray(CompletableFuture[]::new)).join();
+        assertThat(filter.getInsertions()).isEqualTo(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            assertThat(filter.mightContain(studentId(i))).isTrue();
+        }
+    }
+
+    @Test
+    void rejectsInvalidFppAndIgnoresNull() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+        BloomFilter filter = new BloomFilter(10, 0.01);
+        filter.put(null);
+        assertThat(filter.getInsertions()).isZero();
+        assertThat(filter.mightContain(null)).isFalse();
+    }
+
+    private static String studentId(int i) {
+        return String.format("2024%08d", i);
+    }
+}
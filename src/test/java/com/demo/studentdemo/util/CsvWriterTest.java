@@ -0,0 +1,89 @@
+package com.demo.studentdemo.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWriterTest {
+
+    @Test
+    void startsWithBomAndEndsRowsWithCrLf() throws IOException {
+        assertThat(write(List.of("学号", "姓名"), List.of("2023000001", "张三")))
+                .isEqualTo("\uFEFF学号,姓名\r\n2023000001,张三\r\n");
+    }
+
+    @ParameterizedTest(name = "[{0}]")
+    @CsvSource(delimiter = '|', quoteCharacter = '`', value = {
+            "plain          | plain",
+            "a,b            | \"a,b\"",
+            "say \"hi\"     | \"say \"\"hi\"\"\"",
+            "\"             | \"\"\"\"",
+            "`line1\nline2` | `\"line1\nline2\"`",
+            "`cr\rlf`       | `\"cr\rlf\"`",
+    })
+    void quotesFieldsThatNeedIt(String value, String expected) throws IOException {
+        assertThat(cell(value)).isEqualTo(expected);
+    }
+
+    /**
+     * 以 = + - @ 开头的文本会被 Excel 当作公式，前置单引号后按文本显示
+     */
+    @ParameterizedTest(name = "[{0}]")
+    @CsvSource(delimiter = '|', quoteCharacter = '`', value = {
+            "=1+1                        | '=1+1",
+            "+86 138                     | '+86 138",
+            "-2                          | '-2",
+            "@SUM(A1:A2)                 | '@SUM(A1:A2)",
+            "`\tTAB`                     | `'\tTAB`",
+            "`=HYPERLINK(\"x\",\"y\")`   | `\"'=HYPERLINK(\"\"x\"\",\"\"y\"\")\"`",
+            "=A1,B1                      | \"'=A1,B1\"",
+            "a=b                         | a=b",
+    })
+    void neutralisesFormulaTriggers(String value, String expected) throws IOException {
+        assertThat(cell(value)).isEqualTo(expected);
+    }
+
+    @Test
+    void numbersAndNullsAreWrittenAsIs() throws IOException {
+        assertThat(write(Arrays.asList(-5, new BigDecimal("-0.5"), null, "")))
+                .isEqualTo("\uFEFF-5,-0.5,,\r\n");
+    }
+
+    @Test
+    void countsRowsAndLeavesTheStreamOpen() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvWriter writer = new CsvWriter(out);
+        writer.writeRow(List.of("a"));
+        writer.writeRow(List.of("b"));
+        writer.close();
+        out.write('x');
+
+        assertThat(writer.getRowCount()).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("b\r\nx");
+    }
+
+    private static String cell(String value) throws IOException {
+        String csv = write(List.of(value));
+        return csv.substring(1, csv.length() - 2);
+    }
+
+    @SafeVarargs
+    private static String write(List<?>... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvWriter writer = new CsvWriter(out);
+        for (List<?> row : rows) {
+            writer.writeRow(row);
+        }
+        writer.close();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
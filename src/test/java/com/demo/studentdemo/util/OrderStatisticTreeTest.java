@@ -0,0 +1,62 @@
+package com.demo.studentdemo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderStatisticTreeTest {
+
+    @Test
+    void addRemoveReportMembership() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        assertThat(tree.add(5)).isTrue();
+        assertThat(tree.add(5)).isFalse();
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.remove(7)).isFalse();
+        assertThat(tree.remove(5)).isTrue();
+        assertThat(tree.size()).isZero();
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(0));
+    }
+
+    @Test
+    void matchesSortedSetUnderRandomOperations() {
+        Random random = new Random(7);
+        Comparator<Integer> order = Comparator.<Integer>reverseOrder();
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(order);
+        TreeSet<Integer> model = new TreeSet<>(order);
+        for (int op = 0; op < 20000; op++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                assertThat(tree.remove(key)).isEqualTo(model.remove(key));
+            } else {
+                assertThat(tree.add(key)).isEqualTo(model.add(key));
+            }
+            if (op % 500 == 0) {
+                assertSameContents(tree, model, random);
+            }
+        }
+        assertSameContents(tree, model, random);
+    }
+
+    private static void assertSameContents(OrderStatisticTree<Integer> tree, TreeSet<Integer> model, Random random) {
+        List<Integer> expected = new ArrayList<>(model);
+        assertThat(tree.size()).isEqualTo(expected.size());
+        assertThat(tree.head(Integer.MAX_VALUE)).isEqualTo(expected);
+        assertThat(tree.head(10)).isEqualTo(expected.subList(0, Math.min(10, expected.size())));
+        for (int i = 0; i < expected.size(); i += 37) {
+            assertThat(tree.get(i)).isEqualTo(expected.get(i));
+        }
+        for (int i = 0; i < 50; i++) {
+            int probe = random.nextInt(2100) - 50;
+            assertThat(tree.countBefore(probe)).isEqualTo(model.headSet(probe, false).size());
+            assertThat(tree.contains(probe)).isEqualTo(model.contains(probe));
+        }
+    }
+}
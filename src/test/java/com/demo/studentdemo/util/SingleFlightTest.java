@@ -0,0 +1,114 @@
+package com.demo.studentdemo.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight<String, Integer> flight = new SingleFlight<>("test.singleflight", registry, 60_000, 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void concurrentCallersShareOneExecutionAndResultIsCached() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> flight.execute("k", () -> {
+            started.countDown();
+            await(release);
+            return loads.incrementAndGet();
+        }));
+        started.await();
+        CompletableFuture<Integer> follower = CompletableFuture.supplyAsync(() -> flight.execute("k", loads::incrementAndGet));
+        waitUntil(() -> registry.counter("test.singleflight", "outcome", "coalesced").count() == 1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(flight.execute("k", loads::incrementAndGet)).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+        assertThat(registry.counter("test.singleflight", "outcome", "cached").count()).isEqualTo(1);
+    }
+
+    @Test
+    void flightStartedBeforeInvalidationIsNeitherJoinedNorCached() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> stale = CompletableFuture.supplyAsync(() -> flight.execute("k", () -> {
+            started.countDown();
+            await(release);
+            return -1;
+        }));
+        started.await();
+        flight.invalidateAll();
+
+        // 失效之后到达的调用者发起新的执行，而不是等待旧的执行
+        assertThat(flight.execute("k", loads::incrementAndGet)).isEqualTo(1);
+        release.countDown();
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo(-1);
+
+        // 旧执行结束时不覆盖缓存
+        assertThat(flight.execute("k", loads::incrementAndGet)).isEqualTo(1);
+        flight.invalidateAll();
+        assertThat(flight.execute("k", loads::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void interruptedFollowerStopsWaitingAndKeepsFlag() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> flight.execute("k", () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        started.await();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicBoolean flagAfter = new AtomicBoolean();
+        Thread follower = new Thread(() -> {
+            try {
+                flight.execute("k", loads::incrementAndGet);
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+            flagAfter.set(Thread.currentThread().isInterrupted());
+        });
+        follower.start();
+        waitUntil(() -> follower.getState() == Thread.State.WAITING);
+        follower.interrupt();
+        follower.join(5000);
+
+        assertThat(follower.isAlive()).isFalse();
+        assertThat(failure.get()).isInstanceOf(IllegalStateException.class).hasCauseInstanceOf(InterruptedException.class);
+        assertThat(flagAfter).isTrue();
+        assertThat(loads).hasValue(0);
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
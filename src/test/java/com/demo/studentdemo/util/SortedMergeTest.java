@@ -0,0 +1,87 @@
+package com.demo.studentdemo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SortedMergeTest {
+
+    @Test
+    void mergesSortedSourcesIntoOneSortedStream() {
+        Random random = new Random(3);
+        List<List<Integer>> sources = IntStream.range(0, 5)
+                .mapToObj(i -> random.ints(random.nextInt(200), 0, 100).sorted().boxed().toList())
+                .toList();
+        List<Integer> expected = sources.stream().flatMap(List::stream).sorted().toList();
+
+        assertThat(drain(SortedMerge.merge(sources.stream().map(List::iterator).toList(), Comparator.naturalOrder())))
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void equalKeysKeepSourceOrder() {
+        record Row(String key, String source) {
+        }
+        List<Iterator<Row>> sources = List.of(
+                List.of(new Row("a", "hot"), new Row("b", "hot")).iterator(),
+                List.of(new Row("a", "archive"), new Row("c", "archive")).iterator());
+
+        assertThat(drain(SortedMerge.merge(sources, Comparator.comparing(Row::key))))
+                .extracting(Row::source)
+                .containsExactly("hot", "archive", "hot", "archive");
+    }
+
+    @Test
+    void readsOnlyOneRowAheadPerSource() {
+        CountingIterator a = new CountingIterator(List.of(1, 3, 5, 7));
+        CountingIterator b = new CountingIterator(List.of(2, 4, 6, 8));
+        Iterator<Integer> merged = SortedMerge.merge(List.of(a, b), Comparator.naturalOrder());
+
+        assertThat(merged.next()).isEqualTo(1);
+        assertThat(merged.next()).isEqualTo(2);
+        assertThat(a.read + b.read).isEqualTo(4);
+    }
+
+    @Test
+    void emptySources() {
+        Iterator<Integer> merged = SortedMerge.merge(List.of(List.<Integer>of().iterator()), Comparator.naturalOrder());
+        assertThat(merged.hasNext()).isFalse();
+        assertThrows(NoSuchElementException.class, merged::next);
+        assertThat(SortedMerge.merge(List.<Iterator<Integer>>of(), Comparator.naturalOrder()).hasNext()).isFalse();
+    }
+
+    private static <T> List<T> drain(Iterator<T> it) {
+        List<T> out = new ArrayList<>();
+        it.forEachRemaining(out::add);
+        return out;
+    }
+
+    private static final class CountingIterator implements Iterator<Integer> {
+        private final Iterator<Integer> delegate;
+        private int read;
+
+        private CountingIterator(List<Integer> values) {
+            this.delegate = values.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Integer next() {
+            read++;
+            return delegate.next();
+        }
+    }
+}
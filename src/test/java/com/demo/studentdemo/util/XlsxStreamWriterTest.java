@@ -0,0 +1,97 @@
+package com.demo.studentdemo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XlsxStreamWriterTest {
+
+    private static final Pattern ROW = Pattern.compile("<row>(.*?)</row>");
+    private static final Pattern TEXT = Pattern.compile("<t>(.*?)</t>|<v>(.*?)</v>");
+
+    @Test
+    void rollsOverToANewSheetAtTheRowLimitRepeatingTheHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XlsxStreamWriter writer = new XlsxStreamWriter(out, "成绩", 3);
+        writer.writeRow(List.of("学号", "成绩"));
+        for (int i = 1; i <= 5; i++) {
+            writer.writeRow(List.of("S" + i, i));
+        }
+        writer.close();
+
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertThat(writer.getRowCount()).isEqualTo(6);
+        assertThat(rows(entries.get("xl/worksheets/sheet1.xml")))
+                .containsExactly(List.of("学号", "成绩"), List.of("S1", "1"), List.of("S2", "2"));
+        assertThat(rows(entries.get("xl/worksheets/sheet2.xml")))
+                .containsExactly(List.of("学号", "成绩"), List.of("S3", "3"), List.of("S4", "4"));
+        assertThat(rows(entries.get("xl/worksheets/sheet3.xml")))
+                .containsExactly(List.of("学号", "成绩"), List.of("S5", "5"));
+        assertThat(entries).doesNotContainKey("xl/worksheets/sheet4.xml");
+        assertThat(entries.get("xl/workbook.xml"))
+                .contains("name=\"成绩-1\"", "name=\"成绩-2\"", "name=\"成绩-3\"");
+        assertThat(entries.get("[Content_Types].xml")).contains("/xl/worksheets/sheet3.xml");
+        assertThat(entries.get("xl/_rels/workbook.xml.rels")).contains("Target=\"worksheets/sheet3.xml\"");
+    }
+
+    @Test
+    void exactlyFullSheetDoesNotStartAnEmptyOne() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XlsxStreamWriter writer = new XlsxStreamWriter(out, "成绩", 3);
+        writer.writeRow(List.of("学号"));
+        writer.writeRow(List.of("S1"));
+        writer.writeRow(List.of("S2"));
+        writer.close();
+
+        Map<String, String> entries = unzip(out.toByteArray());
+        assertThat(entries).containsKey("xl/worksheets/sheet1.xml").doesNotContainKey("xl/worksheets/sheet2.xml");
+        assertThat(entries.get("xl/workbook.xml")).contains("name=\"成绩\"");
+    }
+
+    @Test
+    void escapesMarkupAndDropsInvalidControlCharacters() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XlsxStreamWriter writer = new XlsxStreamWriter(out, "成绩");
+        writer.writeRow(List.of("a", "b", "c"));
+        writer.writeRow(Arrays.asList("<a & \"b\">", "x\u0001y", null));
+        writer.close();
+
+        String sheet = unzip(out.toByteArray()).get("xl/worksheets/sheet1.xml");
+        assertThat(sheet).contains("<t>&lt;a &amp; &quot;b&quot;&gt;</t>", "<t>xy</t>", "<c/>");
+    }
+
+    private static Map<String, String> unzip(byte[] xlsx) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(xlsx), StandardCharsets.UTF_8)) {
+            for (ZipEntry e = zip.getNextEntry(); e != null; e = zip.getNextEntry()) {
+                entries.put(e.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    private static List<List<String>> rows(String sheet) {
+        return ROW.matcher(sheet).results()
+                .map(row -> TEXT.matcher(row.group(1)).results()
+                        .map(XlsxStreamWriterTest::value)
+                        .toList())
+                .toList();
+    }
+
+    private static String value(MatchResult m) {
+        return m.group(1) != null ? m.group(1) : m.group(2);
+    }
+}
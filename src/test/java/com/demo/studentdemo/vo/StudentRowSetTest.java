@@ -0,0 +1,85 @@
+package com.demo.studentdemo.vo;
+
+import com.demo.studentdemo.entity.Student;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * StudentRowSet 按列手写了存储与序列化：Student 增删字段而 StudentRowSet 未同步时，这里的比较会失败
+ */
+class StudentRowSetTest {
+
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void serializesExactlyLikeStudentList() throws Exception {
+        List<Student> students = students();
+        assertThat(mapper.writeValueAsString(StudentRowSet.of(students)))
+                .isEqualTo(mapper.writeValueAsString(students));
+        assertThat(mapper.writeValueAsString(StudentRowSet.of(List.of()))).isEqualTo("[]");
+    }
+
+    @Test
+    void getRestoresEveryField() throws Exception {
+        List<Student> students = students();
+        StudentRowSet rows = StudentRowSet.of(students);
+        assertThat(rows).hasSameSizeAs(students);
+        for (int i = 0; i < students.size(); i++) {
+            for (Field f : fields()) {
+                assertThat(f.get(rows.get(i))).as(f.getName()).isEqualTo(f.get(students.get(i)));
+            }
+        }
+        assertThat(rows.getDictionarySize()).isEqualTo(4);
+    }
+
+    /**
+     * 一行全部字段有值（含微秒精度的时间），一行全部为 null，一行与第一行共用字典值
+     */
+    private static List<Student> students() throws Exception {
+        Student full = new Student();
+        Student shared = new Student();
+        for (Field f : fields()) {
+            f.set(full, sample(f, 1));
+            f.set(shared, sample(f, 2));
+        }
+        shared.setDeptName(full.getDeptName());
+        shared.setCreatedBy(full.getDeptName());
+        List<Student> students = new ArrayList<>();
+        students.add(full);
+        students.add(new Student());
+        students.add(shared);
+        return students;
+    }
+
+    private static Object sample(Field f, int n) {
+        Class<?> type = f.getType();
+        if (type == Long.class) return 1000L + n;
+        if (type == String.class) return f.getName() + "-" + n + " \"引号\"";
+        if (type == LocalDate.class) return LocalDate.of(2020 + n, 9, 1);
+        if (type == LocalDateTime.class) return LocalDateTime.of(2024, 3, n, 8, 30, 15, 123_456_000);
+        throw new AssertionError("Student 新增了 StudentRowSet 未处理的字段类型: " + f);
+    }
+
+    private static List<Field> fields() {
+        List<Field> fields = Arrays.stream(Student.class.getDeclaredFields())
+                .filter(f -> !Modifier.isStatic(f.getModifiers()))
+                .toList();
+        fields.forEach(f -> f.setAccessible(true));
+        return fields;
+    }
+}